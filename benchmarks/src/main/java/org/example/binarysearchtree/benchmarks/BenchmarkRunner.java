@@ -0,0 +1,35 @@
+package org.example.binarysearchtree.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * <code>BenchmarkRunner</code> is the entry point of the benchmarks jar. It accepts the usual JMH command line and
+ * adds the GC profiler when no profiler was chosen, so that every run reports the allocation rate next to
+ * throughput and latency.
+ *
+ * @author dawidK5
+ * @version %I%, %G%
+ */
+public class BenchmarkRunner {
+
+    /**
+     * Runs the benchmarks selected on the command line
+     * @param args          the JMH command line options, e.g. <code>LookupBenchmark -p size=1000000</code>
+     * @throws CommandLineOptionException   if the options cannot be parsed
+     * @throws RunnerException              if a benchmark fails
+     */
+    public static void main(String[] args) throws CommandLineOptionException, RunnerException {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        ChainedOptionsBuilder options = new OptionsBuilder().parent(commandLine);
+        if (commandLine.getProfilers().isEmpty()) {
+            options.addProfiler(GCProfiler.class);
+        }
+        new Runner(options.build()).run();
+    }
+}
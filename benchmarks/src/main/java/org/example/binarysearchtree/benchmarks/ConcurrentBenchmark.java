@@ -0,0 +1,127 @@
+package org.example.binarysearchtree.benchmarks;
+
+import org.example.binarysearchtree.BinarySearchTree;
+import org.example.binarysearchtree.ConcurrentBinarySearchTree;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <code>ConcurrentBenchmark</code> measures how the throughput of a mixed workload scales with the number of
+ * threads, comparing <code>ConcurrentBinarySearchTree</code> with a <code>BinarySearchTree</code> guarded by a single
+ * lock. Its <code>main</code> method runs the benchmark once for every power of two threads up to the number of
+ * available processors.
+ *
+ * @author dawidK5
+ * @version %I%, %G%
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ConcurrentBenchmark {
+
+    @Param({"1000000"})
+    public int size;
+
+    @Param({"10"})
+    public int writePercent; // share of operations that add or remove, split equally
+
+    @Param({"LOCK_FREE", "SINGLE_LOCK"})
+    public String implementation;
+
+    private ConcurrentBinarySearchTree<Integer> lockFreeTree; // tree for LOCK_FREE
+    private BinarySearchTree<Integer> lockedTree; // tree for SINGLE_LOCK, guarded by its own monitor
+
+    /**
+     * Fills the tree with every second value from 0 to 2 * size, in random order
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        int[] order = KeyDistribution.RANDOM.insertionOrder(size, new Random(42));
+        if ("LOCK_FREE".equals(implementation)) {
+            lockFreeTree = new ConcurrentBinarySearchTree<Integer>();
+            for (int rank : order) {
+                lockFreeTree.add(2 * rank);
+            }
+        } else {
+            lockedTree = new BinarySearchTree<Integer>();
+            for (int rank : order) {
+                lockedTree.add(2 * rank);
+            }
+        }
+    }
+
+    /**
+     * Performs one lookup, add or remove of a random value, so that the tree keeps about the same size
+     * @return              the result of the operation
+     */
+    @Benchmark
+    public boolean mixedWorkload() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Integer key = random.nextInt(2 * size);
+        int choice = random.nextInt(200);
+        if (lockFreeTree != null) {
+            if (choice < writePercent) {
+                return lockFreeTree.add(key);
+            } else if (choice < 2 * writePercent) {
+                return lockFreeTree.remove(key);
+            }
+            return lockFreeTree.contains(key);
+        }
+        synchronized (lockedTree) {
+            if (choice < writePercent) {
+                return lockedTree.add(key);
+            } else if (choice < 2 * writePercent) {
+                return lockedTree.remove(key);
+            }
+            return lockedTree.contains(key);
+        }
+    }
+
+    /**
+     * Runs the benchmark with 1, 2, 4 and more threads below the number of available processors, then once with
+     * all of them
+     * @param args          unused
+     * @throws RunnerException  if a benchmark fails
+     */
+    public static void main(String[] args) throws RunnerException {
+        int processors = Runtime.getRuntime().availableProcessors();
+        for (int threads = 1; threads < processors; threads *= 2) {
+            run(threads);
+        }
+        run(processors);
+    }
+
+    /**
+     * Helper method which runs the benchmark once with the number of threads given
+     * @param threads       the number of threads calling the tree
+     * @throws RunnerException  if a benchmark fails
+     */
+    private static void run(int threads) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ConcurrentBenchmark.class.getSimpleName())
+                .threads(threads)
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
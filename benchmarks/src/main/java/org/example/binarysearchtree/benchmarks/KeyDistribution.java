@@ -0,0 +1,169 @@
+package org.example.binarysearchtree.benchmarks;
+
+import java.util.Random;
+
+/**
+ * <code>KeyDistribution</code> describes the order in which keys are added to a benchmarked tree and the keys that
+ * lookups ask for. Keys are given as ranks from 0 to size - 1, which <code>KeyType</code> turns into values in the
+ * same order.
+ *
+ * @author dawidK5
+ * @version %I%, %G%
+ */
+public enum KeyDistribution {
+    /**
+     * Keys are added in a random order and looked up uniformly
+     */
+    RANDOM,
+    /**
+     * Keys are added in ascending order, like IDs or timestamps, and looked up uniformly
+     */
+    SORTED,
+    /**
+     * Keys are added in descending order and looked up uniformly
+     */
+    REVERSE,
+    /**
+     * Keys are added in a random order and looked up with a Zipfian skew, so that a few hot keys get most lookups
+     */
+    ZIPFIAN,
+    /**
+     * Keys are added in ascending runs of <code>CLUSTER_SIZE</code> starting at random places, like batches of
+     * sequential IDs coming from several sources, and looked up uniformly
+     */
+    CLUSTERED;
+
+    private static final int CLUSTER_SIZE = 256; // length of a run of sequential keys in CLUSTERED
+    private static final double ZIPF_THETA = 0.99; // skew of ZIPFIAN lookups, the same as in YCSB
+
+    /**
+     * Returns the ranks of all keys in the order in which they are added to the tree
+     * @param size          the number of keys
+     * @param random        the source of randomness
+     * @return              a permutation of the ranks from 0 to size - 1
+     */
+    public int[] insertionOrder(int size, Random random) {
+        int[] order = new int[size];
+        switch (this) {
+            case SORTED:
+                for (int i = 0; i < size; i++) {
+                    order[i] = i;
+                }
+                break;
+            case REVERSE:
+                for (int i = 0; i < size; i++) {
+                    order[i] = size - 1 - i;
+                }
+                break;
+            case CLUSTERED:
+                int[] runStarts = shuffledRanks((size + CLUSTER_SIZE - 1) / CLUSTER_SIZE, random);
+                int i = 0;
+                for (int run : runStarts) {
+                    for (int rank = run * CLUSTER_SIZE; rank < Math.min(size, (run + 1) * CLUSTER_SIZE); rank++) {
+                        order[i++] = rank;
+                    }
+                }
+                break;
+            default:
+                order = shuffledRanks(size, random);
+        }
+        return order;
+    }
+
+    /**
+     * Returns the ranks of keys to be looked up
+     * @param size          the number of keys in the tree
+     * @param count         the number of lookups to be generated
+     * @param random        the source of randomness
+     * @return              the array of count ranks, each between 0 and size - 1
+     */
+    public int[] lookupOrder(int size, int count, Random random) {
+        int[] lookups = new int[count];
+        if (this == ZIPFIAN) {
+            int[] hotness = shuffledRanks(size, random); // the most popular keys are scattered over the tree
+            ZipfianSampler sampler = new ZipfianSampler(size, ZIPF_THETA);
+            for (int i = 0; i < count; i++) {
+                lookups[i] = hotness[sampler.next(random)];
+            }
+        } else {
+            for (int i = 0; i < count; i++) {
+                lookups[i] = random.nextInt(size);
+            }
+        }
+        return lookups;
+    }
+
+    /**
+     * Helper method which shuffles the ranks with the Fisher-Yates algorithm
+     * @param size          the number of ranks
+     * @param random        the source of randomness
+     * @return              a random permutation of the ranks from 0 to size - 1
+     */
+    private static int[] shuffledRanks(int size, Random random) {
+        int[] ranks = new int[size];
+        for (int i = 0; i < size; i++) {
+            ranks[i] = i;
+        }
+        for (int i = size - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = ranks[i];
+            ranks[i] = ranks[j];
+            ranks[j] = swap;
+        }
+        return ranks;
+    }
+
+    /**
+     * ZipfianSampler is a nested class of <code>KeyDistribution</code> drawing ranks with the Zipfian distribution
+     * in constant time per draw, after computing the zeta constant once (the method of Gray et al. used by YCSB)
+     */
+    private static final class ZipfianSampler {
+        private final int size;
+        private final double theta;
+        private final double alpha;
+        private final double zetaN;
+        private final double eta;
+
+        /**
+         * Class constructor
+         * @param size      the number of ranks
+         * @param theta     the skew, between 0 (uniform) and 1 (exclusive)
+         */
+        private ZipfianSampler(int size, double theta) {
+            this.size = size;
+            this.theta = theta;
+            this.alpha = 1.0 / (1.0 - theta);
+            this.zetaN = zeta(size, theta);
+            this.eta = (1.0 - Math.pow(2.0 / size, 1.0 - theta)) / (1.0 - zeta(2, theta) / zetaN);
+        }
+
+        /**
+         * @param n         the number of ranks
+         * @param theta     the skew
+         * @return          the sum of 1 / i^theta for i from 1 to n
+         */
+        private static double zeta(int n, double theta) {
+            double sum = 0;
+            for (int i = 1; i <= n; i++) {
+                sum += 1.0 / Math.pow(i, theta);
+            }
+            return sum;
+        }
+
+        /**
+         * @param random    the source of randomness
+         * @return          the next rank, 0 being the most frequent
+         */
+        private int next(Random random) {
+            double u = random.nextDouble();
+            double uz = u * zetaN;
+            if (uz < 1.0) {
+                return 0;
+            }
+            if (uz < 1.0 + Math.pow(0.5, theta)) {
+                return Math.min(1, size - 1);
+            }
+            return Math.min((int) (size * Math.pow(eta * u - eta + 1, alpha)), size - 1);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package org.example.binarysearchtree.benchmarks;
+
+/**
+ * <code>KeyType</code> selects the type of keys stored in a benchmarked tree. Both types keep the order of the
+ * numbers they are made from, so the same distribution gives the same tree shape for each type.
+ *
+ * @author dawidK5
+ * @version %I%, %G%
+ */
+public enum KeyType {
+    /**
+     * Boxed <code>Integer</code> keys, compared by value
+     */
+    INTEGER,
+    /**
+     * <code>String</code> keys of equal length made from zero-padded numbers, compared character by character
+     */
+    STRING;
+
+    /**
+     * Makes a key of this type
+     * @param value         the non-negative number the key is made from
+     * @return              the key, ordered the same way as value
+     */
+    public Comparable<?> key(int value) {
+        if (this == INTEGER) {
+            return value;
+        }
+        String digits = Integer.toString(value);
+        return "key-" + "0000000000".substring(digits.length()) + digits;
+    }
+}
@@ -0,0 +1,55 @@
+package org.example.binarysearchtree.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <code>LookupBenchmark</code> measures the read-only operations that descend from the root: <code>contains</code>
+ * of present and absent keys and <code>getNode</code>. Sample-time mode reports the latency percentiles next to the
+ * throughput.
+ *
+ * @author dawidK5
+ * @version %I%, %G%
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@SuppressWarnings("unchecked")
+public class LookupBenchmark {
+
+    /**
+     * @param state         the tree and its keys
+     * @return              <code>true</code>, the key is present
+     */
+    @Benchmark
+    public boolean containsPresent(TreeState state) {
+        return state.tree.contains(state.presentKeys[state.nextIndex()]);
+    }
+
+    /**
+     * @param state         the tree and its keys
+     * @return              <code>false</code>, the key is absent
+     */
+    @Benchmark
+    public boolean containsAbsent(TreeState state) {
+        return state.tree.contains(state.absentKeys[state.nextIndex()]);
+    }
+
+    /**
+     * @param state         the tree and its keys
+     * @return              the node found, returned so that the lookup is not optimised away
+     */
+    @Benchmark
+    public Object getNode(TreeState state) {
+        return state.tree.getNode(state.presentKeys[state.nextIndex()]);
+    }
+}
@@ -0,0 +1,67 @@
+package org.example.binarysearchtree.benchmarks;
+
+import org.example.binarysearchtree.BinarySearchTree;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <code>MutationBenchmark</code> measures <code>add</code>, <code>remove</code> and <code>addNode</code>. Each
+ * operation is paired with the one undoing it, so the tree keeps its size and shape for the whole run and the
+ * numbers do not drift as the tree grows.
+ *
+ * @author dawidK5
+ * @version %I%, %G%
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@SuppressWarnings({"rawtypes", "unchecked"})
+public class MutationBenchmark {
+
+    /**
+     * Adds an absent key and removes it again
+     * @param state         the tree and its keys
+     * @return              <code>true</code> if the key was removed
+     */
+    @Benchmark
+    public boolean addThenRemove(TreeState state) {
+        Comparable key = state.absentKeys[state.nextIndex()];
+        state.tree.add(key);
+        return state.tree.remove(key);
+    }
+
+    /**
+     * Removes a present key and adds it again
+     * @param state         the tree and its keys
+     * @return              <code>true</code> if the key was added back
+     */
+    @Benchmark
+    public boolean removeThenAdd(TreeState state) {
+        Comparable key = state.presentKeys[state.nextIndex()];
+        state.tree.remove(key);
+        return state.tree.add(key);
+    }
+
+    /**
+     * Links a single-node subtree from another tree with an absent key and removes it again
+     * @param state         the tree and its keys
+     * @return              the key of the node added
+     */
+    @Benchmark
+    public Object addNodeThenRemove(TreeState state) {
+        Comparable key = state.absentKeys[state.nextIndex()];
+        BinarySearchTree donor = new BinarySearchTree(key);
+        Object added = state.tree.addNode(donor.getRoot());
+        state.tree.remove(key);
+        return added;
+    }
+}
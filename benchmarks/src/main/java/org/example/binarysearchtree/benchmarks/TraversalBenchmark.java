@@ -0,0 +1,98 @@
+package org.example.binarysearchtree.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <code>TraversalBenchmark</code> measures the operations visiting every node: the list exports, iteration,
+ * <code>toTreeSet</code>, <code>toString</code> and <code>redrawBalanced</code>. Their cost grows with the size of
+ * the tree, so the average time of a single call is reported.
+ *
+ * @author dawidK5
+ * @version %I%, %G%
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TraversalBenchmark {
+
+    /**
+     * @param state         the tree
+     * @return              the list of all keys in pre-order
+     */
+    @Benchmark
+    public Object asListPreOrder(TreeState state) {
+        return state.tree.asListPreOrder();
+    }
+
+    /**
+     * @param state         the tree
+     * @return              the list of all keys in in-order
+     */
+    @Benchmark
+    public Object asListInOrder(TreeState state) {
+        return state.tree.asListInOrder();
+    }
+
+    /**
+     * @param state         the tree
+     * @return              the list of all keys in post-order
+     */
+    @Benchmark
+    public Object asListPostOrder(TreeState state) {
+        return state.tree.asListPostOrder();
+    }
+
+    /**
+     * @param state         the tree
+     * @return              the last key visited by the lazy in-order iterator
+     */
+    @Benchmark
+    public Object iterateInOrder(TreeState state) {
+        Object last = null;
+        for (Iterator<?> keys = state.tree.iterator(); keys.hasNext(); ) {
+            last = keys.next();
+        }
+        return last;
+    }
+
+    /**
+     * @param state         the tree
+     * @return              the TreeSet with all keys
+     */
+    @Benchmark
+    public Object toTreeSet(TreeState state) {
+        return state.tree.toTreeSet();
+    }
+
+    /**
+     * @param state         the tree
+     * @return              the multi-level String showing the tree
+     */
+    @Benchmark
+    public String treeToString(TreeState state) {
+        return state.tree.toString();
+    }
+
+    /**
+     * Rebuilds the tree in place. After the first call the tree is already balanced, so this measures the cost of
+     * flattening and folding a tree of the given size.
+     * @param state         the tree
+     * @return              the height of the rebuilt tree
+     */
+    @Benchmark
+    public int redrawBalanced(TreeState state) {
+        state.tree.redrawBalanced();
+        return state.tree.getHeight();
+    }
+}
@@ -0,0 +1,75 @@
+package org.example.binarysearchtree.benchmarks;
+
+import org.example.binarysearchtree.BalanceMode;
+import org.example.binarysearchtree.BinarySearchTree;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+
+/**
+ * <code>TreeState</code> is the JMH state shared by the benchmarks: a tree filled with keys of the chosen type,
+ * added in the order of the chosen distribution, plus arrays of present and absent keys to be looked up, added and
+ * removed. Keys made from even numbers are in the tree and keys made from odd numbers are not. The defaults keep a
+ * full run short; larger trees are selected on the command line, e.g. <code>-p size=1000000,50000000</code>.
+ *
+ * @author dawidK5
+ * @version %I%, %G%
+ */
+@State(Scope.Benchmark)
+@SuppressWarnings({"rawtypes", "unchecked"})
+public class TreeState {
+    private static final int KEY_COUNT = 1 << 16; // number of keys prepared for lookups, a power of two
+    private static final long SEED = 42; // fixed seed, so every fork builds the same tree
+
+    @Param({"1000", "100000"})
+    public int size;
+
+    @Param({"RANDOM", "SORTED", "REVERSE", "ZIPFIAN", "CLUSTERED"})
+    public KeyDistribution distribution;
+
+    @Param({"INTEGER", "STRING"})
+    public KeyType keyType;
+
+    @Param({"NONE", "AVL", "RED_BLACK", "SPLAY"})
+    public BalanceMode balanceMode;
+
+    @Param({"1"})
+    public int splayInterval; // lookups per splay of a SPLAY tree, e.g. -p splayInterval=1,16
+
+    BinarySearchTree tree; // tree under test
+    Comparable[] presentKeys; // keys in the tree, in the lookup order of the distribution
+    Comparable[] absentKeys; // keys between those in the tree
+    private int next; // position of the next key in the arrays
+
+    /**
+     * Builds the tree and the key arrays once per trial
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(SEED);
+        this.tree = new BinarySearchTree(balanceMode);
+        tree.setSplayInterval(splayInterval);
+        for (int rank : distribution.insertionOrder(size, random)) {
+            tree.add(keyType.key(2 * rank));
+        }
+        int[] lookups = distribution.lookupOrder(size, KEY_COUNT, random);
+        this.presentKeys = new Comparable[KEY_COUNT];
+        this.absentKeys = new Comparable[KEY_COUNT];
+        for (int i = 0; i < KEY_COUNT; i++) {
+            presentKeys[i] = keyType.key(2 * lookups[i]);
+            absentKeys[i] = keyType.key(2 * lookups[i] + 1);
+        }
+    }
+
+    /**
+     * @return              the position of the next pair of keys to be used by a benchmark
+     */
+    int nextIndex() {
+        next = (next + 1) & (KEY_COUNT - 1);
+        return next;
+    }
+}
@@ -0,0 +1,105 @@
+package org.example.binarysearchtree.benchmarks;
+
+import org.example.binarysearchtree.BalanceMode;
+import org.example.binarysearchtree.DurableBinarySearchTree;
+import org.example.binarysearchtree.KeyCodec;
+import org.example.binarysearchtree.SyncPolicy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * <code>WalBenchmark</code> measures the throughput of changes to a <code>DurableBinarySearchTree</code> under each
+ * <code>SyncPolicy</code>. The log is written to a temporary directory, set with <code>-Djava.io.tmpdir</code> to
+ * measure a particular disk. Group commit only pays off with several threads, so its <code>main</code> method runs
+ * the benchmark with 1 thread and with 8 threads.
+ *
+ * @author dawidK5
+ * @version %I%, %G%
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class WalBenchmark {
+
+    @Param({"100000"})
+    public int keyRange;
+
+    @Param({"EVERY_OPERATION", "GROUP_COMMIT", "PERIODIC", "NO_SYNC"})
+    public SyncPolicy policy;
+
+    private Path directory; // holds the checkpoint and the log of this trial
+    private DurableBinarySearchTree<Integer> tree;
+
+    /**
+     * Opens an empty durable tree in a new temporary directory
+     * @throws IOException  if the directory cannot be created
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("wal-benchmark");
+        tree = DurableBinarySearchTree.open(directory, KeyCodec.INTEGER, BalanceMode.RED_BLACK, policy);
+    }
+
+    /**
+     * Closes the tree and deletes its directory
+     * @throws IOException  if the files cannot be deleted
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        tree.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+        }
+    }
+
+    /**
+     * Adds or removes a random value, half of the time each, so that the tree keeps about the same size and every
+     * successful change writes one log record
+     * @return              the result of the change
+     */
+    @Benchmark
+    public boolean change() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Integer key = random.nextInt(keyRange);
+        return (random.nextBoolean()) ? tree.add(key) : tree.remove(key);
+    }
+
+    /**
+     * Runs the benchmark with 1 thread and with 8 threads
+     * @param args          unused
+     * @throws RunnerException  if a benchmark fails
+     */
+    public static void main(String[] args) throws RunnerException {
+        for (int threads : new int[] {1, 8}) {
+            new Runner(new OptionsBuilder()
+                    .include(WalBenchmark.class.getSimpleName())
+                    .threads(threads)
+                    .build()).run();
+        }
+    }
+}
@@ -0,0 +1,335 @@
+package org.example.binarysearchtree;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * <code>AbstractArenaTree</code> is the shared part of the arena-backed binary search trees. Instead of one object
+ * per node, all nodes live in growable parallel arrays (struct-of-arrays) and refer to their children by int index,
+ * so a tree of millions of values consists of a handful of arrays that the garbage collector does not need to trace.
+ * Slots of removed nodes are kept on a free list and reused by the next values added. The tree always balances
+ * itself the same way as <code>BalanceMode.AVL</code>. Subclasses decide how keys are stored and compared.
+ *
+ * @author dawidK5
+ * @version %I%, %G%
+ * @see ArenaBinarySearchTree
+ * @see LongArenaBinarySearchTree
+ */
+abstract class AbstractArenaTree {
+    static final int NIL = -1; // index used in place of a missing node
+    static final int MAX_HEIGHT = 64; // an AVL tree of 2^31 nodes is less than 46 levels high
+
+    int root = NIL; // slot of the root node
+    int size; // number of nodes in this tree
+    int[] left; // slot of the left child of each node, or the next free slot for a removed node
+    int[] right; // slot of the right child of each node
+    byte[] height; // height of the subtree rooted at each node
+    final int[] path = new int[MAX_HEIGHT]; // slots visited by add and remove, reused between calls
+    private int freeHead = NIL; // first slot on the list of removed nodes
+    private int usedSlots; // number of slots that have ever been handed out
+
+    /**
+     * Class constructor
+     * @param initialCapacity   the number of nodes the arrays can hold before they need to grow
+     */
+    AbstractArenaTree(int initialCapacity) {
+        int capacity = Math.max(initialCapacity, 2);
+        this.left = new int[capacity];
+        this.right = new int[capacity];
+        this.height = new byte[capacity];
+    }
+
+    /**
+     * Grows the key storage of the subclass, keeping the keys stored so far
+     * @param capacity      the new number of slots
+     */
+    abstract void growKeys(int capacity);
+
+    /**
+     * Copies the key stored in one slot to another slot
+     * @param fromSlot      the slot of the key
+     * @param toSlot        the slot receiving the key
+     */
+    abstract void moveKey(int fromSlot, int toSlot);
+
+    /**
+     * Clears the key of a removed node, so the key can be garbage collected
+     * @param slot          the slot of the removed node
+     */
+    abstract void releaseKey(int slot);
+
+    /**
+     * Returns the number of values in this tree
+     * @return              the int signifying the number of values in this BST
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Tells whether this tree has any values
+     * @return              <code>true</code> if there are no values in this tree; <code>false</code> otherwise
+     */
+    public boolean isEmpty() {
+        return this.root == NIL;
+    }
+
+    /**
+     * Gets the height of the tree measured by nodes (a tree with a single value has height 1)
+     * @return              height of this tree as an int
+     */
+    public int getHeight() {
+        return height(this.root);
+    }
+
+    /**
+     * Returns the number of slots that the arrays of this tree can hold without growing
+     * @return              the capacity of this arena
+     */
+    public int capacity() {
+        return this.left.length;
+    }
+
+    /**
+     * @return              the number of slots handed out so far, including the ones on the free list
+     */
+    int usedSlots() {
+        return this.usedSlots;
+    }
+
+    /**
+     * Takes a slot from the free list, or the next unused slot if the list is empty. The arrays grow by half of
+     * their size when all slots are in use.
+     * @return              the slot for a new node with no children
+     */
+    int allocate() {
+        int slot;
+        if (freeHead != NIL) {
+            slot = freeHead;
+            freeHead = left[slot];
+        } else {
+            if (usedSlots == left.length) {
+                int capacity = left.length + (left.length >> 1);
+                left = Arrays.copyOf(left, capacity);
+                right = Arrays.copyOf(right, capacity);
+                height = Arrays.copyOf(height, capacity);
+                growKeys(capacity);
+            }
+            slot = usedSlots++;
+        }
+        left[slot] = NIL;
+        right[slot] = NIL;
+        height[slot] = 1;
+        return slot;
+    }
+
+    /**
+     * Links a new node below the last slot of the path and rebalances the path
+     * @param depth         the number of slots stored in the path
+     * @param toLeft        <code>true</code> if the new node is the left child of the last slot of the path
+     * @param slot          the slot of the new node
+     */
+    void attach(int depth, boolean toLeft, int slot) {
+        if (depth == 0) {
+            this.root = slot;
+        } else if (toLeft) {
+            left[path[depth-1]] = slot;
+        } else {
+            right[path[depth-1]] = slot;
+        }
+        this.size++;
+        rebalancePath(depth);
+    }
+
+    /**
+     * Removes the node stored in the last slot of the path. A node with two children takes the smallest key of its
+     * right subtree and that node is unlinked instead. The slot of the unlinked node is put on the free list.
+     * @param depth         the number of slots stored in the path, the last one holds the node to be removed
+     */
+    void detach(int depth) {
+        int target = path[depth-1];
+        if (left[target] != NIL && right[target] != NIL) {
+            int successor = right[target];
+            path[depth++] = successor;
+            while (left[successor] != NIL) {
+                successor = left[successor];
+                path[depth++] = successor;
+            }
+            moveKey(successor, target);
+        }
+        int removed = path[--depth];
+        int child = (left[removed] != NIL) ? left[removed] : right[removed];
+        replaceChild((depth > 0) ? path[depth-1] : NIL, removed, child);
+        releaseKey(removed);
+        left[removed] = freeHead;
+        right[removed] = NIL;
+        freeHead = removed;
+        this.size--;
+        rebalancePath(depth);
+    }
+
+    /**
+     * Calls the action given with the slot of each node in pre-order (root, left, right)
+     * @param action        the consumer of node slots
+     */
+    void forEachPreOrder(IntConsumer action) {
+        int[] stack = new int[MAX_HEIGHT + 1];
+        int top = 0;
+        if (this.root != NIL) {
+            stack[top++] = this.root;
+        }
+        while (top > 0) {
+            int slot = stack[--top];
+            action.accept(slot);
+            if (right[slot] != NIL) {
+                stack[top++] = right[slot];
+            }
+            if (left[slot] != NIL) {
+                stack[top++] = left[slot];
+            }
+        }
+    }
+
+    /**
+     * Calls the action given with the slot of each node in ascending order of keys (in-order)
+     * @param action        the consumer of node slots
+     */
+    void forEachInOrder(IntConsumer action) {
+        int[] stack = new int[MAX_HEIGHT];
+        int top = 0;
+        int slot = this.root;
+        while (slot != NIL || top > 0) {
+            while (slot != NIL) {
+                stack[top++] = slot;
+                slot = left[slot];
+            }
+            slot = stack[--top];
+            action.accept(slot);
+            slot = right[slot];
+        }
+    }
+
+    /**
+     * Calls the action given with the slot of each node in post-order (left, right, root). The last node visited
+     * is remembered to tell whether the right subtree of a node on the stack has been finished.
+     * @param action        the consumer of node slots
+     */
+    void forEachPostOrder(IntConsumer action) {
+        int[] stack = new int[MAX_HEIGHT];
+        int top = 0;
+        int lastVisited = NIL;
+        int slot = this.root;
+        while (slot != NIL || top > 0) {
+            while (slot != NIL) {
+                stack[top++] = slot;
+                slot = left[slot];
+            }
+            int peek = stack[top-1];
+            if (right[peek] != NIL && right[peek] != lastVisited) {
+                slot = right[peek];
+            } else {
+                action.accept(peek);
+                lastVisited = peek;
+                top--;
+            }
+        }
+    }
+
+    /**
+     * Helper method which updates heights and rotates unbalanced nodes, from the deepest slot stored in the path
+     * up to the root
+     * @param depth         the number of slots stored in the path
+     */
+    private void rebalancePath(int depth) {
+        for (int i = depth-1; i >= 0; i--) {
+            int slot = path[i];
+            int subtreeTop = rebalance(slot);
+            if (subtreeTop != slot) {
+                replaceChild((i > 0) ? path[i-1] : NIL, slot, subtreeTop);
+            }
+        }
+    }
+
+    /**
+     * Helper method that links a new child in place of an old one, or replaces the root if there is no parent
+     * @param parentSlot    the slot of the parent of oldChild, <code>NIL</code> if oldChild is the root
+     * @param oldChild      the slot currently linked to parentSlot
+     * @param newChild      the slot (or <code>NIL</code>) to be linked instead
+     */
+    private void replaceChild(int parentSlot, int oldChild, int newChild) {
+        if (parentSlot == NIL) {
+            this.root = newChild;
+        } else if (left[parentSlot] == oldChild) {
+            left[parentSlot] = newChild;
+        } else {
+            right[parentSlot] = newChild;
+        }
+    }
+
+    /**
+     * Helper method which updates the height of a node and performs a single or double rotation if the heights of
+     * its subtrees differ by more than one
+     * @param slot          the slot of the node whose children are already balanced
+     * @return              the slot of the node that takes the place of this node in the tree
+     */
+    private int rebalance(int slot) {
+        updateHeight(slot);
+        int balance = height(left[slot]) - height(right[slot]);
+        if (balance > 1) {
+            if (height(left[left[slot]]) < height(right[left[slot]])) {
+                left[slot] = rotateLeft(left[slot]);
+            }
+            return rotateRight(slot);
+        } else if (balance < -1) {
+            if (height(right[right[slot]]) < height(left[right[slot]])) {
+                right[slot] = rotateRight(right[slot]);
+            }
+            return rotateLeft(slot);
+        }
+        return slot;
+    }
+
+    /**
+     * Rotates the subtree to the left, so that the right child of the node becomes the top of this subtree
+     * @param slot          the slot of the node with a right child
+     * @return              the slot of the new top of this subtree
+     */
+    private int rotateLeft(int slot) {
+        int top = right[slot];
+        right[slot] = left[top];
+        left[top] = slot;
+        updateHeight(slot);
+        updateHeight(top);
+        return top;
+    }
+
+    /**
+     * Rotates the subtree to the right, so that the left child of the node becomes the top of this subtree
+     * @param slot          the slot of the node with a left child
+     * @return              the slot of the new top of this subtree
+     */
+    private int rotateRight(int slot) {
+        int top = left[slot];
+        left[slot] = right[top];
+        right[top] = slot;
+        updateHeight(slot);
+        updateHeight(top);
+        return top;
+    }
+
+    /**
+     * @param slot          the slot of a node or <code>NIL</code>
+     * @return              the height of the subtree stored in the slot; 0 for a missing node
+     */
+    private int height(int slot) {
+        return (slot == NIL) ? 0 : height[slot];
+    }
+
+    /**
+     * Recalculates the height of the node given from the heights of its children
+     * @param slot          the slot of the node whose children have correct heights
+     */
+    private void updateHeight(int slot) {
+        height[slot] = (byte) (Math.max(height(left[slot]), height(right[slot])) + 1);
+    }
+}
@@ -0,0 +1,194 @@
+package org.example.binarysearchtree;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * <code>ArenaBinarySearchTree</code> is an alternative storage backend for <code>BinarySearchTree</code> values of a
+ * specific <code>Comparable</code> type T. The nodes are not separate objects: keys, child indices and heights are
+ * kept in parallel arrays and slots of removed nodes are reused, which saves the object header and two references per
+ * node and leaves the garbage collector only the key objects to trace. The tree always balances itself as an AVL
+ * tree. This class is NOT 'thread-safe'.
+ *
+ * @author dawidK5
+ * @version %I%, %G%
+ * @see BinarySearchTree
+ */
+public class ArenaBinarySearchTree<T extends Comparable<T>> extends AbstractArenaTree {
+    private Object[] keys; // key of each node, indexed by slot
+
+    /**
+     * Class constructor
+     */
+    public ArenaBinarySearchTree() {
+        this(16);
+    }
+
+    /**
+     * Class constructor specifying how many nodes fit in the arena before it grows
+     * @param initialCapacity   the number of nodes to be allocated up front
+     */
+    public ArenaBinarySearchTree(int initialCapacity) {
+        super(initialCapacity);
+        this.keys = new Object[capacity()];
+    }
+
+    /**
+     * Class constructor
+     * @param itemsArray    the array of values to be added to the tree
+     */
+    public ArenaBinarySearchTree(T[] itemsArray) {
+        this(itemsArray.length);
+        addAllFromArray(itemsArray);
+    }
+
+    @Override
+    void growKeys(int capacity) {
+        this.keys = Arrays.copyOf(this.keys, capacity);
+    }
+
+    @Override
+    void moveKey(int fromSlot, int toSlot) {
+        this.keys[toSlot] = this.keys[fromSlot];
+    }
+
+    @Override
+    void releaseKey(int slot) {
+        this.keys[slot] = null;
+    }
+
+    /**
+     * @param slot          the slot of a node
+     * @return              the key stored in the slot
+     */
+    @SuppressWarnings("unchecked")
+    private T keyAt(int slot) {
+        return (T) this.keys[slot];
+    }
+
+    /**
+     * Adds a value of type T to the binary search tree in a free slot of the arena
+     * @param word          the value of type T to be added to the tree
+     * @return              <code>true</code> if a new unique value was added successfully;
+     *                      <code>false</code> otherwise
+     */
+    public boolean add(T word) {
+        int depth = 0;
+        int difference = 0;
+        int slot = this.root;
+        while (slot != NIL) {
+            difference = word.compareTo(keyAt(slot));
+            if (difference == 0) {
+                return false;
+            }
+            path[depth++] = slot;
+            slot = (difference < 0) ? left[slot] : right[slot];
+        }
+        int newSlot = allocate();
+        this.keys[newSlot] = word;
+        attach(depth, difference < 0, newSlot);
+        return true;
+    }
+
+    /**
+     * Uses <code>add</code> method to insert all values from this array to the binary search tree
+     * @param keyArray      the array of type T with values/keys to be inserted to the tree
+     */
+    public void addAllFromArray(T[] keyArray) {
+        for (T key : keyArray) {
+            add(key);
+        }
+    }
+
+    /**
+     * Uses <code>add</code> method to insert all values from a list to the binary search tree
+     * @param myList        the list storing values of type T to be added to this BST
+     */
+    public void addAllFromList(List<T> myList) {
+        for (T key : myList) {
+            add(key);
+        }
+    }
+
+    /**
+     * Checks if this tree contains the value given
+     * @param word          the value to be checked for
+     * @return              <code>true</code> if this BST contains a node with key with value of <code>word</code>;
+     *                      <code>false</code> if there is no such value in the tree
+     */
+    public boolean contains(T word) {
+        return getNodeDepth(word) != -1;
+    }
+
+    /**
+     * Removes the value given from the tree and puts its slot on the free list
+     * @param value         the value of type T to be removed
+     * @return              <code>true</code> if the value existed before and was removed successfully;
+     *                      <code>false</code> otherwise
+     */
+    public boolean remove(T value) {
+        int depth = 0;
+        int slot = this.root;
+        while (slot != NIL) {
+            path[depth++] = slot;
+            int difference = value.compareTo(keyAt(slot));
+            if (difference == 0) {
+                detach(depth);
+                return true;
+            }
+            slot = (difference < 0) ? left[slot] : right[slot];
+        }
+        return false;
+    }
+
+    /**
+     * Returns the level at which the specified value of type T resides in a node in this tree
+     * @param targetKey     the node key of type T
+     * @return              -1 if value is <code>null</code> or is not in this this tree; depth in range between 1
+     *                      and BST's height otherwise
+     */
+    public int getNodeDepth(T targetKey) {
+        int nodeDepth = 0;
+        int slot = (targetKey == null) ? NIL : this.root;
+        while (slot != NIL) {
+            nodeDepth++;
+            int difference = targetKey.compareTo(keyAt(slot));
+            if (difference == 0) {
+                return nodeDepth;
+            }
+            slot = (difference < 0) ? left[slot] : right[slot];
+        }
+        return -1;
+    }
+
+    /**
+     * Traverses through all nodes in this BST and returns an ArrayList of all keys in pre-order
+     * @return              the <code>ArrayList</code> of all values in this tree in pre-oder (root, left, right)
+     */
+    public List<T> asListPreOrder() {
+        List<T> preOrdList = new ArrayList<T>(this.size);
+        forEachPreOrder(slot -> preOrdList.add(keyAt(slot)));
+        return preOrdList;
+    }
+
+    /**
+     * Traverses through all nodes in this BST and returns an ArrayList of all keys in natural order (in-order)
+     * @return              the <code>ArrayList</code> of all values in this tree in in-order (left, root, right)
+     */
+    public List<T> asListInOrder() {
+        List<T> inOrdList = new ArrayList<T>(this.size);
+        forEachInOrder(slot -> inOrdList.add(keyAt(slot)));
+        return inOrdList;
+    }
+
+    /**
+     * Traverses through all nodes in this BST and returns an ArrayList of all keys in post-order
+     * @return              the <code>ArrayList</code> of all values in this tree in post-order (left, right, root)
+     */
+    public List<T> asListPostOrder() {
+        List<T> postOrdList = new ArrayList<T>(this.size);
+        forEachPostOrder(slot -> postOrdList.add(keyAt(slot)));
+        return postOrdList;
+    }
+}
@@ -0,0 +1,34 @@
+package org.example.binarysearchtree;
+
+/**
+ * <code>BalanceMode</code> selects the strategy a <code>BinarySearchTree</code> uses to keep its shape after values
+ * are added or removed. The mode is chosen when the tree is constructed and it cannot be changed afterwards.
+ *
+ * @author dawidK5
+ * @version %I%, %G%
+ * @see BinarySearchTree#BinarySearchTree(BalanceMode)
+ */
+public enum BalanceMode {
+    /**
+     * The tree preserves the order of insertion and it is only balanced by calling <code>redrawBalanced</code>
+     */
+    NONE,
+    /**
+     * AVL tree: heights of the two subtrees of every node differ by at most one, which gives the shortest trees
+     * and the fastest lookups at the cost of more rotations on insert and remove
+     */
+    AVL,
+    /**
+     * Red-black tree: every path from a node to its empty children holds the same number of black nodes, which
+     * allows the tree to be up to twice as high as the shortest one but needs fewer rotations than AVL
+     */
+    RED_BLACK,
+    /**
+     * Splay tree: every node added, removed or looked up is rotated up to the root, so values used often stay near
+     * the root and skewed lookups get cheaper, with O(log n) amortised time per operation but no bound on the height.
+     * Lookups change the shape of the tree, so a splay tree cannot be read by several threads at once, and it must
+     * not be searched while it is being iterated. Lookups can be set to splay less often with
+     * <code>setSplayInterval</code>.
+     */
+    SPLAY
+}
@@ -1,18 +1,39 @@
 package org.example.binarysearchtree;
 
-import java.util.HashSet;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.AbstractSet;
+import java.util.ArrayDeque;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NavigableSet;
+import java.util.NoSuchElementException;
+import java.util.SortedSet;
+import java.util.Spliterator;
 import java.util.TreeSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * <code>BinarySearchTree</code> (also called BST) is a class that generates a binary tree for storing values of a
  * specific <code>Comparable</code> type T. Adding nodes creates multiple instances of inner class called NodeObj.
- * This class (BST) bears some resemblance to the Java <code>TreeSet</code>, but this BST does not self-balance as the
- * tree structure preserves the order of insertion. Thus, this BST can ONLY be balanced using the method provided and
- * this class is NOT 'thread-safe'.
- * BST can be exported as: a list (pre/in/post -order) or a TreeSet. Basic functionality of public methods includes
+ * This class (BST) bears some resemblance to the Java <code>TreeSet</code>. By default this BST does not self-balance
+ * as the tree structure preserves the order of insertion, thus it can ONLY be balanced using the method provided.
+ * A self-balancing strategy (AVL or red-black) can be selected with <code>BalanceMode</code> when the tree is
+ * constructed, which keeps every insert and remove at O(log n), or an access-adaptive splay tree can be chosen for
+ * skewed lookups. This class is NOT 'thread-safe', use
+ * <code>ConcurrentBinarySearchTree</code> to share a tree between threads.
+ * BST can be exported as: a list (pre/in/post -order) or a TreeSet, and it can be iterated lazily or streamed in
+ * parallel. Basic functionality of public methods includes
  * adding and removing values and nodes/subtrees from a different BST, getting parent nodes, keys, adding values from
  * arrays, lists, getting tree height and more.
  *
@@ -20,21 +41,64 @@ import java.util.TreeSet;
  * @version %I%, %G%
  *
  */
-public class BinarySearchTree<T extends Comparable<T>> {
+public class BinarySearchTree<T extends Comparable<T>> implements Iterable<T> {
+    private static final int PARALLEL_THRESHOLD = 1 << 13; // smallest range of keys worth a fork-join task
+
     private NodeObj root; // root node
 
-    private int temp; // temporary value placeholder for comparison
-    private final HashSet<T> allNodeKeys; // list of all unique node keys
-    private String[] answer; // array for displaying node key values in rows
+    private int size; // number of non-empty nodes in this tree
     private T DEFAULT_EMPTY_T;  // stores default object value e.g. null for string
     private final NodeObj EMPTY_NODE = new NodeObj(); // empty node for null returns
+    private final BalanceMode balanceMode; // strategy used to keep the tree balanced after adding and removing
+    private final boolean orderStatistics; // true if every node keeps the number of keys in its subtree
+    private final boolean parentLinks; // true if every node keeps a link to its parent
+    private TreeListener<T> listener; // receives the events of this tree, null if nobody listens
+    private int splayInterval = 1; // lookups per splay in SPLAY mode
+    private int lookupsSinceSplay; // lookups since the last splay of a lookup
+    private final List<NodeObj> lookupPath = new ArrayList<NodeObj>(); // reused by lookups that splay
+    private int modCount; // number of relinks and key changes so far, which invalidate the paths of fingers
 
     /**
      * Class constructor
      */
     public BinarySearchTree() {
-        this.root = new NodeObj();
-        this.allNodeKeys = new HashSet<T>(10);
+        this(BalanceMode.NONE);
+    }
+
+    /**
+     * Class constructor specifying the balancing strategy of this tree
+     * @param mode          the <code>BalanceMode</code> used to reshape the tree when values are added or removed
+     */
+    public BinarySearchTree(BalanceMode mode) {
+        this(mode, false);
+    }
+
+    /**
+     * Class constructor specifying the balancing strategy of this tree and whether the nodes keep the sizes of
+     * their subtrees. Subtree sizes cost one more update per node on the search path of every add and remove, but
+     * they allow <code>rank</code>, <code>select</code> and <code>countInRange</code> to run in O(height) time.
+     * @param mode              the <code>BalanceMode</code> used to reshape the tree when values are added or removed
+     * @param orderStatistics   <code>true</code> to maintain subtree sizes in the nodes
+     */
+    public BinarySearchTree(BalanceMode mode, boolean orderStatistics) {
+        this(mode, orderStatistics, false);
+    }
+
+    /**
+     * Class constructor specifying the balancing strategy of this tree, whether the nodes keep the sizes of their
+     * subtrees and whether they keep links to their parents. Parent links cost one more write per relinked node,
+     * but <code>getParentNode</code> takes constant time, <code>successor</code> and <code>predecessor</code>
+     * walk from the node given instead of searching from the root, and <code>removeNode</code> needs no key
+     * comparisons.
+     * @param mode              the <code>BalanceMode</code> used to reshape the tree when values are added or removed
+     * @param orderStatistics   <code>true</code> to maintain subtree sizes in the nodes
+     * @param parentLinks       <code>true</code> to maintain parent links in the nodes
+     */
+    public BinarySearchTree(BalanceMode mode, boolean orderStatistics, boolean parentLinks) {
+        this.balanceMode = mode;
+        this.orderStatistics = orderStatistics;
+        this.parentLinks = parentLinks;
+        this.root = newNode(null); // after the settings, which decide the class of the nodes
     }
 
     /**
@@ -42,9 +106,11 @@ public class BinarySearchTree<T extends Comparable<T>> {
      * @param item          the value of type T that root key will be set to
      */
     public BinarySearchTree (T item) {
-        this.root = new NodeObj(item);
-        this.allNodeKeys = new HashSet<T>(10);
-        this.allNodeKeys.add(root.key);
+        this.balanceMode = BalanceMode.NONE;
+        this.orderStatistics = false;
+        this.parentLinks = false;
+        this.root = newNode(item);
+        this.size = (item != null) ? 1 : 0;
     }
 
     /**
@@ -52,27 +118,35 @@ public class BinarySearchTree<T extends Comparable<T>> {
      * @param itemsArray    the array of values to be added to the tree
      */
     public BinarySearchTree (T[] itemsArray) {
-        this.root = new NodeObj();
-        this.allNodeKeys = new HashSet<T>(itemsArray.length);
-        this.allNodeKeys.add(root.key);
+        this.balanceMode = BalanceMode.NONE;
+        this.orderStatistics = false;
+        this.parentLinks = false;
+        this.root = newNode(null);
         addAllFromArray(itemsArray);
     }
 
     /**
      * NodeObj is an inner class of <code>BinarySearchTree</code> which allows to create a new node every time a
      * value is added to this binary search tree. Each instance contains 2 pointers: left and right, and a key of
-     * type T.
+     * type T. Nodes of a self-balancing tree also keep their height (AVL) or colour (red-black), and nodes of a
+     * tree with order statistics keep the size of their subtree. Nodes of a tree with parent links are a subclass
+     * which also keeps the parent, and nodes of a <code>BinarySearchTreeMap</code> are a subclass which also holds
+     * the value mapped to their key, so other trees do not pay for those fields.
      */
     public class NodeObj {
         protected NodeObj left, right;
         protected T key;
+        protected int height = 1; // height of the subtree rooted at this node, maintained in AVL mode
+        protected boolean red; // colour of this node, maintained in red-black mode
+        protected int count; // number of keys in the subtree rooted at this node, maintained with order statistics
 
         /**
          * Class constructor specifying node key
          * @param key       the value of type T that will be added to the node
          */
-        private NodeObj (T key) {
+        NodeObj (T key) {
             this.key = key;
+            this.count = (key != null) ? 1 : 0;
             left = null;
             right = null;
         }
@@ -80,12 +154,52 @@ public class BinarySearchTree<T extends Comparable<T>> {
         /**
          * Class constructor used when key is not known yet
          */
-        private NodeObj () {
+        NodeObj () {
             this.key = getDefaultValue(); // null for generic type T
             left = null;
             right = null;
         }
 
+        /**
+         * Returns the number of keys in the subtree rooted at this node. It is only kept up to date in a tree
+         * constructed with order statistics.
+         * @return          the number of non-empty nodes in this subtree, including this node
+         */
+        public int getSubtreeSize() {
+            return this.count;
+        }
+
+        /**
+         * Returns the value mapped to the key of this node. A plain node holds no value; the nodes of a
+         * <code>BinarySearchTreeMap</code> override this.
+         * @return          the value mapped to the key; <code>null</code> for a plain node
+         */
+        Object value() {
+            return null;
+        }
+
+        /**
+         * Maps a value to the key of this node. A plain node has no room for a value and ignores it, e.g. when the
+         * nodes of a map are copied into a plain tree; the nodes of a <code>BinarySearchTreeMap</code> override this.
+         * @param value     the value to be mapped to the key
+         */
+        void setValue(Object value) {
+        }
+
+        /**
+         * @return          the parent of this node; <code>null</code> for the root or a node without parent links
+         */
+        NodeObj parent() {
+            return null;
+        }
+
+        /**
+         * Links this node to its parent. A node without parent links has no room for the link and ignores it.
+         * @param parentNode    the new parent of this node, <code>null</code> if it is the root
+         */
+        void linkParent(NodeObj parentNode) {
+        }
+
         /**
          * @return          safe <code>null</code> if left child is missing or object doesn't exists;
          *                  left child node or a left subtree otherwise
@@ -111,13 +225,103 @@ public class BinarySearchTree<T extends Comparable<T>> {
         }
 
         /**
-         * Sets the value of current key to the value specified and updates the list of all keys in this BST
+         * Sets the value of current key to the value specified. The new key should keep the ordering of the tree,
+         * i.e. stay between the keys of the in-order predecessor and successor of this node
          * @param key       the key of type T to overwrite current node key
          */
         public void setKey(T key) {
-            allNodeKeys.remove(this.key);
             this.key = key;
-            allNodeKeys.add(key);
+            modCount++;
+        }
+    }
+
+    /**
+     * LinkedNode is a nested class of <code>BinarySearchTree</code>: a node of a tree with parent links, which
+     * keeps a link to its parent besides the fields of a plain node. It is static and reaches its tree through
+     * the plain node, so it does not hold a second reference to the tree.
+     */
+    static class LinkedNode<T extends Comparable<T>> extends BinarySearchTree<T>.NodeObj {
+        private BinarySearchTree<T>.NodeObj parent; // parent of this node, null for the root
+
+        /**
+         * Class constructor specifying the tree and the node key
+         * @param tree      the tree creating this node
+         * @param key       the value of type T, <code>null</code> for an empty node
+         */
+        LinkedNode(BinarySearchTree<T> tree, T key) {
+            tree.super(key);
+        }
+
+        @Override
+        BinarySearchTree<T>.NodeObj parent() {
+            return this.parent;
+        }
+
+        @Override
+        void linkParent(BinarySearchTree<T>.NodeObj parentNode) {
+            this.parent = parentNode;
+        }
+    }
+
+    /**
+     * NodeStack is an inner class of <code>BinarySearchTree</code> used in place of the call stack by traversals,
+     * so that they can walk trees of any height. Each node on the stack can carry its level in the tree. It is a
+     * growable array without the bookkeeping of a general-purpose <code>Deque</code>.
+     */
+    private class NodeStack {
+        private Object[] nodes = new Object[32];
+        private int[] levels = new int[32];
+        private int top;
+
+        /**
+         * @param aNode     the NodeObj to be put on top of the stack
+         * @param level     the level of aNode in the tree
+         */
+        private void push(NodeObj aNode, int level) {
+            if (top == nodes.length) {
+                nodes = Arrays.copyOf(nodes, top * 2);
+                levels = Arrays.copyOf(levels, top * 2);
+            }
+            nodes[top] = aNode;
+            levels[top++] = level;
+        }
+
+        /**
+         * @param aNode     the NodeObj to be put on top of the stack
+         */
+        private void push(NodeObj aNode) {
+            push(aNode, 0);
+        }
+
+        /**
+         * @return          the NodeObj on top of the stack
+         */
+        @SuppressWarnings("unchecked")
+        private NodeObj peek() {
+            return (NodeObj) nodes[top-1];
+        }
+
+        /**
+         * @return          the level of the NodeObj on top of the stack
+         */
+        private int peekLevel() {
+            return levels[top-1];
+        }
+
+        /**
+         * @return          the NodeObj removed from the top of the stack
+         */
+        private NodeObj pop() {
+            NodeObj aNode = peek();
+            nodes[--top] = null;
+            return aNode;
+        }
+
+        /**
+         * @return          <code>true</code> if there are no nodes on the stack
+         */
+        private boolean isEmpty() {
+            return top == 0;
         }
     }
 
@@ -130,80 +334,292 @@ public class BinarySearchTree<T extends Comparable<T>> {
     }
 
     /**
-     * Returns the number of active, non-empty nodes in this tree
+     * Returns the balancing strategy chosen when this tree was constructed
+     * @return              the <code>BalanceMode</code> of this tree
+     */
+    public BalanceMode getBalanceMode() {
+        return this.balanceMode;
+    }
+
+    /**
+     * Sets the listener receiving the events of this tree, e.g. a <code>TreeMetrics</code> instance. Without a
+     * listener this tree reports nothing and prints nothing.
+     * @param listener      the <code>TreeListener</code> to be called; <code>null</code> to stop reporting events
+     * @see                 TreeListener#printing(java.io.PrintStream)
+     */
+    public void setListener(TreeListener<T> listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Returns the listener receiving the events of this tree
+     * @return              the <code>TreeListener</code> of this tree; <code>null</code> if none was set
+     */
+    public TreeListener<T> getListener() {
+        return this.listener;
+    }
+
+    /**
+     * Sets how often a lookup (<code>contains</code>, <code>getNode</code>) splays the node it reaches in
+     * <code>SPLAY</code> mode. Splaying every lookup adapts fastest to the hot values, while splaying one lookup in
+     * n writes n times less to the nodes on reads and still moves values used often towards the root. Adds and
+     * removes always splay.
+     * @param lookups       the number of lookups per splay, 1 to splay every lookup
+     * @throws IllegalArgumentException if lookups is not positive
+     */
+    public void setSplayInterval(int lookups) {
+        if (lookups < 1) {
+            throw new IllegalArgumentException("the splay interval must be positive");
+        }
+        this.splayInterval = lookups;
+    }
+
+    /**
+     * @return              the number of lookups per splay in <code>SPLAY</code> mode
+     */
+    public int getSplayInterval() {
+        return this.splayInterval;
+    }
+
+    /**
+     * Tells whether the nodes of this tree keep the sizes of their subtrees
+     * @return              <code>true</code> if <code>rank</code>, <code>select</code> and
+     *                      <code>countInRange</code> can be used; <code>false</code> otherwise
+     */
+    public boolean hasOrderStatistics() {
+        return this.orderStatistics;
+    }
+
+    /**
+     * Tells whether the nodes of this tree keep links to their parents
+     * @return              <code>true</code> if parents and in-order neighbours are found by following links;
+     *                      <code>false</code> if they are found by searching from the root
+     */
+    public boolean hasParentLinks() {
+        return this.parentLinks;
+    }
+
+    /**
+     * Returns the number of active, non-empty nodes in this tree. The count is maintained by the methods adding
+     * and removing values, so this takes constant time
      * @return              the int signifying the number of values in this BST
      */
-    public synchronized int size() {
-        int i = 0;
-        for (T element : allNodeKeys) {
-            if (element != null) {
-                i++;
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Rebalances the whole tree in place with the Day-Stout-Warren algorithm: the nodes are first rotated into a
+     * sorted chain (vine) and then the chain is folded back into a tree whose levels are all full, except possibly
+     * the last one. The existing nodes are relinked, so this takes O(n) time and no new node is created.
+     */
+    public void redrawBalanced() {
+        if (root.key == null) {
+            return;
+        }
+        long startTime = (listener != null) ? System.nanoTime() : 0;
+        NodeObj pseudoRoot = new NodeObj();
+        pseudoRoot.right = this.root;
+        int nodeCount = rebuildBelow(pseudoRoot);
+        this.root = pseudoRoot.right;
+        linkParents(this.root, null);
+        if (listener != null) {
+            listener.onRebuild(nodeCount, System.nanoTime() - startTime);
+        }
+    }
+
+    /**
+     * Rebalances the subtree given in place with the Day-Stout-Warren algorithm, leaving the rest of the tree
+     * untouched. Rebuilding only a part of an AVL or red-black tree would break the balance of its ancestors, so in
+     * those modes the whole tree is rebuilt instead.
+     * @param subtreeTop    the NodeObj of this tree at the top of the subtree to be rebalanced
+     * @return              <code>true</code> if the subtree was rebalanced; <code>false</code> if the node given
+     *                      is empty or it is not a node of this tree
+     * @see                 #redrawBalanced()
+     */
+    public boolean redrawBalanced(NodeObj subtreeTop) {
+        T targetKey = subtreeTop.key;
+        NodeObj parentNode = null;
+        NodeObj aNode = (targetKey == null || root.key == null) ? null : this.root;
+        while (aNode != null && aNode != subtreeTop) {
+            int difference = targetKey.compareTo(aNode.key);
+            if (difference == 0) {
+                return false; // same key stored in a node of another tree
             }
+            parentNode = aNode;
+            aNode = (difference < 0) ? aNode.left : aNode.right;
+        }
+        if (aNode == null) {
+            return false;
         }
-        return i;
+        if (parentNode == null || selfBalancing()) {
+            redrawBalanced();
+            return true;
+        }
+        long startTime = (listener != null) ? System.nanoTime() : 0;
+        NodeObj pseudoRoot = new NodeObj();
+        pseudoRoot.right = subtreeTop;
+        int nodeCount = rebuildBelow(pseudoRoot);
+        linkParents(pseudoRoot.right, parentNode);
+        replaceChild(parentNode, subtreeTop, pseudoRoot.right);
+        if (listener != null) {
+            listener.onRebuild(nodeCount, System.nanoTime() - startTime);
+        }
+        return true;
     }
 
     /**
-     * Recursive helper for adding nodes with redrawBalanced method
-     * @param ordKeys       the list of in-order values
-     * @param left          the starting index position
-     * @param right         the end index position
+     * Helper method running both phases of the Day-Stout-Warren algorithm on the right subtree of a pseudo-root.
+     * Heights, colours and subtree sizes of the rebuilt nodes are recalculated afterwards if this tree keeps them.
+     * @param pseudoRoot    the temporary NodeObj whose right child is the top of the subtree to be rebalanced
+     * @return              the number of nodes rebuilt
      * @see                 #redrawBalanced()
      */
-    private void recurAdd(List<T> ordKeys, int left, int right) {
-        int mid = (left+right)/2;
-        add(ordKeys.get(mid));
-        if (left < right) {
-            recurAdd(ordKeys, left, mid-1);
-            recurAdd(ordKeys, mid+1, right);
+    private int rebuildBelow(NodeObj pseudoRoot) {
+        modCount++;
+        int nodeCount = treeToVine(pseudoRoot);
+        int fullLevels = 31 - Integer.numberOfLeadingZeros(nodeCount + 1); // levels that will have no gaps
+        int perfectCount = (1 << fullLevels) - 1;
+        compress(pseudoRoot, nodeCount - perfectCount); // leaves of the last, partly filled level
+        for (int rotations = perfectCount / 2; rotations > 0; rotations /= 2) {
+            compress(pseudoRoot, rotations);
+        }
+        if (balanceMode != BalanceMode.NONE || orderStatistics) {
+            refreshSubtree(pseudoRoot.right, fullLevels);
         }
+        return nodeCount;
     }
 
     /**
-     * This method retrieves all values in the tree as an ordered list, deletes the root node and reinserts the
-     * values to create a balanced tree.
+     * Helper method which turns the subtree into a vine: a chain of right children in ascending order. Every node
+     * with a left child is rotated to the right until the left child reaches the chain.
+     * @param pseudoRoot    the temporary NodeObj whose right child is the top of the subtree
+     * @return              the number of nodes in the vine
      */
-    public void redrawBalanced() {
-        List<T> ordKeys = this.asListInOrder();
-        System.out.printf("Values that will be reloaded : %s .\n", ordKeys.toString());
-        System.out.printf("Current height: %d .\n", getHeight() );
-        root.key = null;
-        root.left = null;
-        root.right = null;
-        root = null;
-        allNodeKeys.clear();
-        root = new NodeObj();
-        recurAdd(ordKeys, 0, ordKeys.size()-1);
-        System.out.println(toString());
-        System.out.printf("New height: %d .\n", getHeight() );
+    private int treeToVine(NodeObj pseudoRoot) {
+        int nodeCount = 0;
+        NodeObj tail = pseudoRoot;
+        NodeObj rest = tail.right;
+        while (rest != null) {
+            if (rest.left == null) {
+                tail = rest;
+                rest = rest.right;
+                nodeCount++;
+            } else {
+                NodeObj leftChild = rest.left;
+                rest.left = leftChild.right;
+                leftChild.right = rest;
+                rest = leftChild;
+                tail.right = leftChild;
+            }
+        }
+        return nodeCount;
+    }
+
+    /**
+     * Helper method which rotates every second node of the vine to the left, halving the length of the vine
+     * @param pseudoRoot    the temporary NodeObj whose right child is the top of the vine
+     * @param rotations     the number of left rotations to be made from the top of the vine
+     */
+    private void compress(NodeObj pseudoRoot, int rotations) {
+        NodeObj scanner = pseudoRoot;
+        for (int i = 0; i < rotations; i++) {
+            NodeObj child = scanner.right;
+            scanner.right = child.right;
+            scanner = scanner.right;
+            child.right = scanner.left;
+            scanner.left = child;
+        }
+    }
+
+    /**
+     * Helper method which recalculates the heights and subtree sizes of a rebuilt subtree in post-order, and colours
+     * the nodes below the full levels red so that every path holds the same number of black nodes
+     * @param subtreeTop    the NodeObj at the top of the rebuilt subtree
+     * @param fullLevels    the number of levels of the subtree that have no gaps
+     */
+    private void refreshSubtree(NodeObj subtreeTop, int fullLevels) {
+        NodeStack stack = new NodeStack();
+        NodeObj lastVisited = null;
+        NodeObj aNode = subtreeTop;
+        int level = 1;
+        while (aNode != null || !stack.isEmpty()) {
+            while (aNode != null) {
+                stack.push(aNode, level++);
+                aNode = aNode.left;
+            }
+            NodeObj topNode = stack.peek();
+            if (topNode.right != null && topNode.right != lastVisited) {
+                aNode = topNode.right;
+                level = stack.peekLevel() + 1;
+            } else {
+                updateHeight(topNode);
+                updateCount(topNode);
+                topNode.red = (balanceMode == BalanceMode.RED_BLACK && stack.peekLevel() > fullLevels);
+                lastVisited = stack.pop();
+            }
+        }
     }
 
     /**
      * Adds a link from appropriate node/subtree in this tree to to the node given (also from another another tree).
-     * If root node value is null, it replaces this root pointer.
+     * If root node value is null, it replaces this root pointer. A self-balancing tree cannot link a foreign subtree
+     * without breaking its balance, and nodes of another class (e.g. those of a plain tree added to a map) lack the
+     * fields of this tree, so in those cases copies of the subtree nodes are added instead.
      * @param myNode    the NodeObj to be added to the tree
      * @return          <code>null</code> if node given is empty or if the tree contains a node with the same key;
      *                  myNode's key otherwise
+     * @see             #union(BinarySearchTree)
      */
     public T addNode(NodeObj myNode) { // adds a node or a subtree
         T targetKey = myNode.key;
-        if (this.root.key == null) {
+        boolean copies = selfBalancing() || !sameLayout(myNode);
+        if (copies && targetKey != null && !contains(targetKey)) {
+            NodeStack stack = new NodeStack();
+            stack.push(myNode);
+            while (!stack.isEmpty()) { // in pre-order, so a tree that does not balance copies the subtree shape
+                NodeObj aNode = stack.pop();
+                int previousSize = this.size;
+                NodeObj copy = placeKey(aNode.key);
+                if (this.size != previousSize) {
+                    copy.setValue(aNode.value());
+                }
+                if (aNode.right != null) {
+                    stack.push(aNode.right);
+                }
+                if (aNode.left != null) {
+                    stack.push(aNode.left);
+                }
+            }
+            return targetKey;
+        }
+        if (this.root.key == null && !copies) {
             this.root = myNode;
-            this.root.key = myNode.key;
-            this.allNodeKeys.add(targetKey);
+            linkParents(myNode, null);
+            this.size = (orderStatistics) ? recountSubtree(myNode) : countKeys(myNode);
             return targetKey;
         }
-        if (contains(targetKey)) {
-            System.out.printf("Node with value %s already exists. If you want to merge with an already"
-                            +" balanced subtree, pass both child nodes to this method instead.\n",
-                    (targetKey!=null ? targetKey.toString() : "null"));
+        if (targetKey == null || contains(targetKey)) {
+            if (listener != null) {
+                listener.onNodeRejected(targetKey);
+            }
             return null;
         }
+        List<T> subtreeKeys = new ArrayList<T>();
+        List<T> duplicateKeys = new ArrayList<T>();
+        iterPreOrder(myNode, subtreeKeys);
+        for (T key : subtreeKeys) {
+            if (contains(key)) {
+                duplicateKeys.add(key);
+            }
+        }
+        List<NodeObj> graftPath = new ArrayList<NodeObj>();
         int difference;
         NodeObj aNode = this.root;
         boolean flag = true;
         // find position for node to be placed
         while (flag) {
+            graftPath.add(aNode);
             T currKey = aNode.key;
             difference = targetKey.compareTo(currKey); // uses default compareTo ordering
             if (difference < 0) {
@@ -223,65 +639,117 @@ public class BinarySearchTree<T extends Comparable<T>> {
             }
         }
         // aNode is now the parent node
-        // add possible subtree keys to all keylist
-        recurKeyPreOrd(myNode, myNode);
+        linkParents(myNode, aNode);
+        if (orderStatistics) {
+            int graftCount = recountSubtree(myNode);
+            for (NodeObj pathNode : graftPath) {
+                pathNode.count += graftCount;
+            }
+        }
+        // evict the subtree nodes whose keys were already present in this tree
+        for (T key : duplicateKeys) {
+            List<NodeObj> path = new ArrayList<NodeObj>(graftPath);
+            NodeObj subNode = myNode;
+            difference = 1;
+            while (difference != 0) {
+                path.add(subNode);
+                difference = key.compareTo(subNode.key);
+                subNode = (difference < 0) ? subNode.left : subNode.right;
+            }
+            unlinkLast(path);
+        }
+        this.size += subtreeKeys.size() - duplicateKeys.size();
         return targetKey;
     }
 
     /**
-     * Recursive helper method to obtain myNode's subtree key values and add them to the list of keys
-     * @param myNode        the NodeObj whose key and its children's keys will be added to list of keys
-     * @param subtreeTop    the NodeObj that represent the top of the subtree to be merged with this BST
+     * Helper method which counts the non-empty nodes of a subtree, using a stack instead of recursion
+     * @param subtreeTop    the NodeObj at the top of the subtree
+     * @return              the number of keys stored in the subtree
      * @see                 #addNode(NodeObj)
      */
-    private void recurKeyPreOrd(NodeObj myNode, NodeObj subtreeTop) {
-        T key = myNode.getKey();
-        if (key != null) {
-            if (contains(key)) {
-                removeNode(myNode, iterGetParent(myNode, subtreeTop));
+    private int countKeys(NodeObj subtreeTop) {
+        int count = 0;
+        NodeStack stack = new NodeStack();
+        stack.push(subtreeTop);
+        while (!stack.isEmpty()) {
+            NodeObj aNode = stack.pop();
+            if (aNode.key != null) {
+                count++;
+            }
+            if (aNode.left != null) {
+                stack.push(aNode.left);
+            }
+            if (aNode.right != null) {
+                stack.push(aNode.right);
             }
-            this.allNodeKeys.add(myNode.getKey());
-        }
-
-        if (myNode.getLeftChild().getKey() != null) {
-            recurKeyPreOrd(myNode.left, myNode);
-        }
-        if (myNode.getRightChild().getKey() != null) {
-            recurKeyPreOrd(myNode.right, myNode);
         }
+        return count;
     }
 
     /**
      * Adds a value of type T to the binary search tree by creating a new NodeObj. If root's key is empty/null,
-     * the key is replaced with the value and a short message is printed to the console.
+     * the key is replaced with the value and the listener (if any) is notified.
      * @param word      the value of type T to be added to the tree
      * @return          <code>true</code> if a new unique value was added successfully;
      *                  <code>false</code> otherwise
      */
     public boolean add(T word) {
-        if (!contains(word) && !(root.key==null)) {
-            checkAndPlace(root, word);
-            return true;
-        } else if (root.key==null) {
-            System.out.printf("The key of the root node will be set to %s . \n",
-                    (word!=null ? word.toString() : "null"));
+        boolean wasEmpty = (root.key == null);
+        int previousSize = this.size;
+        placeKey(word);
+        return wasEmpty || this.size != previousSize;
+    }
+
+    /**
+     * Helper method which adds a value like <code>add</code> and returns the node holding it, whether it was
+     * created or found. A <code>BinarySearchTreeMap</code> uses it to set the value of an entry with one descent.
+     * @param word      the value of type T to be added to the tree
+     * @return          the NodeObj holding word
+     * @see             #add(Comparable)
+     */
+    NodeObj placeKey(T word) {
+        boolean added;
+        NodeObj aNode;
+        if (root.key==null) {
+            if (listener != null) {
+                listener.onRootSet(word);
+            }
             root.key = word;
-            this.allNodeKeys.add(word);
-            return true;
+            this.size = (word != null) ? 1 : 0;
+            root.count = this.size;
+            aNode = root;
+            added = true;
+        } else {
+            int previousSize = this.size;
+            if (balanceMode == BalanceMode.NONE) {
+                aNode = checkAndPlace(root, word);
+            } else {
+                aNode = insertOnPath(word);
+            }
+            added = (this.size != previousSize);
+        }
+        if (listener != null) {
+            listener.onAdd(word, added);
         }
-        return false;
+        return aNode;
     }
 
     /**
      * Uses <code>add</code> method to insert all value from this array to the binary search tree. If the root key
      * has no value, the first value in the array is used to replace it and then other elements are added.
      * @param keyArray      the array of type T with values/keys to be inserted to the tree
+     * @see                 #addAll(Collection)
      */
     public void addAllFromArray(T[] keyArray) {
         int i=0;
         if (this.root.key == null) {
             this.root.key = keyArray[0];
-            this.allNodeKeys.add(root.key);
+            this.size = (root.key != null) ? 1 : 0;
+            this.root.count = this.size;
+            if (listener != null) {
+                listener.onRootSet(root.key);
+            }
             i++;
         }
         while (i < keyArray.length) {
@@ -294,12 +762,17 @@ public class BinarySearchTree<T extends Comparable<T>> {
      * Uses <code>add</code> method to insert all values from a list to the binary search tree. If the root key is
      * null, the first element of the list is assigned to the root and then all other elements are added.
      * @param myList        the list storing values of type T to be added to this BST
+     * @see                 #addAll(Collection)
      */
     public void addAllFromList(List<T> myList) {
         int i=0;
         if (this.root.key == null) {
             this.root.key = myList.get(0);
-            this.allNodeKeys.add(root.key);
+            this.size = (root.key != null) ? 1 : 0;
+            this.root.count = this.size;
+            if (listener != null) {
+                listener.onRootSet(root.key);
+            }
             i++;
         }
         while (i < myList.size()) {
@@ -309,408 +782,3015 @@ public class BinarySearchTree<T extends Comparable<T>> {
     }
 
     /**
-     * Checks if this tree contains the value given
-     * @param word          the value to be checked for
-     * @return              <code>true</code> if this BST contains a node with key with value of <code>word</code>;
-     *                      <code>false</code> if there is no such value in the tree
+     * Adds all values of a collection in one pass. The values are sorted, unless they are already in ascending
+     * order, and merged with the in-order sequence of the existing nodes. The merged nodes are then relinked into a
+     * tree whose levels are all full except possibly the last one. This takes O(n + m) time for m sorted values
+     * (O(n + m log m) otherwise), in place of m descents whose shape depends on the order of the input, so it suits
+     * bulk loads. Existing nodes are reused and a node is only created for each new value.
+     * @param values        the values of type T to be added to the tree
+     * @return              the number of new unique values added
+     * @see                 #removeAll(Collection)
      */
-    public boolean contains(T word) {
-        return this.allNodeKeys.contains(word);
+    public int addAll(Collection<? extends T> values) {
+        Object[] batch = sortedDistinct(values);
+        Object[] nodes = nodesInOrder();
+        Object[] merged = new Object[nodes.length + batch.length];
+        int i = 0, j = 0, mergedCount = 0;
+        while (j < batch.length) {
+            T word = key(batch[j]);
+            int difference = (i < nodes.length) ? word.compareTo(node(nodes[i]).key) : -1;
+            if (difference > 0) {
+                merged[mergedCount++] = nodes[i++];
+                continue;
+            }
+            merged[mergedCount++] = (difference == 0) ? nodes[i++] : newNode(word);
+            if (listener != null) {
+                listener.onAdd(word, difference != 0);
+            }
+            j++;
+        }
+        while (i < nodes.length) {
+            merged[mergedCount++] = nodes[i++];
+        }
+        int added = mergedCount - nodes.length;
+        if (added > 0) {
+            relinkBalanced(merged, mergedCount, false);
+        }
+        return added;
     }
 
     /**
-     * Helper method for safe return of default or <code>null</code> value for type T
-     * @return              <code>null</code> or other default value used for empty keys
+     * Removes all values of a collection in one pass. The values are sorted, unless they are already in ascending
+     * order, and the in-order sequence of the existing nodes is filtered by them. The remaining nodes are then
+     * relinked into a tree whose levels are all full except possibly the last one, in O(n + m) time for m sorted
+     * values (O(n + m log m) otherwise).
+     * @param values        the values of type T to be removed
+     * @return              the number of values that existed before and were removed
+     * @see                 #addAll(Collection)
      */
-    private T getDefaultValue() {
-        return DEFAULT_EMPTY_T;
+    public int removeAll(Collection<? extends T> values) {
+        Object[] batch = sortedDistinct(values);
+        Object[] nodes = nodesInOrder();
+        Object[] kept = new Object[nodes.length];
+        int i = 0, j = 0, keptCount = 0;
+        while (j < batch.length) {
+            T value = key(batch[j]);
+            int difference = (i < nodes.length) ? value.compareTo(node(nodes[i]).key) : -1;
+            if (difference > 0) {
+                kept[keptCount++] = nodes[i++];
+                continue;
+            }
+            if (difference == 0) {
+                i++;
+            }
+            if (listener != null) {
+                listener.onRemove(value, difference == 0);
+            }
+            j++;
+        }
+        while (i < nodes.length) {
+            kept[keptCount++] = nodes[i++];
+        }
+        int removed = nodes.length - keptCount;
+        if (removed > 0) {
+            relinkBalanced(kept, keptCount, false);
+        }
+        return removed;
     }
 
     /**
-     * Compares given value with subsequent node keys, starting at the root, finding a node with the same value
-     * using natural ordering of type T
-     * @param targetKey     the T-type value for the matching node/subtree to be found
-     * @return              the NodeObj node or a subtree(if children are present); empty node if value not present
+     * Returns a cursor over the values between lo and hi (both inclusive) in ascending order. It descends once to
+     * the first value in range and then streams the values from a stack of ancestors, never visiting values outside
+     * the range. Values can be removed through the cursor, and a scan can be resumed later after the last value
+     * returned with <code>scan(last, false, hi, true)</code>.
+     * @param lo            the smallest value to be returned
+     * @param hi            the greatest value to be returned
+     * @return              the <code>Iterator</code> over the range
+     * @see                 #removeRange(Comparable, Comparable)
      */
-    public NodeObj getNode(T targetKey) { // returns a node or a subtree
-        if (!contains(targetKey) || targetKey==null) {
-            System.out.printf("Node for the value \" %s \" not found, empty node has been returned. \n",
-                    (targetKey!=null ? targetKey.toString() : "null"));
-            return EMPTY_NODE; // Node has not been found in the set, the key is invalid
-        }
-        int difference=1;
-        NodeObj aNode = this.root;
-        while (difference!=0) {
-            T currKey = aNode.key;
-            difference = targetKey.compareTo(currKey); // uses default compareTo type ordering
-            if (difference < 0) {
-                aNode = aNode.left;
-            } else if (difference > 0) {
-                aNode = aNode.right;
-            }
-        }
-        return aNode;
+    public Iterator<T> scan(T lo, T hi) {
+        return scan(lo, true, hi, true);
     }
 
     /**
-     * Overloaded method that finds how deep a node resides in this BST
-     * @param myNode        the NodeObj (depth of which we need)
-     * @return              -1 if node is <code>null</code> or is not in this this tree; depth in range between 1
-     *                      and BST's height otherwise
+     * Returns a cursor over the values between lo and hi in ascending order, with each bound included or not
+     * @param lo            the lower bound
+     * @param loInclusive   <code>true</code> if lo itself can be returned
+     * @param hi            the upper bound
+     * @param hiInclusive   <code>true</code> if hi itself can be returned
+     * @return              the <code>Iterator</code> over the range
+     * @see                 #scan(Comparable, Comparable)
      */
-    public int getNodeDepth(NodeObj myNode) {
-        return getNodeDepth(myNode.getKey());
+    public Iterator<T> scan(T lo, boolean loInclusive, T hi, boolean hiInclusive) {
+        if (lo == null || hi == null) {
+            throw new NullPointerException("the bounds of a scan cannot be null");
+        }
+        return new RangeIterator(new NavigableView(lo, loInclusive, hi, hiInclusive, false), true);
     }
 
     /**
-     * Returns the level at which the specified value of type T resides in a node in this tree
-     * @param targetKey     the node key of type T
-     * @return              -1 if value is <code>null</code> or is not in this this tree; depth in range between 1
-     *                      and BST's height otherwise
+     * Removes all values between lo and hi (both inclusive), e.g. to expire a window of time stamps. A tree that
+     * does not self-balance is split along the search paths of lo and hi and the parts outside the range are joined
+     * again, so the whole range is cut out in O(height + k) time for k values removed. An AVL or red-black tree
+     * removes the values one by one when k is small, in O(k log n) time, and otherwise relinks the values left with
+     * minimal height in O(n) time, whichever is cheaper.
+     * @param lo            the smallest value to be removed
+     * @param hi            the greatest value to be removed
+     * @return              the number of values removed
+     * @see                 #scan(Comparable, Comparable)
      */
-    public int getNodeDepth(T targetKey) {
-        if (!contains(targetKey) || targetKey==null) {
-            System.out.printf("Node for the value \" %s \" not found.\n",
-                    (targetKey!=null ? targetKey.toString() : "null"));
-            return -1; // Node has not been found in the set, the key is invalid
+    public int removeRange(T lo, T hi) {
+        if (root.key == null || lo.compareTo(hi) > 0) {
+            return 0;
         }
-        int nodeHeight = 0;
-        int difference = 1;
-        NodeObj aNode = this.root;
-        while (difference!=0) {
-            T currKey = aNode.key;
-            difference = targetKey.compareTo(currKey); // uses default compareTo type ordering
-            if (difference < 0) {
-                aNode = aNode.left;
-            } else if (difference > 0) {
-                aNode = aNode.right;
+        if (!selfBalancing()) {
+            return cutRange(lo, hi);
+        }
+        List<T> doomed = new ArrayList<T>();
+        scan(lo, hi).forEachRemaining(doomed::add);
+        int removed = doomed.size();
+        if ((long) removed * (32 - Integer.numberOfLeadingZeros(size)) <= size) {
+            for (T value : doomed) {
+                remove(value);
+            }
+            return removed;
+        }
+        Object[] nodes = nodesInOrder();
+        int keptCount = 0;
+        for (Object element : nodes) {
+            NodeObj aNode = node(element);
+            if (aNode.key.compareTo(lo) < 0 || aNode.key.compareTo(hi) > 0) {
+                nodes[keptCount++] = aNode;
+            } else {
+                release(aNode);
             }
-            nodeHeight++;
         }
-        return nodeHeight;
+        relinkBalanced(nodes, keptCount, false);
+        return removed;
     }
+
     /**
-     * Obtains parent node of the node given in that tree
-     * @param myNode        the NodeObj of which we want to find parent in this BST
-     * @return              the parent of the NodeObj given; empty node if myNode is not present in this tree
+     * Helper method for a tree that does not self-balance which splits off the values below lo and above hi and
+     * joins them, dropping the subtree of values in between
+     * @param lo            the smallest value to be removed
+     * @param hi            the greatest value to be removed
+     * @return              the number of values removed
+     * @see                 #removeRange(Comparable, Comparable)
      */
-    public NodeObj getParentNode(NodeObj myNode) {
-        return iterGetParent(myNode, this.root);
+    private int cutRange(T lo, T hi) {
+        modCount++;
+        Object[] below = splitAt(root, lo, false);
+        Object[] inside = splitAt(node(below[1]), hi, true);
+        int removed = 0;
+        NodeStack stack = new NodeStack();
+        if (inside[0] != null) {
+            stack.push(node(inside[0]));
+        }
+        while (!stack.isEmpty()) {
+            NodeObj aNode = stack.pop();
+            if (aNode.left != null) {
+                stack.push(aNode.left);
+            }
+            if (aNode.right != null) {
+                stack.push(aNode.right);
+            }
+            release(aNode);
+            removed++;
+        }
+        NodeObj top = joinRight(node(below[0]), node(inside[1]));
+        setParent(top, null);
+        this.root = (top != null) ? top : newNode(null);
+        this.size -= removed;
+        return removed;
     }
 
     /**
-     * Helper method which finds the parent node iteratively by node key comparisons, starting with a specific root.
-     * This method is also used for removing duplicated values when joining subtrees to this BST
-     * @param myNode        the NodeObj of which we want to find parent in this BST
-     * @param myRoot        the first node to be checked for being the parent;
-     * @return              the parent of the NodeObj given; empty node if myNode is not present in this tree
-     * @see                 #addNode(NodeObj)
+     * Helper method which splits a subtree along the search path of a value into the nodes before it and the nodes
+     * after it. Each node on the path is hooked to the part it belongs to, so only the path is relinked and the
+     * subtree sizes only change on the path.
+     * @param subtreeTop    the NodeObj at the top of the subtree, or <code>null</code>
+     * @param word          the value of type T to split at
+     * @param inclusive     <code>true</code> if a node with key word goes to the first part
+     * @return              the tops of the two parts, either of which may be <code>null</code>
      */
-    private NodeObj iterGetParent(NodeObj myNode, NodeObj myRoot) {
-        T targetKey = myNode.key;
-        int difference=1; // lexicographical difference
-        NodeObj aNode = myRoot;
-        if (aNode.key.equals(myNode.key) || targetKey == null) {
-            System.out.printf("Node with value %s is empty or has no parent in this tree.\n",
-                    (targetKey!=null ? targetKey.toString() : "null"));
-            return EMPTY_NODE;
-        }
-        while (! ( ((aNode.getLeftChild().getKey() != null) && aNode.getLeftChild().getKey().equals(targetKey)) ||
-                ((aNode.getRightChild().getKey() != null) && aNode.getRightChild().getKey().equals(targetKey))) ) {
-            difference = targetKey.compareTo(aNode.key);
-            if (difference > 0) {
+    private Object[] splitAt(NodeObj subtreeTop, T word, boolean inclusive) {
+        Object[] parts = new Object[2];
+        NodeObj lowerTail = null; // greatest node of the first part, whose right child is still open
+        NodeObj upperTail = null; // smallest node of the second part, whose left child is still open
+        List<NodeObj> path = new ArrayList<NodeObj>();
+        NodeObj aNode = subtreeTop;
+        while (aNode != null) {
+            path.add(aNode);
+            int difference = aNode.key.compareTo(word);
+            if (difference < 0 || (difference == 0 && inclusive)) {
+                if (lowerTail == null) {
+                    parts[0] = aNode;
+                } else {
+                    lowerTail.right = aNode;
+                }
+                setParent(aNode, lowerTail);
+                lowerTail = aNode;
                 aNode = aNode.right;
             } else {
+                if (upperTail == null) {
+                    parts[1] = aNode;
+                } else {
+                    upperTail.left = aNode;
+                }
+                setParent(aNode, upperTail);
+                upperTail = aNode;
                 aNode = aNode.left;
             }
         }
-        return aNode;
+        if (lowerTail != null) {
+            lowerTail.right = null;
+        }
+        if (upperTail != null) {
+            upperTail.left = null;
+        }
+        if (orderStatistics) {
+            for (int i = path.size() - 1; i >= 0; i--) {
+                updateCount(path.get(i)); // a node only gains children found later on the path
+            }
+        }
+        return parts;
     }
 
     /**
-     * Gets the height of the tree measured by nodes (root with non-empty key has height 1)
-     * @return          height of this tree as an int
+     * Helper method which joins two subtrees by hanging the second one from the greatest node of the first
+     * @param lower         the top of the subtree with the smaller values, or <code>null</code>
+     * @param upper         the top of the subtree with the greater values, or <code>null</code>
+     * @return              the top of the joined subtree
      */
-    public int getHeight() {
-        if (root==null) {
-            return 0;
+    private NodeObj joinRight(NodeObj lower, NodeObj upper) {
+        if (lower == null || upper == null) {
+            return (lower != null) ? lower : upper;
         }
-        // 2 'if' blocks to avoid null pointer exception
-        if (root.key == null) {
-            return 0;
+        NodeObj aNode = lower;
+        while (true) {
+            if (orderStatistics) {
+                aNode.count += upper.count;
+            }
+            if (aNode.right == null) {
+                break;
+            }
+            aNode = aNode.right;
+        }
+        aNode.right = upper;
+        setParent(upper, aNode);
+        return lower;
+    }
+
+    /**
+     * Helper method which reports a node removed in bulk to the listener and clears it, so that it cannot be
+     * mistaken for a node of this tree
+     * @param aNode         the NodeObj taken out of this tree
+     */
+    private void release(NodeObj aNode) {
+        if (listener != null) {
+            listener.onRemove(aNode.key, true);
         }
-        return recurCheckDepth(root, 1);
+        aNode.key = null;
+        aNode.setValue(null);
+        aNode.left = null;
+        aNode.right = null;
+        aNode.linkParent(null);
     }
 
+    /**
+     * Helper method which copies the values of a collection to an array in ascending order without duplicates. The
+     * values are only sorted if they are not in order already.
+     * @param values        the values of type T
+     * @return              the array of distinct values in ascending order
+     */
+    private Object[] sortedDistinct(Collection<? extends T> values) {
+        Object[] batch = values.toArray();
+        boolean sorted = true;
+        for (int i = 0; i < batch.length; i++) {
+            if (batch[i] == null) {
+                throw new NullPointerException("null values cannot be added or removed in a batch");
+            }
+            if (sorted && i > 0 && key(batch[i-1]).compareTo(key(batch[i])) > 0) {
+                sorted = false;
+            }
+        }
+        if (!sorted) {
+            Arrays.sort(batch);
+        }
+        int distinctCount = 0;
+        for (int i = 0; i < batch.length; i++) {
+            if (distinctCount == 0 || key(batch[distinctCount-1]).compareTo(key(batch[i])) != 0) {
+                batch[distinctCount++] = batch[i];
+            }
+        }
+        return Arrays.copyOf(batch, distinctCount);
+    }
 
     /**
-     * Calls <code>removeNode</code> method uses the value given to find and pass in the node to be removed
-     * @param value     the key value of type T of the node to be removed
-     * @return          <code>true</code> if the node existed before and was removed successfully;
-     *                  <code>false</code> otherwise
+     * Helper method which collects the non-empty nodes of this tree in in-order
+     * @return              the array of all nodes with keys in ascending order
      */
-    public boolean remove(T value) {
-        return removeNode(getNode(value)) != null;
+    Object[] nodesInOrder() {
+        Object[] nodes = new Object[size];
+        int nodeCount = 0;
+        NodeStack stack = new NodeStack();
+        NodeObj aNode = (root.key != null) ? root : null;
+        while (aNode != null || !stack.isEmpty()) {
+            while (aNode != null) {
+                stack.push(aNode);
+                aNode = aNode.left;
+            }
+            aNode = stack.pop();
+            nodes[nodeCount++] = aNode;
+            aNode = aNode.right;
+        }
+        return nodes;
     }
 
+    /**
+     * Helper method which relinks nodes given in ascending order into a tree whose levels are all full except
+     * possibly the last one, and makes it the whole of this tree. Heights, colours and subtree sizes are set on the
+     * way back up.
+     * @param nodes         the array of nodes in ascending order
+     * @param nodeCount     the number of nodes to be used from the start of the array
+     * @param parallel      <code>true</code> to link the nodes in the common fork-join pool
+     */
+    private void relinkBalanced(Object[] nodes, int nodeCount, boolean parallel) {
+        modCount++;
+        int fullLevels = 31 - Integer.numberOfLeadingZeros(nodeCount + 1); // levels that will have no gaps
+        NodeObj top = (parallel) ? ForkJoinPool.commonPool().invoke(new LinkTask(nodes, 0, nodeCount, 1, fullLevels))
+                : linkRange(nodes, 0, nodeCount, 1, fullLevels);
+        setParent(top, null);
+        this.root = (top != null) ? top : newNode(null);
+        this.size = nodeCount;
+    }
 
     /**
-     * Deletes parent nodes' pointers leading to myNode from the tree and sets this node's left, right and
-     * key values to null. Replaces the pointers with different nodes if myNode has children
-     * @param myNode    the NodeObj to be removed
-     * @return          the node key of type T if removed successfully;
-     *                  <code>null</code> if this node is not present in this tree
+     * Recursive helper method which makes the middle node of a range the parent of the trees built from both halves.
+     * The halves never differ in size by more than one, so the recursion is only O(log n) deep.
+     * @param nodes         the array of nodes in ascending order
+     * @param from          the index of the first node of the range
+     * @param to            the index after the last node of the range
+     * @param level         the level of the middle node in the whole tree
+     * @param fullLevels    the number of levels of the tree that have no gaps
+     * @return              the top of the subtree; <code>null</code> if the range is empty
      */
-    public T removeNode(NodeObj myNode) {
-        if (!contains(myNode.key)) {
+    private NodeObj linkRange(Object[] nodes, int from, int to, int level, int fullLevels) {
+        if (from >= to) {
             return null;
         }
-        return removeNode(myNode, iterGetParent(myNode, root));
+        int mid = (from + to) >>> 1;
+        NodeObj aNode = node(nodes[mid]);
+        aNode.left = linkRange(nodes, from, mid, level + 1, fullLevels);
+        aNode.right = linkRange(nodes, mid + 1, to, level + 1, fullLevels);
+        setParent(aNode.left, aNode);
+        setParent(aNode.right, aNode);
+        updateHeight(aNode);
+        updateCount(aNode);
+        aNode.red = (balanceMode == BalanceMode.RED_BLACK && level > fullLevels);
+        return aNode;
     }
 
     /**
-     * Helper method to remove the node given relative to its specified parent.
-     *
-     * @param myNode        the NodeObj to be removed
-     * @param parentNode    the parent NodeObj of myNode
-     * @return              the node key of type T if removed successfully;
-     *                      <code>null</code> if this node is not present in this tree
-     * @see                 #removeNode(NodeObj)
+     * LinkTask is an inner class of <code>BinarySearchTree</code> which relinks a range of nodes given in ascending
+     * order in the common fork-join pool. Ranges of both halves are linked in parallel until they become small
+     * enough for <code>linkRange</code>.
      */
-    private T removeNode(NodeObj myNode, NodeObj parentNode) {
-        boolean leftOfParent;
-        T nodeKey = myNode.key;
-        int level = getNodeDepth(nodeKey);
-        if (level == -1 || nodeKey == null) {
-            System.out.printf("Node with value %s not present in this tree.\n",
-                    (nodeKey!=null ? nodeKey.toString() : "null"));
-            return null;
+    private class LinkTask extends RecursiveTask<NodeObj> {
+        private final Object[] nodes;
+        private final int from, to, level, fullLevels;
+
+        /**
+         * Class constructor
+         * @param nodes         the array of nodes in ascending order
+         * @param from          the index of the first node of the range
+         * @param to            the index after the last node of the range
+         * @param level         the level of the middle node in the whole tree
+         * @param fullLevels    the number of levels of the tree that have no gaps
+         */
+        private LinkTask(Object[] nodes, int from, int to, int level, int fullLevels) {
+            this.nodes = nodes;
+            this.from = from;
+            this.to = to;
+            this.level = level;
+            this.fullLevels = fullLevels;
+        }
+
+        @Override
+        protected NodeObj compute() {
+            if (to - from <= PARALLEL_THRESHOLD) {
+                return linkRange(nodes, from, to, level, fullLevels);
+            }
+            int mid = (from + to) >>> 1;
+            LinkTask leftTask = new LinkTask(nodes, from, mid, level + 1, fullLevels);
+            leftTask.fork();
+            NodeObj rightTop = new LinkTask(nodes, mid + 1, to, level + 1, fullLevels).compute();
+            NodeObj aNode = node(nodes[mid]);
+            aNode.left = leftTask.join();
+            aNode.right = rightTop;
+            setParent(aNode.left, aNode);
+            setParent(aNode.right, aNode);
+            updateHeight(aNode);
+            updateCount(aNode);
+            aNode.red = (balanceMode == BalanceMode.RED_BLACK && level > fullLevels);
+            return aNode;
         }
+    }
+
+    /**
+     * @param element       the element of an array of nodes
+     * @return              the element cast to NodeObj
+     */
+    @SuppressWarnings("unchecked")
+    NodeObj node(Object element) {
+        return (NodeObj) element;
+    }
+
+    /**
+     * @param element       the element of an array of values
+     * @return              the element cast to T
+     */
+    @SuppressWarnings("unchecked")
+    private T key(Object element) {
+        return (T) element;
+    }
 
-        leftOfParent = myNode.key.compareTo(parentNode.key) < 0;
-        // 3 cases: leaf, 1 child, 2 children
-        // 1. myNode is a leaf
-        if (myNode.left==null && myNode.right==null) { // if it is a leaf
-            myNode.key = null;
+    /**
+     * Splits this tree at the key given: all values greater than or equal to key are moved into a new tree, which
+     * is returned, and the smaller values stay in this tree. Both trees keep the balance mode of this tree and are
+     * relinked with minimal height in O(n) time, reusing the existing nodes.
+     * @param key           the smallest value to be moved to the new tree
+     * @return              a new tree with the values of this tree not smaller than key
+     * @see                 #join(BinarySearchTree)
+     */
+    public BinarySearchTree<T> split(T key) {
+        BinarySearchTree<T> upper = newEmptyTree();
+        splitInto(key, upper);
+        return upper;
+    }
 
-            myNode = null;
-            if (leftOfParent) {
-                parentNode.left = null;
+    /**
+     * Helper method for <code>split</code> which moves the nodes with values greater than or equal to the key given
+     * into an empty tree made by <code>newEmptyTree</code>, so that a subclass can keep the type of that tree
+     * @param key           the smallest value to be moved
+     * @param upper         the empty tree receiving the nodes
+     * @see                 #split(Comparable)
+     */
+    void splitInto(T key, BinarySearchTree<T> upper) {
+        Object[] nodes = nodesInOrder();
+        int low = 0;
+        int high = nodes.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (node(nodes[mid]).key.compareTo(key) < 0) {
+                low = mid + 1;
             } else {
-                parentNode.right = null;
+                high = mid;
             }
-            allNodeKeys.remove(nodeKey);
-            return nodeKey;
         }
-        // 2. myNode has 1 child
-        if (myNode.left==null) {
-            if (leftOfParent) {
-                parentNode.left = myNode.right;
-            } else {
-                parentNode.right = myNode.right;
-            }
-            myNode=null;
-            allNodeKeys.remove(nodeKey);
-            return nodeKey;
-        } else if (myNode.right==null) {
-            if (leftOfParent) {
-                parentNode.left = myNode.left;
-            } else {
-                parentNode.right = myNode.left;
-            }
-            myNode = null;
-            allNodeKeys.remove(nodeKey);
-            return nodeKey;
-        }
-        // 3. myNode has 2 children
-        // swap the value to be removed with the smallest value in the right subtree
-        NodeObj tempNode = myNode.right;
-        while (tempNode.left != null) {
-            tempNode = tempNode.left;
-        }
-        allNodeKeys.remove(nodeKey);
-        myNode.key = tempNode.key;
-        tempNode.key = null;
-        tempNode.right = null;
-        tempNode.left = null;
-        getParentNode(myNode).left = null;
-        return nodeKey;
+        upper.relinkBalanced(Arrays.copyOfRange(nodes, low, nodes.length), nodes.length - low, false);
+        relinkBalanced(nodes, low, false);
     }
 
     /**
-     * Recursive helper method for finding how deep is the deepest node in a tree or a subtree
-     * @param aNode             the NodeObj of known depth in this BST
-     * @param deepestHeight     the integer for the depth of aNode
-     * @return                  the depth of the lowest leaf in this subtree
-     * @see                     #getHeight()
-     * @see                     #getNodeDepth(Comparable)
+     * Helper method which creates an empty tree of the same class and settings as this tree, to receive nodes moved
+     * out of this tree
+     * @return              a new empty tree with the balance mode and order statistics of this tree
+     * @see                 #split(Comparable)
+     */
+    BinarySearchTree<T> newEmptyTree() {
+        return new BinarySearchTree<T>(balanceMode, orderStatistics, parentLinks);
+    }
+
+    /**
+     * Helper method which creates every node of this tree, including the empty root. A tree with parent links
+     * creates nodes which keep the link, and a subclass whose nodes hold more data, such as
+     * <code>BinarySearchTreeMap</code>, returns its own subclass of NodeObj.
+     * @param key           the key of type T of the new node, <code>null</code> for an empty node
+     * @return              a new NodeObj with the key given and no children
      */
-    private int recurCheckDepth (NodeObj aNode, int deepestHeight) {
-        if (aNode.left==null && aNode.right==null) {
-            return deepestHeight;
+    NodeObj newNode(T key) {
+        return (parentLinks) ? new LinkedNode<T>(this, key) : new NodeObj(key);
+    }
+
+    /**
+     * Helper method telling whether a node from another tree can be linked into this tree as it is. All nodes of a
+     * tree are made by the same <code>newNode</code>, so a node of another class lacks fields this tree uses.
+     * @param aNode         the NodeObj of any tree
+     * @return              <code>true</code> if aNode has the class of the nodes of this tree; <code>false</code>
+     *                      if it has to be copied
+     */
+    private boolean sameLayout(NodeObj aNode) {
+        return aNode.getClass() == root.getClass();
+    }
+
+    /**
+     * Joins a tree whose values are all greater than the values of this tree to this tree. The nodes of both trees
+     * are relinked with minimal height in O(n + m) time, and the tree given is left empty.
+     * @param greater       the tree with values greater than all values of this tree
+     * @throws IllegalArgumentException if the tree given is this tree or it has a value not greater than the
+     *                      values of this tree
+     * @see                 #split(Comparable)
+     */
+    public void join(BinarySearchTree<T> greater) {
+        Object[] lower = nodesInOrder();
+        Object[] upper = greater.nodesInOrder();
+        if (greater == this || (lower.length > 0 && upper.length > 0
+                && node(lower[lower.length-1]).key.compareTo(node(upper[0]).key) >= 0)) {
+            throw new IllegalArgumentException("the values of the joined tree must be greater than of this tree");
         }
-        if (aNode.left != null) {
-            if (aNode.right != null) {
-                return Math.max(recurCheckDepth(aNode.left, deepestHeight + 1), recurCheckDepth(aNode.right, deepestHeight + 1));
+        Object[] nodes = Arrays.copyOf(lower, lower.length + upper.length);
+        for (int i = 0; i < upper.length; i++) {
+            NodeObj aNode = node(upper[i]);
+            if (!sameLayout(aNode)) {
+                NodeObj copy = newNode(aNode.key); // e.g. a plain node joined to a map
+                copy.setValue(aNode.value());
+                aNode = copy;
             }
-            return recurCheckDepth(aNode.left, deepestHeight + 1);
+            nodes[lower.length + i] = aNode;
         }
-        return recurCheckDepth(aNode.right, deepestHeight + 1);
+        relinkBalanced(nodes, nodes.length, false);
+        greater.relinkBalanced(upper, 0, false);
     }
 
     /**
-     * Recursive helper method for <code>add</code> method. Compares the node keys to find the right position in
-     * the tree. Places a new node and increments tree height if needed
-     * @param currNodeObj       the node of which the key needs to be compared to find correct position
-     * @param word              the value of type T to be used to initialise a new NodeObj
-     * @see                     #add(Comparable)
+     * Returns a new tree with the values found in this tree or in the tree given. The in-order sequences of both
+     * trees are merged in O(n + m) time and the result is built with minimal height; both trees stay unchanged.
+     * Unlike grafting with <code>addNode</code>, this never compares a value more than once per tree.
+     * @param other         the tree whose values are added to the values of this tree
+     * @return              a new tree of the balance mode of this tree with the union of values
+     * @see                 #parallelUnion(BinarySearchTree)
      */
-    private void checkAndPlace(NodeObj currNodeObj, T word) {
-        temp = word.compareTo(currNodeObj.key);
-        if (temp > 0) {
-            if(currNodeObj.right==null) {
-                currNodeObj.right = new NodeObj(word);
-                this.allNodeKeys.add(currNodeObj.right.key);
-            } else {
-                checkAndPlace(currNodeObj.right, word);
+    public BinarySearchTree<T> union(BinarySearchTree<T> other) {
+        return combine(other, SetOperation.UNION, false);
+    }
+
+    /**
+     * Returns a new tree with the values found in both this tree and the tree given, in O(n + m) time; both trees
+     * stay unchanged
+     * @param other         the tree whose values are kept if they are in this tree too
+     * @return              a new tree of the balance mode of this tree with the intersection of values
+     * @see                 #parallelIntersect(BinarySearchTree)
+     */
+    public BinarySearchTree<T> intersect(BinarySearchTree<T> other) {
+        return combine(other, SetOperation.INTERSECTION, false);
+    }
+
+    /**
+     * Returns a new tree with the values found in this tree but not in the tree given, in O(n + m) time; both
+     * trees stay unchanged
+     * @param other         the tree whose values are left out
+     * @return              a new tree of the balance mode of this tree with the difference of values
+     * @see                 #parallelDifference(BinarySearchTree)
+     */
+    public BinarySearchTree<T> difference(BinarySearchTree<T> other) {
+        return combine(other, SetOperation.DIFFERENCE, false);
+    }
+
+    /**
+     * Parallel version of <code>union</code>: the keys of both trees are exported, merged in independent key
+     * ranges and linked into the new tree with the common fork-join pool
+     * @param other         the tree whose values are added to the values of this tree
+     * @return              a new tree of the balance mode of this tree with the union of values
+     * @see                 #union(BinarySearchTree)
+     */
+    public BinarySearchTree<T> parallelUnion(BinarySearchTree<T> other) {
+        return combine(other, SetOperation.UNION, true);
+    }
+
+    /**
+     * Parallel version of <code>intersect</code>, using the common fork-join pool
+     * @param other         the tree whose values are kept if they are in this tree too
+     * @return              a new tree of the balance mode of this tree with the intersection of values
+     * @see                 #intersect(BinarySearchTree)
+     */
+    public BinarySearchTree<T> parallelIntersect(BinarySearchTree<T> other) {
+        return combine(other, SetOperation.INTERSECTION, true);
+    }
+
+    /**
+     * Parallel version of <code>difference</code>, using the common fork-join pool
+     * @param other         the tree whose values are left out
+     * @return              a new tree of the balance mode of this tree with the difference of values
+     * @see                 #difference(BinarySearchTree)
+     */
+    public BinarySearchTree<T> parallelDifference(BinarySearchTree<T> other) {
+        return combine(other, SetOperation.DIFFERENCE, true);
+    }
+
+    /**
+     * SetOperation is a nested enum of <code>BinarySearchTree</code> naming the operation merging two sorted
+     * sequences of keys
+     */
+    private enum SetOperation {
+        UNION, INTERSECTION, DIFFERENCE
+    }
+
+    /**
+     * Helper method which merges the keys of this tree and of the tree given and builds a new tree from the result.
+     * In parallel, the keys of the larger tree are cut into chunks and the keys of both trees are cut at the first
+     * key of each chunk, so that all chunk pairs can be merged independently; the merged chunks are then counted,
+     * their positions found with a parallel prefix sum and copied next to each other.
+     * @param other         the second operand
+     * @param operation     the operation deciding which keys are kept
+     * @param parallel      <code>true</code> to use the common fork-join pool
+     * @return              a new tree of the balance mode of this tree with the keys kept
+     */
+    private BinarySearchTree<T> combine(BinarySearchTree<T> other, SetOperation operation, boolean parallel) {
+        Object[] a = keysInOrder(parallel);
+        Object[] b = other.keysInOrder(parallel);
+        Object[] merged;
+        int mergedCount;
+        Object[] larger = (a.length >= b.length) ? a : b;
+        int chunkCount = (parallel) ? Math.min(4 * ForkJoinPool.getCommonPoolParallelism(),
+                larger.length / PARALLEL_THRESHOLD) : 0;
+        if (chunkCount < 2) {
+            merged = new Object[a.length + b.length];
+            mergedCount = mergeKeys(operation, a, 0, a.length, b, 0, b.length, merged);
+        } else {
+            int[] aStarts = new int[chunkCount+1];
+            int[] bStarts = new int[chunkCount+1];
+            for (int i = 1; i < chunkCount; i++) {
+                T boundary = key(larger[(int) ((long) i * larger.length / chunkCount)]);
+                aStarts[i] = lowerBound(a, boundary);
+                bStarts[i] = lowerBound(b, boundary);
             }
+            aStarts[chunkCount] = a.length;
+            bStarts[chunkCount] = b.length;
+            Object[][] chunks = new Object[chunkCount][];
+            int[] offsets = new int[chunkCount+1];
+            IntStream.range(0, chunkCount).parallel().forEach(i -> {
+                chunks[i] = new Object[aStarts[i+1] - aStarts[i] + bStarts[i+1] - bStarts[i]];
+                offsets[i+1] = mergeKeys(operation, a, aStarts[i], aStarts[i+1], b, bStarts[i], bStarts[i+1],
+                        chunks[i]);
+            });
+            Arrays.parallelPrefix(offsets, Integer::sum);
+            mergedCount = offsets[chunkCount];
+            Object[] result = new Object[mergedCount];
+            IntStream.range(0, chunkCount).parallel().forEach(i ->
+                    System.arraycopy(chunks[i], 0, result, offsets[i], offsets[i+1] - offsets[i]));
+            merged = result;
+        }
+        BinarySearchTree<T> combined = new BinarySearchTree<T>(balanceMode, orderStatistics, parentLinks);
+        if (parallel) {
+            IntStream.range(0, mergedCount).parallel().forEach(i -> merged[i] = combined.newNode(key(merged[i])));
         } else {
-            if(currNodeObj.left==null) {
-                currNodeObj.left = new NodeObj(word);
-                this.allNodeKeys.add(currNodeObj.left.key);
+            for (int i = 0; i < mergedCount; i++) {
+                merged[i] = combined.newNode(key(merged[i]));
+            }
+        }
+        combined.relinkBalanced(merged, mergedCount, parallel);
+        return combined;
+    }
+
+    /**
+     * Helper method which merges two ranges of sorted keys, writing the keys kept by the operation to the start
+     * of the output array
+     * @param operation     the operation deciding which keys are kept
+     * @param a             the keys of the first operand in ascending order
+     * @param aFrom         the index of the first key of the range in a
+     * @param aTo           the index after the last key of the range in a
+     * @param b             the keys of the second operand in ascending order
+     * @param bFrom         the index of the first key of the range in b
+     * @param bTo           the index after the last key of the range in b
+     * @param out           the array for the keys kept
+     * @return              the number of keys written
+     */
+    private int mergeKeys(SetOperation operation, Object[] a, int aFrom, int aTo, Object[] b, int bFrom, int bTo,
+                          Object[] out) {
+        int i = aFrom, j = bFrom, outCount = 0;
+        while (i < aTo && j < bTo) {
+            int difference = key(a[i]).compareTo(key(b[j]));
+            if (difference < 0) {
+                if (operation != SetOperation.INTERSECTION) {
+                    out[outCount++] = a[i];
+                }
+                i++;
+            } else if (difference > 0) {
+                if (operation == SetOperation.UNION) {
+                    out[outCount++] = b[j];
+                }
+                j++;
             } else {
-                checkAndPlace(currNodeObj.left, word);
+                if (operation != SetOperation.DIFFERENCE) {
+                    out[outCount++] = a[i];
+                }
+                i++;
+                j++;
             }
         }
+        if (operation != SetOperation.INTERSECTION) {
+            while (i < aTo) {
+                out[outCount++] = a[i++];
+            }
+        }
+        if (operation == SetOperation.UNION) {
+            while (j < bTo) {
+                out[outCount++] = b[j++];
+            }
+        }
+        return outCount;
     }
 
     /**
-     * Traverses through all nodes in this BST and returns an ArrayList of all keys in pre-order
-     * @return              the <code>ArrayList</code> of all values in this tree in pre-oder (root, left, right)
+     * @param keys          the keys in ascending order
+     * @param key           the key to be located
+     * @return              the index of the first key not smaller than key; the length of keys if there is none
      */
-    public List<T> asListPreOrder() { // returns an ArrayList containing
-        List<T> preOrdList = new ArrayList<T>();
-        recurPreOrder(root, preOrdList);
-        return preOrdList;
+    private int lowerBound(Object[] keys, T key) {
+        int low = 0;
+        int high = keys.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (key(keys[mid]).compareTo(key) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
     }
 
     /**
-     * Recursive helper function which adds the node values to the list in pre-order
-     * @param myNode        the next NodeObj of which the get gets added to the list
-     * @param preOrdList    the list that will contain the all node values in pre-order
-     * @see                 #asListPreOrder()
+     * Helper method which returns the keys of this tree in ascending order
+     * @param parallel      <code>true</code> to copy the keys with <code>toArrayInOrder</code>
+     * @return              the array of all keys in ascending order
      */
-    private void recurPreOrder(NodeObj myNode, List<T> preOrdList) {
-        preOrdList.add(myNode.key);
-        if (myNode.getLeftChild().getKey() != null) {
-            recurPreOrder(myNode.left, preOrdList);
+    @SuppressWarnings("unchecked")
+    private Object[] keysInOrder(boolean parallel) {
+        if (parallel && size > 0) {
+            return toArrayInOrder((T[]) new Comparable[size]);
         }
-        if (myNode.getRightChild().getKey() != null) {
-            recurPreOrder(myNode.right, preOrdList);
+        Object[] keys = nodesInOrder();
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = node(keys[i]).key;
         }
+        return keys;
     }
 
     /**
-     * Traverses through all nodes in this BST and returns an ArrayList of all keys in natural order (in-order)
-     * @return              the <code>ArrayList</code> of all values in this tree in in-order (left, root, right)
+     * Checks if this tree contains the value given
+     * @param word          the value to be checked for
+     * @return              <code>true</code> if this BST contains a node with key with value of <code>word</code>;
+     *                      <code>false</code> if there is no such value in the tree
      */
-    public List<T> asListInOrder() {
-        List<T> inOrdList = new ArrayList<T>();
-        recurInOrder(root, inOrdList);
-        return inOrdList;
+    public boolean contains(T word) {
+        return findNode(word) != null;
     }
 
     /**
-     * Recursive helper function which adds the node values to the list in natural, ascending order (in-order)
-     * @param myNode        the next NodeObj of which the key gets added to the list
-     * @param inOrdList     the list that will contain the all node values in ascending (in-order)
-     * @see                 #asListInOrder()
+     * Helper method which descends from the root comparing keys until it reaches the node with the value given.
+     * The lookup is reported to the listener with the number of comparisons made.
+     * @param targetKey     the value of type T to be found
+     * @return              the NodeObj storing targetKey; <code>null</code> if there is no such node in this tree
      */
-    private void recurInOrder(NodeObj myNode, List<T> inOrdList) {
-        if (myNode.getLeftChild().getKey() != null) {
-            recurInOrder(myNode.left, inOrdList);
+    private NodeObj findNode(T targetKey) {
+        int comparisons = 0;
+        List<NodeObj> path = null; // nodes to be splayed, only collected by a splaying lookup
+        if (balanceMode == BalanceMode.SPLAY && ++lookupsSinceSplay >= splayInterval) {
+            lookupsSinceSplay = 0;
+            path = lookupPath;
         }
-        inOrdList.add(myNode.key);
-        if (myNode.getRightChild().getKey() != null) {
-            recurInOrder(myNode.right, inOrdList);
+        NodeObj aNode = (targetKey == null || root.key == null) ? null : this.root;
+        while (aNode != null) {
+            comparisons++;
+            if (path != null) {
+                path.add(aNode);
+            }
+            int difference = targetKey.compareTo(aNode.key); // uses default compareTo type ordering
+            if (difference == 0) {
+                break;
+            }
+            aNode = (difference < 0) ? aNode.left : aNode.right;
+        }
+        if (listener != null) {
+            listener.onLookup(targetKey, comparisons, aNode != null);
+        }
+        if (path != null && !path.isEmpty()) {
+            splay(path); // the node found, or the last node passed if targetKey is missing
+            path.clear();
         }
+        return aNode;
     }
 
     /**
-     * Traverses through all nodes in this BST and returns an ArrayList of all keys in post-order
-     * @return              the <code>ArrayList</code> of all values in this tree in post-order (left, right, root)
+     * Helper method for safe return of default or <code>null</code> value for type T
+     * @return              <code>null</code> or other default value used for empty keys
      */
-    public List<T> asListPostOrder() {
-        List<T> postOrdList = new ArrayList<T>();
-        recurPostOrder(root, postOrdList);
-        return postOrdList;
+    private T getDefaultValue() {
+        return DEFAULT_EMPTY_T;
     }
 
     /**
-     * Recursive helper function which adds the node values to the list in post-order
-     * @param myNode        the next NodeObj of which the key gets added to the list
-     * @param postOrdList   the list that will contain the all node values in post-order
-     * @see                 #asListPostOrder()
+     * Compares given value with subsequent node keys, starting at the root, finding a node with the same value
+     * using natural ordering of type T
+     * @param targetKey     the T-type value for the matching node/subtree to be found
+     * @return              the NodeObj node or a subtree(if children are present); empty node if value not present
      */
-    private void recurPostOrder(NodeObj myNode, List<T> postOrdList) {
-        if (myNode.getLeftChild().getKey() != null) {
-            recurPostOrder(myNode.left, postOrdList);
-        }
-        if (myNode.getRightChild().getKey() != null) {
-            recurPostOrder(myNode.right, postOrdList);
+    public NodeObj getNode(T targetKey) { // returns a node or a subtree
+        NodeObj aNode = findNode(targetKey);
+        if (aNode == null) {
+            return EMPTY_NODE; // Node has not been found in the tree, the key is invalid
         }
-        postOrdList.add(myNode.key);
+        return aNode;
     }
 
     /**
-     * Adds all node values in this tree to a <code>TreeSet</code> of type T using an <code>Iterator</code>data
-     * and returns that TreeSet
-     * @return              the TreeSet of type T containing all keys from all nodes in this BST
+     * Overloaded method that finds how deep a node resides in this BST
+     * @param myNode        the NodeObj (depth of which we need)
+     * @return              -1 if node is <code>null</code> or is not in this this tree; depth in range between 1
+     *                      and BST's height otherwise
      */
-    public TreeSet<T> toTreeSet() {
-        int i = 0;
-        T word;
-        List<T> allNodes = new ArrayList<T>(allNodeKeys);
-        TreeSet<T> myTree = new TreeSet<T>();
-        while (i < allNodes.size()) {
-            word = allNodes.get(i);
-            if (word != null) {
-                myTree.add(word);
+    public int getNodeDepth(NodeObj myNode) {
+        return getNodeDepth(myNode.getKey());
+    }
+
+    /**
+     * Returns the level at which the specified value of type T resides in a node in this tree
+     * @param targetKey     the node key of type T
+     * @return              -1 if value is <code>null</code> or is not in this this tree; depth in range between 1
+     *                      and BST's height otherwise
+     */
+    public int getNodeDepth(T targetKey) {
+        int nodeHeight = 0;
+        NodeObj aNode = (targetKey == null || root.key == null) ? null : this.root;
+        while (aNode != null) {
+            nodeHeight++;
+            int difference = targetKey.compareTo(aNode.key); // uses default compareTo type ordering
+            if (difference == 0) {
+                if (listener != null) {
+                    listener.onLookup(targetKey, nodeHeight, true);
+                }
+                return nodeHeight;
             }
-            i++;
+            aNode = (difference < 0) ? aNode.left : aNode.right;
         }
-        return myTree;
+        if (listener != null) {
+            listener.onLookup(targetKey, nodeHeight, false);
+        }
+        return -1; // Node has not been found in the tree, the key is invalid
     }
 
     /**
-     * Tells whether this tree has any values/nodes
-     * @return              <code>true</code> if root is <code>null</code> (thus the rest of the tree must be null);
-     *                      <code>false</code> otherwise
+     * Returns a new finger on this tree, which searches from the node it visited last instead of from the root.
+     * Looking up, adding and removing values near each other through one finger saves most of the descent.
+     * @return              a <code>Finger</code> which has not visited any node yet
+     * @see                 Finger
      */
-    public boolean isEmpty() {
-        return root.key==getDefaultValue();
+    public Finger finger() {
+        return new Finger();
     }
 
     /**
-     * Recursive helper function for displaying the BST in the console. Obtains all node keys and place them in
-     * <code>answer</code> String array. Add 'l:' before left child value, 'r:' before right and '-' where there
-     * are no children
-     * @param myNode        the NodeObj node or subtree to extract the key from to be added to String array
-     * @param level         the int representing node's row in the String array (NOT height)
-     * @see                 #toString()
+     * Finger is an inner class of <code>BinarySearchTree</code> which keeps the path from the root to the node it
+     * visited last, with the range of values each node on the path can hold. A search climbs the path only until it
+     * reaches a subtree whose range contains the value sought and descends from there, so in a balanced tree values
+     * close to the previous one, in sequential or clustered access, take O(log d) steps, where d is the number of
+     * keys between the two values, amortised over a run of accesses. The worst case is the climb back to the root
+     * and the full descent of a search from the root. Comparisons made on the way up are reported to the listener
+     * together with those on the way down.
+     * <p>
+     * The path stays valid while the tree keeps its shape. Any rotation, removal, rebuild or key change, made
+     * through the finger or through the tree, sends the next search back to the root, so in AVL, red-black and
+     * SPLAY modes a finger pays off between changes rather than across them. A value added through the finger in
+     * NONE mode becomes its new position, and a removal in NONE mode leaves it at the parent of the node unlinked.
+     * Searches through a finger never splay.
      */
-    private void recursiveToString(NodeObj myNode, int level) {
-        if (myNode.left!=null) {
-            answer[level] += "l:"+myNode.left.key+"\t";
-            recursiveToString(myNode.left, level+1);
-        } else {
-            answer[level] += "-\t";
+    public class Finger {
+        private final List<NodeObj> path = new ArrayList<NodeObj>(); // nodes from the root to the last node visited
+        private final List<T> lowerBounds = new ArrayList<T>(); // exclusive lower bound of each node, null for none
+        private final List<T> upperBounds = new ArrayList<T>(); // exclusive upper bound of each node, null for none
+        private int expectedModCount; // value of modCount when the path was last checked
+
+        /**
+         * Class constructor, for the method <code>finger</code> only
+         */
+        private Finger() {
+            this.expectedModCount = modCount;
         }
-        if (myNode.right!=null) {
-            answer[level] += "r:"+myNode.right.key+"\t";
-            recursiveToString(myNode.right, level+1);
-        } else {
-            answer[level] += "-\t";
+
+        /**
+         * Checks if the tree contains the value given, searching from the last position of this finger
+         * @param word          the value to be checked for
+         * @return              <code>true</code> if the tree contains a node with key word; <code>false</code>
+         *                      otherwise
+         */
+        public boolean contains(T word) {
+            return seek(word, true) != null;
+        }
+
+        /**
+         * Finds the node with the value given, searching from the last position of this finger
+         * @param targetKey     the value of type T
+         * @return              the NodeObj storing targetKey; empty node if the value is not present
+         */
+        public NodeObj getNode(T targetKey) {
+            NodeObj aNode = seek(targetKey, true);
+            return (aNode != null) ? aNode : EMPTY_NODE;
+        }
+
+        /**
+         * Finds the depth of a value, searching from the last position of this finger
+         * @param targetKey     the value of type T
+         * @return              -1 if the value is <code>null</code> or is not in the tree; depth in range between 1
+         *                      and the height of the tree otherwise
+         * @see                 BinarySearchTree#getNodeDepth(Comparable)
+         */
+        public int getNodeDepth(T targetKey) {
+            return (seek(targetKey, true) != null) ? path.size() : -1;
+        }
+
+        /**
+         * @return              the key of the node this finger visited last; <code>null</code> if it has not
+         *                      visited any node or the tree has changed its shape since
+         */
+        public T getKey() {
+            revalidate();
+            return (path.isEmpty()) ? getDefaultValue() : path.get(path.size()-1).key;
+        }
+
+        /**
+         * Adds a value to the tree below the node where a search from this finger ends, like
+         * <code>BinarySearchTree.add</code>
+         * @param word          the value of type T to be added to the tree
+         * @return              <code>true</code> if a new unique value was added; <code>false</code> otherwise
+         * @see                 BinarySearchTree#add(Comparable)
+         */
+        public boolean add(T word) {
+            if (word == null || root.key == null) {
+                return BinarySearchTree.this.add(word);
+            }
+            boolean added = (seek(word, false) == null);
+            if (added) {
+                NodeObj parentNode = path.get(path.size()-1);
+                int difference = word.compareTo(parentNode.key);
+                if (balanceMode == BalanceMode.NONE) {
+                    follow(attachLeaf(path, word, difference)); // the shape above the new node is unchanged
+                } else {
+                    attachLeaf(new ArrayList<NodeObj>(path), word, difference);
+                }
+            }
+            if (listener != null) {
+                listener.onAdd(word, added);
+            }
+            return added;
+        }
+
+        /**
+         * Removes a value from the tree, searching for it from the last position of this finger, like
+         * <code>BinarySearchTree.remove</code>
+         * @param word          the value of type T to be removed
+         * @return              <code>true</code> if the value was removed; <code>false</code> if it was not present
+         * @see                 BinarySearchTree#remove(Comparable)
+         */
+        public boolean remove(T word) {
+            boolean removed = (seek(word, false) != null);
+            if (removed) {
+                List<NodeObj> rest = new ArrayList<NodeObj>(path);
+                unlinkOnPath(rest);
+                if (balanceMode == BalanceMode.NONE) {
+                    reset();
+                    for (NodeObj pathNode : rest) {
+                        follow(pathNode); // the bounds are taken from the links, as a successor may have moved up
+                    }
+                }
+            }
+            if (listener != null) {
+                listener.onRemove(word, removed);
+            }
+            return removed;
+        }
+
+        /**
+         * Helper method which climbs the path of this finger until the value given lies in the range of the subtree
+         * reached, then descends from there like a search from the root, extending the path to the node found or to
+         * the last node passed. The value lies on one side of the last node visited, so only the bounds on that
+         * side are compared on the way up. A bound is the key of an ancestor and is shared by the nodes between
+         * them, so it is compared once, and the result also tells how the value compares with that ancestor.
+         * @param targetKey     the value of type T to be found
+         * @param report        <code>true</code> to report the search as a lookup to the listener
+         * @return              the NodeObj storing targetKey; <code>null</code> if there is no such node
+         */
+        private NodeObj seek(T targetKey, boolean report) {
+            revalidate();
+            int comparisons = 0;
+            NodeObj aNode = null;
+            int difference = 0;
+            if (targetKey != null && root.key != null) {
+                if (path.isEmpty()) {
+                    follow(root);
+                }
+                aNode = path.get(path.size()-1);
+                comparisons++;
+                difference = targetKey.compareTo(aNode.key);
+                List<T> bounds = (difference > 0) ? upperBounds : lowerBounds;
+                T passed = getDefaultValue(); // the last bound found not to enclose targetKey
+                int passedDifference = 0; // the result of comparing targetKey with passed
+                while (difference != 0 && path.size() > 1) {
+                    T bound = bounds.get(bounds.size()-1);
+                    if (bound == null) {
+                        break; // no bound on this side of the subtree
+                    }
+                    if (bound != passed) {
+                        comparisons++;
+                        passedDifference = targetKey.compareTo(bound);
+                        if (passedDifference != 0 && (passedDifference > 0) != (difference > 0)) {
+                            break; // the subtree of aNode encloses targetKey
+                        }
+                        passed = bound;
+                    }
+                    path.remove(path.size()-1);
+                    lowerBounds.remove(lowerBounds.size()-1);
+                    upperBounds.remove(upperBounds.size()-1);
+                    aNode = path.get(path.size()-1);
+                    if (aNode.key == passed) {
+                        difference = passedDifference; // the ancestor whose key is the bound
+                    }
+                }
+            }
+            while (aNode != null && difference != 0) {
+                aNode = (difference < 0) ? aNode.left : aNode.right;
+                if (aNode != null) {
+                    follow(aNode);
+                    comparisons++;
+                    difference = targetKey.compareTo(aNode.key);
+                }
+            }
+            if (report && listener != null) {
+                listener.onLookup(targetKey, comparisons, aNode != null);
+            }
+            return aNode;
+        }
+
+        /**
+         * Helper method which appends a node to the path, narrowing the range of its parent, the last node of the
+         * path, on the side of the node
+         * @param aNode         the root of the tree if the path is empty; a child of the last node otherwise
+         */
+        private void follow(NodeObj aNode) {
+            if (path.isEmpty()) {
+                lowerBounds.add(getDefaultValue());
+                upperBounds.add(getDefaultValue());
+            } else {
+                int last = path.size()-1;
+                NodeObj parentNode = path.get(last);
+                boolean leftChild = (parentNode.left == aNode);
+                lowerBounds.add((leftChild) ? lowerBounds.get(last) : parentNode.key);
+                upperBounds.add((leftChild) ? parentNode.key : upperBounds.get(last));
+            }
+            path.add(aNode);
+        }
+
+        /**
+         * Helper method which drops the path if the tree has changed its shape since the path was last checked
+         */
+        private void revalidate() {
+            if (expectedModCount != modCount || (!path.isEmpty() && path.get(0) != root)) {
+                reset();
+            }
+        }
+
+        /**
+         * Helper method which empties the path, so that the next search starts from the root
+         */
+        private void reset() {
+            path.clear();
+            lowerBounds.clear();
+            upperBounds.clear();
+            expectedModCount = modCount;
+        }
+    }
+
+    /**
+     * Obtains parent node of the node given in that tree. With parent links it follows the link of the node in
+     * constant time, and a node of this tree is recognised by being a child of its parent; otherwise it searches
+     * from the root.
+     * @param myNode        the NodeObj of which we want to find parent in this BST
+     * @return              the parent of the NodeObj given; empty node if myNode is not present in this tree
+     */
+    public NodeObj getParentNode(NodeObj myNode) {
+        if (!parentLinks) {
+            return iterGetParent(myNode, this.root);
+        }
+        NodeObj parentNode = myNode.parent();
+        if (myNode.key != null && parentNode != null && (parentNode.left == myNode || parentNode.right == myNode)) {
+            return parentNode;
+        }
+        if (listener != null) {
+            listener.onParentMissing(myNode.key);
+        }
+        return EMPTY_NODE;
+    }
+
+    /**
+     * Finds the node with the next greater key. With parent links it walks from the node given, down its right
+     * subtree or up to the first ancestor it lies left of, which takes a constant number of steps on average over
+     * an in-order walk; otherwise it searches from the root for the key of the node.
+     * @param myNode        the NodeObj of this tree
+     * @return              the node with the smallest key greater than the key of myNode; empty node if there is
+     *                      none or myNode is empty
+     * @see                 #predecessor(NodeObj)
+     */
+    public NodeObj successor(NodeObj myNode) {
+        return adjacent(myNode, true);
+    }
+
+    /**
+     * Finds the node with the next smaller key. With parent links it walks from the node given, down its left
+     * subtree or up to the first ancestor it lies right of; otherwise it searches from the root for the key of the
+     * node.
+     * @param myNode        the NodeObj of this tree
+     * @return              the node with the greatest key smaller than the key of myNode; empty node if there is
+     *                      none or myNode is empty
+     * @see                 #successor(NodeObj)
+     */
+    public NodeObj predecessor(NodeObj myNode) {
+        return adjacent(myNode, false);
+    }
+
+    /**
+     * Helper method for <code>successor</code> and <code>predecessor</code> which finds the in-order neighbour of
+     * a node on one side
+     * @param myNode        the NodeObj of this tree
+     * @param above         <code>true</code> for the successor; <code>false</code> for the predecessor
+     * @return              the neighbouring node; empty node if there is none or myNode is empty
+     */
+    private NodeObj adjacent(NodeObj myNode, boolean above) {
+        NodeObj aNode;
+        if (myNode.key == null) {
+            aNode = null;
+        } else if (!parentLinks) {
+            aNode = neighbourNode(myNode.key, above, false);
+        } else {
+            aNode = (above) ? myNode.right : myNode.left;
+            if (aNode != null) {
+                NodeObj next = (above) ? aNode.left : aNode.right;
+                while (next != null) {
+                    aNode = next;
+                    next = (above) ? aNode.left : aNode.right;
+                }
+            } else {
+                NodeObj child = myNode;
+                aNode = myNode.parent();
+                while (aNode != null && child == ((above) ? aNode.right : aNode.left)) {
+                    child = aNode;
+                    aNode = aNode.parent();
+                }
+            }
+        }
+        return (aNode != null) ? aNode : EMPTY_NODE;
+    }
+
+    /**
+     * Helper method which finds the parent node iteratively by node key comparisons, starting with a specific root.
+     * This method is also used for removing duplicated values when joining subtrees to this BST
+     * @param myNode        the NodeObj of which we want to find parent in this BST
+     * @param myRoot        the first node to be checked for being the parent;
+     * @return              the parent of the NodeObj given; empty node if myNode is not present in this tree
+     * @see                 #addNode(NodeObj)
+     */
+    private NodeObj iterGetParent(NodeObj myNode, NodeObj myRoot) {
+        T targetKey = myNode.key;
+        int difference=1; // lexicographical difference
+        NodeObj aNode = myRoot;
+        if (aNode.key.equals(myNode.key) || targetKey == null) {
+            if (listener != null) {
+                listener.onParentMissing(targetKey);
+            }
+            return EMPTY_NODE;
+        }
+        while (! ( ((aNode.getLeftChild().getKey() != null) && aNode.getLeftChild().getKey().equals(targetKey)) ||
+                ((aNode.getRightChild().getKey() != null) && aNode.getRightChild().getKey().equals(targetKey))) ) {
+            difference = targetKey.compareTo(aNode.key);
+            if (difference > 0) {
+                aNode = aNode.right;
+            } else {
+                aNode = aNode.left;
+            }
+        }
+        return aNode;
+    }
+
+    /**
+     * Gets the height of the tree measured by nodes (root with non-empty key has height 1)
+     * @return          height of this tree as an int
+     */
+    public int getHeight() {
+        if (root==null) {
+            return 0;
+        }
+        // 2 'if' blocks to avoid null pointer exception
+        if (root.key == null) {
+            return 0;
+        }
+        if (balanceMode == BalanceMode.AVL) {
+            return root.height;
+        }
+        return iterCheckDepth(root, 1);
+    }
+
+
+    /**
+     * Removes the node with the value given, finding it with the same single descent as <code>removeNode</code>
+     * @param value     the key value of type T of the node to be removed
+     * @return          <code>true</code> if the node existed before and was removed successfully;
+     *                  <code>false</code> otherwise
+     */
+    public boolean remove(T value) {
+        return unlinkKey(value) != EMPTY_NODE;
+    }
+
+
+    /**
+     * Deletes parent nodes' pointers leading to myNode from the tree and sets this node's left, right and
+     * key values to null. Replaces the pointers with different nodes if myNode has children. When myNode has two
+     * children, the smallest key of its right subtree takes its place. A self-balancing tree is rebalanced on the
+     * way back to the root. With parent links the path to the node is collected by following the links up, so no
+     * keys are compared; otherwise the node is found with one descent.
+     * @param myNode    the NodeObj to be removed
+     * @return          the node key of type T if removed successfully;
+     *                  <code>null</code> if this node is not present in this tree
+     */
+    public T removeNode(NodeObj myNode) {
+        T nodeKey = myNode.key;
+        List<NodeObj> path = (parentLinks && nodeKey != null) ? pathFromRoot(myNode) : null;
+        if (path == null) {
+            return (unlinkKey(nodeKey) != EMPTY_NODE) ? nodeKey : null;
+        }
+        unlinkOnPath(path);
+        if (listener != null) {
+            listener.onRemove(nodeKey, true);
+        }
+        return nodeKey;
+    }
+
+    /**
+     * Helper method which collects the path from the root to a node by following parent links, so that the node
+     * can be removed without comparing keys
+     * @param myNode        the non-empty NodeObj
+     * @return              the list of nodes from the root to myNode (inclusive); <code>null</code> if the links
+     *                      do not lead to the root of this tree
+     * @see                 #removeNode(NodeObj)
+     */
+    private List<NodeObj> pathFromRoot(NodeObj myNode) {
+        List<NodeObj> path = new ArrayList<NodeObj>();
+        NodeObj aNode = myNode;
+        while (aNode.parent() != null) {
+            path.add(aNode);
+            aNode = aNode.parent();
+        }
+        if (aNode != this.root) {
+            return null;
+        }
+        path.add(aNode);
+        Collections.reverse(path);
+        return path;
+    }
+
+    /**
+     * Helper method which descends once to the node with the key given and removes it. A
+     * <code>BinarySearchTreeMap</code> uses it to return the value of the removed entry.
+     * @param nodeKey   the key of type T of the node to be removed
+     * @return          the value held by the removed node (<code>null</code> in a plain tree);
+     *                  the empty node if there is no such key in this tree
+     * @see             #removeNode(NodeObj)
+     */
+    Object unlinkKey(T nodeKey) {
+        List<NodeObj> path = new ArrayList<NodeObj>();
+        NodeObj aNode = (nodeKey == null || root.key == null) ? null : this.root;
+        while (aNode != null) {
+            path.add(aNode);
+            if (balanceMode == BalanceMode.NONE && !orderStatistics && path.size() > 2) {
+                path.remove(0); // only the parent is needed when no rebalancing or recounting follows
+            }
+            int difference = nodeKey.compareTo(aNode.key);
+            if (difference == 0) {
+                Object value = aNode.value();
+                unlinkOnPath(path);
+                if (listener != null) {
+                    listener.onRemove(nodeKey, true);
+                }
+                return value;
+            }
+            aNode = (difference < 0) ? aNode.left : aNode.right;
+        }
+        if (listener != null) {
+            listener.onRemove(nodeKey, false);
+        }
+        return EMPTY_NODE;
+    }
+
+    /**
+     * Helper method that removes the last node of a root-to-node path from the tree. A node with two children
+     * takes the key of its in-order successor, which is unlinked instead. The path is then used in place of parent
+     * pointers to restore the balance of AVL and red-black trees, and to update the subtree sizes.
+     * @param path          the list of nodes from the root to the node to be removed (inclusive)
+     * @see                 #removeNode(NodeObj)
+     */
+    private void unlinkLast(List<NodeObj> path) {
+        NodeObj target = path.get(path.size()-1);
+        if (target.left != null && target.right != null) {
+            NodeObj successor = target.right;
+            path.add(successor);
+            while (successor.left != null) {
+                successor = successor.left;
+                path.add(successor);
+            }
+            target.key = successor.key;
+            target.setValue(successor.value());
+        }
+        NodeObj removed = path.remove(path.size()-1);
+        NodeObj child = (removed.left != null) ? removed.left : removed.right;
+        NodeObj parentNode = path.isEmpty() ? null : path.get(path.size()-1);
+        replaceChild(parentNode, removed, child);
+        if (orderStatistics) {
+            for (NodeObj pathNode : path) {
+                pathNode.count--;
+            }
+        }
+        if (balanceMode == BalanceMode.AVL) {
+            rebalanceAvlPath(path);
+        } else if (balanceMode == BalanceMode.RED_BLACK && !removed.red) {
+            if (isRed(child)) {
+                child.red = false;
+            } else if (parentNode != null) {
+                fixDoubleBlack(path, child);
+            }
+        }
+        removed.key = null;
+        removed.setValue(null);
+        removed.left = null;
+        removed.right = null;
+        removed.linkParent(null);
+    }
+
+    /**
+     * Helper method that links a new child in place of an old one. If the parent is <code>null</code>, the new
+     * child becomes the root (or an empty root is created when the new child is <code>null</code> too).
+     * @param parentNode    the parent of oldChild, <code>null</code> if oldChild is the root
+     * @param oldChild      the NodeObj currently linked to parentNode
+     * @param newChild      the NodeObj (or <code>null</code>) to be linked instead
+     */
+    private void replaceChild(NodeObj parentNode, NodeObj oldChild, NodeObj newChild) {
+        modCount++;
+        setParent(newChild, parentNode);
+        if (parentNode == null) {
+            this.root = (newChild != null) ? newChild : newNode(null);
+        } else if (parentNode.left == oldChild) {
+            parentNode.left = newChild;
+        } else {
+            parentNode.right = newChild;
+        }
+    }
+
+    /**
+     * Helper method which points the parent link of a node at its new parent if this tree keeps parent links
+     * @param aNode         the NodeObj, or <code>null</code> for a missing child
+     * @param parentNode    the new parent of aNode, <code>null</code> if aNode is the top of a tree
+     */
+    private void setParent(NodeObj aNode, NodeObj parentNode) {
+        if (parentLinks && aNode != null) {
+            aNode.linkParent(parentNode);
+        }
+    }
+
+    /**
+     * Helper method which sets the parent links of a whole subtree after it has been rebuilt or grafted, using a
+     * stack instead of recursion
+     * @param subtreeTop    the NodeObj at the top of the subtree, or <code>null</code>
+     * @param parentNode    the parent of subtreeTop, <code>null</code> if it is the root
+     */
+    private void linkParents(NodeObj subtreeTop, NodeObj parentNode) {
+        if (!parentLinks || subtreeTop == null) {
+            return;
+        }
+        subtreeTop.linkParent(parentNode);
+        NodeStack stack = new NodeStack();
+        stack.push(subtreeTop);
+        while (!stack.isEmpty()) {
+            NodeObj aNode = stack.pop();
+            if (aNode.left != null) {
+                aNode.left.linkParent(aNode);
+                stack.push(aNode.left);
+            }
+            if (aNode.right != null) {
+                aNode.right.linkParent(aNode);
+                stack.push(aNode.right);
+            }
+        }
+    }
+
+    /**
+     * Helper method that removes the last node of a root-to-node path like <code>unlinkLast</code>, then splays the
+     * parent of the node unlinked in SPLAY mode and updates the size of this tree
+     * @param path          the list of nodes from the root to the node to be removed (inclusive)
+     * @see                 #unlinkLast(List)
+     */
+    private void unlinkOnPath(List<NodeObj> path) {
+        unlinkLast(path);
+        if (balanceMode == BalanceMode.SPLAY && !path.isEmpty()) {
+            splay(path); // the parent of the node unlinked
+        }
+        this.size--;
+    }
+
+    /**
+     * Helper method for AVL, red-black and SPLAY modes which descends from the root to the place of a new value,
+     * keeping the search path, and adds the value there; a value already present is splayed in SPLAY mode
+     * @param word          the value of type T to be added to this non-empty tree
+     * @return              the new NodeObj holding word; the existing one if the value was already present
+     * @see                 #add(Comparable)
+     */
+    private NodeObj insertOnPath(T word) {
+        List<NodeObj> path = new ArrayList<NodeObj>();
+        NodeObj aNode = this.root;
+        int difference = 0;
+        while (aNode != null) {
+            path.add(aNode);
+            difference = word.compareTo(aNode.key);
+            if (difference == 0) {
+                if (balanceMode == BalanceMode.SPLAY) {
+                    splay(path);
+                }
+                return aNode;
+            }
+            aNode = (difference > 0) ? aNode.right : aNode.left;
+        }
+        return attachLeaf(path, word, difference);
+    }
+
+    /**
+     * Helper method which links a new value as a child of the last node of a search path and restores the shape
+     * required by the balance mode along that path: the AVL heights, the red-black colours or the new node splayed
+     * to the root. The path is only changed in SPLAY mode, where the new node is appended to it.
+     * @param path          the list of nodes from the root to the parent of the new node
+     * @param word          the value of type T to be added, missing from this tree
+     * @param difference    the result of comparing word with the key of the last node of the path
+     * @return              the new NodeObj holding word
+     */
+    private NodeObj attachLeaf(List<NodeObj> path, T word, int difference) {
+        NodeObj newNode = newNode(word);
+        NodeObj parentNode = path.get(path.size()-1);
+        if (difference > 0) {
+            parentNode.right = newNode;
+        } else {
+            parentNode.left = newNode;
+        }
+        setParent(newNode, parentNode);
+        if (orderStatistics) {
+            for (NodeObj pathNode : path) {
+                pathNode.count++;
+            }
+        }
+        if (balanceMode == BalanceMode.AVL) {
+            rebalanceAvlPath(path);
+        } else if (balanceMode == BalanceMode.RED_BLACK) {
+            newNode.red = true;
+            fixDoubleRed(path, newNode);
+        } else if (balanceMode == BalanceMode.SPLAY) {
+            path.add(newNode);
+            splay(path);
+        }
+        this.size++;
+        return newNode;
+    }
+
+    /**
+     * Helper method which moves the last node of a root-to-node path up to the root with the rotations of a splay
+     * tree. A node in line with its parent and grandparent rotates the grandparent first (zig-zig), which roughly
+     * halves the depth of every node on the path; a node in a zig-zag rotates its parent first. A node whose parent
+     * is the root takes one rotation (zig).
+     * @param path          the list of nodes from the root to the node to be splayed (inclusive)
+     */
+    private void splay(List<NodeObj> path) {
+        int i = path.size()-1;
+        NodeObj aNode = path.get(i);
+        while (i > 0) {
+            NodeObj parentNode = path.get(i-1);
+            boolean leftChild = (parentNode.left == aNode);
+            if (i == 1) {
+                replaceChild(null, parentNode, (leftChild) ? rotateRight(parentNode) : rotateLeft(parentNode));
+                break;
+            }
+            NodeObj grandparent = path.get(i-2);
+            boolean leftParent = (grandparent.left == parentNode);
+            NodeObj top;
+            if (leftChild == leftParent) {
+                top = (leftParent) ? rotateRight(grandparent) : rotateLeft(grandparent);
+                top = (leftParent) ? rotateRight(top) : rotateLeft(top);
+            } else if (leftParent) {
+                grandparent.left = rotateLeft(parentNode);
+                top = rotateRight(grandparent);
+            } else {
+                grandparent.right = rotateRight(parentNode);
+                top = rotateLeft(grandparent);
+            }
+            replaceChild((i > 2) ? path.get(i-3) : null, grandparent, top);
+            i -= 2;
+        }
+    }
+
+    /**
+     * Helper method telling whether this tree restores a balance invariant after every change, which forbids
+     * grafting foreign subtrees and rebuilding only a part of the tree
+     * @return              <code>true</code> in AVL and red-black modes; <code>false</code> otherwise
+     */
+    private boolean selfBalancing() {
+        return balanceMode == BalanceMode.AVL || balanceMode == BalanceMode.RED_BLACK;
+    }
+
+    /**
+     * Helper method for AVL mode which updates heights and rotates unbalanced nodes, from the last node of the
+     * path up to the root
+     * @param path          the list of nodes from the root to the lowest node that might be out of balance
+     */
+    private void rebalanceAvlPath(List<NodeObj> path) {
+        for (int i = path.size()-1; i >= 0; i--) {
+            NodeObj aNode = path.get(i);
+            NodeObj subtreeTop = rebalanceAvl(aNode);
+            if (subtreeTop != aNode) {
+                replaceChild((i > 0) ? path.get(i-1) : null, aNode, subtreeTop);
+            }
+        }
+    }
+
+    /**
+     * Helper method which updates the height of an AVL node and performs a single or double rotation if the
+     * heights of its subtrees differ by more than one
+     * @param aNode         the NodeObj whose children are already balanced
+     * @return              the node that takes the place of aNode in the tree
+     */
+    private NodeObj rebalanceAvl(NodeObj aNode) {
+        updateHeight(aNode);
+        int balance = height(aNode.left) - height(aNode.right);
+        if (balance > 1) {
+            if (height(aNode.left.left) < height(aNode.left.right)) {
+                aNode.left = rotateLeft(aNode.left);
+            }
+            return rotateRight(aNode);
+        } else if (balance < -1) {
+            if (height(aNode.right.right) < height(aNode.right.left)) {
+                aNode.right = rotateRight(aNode.right);
+            }
+            return rotateLeft(aNode);
+        }
+        return aNode;
+    }
+
+    /**
+     * Helper method for red-black mode which removes two red nodes in a row after a red node has been added,
+     * by recolouring the ancestors and rotating at most twice
+     * @param path          the list of nodes from the root to the parent of newNode
+     * @param newNode       the red NodeObj which has just been added
+     */
+    private void fixDoubleRed(List<NodeObj> path, NodeObj newNode) {
+        NodeObj aNode = newNode;
+        int i = path.size()-1; // index of the parent of aNode
+        while (i > 0 && isRed(path.get(i))) {
+            NodeObj parentNode = path.get(i);
+            NodeObj grandNode = path.get(i-1);
+            NodeObj greatNode = (i > 1) ? path.get(i-2) : null;
+            boolean parentOnLeft = (parentNode == grandNode.left);
+            NodeObj uncle = parentOnLeft ? grandNode.right : grandNode.left;
+            if (isRed(uncle)) {
+                parentNode.red = false;
+                uncle.red = false;
+                grandNode.red = true;
+                aNode = grandNode;
+                i -= 2;
+                continue;
+            }
+            if (parentOnLeft) {
+                if (aNode == parentNode.right) {
+                    grandNode.left = rotateLeft(parentNode);
+                    parentNode = aNode;
+                }
+                replaceChild(greatNode, grandNode, rotateRight(grandNode));
+            } else {
+                if (aNode == parentNode.left) {
+                    grandNode.right = rotateRight(parentNode);
+                    parentNode = aNode;
+                }
+                replaceChild(greatNode, grandNode, rotateLeft(grandNode));
+            }
+            parentNode.red = false;
+            grandNode.red = true;
+            break;
+        }
+        this.root.red = false;
+    }
+
+    /**
+     * Helper method for red-black mode which restores equal black heights after a black node has been removed.
+     * The missing black is pushed up the path until it can be absorbed by a red node or a rotation.
+     * @param path          the list of nodes from the root to the parent of aNode
+     * @param aNode         the NodeObj (possibly <code>null</code>) that replaced the removed black node
+     */
+    private void fixDoubleBlack(List<NodeObj> path, NodeObj aNode) {
+        int i = path.size()-1; // index of the parent of aNode
+        while (i >= 0 && !isRed(aNode)) {
+            NodeObj parentNode = path.get(i);
+            NodeObj grandNode = (i > 0) ? path.get(i-1) : null;
+            if (aNode == parentNode.left) {
+                NodeObj sibling = parentNode.right;
+                if (isRed(sibling)) {
+                    sibling.red = false;
+                    parentNode.red = true;
+                    replaceChild(grandNode, parentNode, rotateLeft(parentNode));
+                    path.add(i, sibling); // sibling is the new parent of parentNode
+                    grandNode = sibling;
+                    i++;
+                    sibling = parentNode.right;
+                }
+                if (!isRed(sibling.left) && !isRed(sibling.right)) {
+                    sibling.red = true;
+                    aNode = parentNode;
+                    i--;
+                } else {
+                    if (!isRed(sibling.right)) {
+                        sibling.left.red = false;
+                        sibling.red = true;
+                        parentNode.right = rotateRight(sibling);
+                        sibling = parentNode.right;
+                    }
+                    sibling.red = parentNode.red;
+                    parentNode.red = false;
+                    sibling.right.red = false;
+                    replaceChild(grandNode, parentNode, rotateLeft(parentNode));
+                    aNode = this.root;
+                    break;
+                }
+            } else {
+                NodeObj sibling = parentNode.left;
+                if (isRed(sibling)) {
+                    sibling.red = false;
+                    parentNode.red = true;
+                    replaceChild(grandNode, parentNode, rotateRight(parentNode));
+                    path.add(i, sibling); // sibling is the new parent of parentNode
+                    grandNode = sibling;
+                    i++;
+                    sibling = parentNode.left;
+                }
+                if (!isRed(sibling.left) && !isRed(sibling.right)) {
+                    sibling.red = true;
+                    aNode = parentNode;
+                    i--;
+                } else {
+                    if (!isRed(sibling.left)) {
+                        sibling.right.red = false;
+                        sibling.red = true;
+                        parentNode.left = rotateLeft(sibling);
+                        sibling = parentNode.left;
+                    }
+                    sibling.red = parentNode.red;
+                    parentNode.red = false;
+                    sibling.left.red = false;
+                    replaceChild(grandNode, parentNode, rotateRight(parentNode));
+                    aNode = this.root;
+                    break;
+                }
+            }
+        }
+        if (aNode != null) {
+            aNode.red = false;
+        }
+    }
+
+    /**
+     * Rotates the subtree to the left, so that the right child of aNode becomes the top of this subtree
+     * @param aNode         the NodeObj with a right child
+     * @return              the new top of this subtree, which has to be linked to the parent of aNode
+     */
+    private NodeObj rotateLeft(NodeObj aNode) {
+        modCount++;
+        NodeObj top = aNode.right;
+        aNode.right = top.left;
+        top.left = aNode;
+        if (parentLinks) {
+            top.linkParent(aNode.parent());
+            aNode.linkParent(top);
+            setParent(aNode.right, aNode);
+        }
+        updateHeight(aNode);
+        updateHeight(top);
+        top.count = aNode.count;
+        updateCount(aNode);
+        return top;
+    }
+
+    /**
+     * Rotates the subtree to the right, so that the left child of aNode becomes the top of this subtree
+     * @param aNode         the NodeObj with a left child
+     * @return              the new top of this subtree, which has to be linked to the parent of aNode
+     */
+    private NodeObj rotateRight(NodeObj aNode) {
+        modCount++;
+        NodeObj top = aNode.left;
+        aNode.left = top.right;
+        top.right = aNode;
+        if (parentLinks) {
+            top.linkParent(aNode.parent());
+            aNode.linkParent(top);
+            setParent(aNode.left, aNode);
+        }
+        updateHeight(aNode);
+        updateHeight(top);
+        top.count = aNode.count;
+        updateCount(aNode);
+        return top;
+    }
+
+    /**
+     * @param aNode         the NodeObj or <code>null</code>
+     * @return              the height of the subtree stored in the node; 0 for a missing node
+     */
+    private int height(NodeObj aNode) {
+        return (aNode == null) ? 0 : aNode.height;
+    }
+
+    /**
+     * Recalculates the height of the node given from the heights of its children
+     * @param aNode         the NodeObj whose children have correct heights
+     */
+    private void updateHeight(NodeObj aNode) {
+        aNode.height = Math.max(height(aNode.left), height(aNode.right)) + 1;
+    }
+
+    /**
+     * @param aNode         the NodeObj or <code>null</code>
+     * @return              the number of keys in the subtree of the node; 0 for a missing node
+     */
+    private int count(NodeObj aNode) {
+        return (aNode == null) ? 0 : aNode.count;
+    }
+
+    /**
+     * Recalculates the subtree size of the node given from the sizes of its children
+     * @param aNode         the NodeObj whose children have correct subtree sizes
+     */
+    private void updateCount(NodeObj aNode) {
+        aNode.count = count(aNode.left) + count(aNode.right) + ((aNode.key != null) ? 1 : 0);
+    }
+
+    /**
+     * Helper method which sets the subtree sizes of all nodes of a subtree, e.g. one that comes from a tree without
+     * order statistics. Nodes are visited in reversed post-order from a stack, so children are counted first.
+     * @param subtreeTop    the NodeObj at the top of the subtree
+     * @return              the number of keys stored in the subtree
+     * @see                 #addNode(NodeObj)
+     */
+    private int recountSubtree(NodeObj subtreeTop) {
+        List<NodeObj> rootFirst = new ArrayList<NodeObj>();
+        NodeStack stack = new NodeStack();
+        stack.push(subtreeTop);
+        while (!stack.isEmpty()) {
+            NodeObj aNode = stack.pop();
+            rootFirst.add(aNode);
+            if (aNode.left != null) {
+                stack.push(aNode.left);
+            }
+            if (aNode.right != null) {
+                stack.push(aNode.right);
+            }
+        }
+        for (int i = rootFirst.size()-1; i >= 0; i--) {
+            updateCount(rootFirst.get(i));
+        }
+        return subtreeTop.count;
+    }
+
+    /**
+     * @param aNode         the NodeObj or <code>null</code>
+     * @return              <code>true</code> if the node exists and it is red; <code>false</code> otherwise
+     */
+    private boolean isRed(NodeObj aNode) {
+        return aNode != null && aNode.red;
+    }
+
+    /**
+     * Iterative helper method for finding how deep is the deepest node in a tree or a subtree. It walks down from
+     * aNode and only pushes a right child (with its depth) to the stack when the left branch is followed first, so
+     * this method cannot overflow the call stack
+     * @param aNode             the NodeObj of known depth in this BST
+     * @param deepestHeight     the integer for the depth of aNode
+     * @return                  the depth of the lowest leaf in this subtree
+     * @see                     #getHeight()
+     * @see                     #getNodeDepth(Comparable)
+     */
+    private int iterCheckDepth(NodeObj aNode, int deepestHeight) {
+        int maxHeight = deepestHeight;
+        NodeStack stack = new NodeStack();
+        int level = deepestHeight;
+        while (true) {
+            if (aNode.left != null) {
+                if (aNode.right != null) {
+                    stack.push(aNode.right, level + 1);
+                }
+                aNode = aNode.left;
+                level++;
+            } else if (aNode.right != null) {
+                aNode = aNode.right;
+                level++;
+            } else {
+                maxHeight = Math.max(maxHeight, level);
+                if (stack.isEmpty()) {
+                    return maxHeight;
+                }
+                level = stack.peekLevel();
+                aNode = stack.pop();
+            }
+        }
+    }
+
+    /**
+     * Helper method for <code>add</code> method. Compares the node keys in a loop to find the right position in
+     * the tree. Places a new node and increments tree height if needed. With order statistics the subtree sizes
+     * are incremented on the way down and restored if the value turns out to be a duplicate.
+     * @param currNodeObj       the node of which the key needs to be compared to find correct position
+     * @param word              the value of type T to be used to initialise a new NodeObj
+     * @return                  the new NodeObj holding word; the existing one if the value was already present
+     * @see                     #add(Comparable)
+     */
+    private NodeObj checkAndPlace(NodeObj currNodeObj, T word) {
+        NodeObj topNode = currNodeObj;
+        while (true) {
+            int difference = word.compareTo(currNodeObj.key);
+            if (difference == 0) {
+                if (orderStatistics) {
+                    uncountPath(topNode, word);
+                }
+                return currNodeObj;
+            }
+            if (orderStatistics) {
+                currNodeObj.count++;
+            }
+            if (difference > 0) {
+                if (currNodeObj.right == null) {
+                    currNodeObj.right = newNode(word);
+                    setParent(currNodeObj.right, currNodeObj);
+                    this.size++;
+                    return currNodeObj.right;
+                }
+                currNodeObj = currNodeObj.right;
+            } else {
+                if (currNodeObj.left == null) {
+                    currNodeObj.left = newNode(word);
+                    setParent(currNodeObj.left, currNodeObj);
+                    this.size++;
+                    return currNodeObj.left;
+                }
+                currNodeObj = currNodeObj.left;
+            }
+        }
+    }
+
+    /**
+     * Helper method for <code>checkAndPlace</code> which decrements the subtree sizes on the path to a value that
+     * was already present in the tree
+     * @param aNode             the NodeObj where the search started
+     * @param word              the value found in the tree
+     */
+    private void uncountPath(NodeObj aNode, T word) {
+        int difference = word.compareTo(aNode.key);
+        while (difference != 0) {
+            aNode.count--;
+            aNode = (difference > 0) ? aNode.right : aNode.left;
+            difference = word.compareTo(aNode.key);
+        }
+    }
+
+    /**
+     * Returns the number of values in this tree that are smaller than the value given, which is also the index the
+     * value has (or would have) in <code>asListInOrder</code>. Requires order statistics.
+     * @param word          the value of type T to be ranked, it does not need to be present in this tree
+     * @return              the number of values smaller than word
+     * @throws IllegalStateException    if this tree was constructed without order statistics
+     */
+    public int rank(T word) {
+        return countBelow(word, false);
+    }
+
+    /**
+     * Returns the value at the position given in ascending order, i.e. <code>asListInOrder().get(index)</code>
+     * without building the list. Requires order statistics.
+     * @param index         the zero-based position of the value
+     * @return              the index-th smallest value in this tree
+     * @throws IndexOutOfBoundsException    if index is negative or not smaller than <code>size()</code>
+     * @throws IllegalStateException        if this tree was constructed without order statistics
+     */
+    public T select(int index) {
+        requireOrderStatistics();
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        NodeObj aNode = this.root;
+        while (true) {
+            int leftCount = count(aNode.left);
+            if (index < leftCount) {
+                aNode = aNode.left;
+            } else if (index > leftCount) {
+                index -= leftCount + 1;
+                aNode = aNode.right;
+            } else {
+                return aNode.key;
+            }
+        }
+    }
+
+    /**
+     * Counts the values of this tree that lie between the two values given (both inclusive). Requires order
+     * statistics.
+     * @param lo            the lower bound of type T
+     * @param hi            the upper bound of type T
+     * @return              the number of values from lo to hi; 0 if lo is greater than hi
+     * @throws IllegalStateException    if this tree was constructed without order statistics
+     */
+    public int countInRange(T lo, T hi) {
+        if (lo.compareTo(hi) > 0) {
+            requireOrderStatistics();
+            return 0;
+        }
+        return countBelow(hi, true) - countBelow(lo, false);
+    }
+
+    /**
+     * Helper method which descends from the root towards the value given, adding up the sizes of the left subtrees
+     * passed on the way
+     * @param word          the value of type T to be compared with the keys
+     * @param inclusive     <code>true</code> to count a key equal to word as well
+     * @return              the number of values smaller than (or equal to) word
+     */
+    private int countBelow(T word, boolean inclusive) {
+        requireOrderStatistics();
+        int below = 0;
+        NodeObj aNode = (root.key == null) ? null : this.root;
+        while (aNode != null) {
+            int difference = word.compareTo(aNode.key);
+            if (difference < 0 || (difference == 0 && !inclusive)) {
+                aNode = aNode.left;
+            } else {
+                below += count(aNode.left) + 1;
+                if (difference == 0) {
+                    break;
+                }
+                aNode = aNode.right;
+            }
+        }
+        return below;
+    }
+
+    /**
+     * Helper method which stops order statistics queries on a tree that does not keep subtree sizes
+     * @throws IllegalStateException    if this tree was constructed without order statistics
+     */
+    private void requireOrderStatistics() {
+        if (!orderStatistics) {
+            throw new IllegalStateException("This tree was constructed without order statistics.");
+        }
+    }
+
+    /**
+     * Traverses through all nodes in this BST and returns an ArrayList of all keys in pre-order
+     * @return              the <code>ArrayList</code> of all values in this tree in pre-oder (root, left, right)
+     */
+    public List<T> asListPreOrder() { // returns an ArrayList containing
+        List<T> preOrdList = new ArrayList<T>(size);
+        iterPreOrder(root, preOrdList);
+        return preOrdList;
+    }
+
+    /**
+     * Iterative helper function which adds the node values to the list in pre-order. The right child is pushed to
+     * the stack before the left one, so that the left subtree is visited first
+     * @param myNode        the NodeObj at the top of the subtree to be added to the list
+     * @param preOrdList    the list that will contain the all node values in pre-order
+     * @see                 #asListPreOrder()
+     */
+    private void iterPreOrder(NodeObj myNode, List<T> preOrdList) {
+        NodeStack stack = new NodeStack();
+        stack.push(myNode);
+        while (!stack.isEmpty()) {
+            NodeObj aNode = stack.pop();
+            preOrdList.add(aNode.key);
+            if (aNode.right != null && aNode.right.key != null) {
+                stack.push(aNode.right);
+            }
+            if (aNode.left != null && aNode.left.key != null) {
+                stack.push(aNode.left);
+            }
+        }
+    }
+
+    /**
+     * Traverses through all nodes in this BST and returns an ArrayList of all keys in natural order (in-order)
+     * @return              the <code>ArrayList</code> of all values in this tree in in-order (left, root, right)
+     */
+    public List<T> asListInOrder() {
+        List<T> inOrdList = new ArrayList<T>(size);
+        iterInOrder(root, inOrdList);
+        return inOrdList;
+    }
+
+    /**
+     * Iterative helper function which adds the node values to the list in natural, ascending order (in-order).
+     * The stack holds the nodes whose left subtree is being visited
+     * @param myNode        the NodeObj at the top of the subtree to be added to the list
+     * @param inOrdList     the list that will contain the all node values in ascending (in-order)
+     * @see                 #asListInOrder()
+     */
+    private void iterInOrder(NodeObj myNode, List<T> inOrdList) {
+        NodeStack stack = new NodeStack();
+        NodeObj aNode = myNode;
+        while (aNode != null || !stack.isEmpty()) {
+            while (aNode != null) {
+                stack.push(aNode);
+                aNode = (aNode.left != null && aNode.left.key != null) ? aNode.left : null;
+            }
+            aNode = stack.pop();
+            inOrdList.add(aNode.key);
+            aNode = (aNode.right != null && aNode.right.key != null) ? aNode.right : null;
+        }
+    }
+
+    /**
+     * Traverses through all nodes in this BST and returns an ArrayList of all keys in post-order
+     * @return              the <code>ArrayList</code> of all values in this tree in post-order (left, right, root)
+     */
+    public List<T> asListPostOrder() {
+        List<T> postOrdList = new ArrayList<T>(size);
+        iterPostOrder(root, postOrdList);
+        return postOrdList;
+    }
+
+    /**
+     * Iterative helper function which adds the node values to the list in post-order. The nodes are visited in
+     * reversed post-order (root, right, left) and the added part of the list is reversed at the end
+     * @param myNode        the NodeObj at the top of the subtree to be added to the list
+     * @param postOrdList   the list that will contain the all node values in post-order
+     * @see                 #asListPostOrder()
+     */
+    private void iterPostOrder(NodeObj myNode, List<T> postOrdList) {
+        int start = postOrdList.size();
+        NodeStack stack = new NodeStack();
+        stack.push(myNode);
+        while (!stack.isEmpty()) {
+            NodeObj aNode = stack.pop();
+            postOrdList.add(aNode.key);
+            if (aNode.left != null && aNode.left.key != null) {
+                stack.push(aNode.left);
+            }
+            if (aNode.right != null && aNode.right.key != null) {
+                stack.push(aNode.right);
+            }
+        }
+        Collections.reverse(postOrdList.subList(start, postOrdList.size()));
+    }
+
+    /**
+     * Returns a lazy iterator over the keys of this tree in natural order (in-order). Only the path to the current
+     * node is kept in memory, so the first keys are available without visiting the whole tree. The tree should not
+     * be modified while the iterator is in use.
+     * @return              the <code>Iterator</code> of all values in this tree in in-order (left, root, right)
+     */
+    @Override
+    public Iterator<T> iterator() {
+        return inOrderIterator();
+    }
+
+    /**
+     * Returns a lazy iterator over the keys of this tree in pre-order
+     * @return              the <code>Iterator</code> of all values in this tree in pre-order (root, left, right)
+     * @see                 #asListPreOrder()
+     */
+    public Iterator<T> preOrderIterator() {
+        return new PreOrderIterator();
+    }
+
+    /**
+     * Returns a lazy iterator over the keys of this tree in natural order (in-order)
+     * @return              the <code>Iterator</code> of all values in this tree in in-order (left, root, right)
+     * @see                 #asListInOrder()
+     */
+    public Iterator<T> inOrderIterator() {
+        return new InOrderIterator();
+    }
+
+    /**
+     * Returns a lazy iterator over the keys of this tree in post-order
+     * @return              the <code>Iterator</code> of all values in this tree in post-order (left, right, root)
+     * @see                 #asListPostOrder()
+     */
+    public Iterator<T> postOrderIterator() {
+        return new PostOrderIterator();
+    }
+
+    /**
+     * Helper method telling whether a child pointer leads to a node with a key
+     * @param aNode         the NodeObj or <code>null</code>
+     * @return              <code>true</code> if the node exists and has a key; <code>false</code> otherwise
+     */
+    private boolean hasKey(NodeObj aNode) {
+        return aNode != null && aNode.key != null;
+    }
+
+    /**
+     * PreOrderIterator is an inner class of <code>BinarySearchTree</code> that visits the nodes in pre-order. The
+     * stack holds the right children still to be visited, so it is never higher than the tree
+     */
+    private class PreOrderIterator implements Iterator<T> {
+        private final NodeStack stack = new NodeStack();
+
+        /**
+         * Class constructor, starts the iteration at the root of this tree
+         */
+        private PreOrderIterator() {
+            if (hasKey(root)) {
+                stack.push(root);
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !stack.isEmpty();
+        }
+
+        @Override
+        public T next() {
+            if (stack.isEmpty()) {
+                throw new NoSuchElementException();
+            }
+            NodeObj aNode = stack.pop();
+            if (hasKey(aNode.right)) {
+                stack.push(aNode.right);
+            }
+            if (hasKey(aNode.left)) {
+                stack.push(aNode.left);
+            }
+            return aNode.key;
+        }
+    }
+
+    /**
+     * InOrderIterator is an inner class of <code>BinarySearchTree</code> that visits the nodes in in-order. The
+     * stack holds the ancestors whose key comes after the current node
+     */
+    private class InOrderIterator implements Iterator<T> {
+        private final NodeStack stack = new NodeStack();
+
+        /**
+         * Class constructor, starts the iteration at the root of this tree
+         */
+        private InOrderIterator() {
+            pushLeftPath(hasKey(root) ? root : null);
+        }
+
+        /**
+         * @param aNode     the NodeObj from which the path of left children is pushed to the stack
+         */
+        private void pushLeftPath(NodeObj aNode) {
+            while (aNode != null) {
+                stack.push(aNode);
+                aNode = hasKey(aNode.left) ? aNode.left : null;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !stack.isEmpty();
+        }
+
+        @Override
+        public T next() {
+            if (stack.isEmpty()) {
+                throw new NoSuchElementException();
+            }
+            NodeObj aNode = stack.pop();
+            pushLeftPath(hasKey(aNode.right) ? aNode.right : null);
+            return aNode.key;
+        }
+    }
+
+    /**
+     * PostOrderIterator is an inner class of <code>BinarySearchTree</code> that visits the nodes in post-order. The
+     * stack holds the path from the root to the current node; after a left child is returned, the iterator descends
+     * into the right subtree of its parent to find the next node
+     */
+    private class PostOrderIterator implements Iterator<T> {
+        private final NodeStack stack = new NodeStack();
+
+        /**
+         * Class constructor, starts the iteration at the root of this tree
+         */
+        private PostOrderIterator() {
+            pushFirstPath(hasKey(root) ? root : null);
+        }
+
+        /**
+         * @param aNode     the NodeObj from which the path to the first node in post-order is pushed to the stack
+         */
+        private void pushFirstPath(NodeObj aNode) {
+            while (aNode != null) {
+                stack.push(aNode);
+                if (hasKey(aNode.left)) {
+                    aNode = aNode.left;
+                } else {
+                    aNode = hasKey(aNode.right) ? aNode.right : null;
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !stack.isEmpty();
+        }
+
+        @Override
+        public T next() {
+            if (stack.isEmpty()) {
+                throw new NoSuchElementException();
+            }
+            NodeObj aNode = stack.pop();
+            if (!stack.isEmpty()) {
+                NodeObj parentNode = stack.peek();
+                if (parentNode.left == aNode && hasKey(parentNode.right)) {
+                    pushFirstPath(parentNode.right);
+                }
+            }
+            return aNode.key;
+        }
+    }
+
+    /**
+     * Returns a <code>Spliterator</code> over the keys of this tree in natural order. It splits at subtree
+     * boundaries: the first split hands the left subtree of the root to the new spliterator and keeps the root with
+     * the right subtree, and so on. Only the spliterator of the whole tree reports an exact size; after a split the
+     * size is estimated as half of the size before.
+     * @return              the sorted, distinct <code>Spliterator</code> of all values in this tree
+     */
+    @Override
+    public Spliterator<T> spliterator() {
+        TreeSpliterator whole = new TreeSpliterator(size, true);
+        if (hasKey(root)) {
+            whole.parts.add(new TreePart(root, true));
+        }
+        return whole;
+    }
+
+    /**
+     * Returns a sequential <code>Stream</code> of the keys of this tree in natural order
+     * @return              the stream of all values in this tree
+     */
+    public Stream<T> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    /**
+     * Returns a parallel <code>Stream</code> of the keys of this tree in natural order. The work is split between
+     * threads at subtree boundaries.
+     * @return              the parallel stream of all values in this tree
+     */
+    public Stream<T> parallelStream() {
+        return StreamSupport.stream(spliterator(), true);
+    }
+
+    /**
+     * Copies all keys of this tree in natural order (in-order) into the array given, in parallel. The tree is cut
+     * into subtree chunks; the chunks are counted in parallel to find where each of them starts in the array and
+     * then they are copied in parallel. If the array is too small, a new array of the same type is allocated; if it
+     * is larger than needed, the element after the last key is set to <code>null</code>.
+     * @param dest          the array to be filled with the keys
+     * @return              the array containing all values of this tree in ascending order
+     */
+    public T[] toArrayInOrder(T[] dest) {
+        int count = size;
+        T[] result = (dest.length >= count) ? dest : Arrays.copyOf(dest, count);
+        if (result.length > count) {
+            result[count] = null;
+        }
+        List<TreeSpliterator> chunks = new ArrayList<TreeSpliterator>();
+        chunks.add((TreeSpliterator) spliterator());
+        int targetChunks = 4 * ForkJoinPool.getCommonPoolParallelism();
+        boolean split = true;
+        while (split && chunks.size() < targetChunks) {
+            split = false;
+            for (int i = 0; i < chunks.size(); i++) {
+                TreeSpliterator prefix = chunks.get(i).trySplit();
+                if (prefix != null) {
+                    chunks.add(i++, prefix);
+                    split = true;
+                }
+            }
+        }
+        int[] offsets = new int[chunks.size()+1];
+        IntStream.range(0, chunks.size()).parallel().forEach(i -> offsets[i+1] = chunks.get(i).countRemaining());
+        Arrays.parallelPrefix(offsets, Integer::sum);
+        IntStream.range(0, chunks.size()).parallel().forEach(i -> {
+            int[] position = {offsets[i]};
+            chunks.get(i).forEachRemaining(key -> result[position[0]++] = key);
+        });
+        return result;
+    }
+
+    /**
+     * TreePart is an inner class of <code>BinarySearchTree</code> describing a piece of work for a spliterator:
+     * either a whole subtree or the key of a single node
+     */
+    private class TreePart {
+        private final NodeObj node;
+        private final boolean whole; // true for the subtree rooted at node, false for the key of node only
+
+        /**
+         * Class constructor
+         * @param node      the node whose subtree or key is described
+         * @param whole     <code>true</code> for the subtree rooted at node; <code>false</code> for its key only
+         */
+        private TreePart(NodeObj node, boolean whole) {
+            this.node = node;
+            this.whole = whole;
+        }
+    }
+
+    /**
+     * TreeSpliterator is an inner class of <code>BinarySearchTree</code> that walks an ordered queue of subtrees
+     * and single keys. Splitting hands the first half of the queue to a new spliterator; a queue with a single
+     * subtree is first expanded into its left subtree, its root key and its right subtree.
+     */
+    private class TreeSpliterator implements Spliterator<T> {
+        private final ArrayDeque<TreePart> parts = new ArrayDeque<TreePart>();
+        private long estimatedSize;
+        private boolean sized; // true while estimatedSize is exact
+
+        /**
+         * Class constructor of a spliterator with no parts
+         * @param estimatedSize the number of keys expected in the parts added later
+         * @param sized     <code>true</code> if estimatedSize is exact
+         */
+        private TreeSpliterator(long estimatedSize, boolean sized) {
+            this.estimatedSize = estimatedSize;
+            this.sized = sized;
+        }
+
+        /**
+         * Replaces the first part, a whole subtree, by its left subtree, its root key and its right subtree
+         */
+        private void expandFirst() {
+            NodeObj aNode = parts.poll().node;
+            if (hasKey(aNode.right)) {
+                parts.addFirst(new TreePart(aNode.right, true));
+            }
+            parts.addFirst(new TreePart(aNode, false));
+            if (hasKey(aNode.left)) {
+                parts.addFirst(new TreePart(aNode.left, true));
+            }
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            while (!parts.isEmpty() && parts.peek().whole) {
+                expandFirst();
+            }
+            if (parts.isEmpty()) {
+                return false;
+            }
+            action.accept(parts.poll().node.key);
+            if (estimatedSize > 0) {
+                estimatedSize--;
+            }
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super T> action) {
+            NodeStack stack = new NodeStack(); // walks each whole subtree in-order, as iterInOrder does
+            while (!parts.isEmpty()) {
+                TreePart part = parts.poll();
+                if (!part.whole) {
+                    action.accept(part.node.key);
+                    continue;
+                }
+                NodeObj aNode = part.node;
+                while (aNode != null || !stack.isEmpty()) {
+                    while (aNode != null) {
+                        stack.push(aNode);
+                        aNode = hasKey(aNode.left) ? aNode.left : null;
+                    }
+                    aNode = stack.pop();
+                    action.accept(aNode.key);
+                    aNode = hasKey(aNode.right) ? aNode.right : null;
+                }
+            }
+            estimatedSize = 0;
+        }
+
+        /**
+         * Counts the keys this spliterator would still visit, without consuming them
+         * @return          the number of remaining keys
+         */
+        private int countRemaining() {
+            int count = 0;
+            for (TreePart part : parts) {
+                count += part.whole ? (orderStatistics ? part.node.count : countKeys(part.node)) : 1;
+            }
+            return count;
+        }
+
+        @Override
+        public TreeSpliterator trySplit() {
+            if (parts.size() == 1 && parts.peek().whole) {
+                expandFirst();
+            }
+            if (parts.size() < 2) {
+                return null;
+            }
+            estimatedSize >>>= 1;
+            sized = false;
+            TreeSpliterator prefix = new TreeSpliterator(estimatedSize, false);
+            for (int i = (parts.size() + 1) / 2; i > 0; i--) {
+                prefix.parts.add(parts.poll());
+            }
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return estimatedSize;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | SORTED | DISTINCT | NONNULL | (sized ? SIZED : 0);
+        }
+
+        @Override
+        public Comparator<? super T> getComparator() {
+            return null; // natural ordering
+        }
+    }
+
+    /**
+     * Writes all keys of this tree in ascending order to a snapshot file through a <code>FileChannel</code>,
+     * replacing any existing file. The snapshot stores the keys only, so it is as compact as the codec allows.
+     * @param file          the path of the snapshot
+     * @param codec         the codec writing each key, e.g. <code>KeyCodec.STRING</code>
+     * @throws IOException  if the file cannot be written
+     * @see                 #loadSnapshot(Path, KeyCodec, BalanceMode, boolean)
+     */
+    public void writeSnapshot(Path file, KeyCodec<T> codec) throws IOException {
+        TreeSnapshot.writeKeys(file, size, (size > 0) ? iterator() : Collections.emptyIterator(), codec);
+    }
+
+    /**
+     * Loads a tree from a snapshot file, which is mapped into memory and read once. As the keys are stored in
+     * ascending order, the nodes are linked straight into a tree of minimal height in O(n) time, with no
+     * comparisons other than a check of the order and no rebalancing, whatever the balance mode.
+     * @param file              the path of a snapshot written by <code>writeSnapshot</code>
+     * @param codec             the codec reading each key, the same as used for writing
+     * @param mode              the <code>BalanceMode</code> of the tree loaded
+     * @param orderStatistics   <code>true</code> to maintain subtree sizes in the nodes
+     * @param <T>               the type of values in the tree
+     * @return                  a new tree with all keys of the snapshot
+     * @throws IOException      if the file cannot be read or it is not a valid snapshot
+     */
+    public static <T extends Comparable<T>> BinarySearchTree<T> loadSnapshot(Path file, KeyCodec<T> codec,
+                                                                              BalanceMode mode,
+                                                                              boolean orderStatistics)
+            throws IOException {
+        return loadSnapshot(file, codec, mode, orderStatistics, false);
+    }
+
+    /**
+     * Loads a tree from a snapshot file as <code>loadSnapshot(file, codec, mode, orderStatistics)</code> does, with
+     * the nodes keeping links to their parents if requested
+     * @param file              the path of a snapshot written by <code>writeSnapshot</code>
+     * @param codec             the codec reading each key, the same as used for writing
+     * @param mode              the <code>BalanceMode</code> of the tree loaded
+     * @param orderStatistics   <code>true</code> to maintain subtree sizes in the nodes
+     * @param parentLinks       <code>true</code> to maintain parent links in the nodes
+     * @param <T>               the type of values in the tree
+     * @return                  a new tree with all keys of the snapshot
+     * @throws IOException      if the file cannot be read or it is not a valid snapshot
+     * @see                     #loadSnapshot(Path, KeyCodec, BalanceMode, boolean)
+     */
+    public static <T extends Comparable<T>> BinarySearchTree<T> loadSnapshot(Path file, KeyCodec<T> codec,
+                                                                              BalanceMode mode,
+                                                                              boolean orderStatistics,
+                                                                              boolean parentLinks)
+            throws IOException {
+        Object[] nodes = TreeSnapshot.readKeys(file, codec);
+        BinarySearchTree<T> tree = new BinarySearchTree<T>(mode, orderStatistics, parentLinks);
+        for (int i = 0; i < nodes.length; i++) {
+            nodes[i] = tree.newNode(tree.key(nodes[i]));
+        }
+        tree.relinkBalanced(nodes, nodes.length, false);
+        return tree;
+    }
+
+    /**
+     * Copies all values in this tree to a new <code>TreeSet</code> of type T. The values are handed over as a sorted
+     * set, so the <code>TreeSet</code> is built in O(n) time without comparing them again.
+     * @return              the TreeSet of type T containing all keys from all nodes in this BST
+     * @see                 #asNavigableSet()
+     */
+    public TreeSet<T> toTreeSet() {
+        return new TreeSet<T>(asNavigableSet());
+    }
+
+    /**
+     * Returns a live <code>NavigableSet</code> view of this tree, so that the tree can be passed to code expecting a
+     * <code>SortedSet</code> or <code>NavigableSet</code> without copying it. Nothing is copied when the view is
+     * created: <code>first</code>, <code>floor</code>, <code>ceiling</code> and the other queries descend the tree,
+     * the iterators walk it from the first value in range, and the head, tail, sub and descending sets are views of
+     * the same tree. Changes to the view change the tree and changes to the tree are seen by the view. Iterators are
+     * not fail-fast: the tree must only be changed through the iterator while it is used. The size of a bounded view
+     * takes O(log n) time with order statistics and is counted by iteration otherwise.
+     * @return              the view of all values of this tree in ascending order
+     * @see                 #toTreeSet()
+     */
+    public NavigableSet<T> asNavigableSet() {
+        return new NavigableView(null, false, null, false, false);
+    }
+
+    /**
+     * Helper method which finds the nearest value above or below the value given
+     * @param word          the value of type T to start from, it does not need to be present in this tree
+     * @param above         <code>true</code> to find a greater value; <code>false</code> to find a smaller one
+     * @param inclusive     <code>true</code> if word itself can be returned
+     * @return              the nearest value; <code>null</code> if there is none
+     */
+    private T neighbour(T word, boolean above, boolean inclusive) {
+        NodeObj best = neighbourNode(word, above, inclusive);
+        return (best != null) ? best.key : null;
+    }
+
+    /**
+     * Helper method which finds the node with the nearest value above or below the value given
+     * @param word          the value of type T to start from, it does not need to be present in this tree
+     * @param above         <code>true</code> to find a greater value; <code>false</code> to find a smaller one
+     * @param inclusive     <code>true</code> if the node of word itself can be returned
+     * @return              the node with the nearest value; <code>null</code> if there is none
+     */
+    private NodeObj neighbourNode(T word, boolean above, boolean inclusive) {
+        NodeObj best = null;
+        NodeObj aNode = hasKey(root) ? root : null;
+        while (aNode != null) {
+            int difference = word.compareTo(aNode.key);
+            if (difference == 0 && inclusive) {
+                return aNode;
+            }
+            if ((above) ? difference < 0 : difference > 0) {
+                best = aNode;
+                aNode = (above) ? aNode.left : aNode.right;
+            } else {
+                aNode = (above) ? aNode.right : aNode.left;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Helper method which finds the smallest or the greatest value of this tree
+     * @param greatest      <code>true</code> for the greatest value; <code>false</code> for the smallest
+     * @return              the value; <code>null</code> if this tree is empty
+     */
+    private T extreme(boolean greatest) {
+        NodeObj aNode = hasKey(root) ? root : null;
+        if (aNode == null) {
+            return null;
+        }
+        NodeObj next = (greatest) ? aNode.right : aNode.left;
+        while (next != null) {
+            aNode = next;
+            next = (greatest) ? aNode.right : aNode.left;
+        }
+        return aNode.key;
+    }
+
+    /**
+     * NavigableView is an inner class of <code>BinarySearchTree</code> which is a <code>NavigableSet</code> view of
+     * the values of this tree between two optional bounds, in ascending or descending order. The bounds and the
+     * helper methods are in ascending terms; the public methods swap directions for a descending view.
+     */
+    private class NavigableView extends AbstractSet<T> implements NavigableSet<T> {
+        private final T lo; // lower bound, null if unbounded
+        private final boolean loInclusive;
+        private final T hi; // upper bound, null if unbounded
+        private final boolean hiInclusive;
+        private final boolean descending; // true if the view lists the values from the greatest
+
+        /**
+         * Class constructor
+         * @param lo            the lower bound, <code>null</code> if unbounded
+         * @param loInclusive   <code>true</code> if lo belongs to the view
+         * @param hi            the upper bound, <code>null</code> if unbounded
+         * @param hiInclusive   <code>true</code> if hi belongs to the view
+         * @param descending    <code>true</code> to list the values from the greatest
+         */
+        private NavigableView(T lo, boolean loInclusive, T hi, boolean hiInclusive, boolean descending) {
+            this.lo = lo;
+            this.loInclusive = loInclusive;
+            this.hi = hi;
+            this.hiInclusive = hiInclusive;
+            this.descending = descending;
+        }
+
+        @Override
+        public Comparator<? super T> comparator() {
+            return (descending) ? Collections.<T>reverseOrder() : null;
+        }
+
+        @Override
+        public T first() {
+            return require((descending) ? highest() : lowest());
+        }
+
+        @Override
+        public T last() {
+            return require((descending) ? lowest() : highest());
+        }
+
+        @Override
+        public T lower(T e) {
+            return (descending) ? above(e, false) : below(e, false);
+        }
+
+        @Override
+        public T floor(T e) {
+            return (descending) ? above(e, true) : below(e, true);
+        }
+
+        @Override
+        public T ceiling(T e) {
+            return (descending) ? below(e, true) : above(e, true);
+        }
+
+        @Override
+        public T higher(T e) {
+            return (descending) ? below(e, false) : above(e, false);
+        }
+
+        @Override
+        public T pollFirst() {
+            return removeValue((descending) ? highest() : lowest());
+        }
+
+        @Override
+        public T pollLast() {
+            return removeValue((descending) ? lowest() : highest());
+        }
+
+        @Override
+        public Iterator<T> iterator() {
+            return new RangeIterator(this, !descending);
+        }
+
+        @Override
+        public Iterator<T> descendingIterator() {
+            return new RangeIterator(this, descending);
+        }
+
+        @Override
+        public NavigableSet<T> descendingSet() {
+            return new NavigableView(lo, loInclusive, hi, hiInclusive, !descending);
+        }
+
+        @Override
+        public NavigableSet<T> subSet(T fromElement, boolean fromInclusive, T toElement, boolean toInclusive) {
+            if (descending) {
+                return view(toElement, toInclusive, true, fromElement, fromInclusive, true);
+            }
+            return view(fromElement, fromInclusive, true, toElement, toInclusive, true);
+        }
+
+        @Override
+        public NavigableSet<T> headSet(T toElement, boolean inclusive) {
+            if (descending) {
+                return view(toElement, inclusive, true, hi, hiInclusive, false);
+            }
+            return view(lo, loInclusive, false, toElement, inclusive, true);
+        }
+
+        @Override
+        public NavigableSet<T> tailSet(T fromElement, boolean inclusive) {
+            if (descending) {
+                return view(lo, loInclusive, false, fromElement, inclusive, true);
+            }
+            return view(fromElement, inclusive, true, hi, hiInclusive, false);
+        }
+
+        @Override
+        public SortedSet<T> subSet(T fromElement, T toElement) {
+            return subSet(fromElement, true, toElement, false);
+        }
+
+        @Override
+        public SortedSet<T> headSet(T toElement) {
+            return headSet(toElement, false);
+        }
+
+        @Override
+        public SortedSet<T> tailSet(T fromElement) {
+            return tailSet(fromElement, true);
+        }
+
+        @Override
+        public int size() {
+            if (lo == null && hi == null) {
+                return BinarySearchTree.this.size();
+            }
+            if (orderStatistics) {
+                int upTo = (hi != null) ? countBelow(hi, hiInclusive) : BinarySearchTree.this.size();
+                int before = (lo != null) ? countBelow(lo, !loInclusive) : 0;
+                return Math.max(upTo - before, 0);
+            }
+            int count = 0;
+            for (Iterator<T> iterator = iterator(); iterator.hasNext(); iterator.next()) {
+                count++;
+            }
+            return count;
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return lowest() == null;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public boolean contains(Object o) {
+            T word = (T) o;
+            return inRange(word) && BinarySearchTree.this.contains(word);
+        }
+
+        @Override
+        public boolean add(T e) {
+            if (!inRange(e)) {
+                throw new IllegalArgumentException("value out of the range of the view");
+            }
+            return BinarySearchTree.this.add(e);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public boolean remove(Object o) {
+            T word = (T) o;
+            return inRange(word) && BinarySearchTree.this.remove(word);
+        }
+
+        /**
+         * Helper method which creates a narrower view of the same direction, in ascending terms
+         * @param from          the new lower bound, <code>null</code> if unbounded
+         * @param fromInclusive <code>true</code> if from belongs to the new view
+         * @param checkFrom     <code>true</code> if from is a new bound that must lie within this view
+         * @param to            the new upper bound, <code>null</code> if unbounded
+         * @param toInclusive   <code>true</code> if to belongs to the new view
+         * @param checkTo       <code>true</code> if to is a new bound that must lie within this view
+         * @return              the new view
+         * @throws IllegalArgumentException if a new bound lies outside this view, or from is greater than to
+         */
+        private NavigableView view(T from, boolean fromInclusive, boolean checkFrom, T to, boolean toInclusive,
+                                   boolean checkTo) {
+            if ((checkFrom && !withinBounds(from, fromInclusive)) || (checkTo && !withinBounds(to, toInclusive))) {
+                throw new IllegalArgumentException("bound out of the range of the view");
+            }
+            if (from != null && to != null && from.compareTo(to) > 0) {
+                throw new IllegalArgumentException("fromElement is greater than toElement");
+            }
+            return new NavigableView(from, fromInclusive, to, toInclusive, descending);
+        }
+
+        /**
+         * Helper method which checks a new bound; a bound equal to an excluded bound of this view is only allowed
+         * if it is excluded too
+         * @param bound         the new bound
+         * @param inclusive     <code>true</code> if bound would belong to the new view
+         * @return              <code>true</code> if the new bound lies within this view
+         */
+        private boolean withinBounds(T bound, boolean inclusive) {
+            if (bound == null) {
+                throw new NullPointerException();
+            }
+            int fromLo = (lo != null) ? bound.compareTo(lo) : 1;
+            int fromHi = (hi != null) ? bound.compareTo(hi) : -1;
+            return (fromLo > 0 || (fromLo == 0 && (loInclusive || !inclusive)))
+                    && (fromHi < 0 || (fromHi == 0 && (hiInclusive || !inclusive)));
+        }
+
+        /**
+         * @param word          the value of type T
+         * @return              <code>true</code> if word is below the lower bound
+         */
+        private boolean tooLow(T word) {
+            if (lo == null) {
+                return false;
+            }
+            int difference = word.compareTo(lo);
+            return difference < 0 || (difference == 0 && !loInclusive);
+        }
+
+        /**
+         * @param word          the value of type T
+         * @return              <code>true</code> if word is above the upper bound
+         */
+        private boolean tooHigh(T word) {
+            if (hi == null) {
+                return false;
+            }
+            int difference = word.compareTo(hi);
+            return difference > 0 || (difference == 0 && !hiInclusive);
+        }
+
+        /**
+         * @param word          the value of type T
+         * @return              <code>true</code> if word lies between the bounds of this view
+         */
+        private boolean inRange(T word) {
+            return !tooLow(word) && !tooHigh(word);
+        }
+
+        /**
+         * @return              the smallest value of the view; <code>null</code> if the view is empty
+         */
+        private T lowest() {
+            T word = (lo == null) ? extreme(false) : neighbour(lo, true, loInclusive);
+            return (word == null || tooHigh(word)) ? null : word;
+        }
+
+        /**
+         * @return              the greatest value of the view; <code>null</code> if the view is empty
+         */
+        private T highest() {
+            T word = (hi == null) ? extreme(true) : neighbour(hi, false, hiInclusive);
+            return (word == null || tooLow(word)) ? null : word;
+        }
+
+        /**
+         * @param word          the value of type T to start from
+         * @param inclusive     <code>true</code> if word itself can be returned
+         * @return              the nearest value of the view above word; <code>null</code> if there is none
+         */
+        private T above(T word, boolean inclusive) {
+            if (tooLow(word)) {
+                return lowest();
+            }
+            T next = neighbour(word, true, inclusive);
+            return (next == null || tooHigh(next)) ? null : next;
+        }
+
+        /**
+         * @param word          the value of type T to start from
+         * @param inclusive     <code>true</code> if word itself can be returned
+         * @return              the nearest value of the view below word; <code>null</code> if there is none
+         */
+        private T below(T word, boolean inclusive) {
+            if (tooHigh(word)) {
+                return highest();
+            }
+            T previous = neighbour(word, false, inclusive);
+            return (previous == null || tooLow(previous)) ? null : previous;
+        }
+
+        /**
+         * @param word          the value found, or <code>null</code>
+         * @return              word
+         * @throws NoSuchElementException   if word is <code>null</code>, i.e. the view is empty
+         */
+        private T require(T word) {
+            if (word == null) {
+                throw new NoSuchElementException();
+            }
+            return word;
+        }
+
+        /**
+         * @param word          the value to be removed from the tree, or <code>null</code>
+         * @return              word
+         */
+        private T removeValue(T word) {
+            if (word != null) {
+                BinarySearchTree.this.remove(word);
+            }
+            return word;
+        }
+    }
+
+    /**
+     * RangeIterator is an inner class of <code>BinarySearchTree</code> that walks the values of a
+     * <code>NavigableView</code> in either direction. It starts with one descent to the first value in range, and
+     * the stack holds the ancestors still to be visited. After a value is removed through the iterator, the stack
+     * is rebuilt from the removed value, since rebalancing may have moved the nodes on it.
+     */
+    private class RangeIterator implements Iterator<T> {
+        private final NavigableView view;
+        private final boolean ascending;
+        private NodeStack stack;
+        private T lastReturned; // the value returned by next, null after it was removed
+
+        /**
+         * Class constructor
+         * @param view          the view whose values are visited
+         * @param ascending     <code>true</code> to visit the values from the smallest
+         */
+        private RangeIterator(NavigableView view, boolean ascending) {
+            this.view = view;
+            this.ascending = ascending;
+            seek((ascending) ? view.lo : view.hi, (ascending) ? view.loInclusive : view.hiInclusive);
+        }
+
+        /**
+         * Descends from the root to the first value past the bound given, pushing the nodes to be visited
+         * @param bound         the value to start from, <code>null</code> to start at the end of the tree
+         * @param inclusive     <code>true</code> if bound itself is visited
+         */
+        private void seek(T bound, boolean inclusive) {
+            stack = new NodeStack();
+            NodeObj aNode = hasKey(root) ? root : null;
+            while (aNode != null) {
+                int difference = (bound == null) ? ((ascending) ? 1 : -1) : aNode.key.compareTo(bound);
+                boolean visited = (difference == 0) ? inclusive : (difference > 0) == ascending;
+                NodeObj next;
+                if (visited) {
+                    stack.push(aNode);
+                    next = (ascending) ? aNode.left : aNode.right;
+                } else {
+                    next = (ascending) ? aNode.right : aNode.left;
+                }
+                aNode = hasKey(next) ? next : null;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (stack.isEmpty()) {
+                return false;
+            }
+            T word = stack.peek().key;
+            return (ascending) ? !view.tooHigh(word) : !view.tooLow(word);
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            NodeObj aNode = stack.pop();
+            NodeObj next = (ascending) ? aNode.right : aNode.left;
+            while (hasKey(next)) {
+                stack.push(next);
+                next = (ascending) ? next.left : next.right;
+            }
+            lastReturned = aNode.key;
+            return lastReturned;
+        }
+
+        @Override
+        public void remove() {
+            if (lastReturned == null) {
+                throw new IllegalStateException();
+            }
+            BinarySearchTree.this.remove(lastReturned);
+            seek(lastReturned, false);
+            lastReturned = null;
+        }
+    }
+
+    /**
+     * Tells whether this tree has any values/nodes
+     * @return              <code>true</code> if root is <code>null</code> (thus the rest of the tree must be null);
+     *                      <code>false</code> otherwise
+     */
+    public boolean isEmpty() {
+        return root.key==getDefaultValue();
+    }
+
+    /**
+     * Iterative helper function for displaying the BST in the console. Obtains all node keys and place them in
+     * the rows array. Add 'l:' before left child value, 'r:' before right and '-' where there are no children.
+     * Nodes are visited in pre-order, so each row is filled from left to right
+     * @param myNode        the NodeObj node or subtree to extract the key from to be added to the rows
+     * @param level         the int representing node's row in the array (NOT height)
+     * @param rows          the array of rows, one for each level of the tree
+     * @see                 #toString()
+     */
+    private void iterToString(NodeObj myNode, int level, StringBuilder[] rows) {
+        NodeStack stack = new NodeStack();
+        stack.push(myNode, level);
+        while (!stack.isEmpty()) {
+            int row = stack.peekLevel();
+            NodeObj aNode = stack.pop();
+            if (aNode.left!=null) {
+                rows[row].append("l:").append(aNode.left.key).append("\t");
+            } else {
+                rows[row].append("-\t");
+            }
+            if (aNode.right!=null) {
+                rows[row].append("r:").append(aNode.right.key).append("\t");
+                stack.push(aNode.right, row+1);
+            } else {
+                rows[row].append("-\t");
+            }
+            if (aNode.left!=null) {
+                stack.push(aNode.left, row+1);
+            }
         }
     }
 
@@ -723,13 +3803,13 @@ public class BinarySearchTree<T extends Comparable<T>> {
      */
     public String toString() {
         String sResult;
-        answer = new String[ allNodeKeys.size()+2 ];
-        for (int i=0; i<answer.length; i++) {
-            answer[i] = "";
+        StringBuilder[] rows = new StringBuilder[ getHeight()+2 ];
+        for (int i=0; i<rows.length; i++) {
+            rows[i] = new StringBuilder();
         }
-        answer[0] = root.key+"\t";
-        recursiveToString(root, 1);
-        sResult = Arrays.toString(answer);
+        rows[0].append(root.key).append("\t");
+        iterToString(root, 1, rows);
+        sResult = Arrays.toString(rows);
         sResult = sResult.substring(0, sResult.lastIndexOf("\t")).replace(",", "\n")+"]";
         return sResult;
     }
@@ -0,0 +1,299 @@
+package org.example.binarysearchtree;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * <code>BinarySearchTreeMap</code> is a <code>BinarySearchTree</code> that maps each of its keys to a value of type V,
+ * kept in the node of the key, which is a subclass of the plain node with one more field. Looking a value up takes one
+ * descent, the same as <code>contains</code>, with no side table to keep in step with the tree. The keys behave exactly
+ * as in a <code>BinarySearchTree</code>: they can be balanced, traversed, exported and measured with
+ * <code>getNodeDepth</code>, and a key added with <code>add</code> is mapped to <code>null</code>. Removing a key
+ * removes its value. Values move with their nodes when the tree is rebalanced, rebuilt, split or joined, and come along
+ * with the nodes of another map added with <code>addNode</code>; the set operations (<code>union</code>,
+ * <code>intersect</code>, <code>difference</code>) and snapshots only carry the keys. This class is NOT 'thread-safe'.
+ *
+ * @author dawidK5
+ * @version %I%, %G%
+ * @see BinarySearchTree
+ */
+public class BinarySearchTreeMap<K extends Comparable<K>, V> extends BinarySearchTree<K> {
+
+    /**
+     * Class constructor
+     */
+    public BinarySearchTreeMap() {
+        this(BalanceMode.NONE);
+    }
+
+    /**
+     * Class constructor specifying the balancing strategy of this map
+     * @param mode          the <code>BalanceMode</code> used to reshape the tree when keys are added or removed
+     */
+    public BinarySearchTreeMap(BalanceMode mode) {
+        this(mode, false);
+    }
+
+    /**
+     * Class constructor specifying the balancing strategy of this map and whether the nodes keep the sizes of
+     * their subtrees
+     * @param mode              the <code>BalanceMode</code> used to reshape the tree when keys are added or removed
+     * @param orderStatistics   <code>true</code> to maintain subtree sizes in the nodes
+     */
+    public BinarySearchTreeMap(BalanceMode mode, boolean orderStatistics) {
+        this(mode, orderStatistics, false);
+    }
+
+    /**
+     * Class constructor specifying the balancing strategy of this map, whether the nodes keep the sizes of their
+     * subtrees and whether they keep links to their parents
+     * @param mode              the <code>BalanceMode</code> used to reshape the tree when keys are added or removed
+     * @param orderStatistics   <code>true</code> to maintain subtree sizes in the nodes
+     * @param parentLinks       <code>true</code> to maintain parent links in the nodes
+     */
+    public BinarySearchTreeMap(BalanceMode mode, boolean orderStatistics, boolean parentLinks) {
+        super(mode, orderStatistics, parentLinks);
+    }
+
+    /**
+     * Maps a key to a value, adding the key if it is not in this map yet. It takes one descent either way.
+     * @param key           the key of type K
+     * @param value         the value of type V to be mapped to key
+     * @return              the value mapped to key before; <code>null</code> if the key was not present
+     */
+    public V put(K key, V value) {
+        NodeObj aNode = placeKey(key);
+        V previous = value(aNode);
+        aNode.setValue(value);
+        return previous;
+    }
+
+    /**
+     * @param key           the key of type K
+     * @return              the value mapped to key; <code>null</code> if the key is not present
+     */
+    public V get(K key) {
+        return value(getNode(key));
+    }
+
+    /**
+     * @param key           the key of type K
+     * @param defaultValue  the value returned if the key is not present
+     * @return              the value mapped to key; defaultValue if the key is not present
+     */
+    public V getOrDefault(K key, V defaultValue) {
+        NodeObj aNode = getNode(key);
+        return (aNode.key != null) ? value(aNode) : defaultValue;
+    }
+
+    /**
+     * Returns the value held by a node of this map, e.g. one found with <code>getNode</code> or a traversal
+     * @param myNode        the NodeObj of this map
+     * @return              the value mapped to the key of the node; <code>null</code> for an empty node
+     */
+    public V getValue(NodeObj myNode) {
+        return value(myNode);
+    }
+
+    /**
+     * @param key           the key of type K
+     * @return              <code>true</code> if this map contains the key; <code>false</code> otherwise
+     */
+    public boolean containsKey(K key) {
+        return contains(key);
+    }
+
+    /**
+     * Removes a key and its value from this map with one descent
+     * @param key           the key of type K to be removed
+     * @return              the value that was mapped to key; <code>null</code> if the key was not present
+     * @see                 #remove(Comparable)
+     */
+    public V removeKey(K key) {
+        int previousSize = size();
+        Object value = unlinkKey(key);
+        return (size() != previousSize) ? cast(value) : null;
+    }
+
+    /**
+     * Returns the value mapped to a key, first computing it and adding the key if the key is not present or is
+     * mapped to <code>null</code>. Nothing is added if the function returns <code>null</code>.
+     * @param key           the key of type K
+     * @param function      the function computing a value from the key
+     * @return              the value mapped to key after the call; <code>null</code> if none was computed
+     */
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> function) {
+        NodeObj aNode = getNode(key);
+        V value = value(aNode);
+        if (value != null) {
+            return value;
+        }
+        value = function.apply(key);
+        if (value != null) {
+            if (aNode.key == null) {
+                aNode = placeKey(key);
+            }
+            aNode.setValue(value);
+        }
+        return value;
+    }
+
+    /**
+     * Maps a key to a value if the key is not present or is mapped to <code>null</code>; otherwise maps it to the
+     * result of the function applied to the old and the new value, removing the key if the result is
+     * <code>null</code>. A key that stays in the map takes one descent, e.g. when counting words with
+     * <code>merge(word, 1, Integer::sum)</code>.
+     * @param key           the key of type K
+     * @param value         the value of type V to be mapped or merged, not <code>null</code>
+     * @param function      the function merging the old value with value
+     * @return              the value mapped to key after the call; <code>null</code> if the key was removed
+     */
+    public V merge(K key, V value, BiFunction<? super V, ? super V, ? extends V> function) {
+        if (value == null) {
+            throw new NullPointerException("merged value cannot be null");
+        }
+        NodeObj aNode = placeKey(key);
+        V previous = value(aNode);
+        V merged = (previous == null) ? value : function.apply(previous, value);
+        if (merged == null) {
+            removeKey(key);
+        } else {
+            aNode.setValue(merged);
+        }
+        return merged;
+    }
+
+    /**
+     * @return              the <code>ArrayList</code> of the values of this map in the in-order of their keys
+     */
+    public List<V> valuesInOrder() {
+        List<V> values = new ArrayList<V>(size());
+        for (Object aNode : nodesInOrder()) {
+            values.add(value(node(aNode)));
+        }
+        return values;
+    }
+
+    /**
+     * @return              the <code>ArrayList</code> of the entries of this map in ascending order of keys
+     */
+    public List<Map.Entry<K, V>> entriesInOrder() {
+        List<Map.Entry<K, V>> entries = new ArrayList<Map.Entry<K, V>>(size());
+        for (Object element : nodesInOrder()) {
+            NodeObj aNode = node(element);
+            entries.add(new AbstractMap.SimpleImmutableEntry<K, V>(aNode.key, value(aNode)));
+        }
+        return entries;
+    }
+
+    /**
+     * Splits this map at the key given: all entries with keys greater than or equal to key are moved, with their
+     * values, into a new map, which is returned
+     * @param key           the smallest key to be moved to the new map
+     * @return              a new map with the entries of this map whose keys are not smaller than key
+     * @see                 BinarySearchTree#split(Comparable)
+     */
+    @Override
+    public BinarySearchTreeMap<K, V> split(K key) {
+        BinarySearchTreeMap<K, V> upper = newEmptyTree();
+        splitInto(key, upper);
+        return upper;
+    }
+
+    /**
+     * Helper method which creates an empty map with the settings of this map
+     * @return              a new empty map with the balance mode, order statistics and parent links of this map
+     */
+    @Override
+    BinarySearchTreeMap<K, V> newEmptyTree() {
+        return new BinarySearchTreeMap<K, V>(getBalanceMode(), hasOrderStatistics(), hasParentLinks());
+    }
+
+    /**
+     * Helper method which creates the nodes of this map, which hold a value besides the key
+     * @param key           the key of type K of the new node, <code>null</code> for an empty node
+     * @return              a new EntryNode, or LinkedEntryNode with parent links, with the key given and no value
+     */
+    @Override
+    NodeObj newNode(K key) {
+        return (hasParentLinks()) ? new LinkedEntryNode<K>(this, key) : new EntryNode<K>(this, key);
+    }
+
+    /**
+     * Helper method which reads the value of a node
+     * @param aNode         the NodeObj of this map
+     * @return              the value of type V held by the node
+     */
+    private V value(NodeObj aNode) {
+        return cast(aNode.value());
+    }
+
+    /**
+     * Helper method which casts a value stored in a node to type V
+     * @param value         the value stored
+     * @return              the value as type V
+     */
+    @SuppressWarnings("unchecked")
+    private V cast(Object value) {
+        return (V) value;
+    }
+
+    /**
+     * EntryNode is a nested class of <code>BinarySearchTreeMap</code>: a node of the tree which also holds the
+     * value mapped to its key. Only maps create it, so the nodes of plain trees stay one field smaller. It is static
+     * and reaches its map through the plain node, so it does not hold a second reference to the map.
+     */
+    private static class EntryNode<K extends Comparable<K>> extends BinarySearchTree<K>.NodeObj {
+        private Object value; // value mapped to the key, null if none
+
+        /**
+         * Class constructor specifying the map and the node key
+         * @param map       the map creating this node
+         * @param key       the key of type K, <code>null</code> for an empty node
+         */
+        private EntryNode(BinarySearchTree<K> map, K key) {
+            map.super(key);
+        }
+
+        @Override
+        Object value() {
+            return this.value;
+        }
+
+        @Override
+        void setValue(Object value) {
+            this.value = value;
+        }
+    }
+
+    /**
+     * LinkedEntryNode is a nested class of <code>BinarySearchTreeMap</code>: a node of a map with parent links,
+     * which holds the value mapped to its key besides the parent link
+     */
+    private static class LinkedEntryNode<K extends Comparable<K>> extends LinkedNode<K> {
+        private Object value; // value mapped to the key, null if none
+
+        /**
+         * Class constructor specifying the map and the node key
+         * @param map       the map creating this node
+         * @param key       the key of type K, <code>null</code> for an empty node
+         */
+        private LinkedEntryNode(BinarySearchTree<K> map, K key) {
+            super(map, key);
+        }
+
+        @Override
+        Object value() {
+            return this.value;
+        }
+
+        @Override
+        void setValue(Object value) {
+            this.value = value;
+        }
+    }
+}
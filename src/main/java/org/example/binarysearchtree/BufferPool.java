@@ -0,0 +1,188 @@
+package org.example.binarysearchtree;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * <code>BufferPool</code> keeps a bounded number of fixed-size pages of a file in memory for
+ * <code>PagedBinarySearchTree</code>. A page is pinned while it is used and it cannot be evicted until it is
+ * unpinned. When a page is needed and all frames are taken, a frame is chosen with the clock algorithm: the hand
+ * sweeps the frames, giving a second chance to every frame used since the last sweep, and takes the first unpinned
+ * frame that was not used. A dirty page is written back before its frame is reused. This class is NOT 'thread-safe'.
+ *
+ * @author dawidK5
+ * @version %I%, %G%
+ * @see PagedBinarySearchTree
+ */
+final class BufferPool {
+    private final FileChannel channel; // file the pages are read from and written to
+    private final int pageSize; // bytes in each page
+    private final Frame[] frames; // slots for the pages in memory
+    private final Map<Integer, Frame> pageTable = new HashMap<Integer, Frame>(); // frame of each page in memory
+    private int hand; // next frame looked at by the clock
+    private long pageReads; // pages read from the file
+    private long pageWrites; // pages written to the file
+
+    /**
+     * Frame is a nested class of <code>BufferPool</code> holding one page in memory
+     */
+    private static final class Frame {
+        private final ByteBuffer data;
+        private int pageId = -1; // -1 while the frame is empty
+        private int pins; // number of users of the page
+        private boolean referenced; // true if the page was used since the clock last passed
+        private boolean dirty; // true if the page was changed since it was read
+
+        /**
+         * Class constructor
+         * @param pageSize  bytes in the page
+         */
+        private Frame(int pageSize) {
+            this.data = ByteBuffer.allocate(pageSize).order(ByteOrder.LITTLE_ENDIAN);
+        }
+    }
+
+    /**
+     * Class constructor
+     * @param channel       the file holding the pages
+     * @param pageSize      the number of bytes in each page
+     * @param frameCount    the number of pages kept in memory
+     */
+    BufferPool(FileChannel channel, int pageSize, int frameCount) {
+        this.channel = channel;
+        this.pageSize = pageSize;
+        this.frames = new Frame[frameCount];
+        for (int i = 0; i < frameCount; i++) {
+            frames[i] = new Frame(pageSize);
+        }
+    }
+
+    /**
+     * Pins a page, reading it from the file if it is not in memory
+     * @param pageId        the number of the page in the file
+     * @return              the buffer of the page, valid until the page is unpinned
+     * @throws IOException  if the page cannot be read or a dirty page cannot be written back
+     */
+    ByteBuffer pin(int pageId) throws IOException {
+        Frame frame = pageTable.get(pageId);
+        if (frame == null) {
+            frame = claimFrame(pageId);
+            frame.data.clear();
+            long offset = (long) pageId * pageSize;
+            while (frame.data.hasRemaining() && channel.read(frame.data, offset + frame.data.position()) >= 0) {
+                // read until the page is full or the file ends
+            }
+            frame.data.clear();
+            pageReads++;
+        }
+        frame.pins++;
+        frame.referenced = true;
+        return frame.data;
+    }
+
+    /**
+     * Pins a new page without reading it; the page is zeroed and dirty
+     * @param pageId        the number of the page in the file
+     * @return              the buffer of the page, valid until the page is unpinned
+     * @throws IOException  if a dirty page cannot be written back
+     */
+    ByteBuffer pinNew(int pageId) throws IOException {
+        Frame frame = pageTable.get(pageId);
+        if (frame == null) {
+            frame = claimFrame(pageId);
+        }
+        Arrays.fill(frame.data.array(), (byte) 0);
+        frame.pins++;
+        frame.referenced = true;
+        frame.dirty = true;
+        return frame.data;
+    }
+
+    /**
+     * Releases a page pinned before
+     * @param pageId        the number of the page
+     * @param changed       <code>true</code> if the page was changed and has to be written back
+     */
+    void unpin(int pageId, boolean changed) {
+        Frame frame = pageTable.get(pageId);
+        frame.pins--;
+        frame.dirty |= changed;
+    }
+
+    /**
+     * Writes all dirty pages to the file
+     * @throws IOException  if a page cannot be written
+     */
+    void flush() throws IOException {
+        for (Frame frame : frames) {
+            if (frame.pageId >= 0 && frame.dirty) {
+                writeBack(frame);
+            }
+        }
+    }
+
+    /**
+     * @return              the number of pages read from the file
+     */
+    long getPageReads() {
+        return pageReads;
+    }
+
+    /**
+     * @return              the number of pages written to the file
+     */
+    long getPageWrites() {
+        return pageWrites;
+    }
+
+    /**
+     * Helper method which finds a frame for a page with the clock algorithm, writing back the page evicted from it
+     * @param pageId        the number of the page to be kept in the frame
+     * @return              the frame, registered for the page
+     * @throws IOException  if the evicted page cannot be written back
+     */
+    private Frame claimFrame(int pageId) throws IOException {
+        for (int step = 0; step < 2 * frames.length + 1; step++) {
+            Frame frame = frames[hand];
+            hand = (hand + 1) % frames.length;
+            if (frame.pins > 0) {
+                continue;
+            }
+            if (frame.referenced) {
+                frame.referenced = false;
+                continue;
+            }
+            if (frame.pageId >= 0) {
+                if (frame.dirty) {
+                    writeBack(frame);
+                }
+                pageTable.remove(frame.pageId);
+            }
+            frame.pageId = pageId;
+            pageTable.put(pageId, frame);
+            return frame;
+        }
+        throw new IllegalStateException("all " + frames.length + " pages of the buffer pool are pinned");
+    }
+
+    /**
+     * Helper method which writes a page to its place in the file
+     * @param frame         the frame of a dirty page
+     * @throws IOException  if the page cannot be written
+     */
+    private void writeBack(Frame frame) throws IOException {
+        ByteBuffer data = frame.data.duplicate();
+        data.clear();
+        long offset = (long) frame.pageId * pageSize;
+        while (data.hasRemaining()) {
+            channel.write(data, offset + data.position());
+        }
+        frame.dirty = false;
+        pageWrites++;
+    }
+}
@@ -0,0 +1,209 @@
+package org.example.binarysearchtree;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * <code>CombiningBinarySearchTree</code> lets many threads change one <code>BinarySearchTree</code> without locking
+ * it around every call (flat combining). Each operation is put in a queue and a future of its result is returned.
+ * Whichever submitting thread finds no other thread combining becomes the combiner: it takes up to a batch of
+ * operations from the queue, sorts them by value and applies them to the tree in that order through one
+ * <code>Finger</code>, so each operation searches from the node where the previous one ended and walks only the part
+ * of the path that differs. A change that reshapes a balanced tree sends the next search back to the root, so lookups
+ * and changes in NONE mode share the most. Operations on the same value keep the order in which they were
+ * submitted. Only the combiner touches the tree, which therefore needs no synchronisation of its own. Futures are
+ * completed by the combining thread, so long-running dependent actions should use the <code>...Async</code> methods
+ * of <code>CompletableFuture</code>.
+ *
+ * @author dawidK5
+ * @version %I%, %G%
+ * @see BinarySearchTree
+ * @see BinarySearchTree.Finger
+ */
+public class CombiningBinarySearchTree<T extends Comparable<T>> {
+    public static final int DEFAULT_MAX_BATCH_SIZE = 256; // operations applied by the combiner in one pass
+
+    private final BinarySearchTree<T> tree; // the tree changed only by the current combiner
+    private final int maxBatchSize; // operations applied by the combiner in one pass
+    private final ConcurrentLinkedQueue<Request<T>> pending = new ConcurrentLinkedQueue<Request<T>>(); // to be done
+    private final AtomicBoolean combining = new AtomicBoolean(); // true while a thread applies a batch
+
+    /**
+     * Operation is a nested enum of <code>CombiningBinarySearchTree</code> naming the tree method a request calls
+     */
+    private enum Operation {
+        ADD, REMOVE, CONTAINS
+    }
+
+    /**
+     * Request is a nested class of <code>CombiningBinarySearchTree</code> holding one submitted operation and the
+     * future of its result
+     */
+    private static final class Request<T> {
+        private final Operation operation;
+        private final T key;
+        private final CompletableFuture<Boolean> result = new CompletableFuture<Boolean>();
+        private boolean answer; // result of the operation, set by the combiner
+        private RuntimeException failure; // exception thrown by the operation, set by the combiner
+
+        /**
+         * Class constructor
+         * @param operation     the tree method to be called
+         * @param key           the value passed to the method
+         */
+        private Request(Operation operation, T key) {
+            this.operation = operation;
+            this.key = key;
+        }
+    }
+
+    /**
+     * Class constructor wrapping a new empty tree with AVL balancing
+     */
+    public CombiningBinarySearchTree() {
+        this(new BinarySearchTree<T>(BalanceMode.AVL), DEFAULT_MAX_BATCH_SIZE);
+    }
+
+    /**
+     * Class constructor wrapping an existing tree, which must not be used directly afterwards
+     * @param tree          the tree to be changed by the combined operations
+     * @param maxBatchSize  the number of operations applied by the combiner in one pass
+     */
+    public CombiningBinarySearchTree(BinarySearchTree<T> tree, int maxBatchSize) {
+        if (maxBatchSize < 1) {
+            throw new IllegalArgumentException("maxBatchSize must be positive");
+        }
+        this.tree = tree;
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    /**
+     * Submits adding a value to the tree
+     * @param word          the value of type T to be added to the tree
+     * @return              the future completed with <code>true</code> if a new unique value was added;
+     *                      <code>false</code> otherwise
+     */
+    public CompletableFuture<Boolean> submitAdd(T word) {
+        return submit(Operation.ADD, word);
+    }
+
+    /**
+     * Submits removing a value from the tree
+     * @param value         the value of type T to be removed
+     * @return              the future completed with <code>true</code> if the value existed and was removed;
+     *                      <code>false</code> otherwise
+     */
+    public CompletableFuture<Boolean> submitRemove(T value) {
+        return submit(Operation.REMOVE, value);
+    }
+
+    /**
+     * Submits checking if the tree contains a value. The check sees all operations submitted before it.
+     * @param word          the value to be checked for
+     * @return              the future completed with <code>true</code> if the tree contains word;
+     *                      <code>false</code> otherwise
+     */
+    public CompletableFuture<Boolean> submitContains(T word) {
+        return submit(Operation.CONTAINS, word);
+    }
+
+    /**
+     * Adds a value to the tree and waits for the result
+     * @param word          the value of type T to be added to the tree
+     * @return              <code>true</code> if a new unique value was added successfully; <code>false</code> otherwise
+     */
+    public boolean add(T word) {
+        return submitAdd(word).join();
+    }
+
+    /**
+     * Removes a value from the tree and waits for the result
+     * @param value         the value of type T to be removed
+     * @return              <code>true</code> if the value existed before and was removed successfully;
+     *                      <code>false</code> otherwise
+     */
+    public boolean remove(T value) {
+        return submitRemove(value).join();
+    }
+
+    /**
+     * Checks if the tree contains a value and waits for the result
+     * @param word          the value to be checked for
+     * @return              <code>true</code> if the tree contains word; <code>false</code> otherwise
+     */
+    public boolean contains(T word) {
+        return submitContains(word).join();
+    }
+
+    /**
+     * Helper method which queues a request and applies the queued requests unless another thread already does
+     * @param operation     the tree method to be called
+     * @param key           the value passed to the method
+     * @return              the future of the request
+     */
+    private CompletableFuture<Boolean> submit(Operation operation, T key) {
+        Request<T> request = new Request<T>(operation, Objects.requireNonNull(key));
+        pending.add(request);
+        combine();
+        return request.result;
+    }
+
+    /**
+     * Helper method which applies batches of queued requests while any are left and no other thread combines. The
+     * queue is checked again after the combiner steps down, so a request queued while a batch was applied is never
+     * left without a combiner.
+     */
+    private void combine() {
+        while (!pending.isEmpty() && combining.compareAndSet(false, true)) {
+            List<Request<T>> batch = new ArrayList<Request<T>>(Math.min(maxBatchSize, 64));
+            try {
+                Request<T> request;
+                while (batch.size() < maxBatchSize && (request = pending.poll()) != null) {
+                    batch.add(request);
+                }
+                batch.sort(Comparator.comparing(queued -> queued.key)); // stable, keeps the order per value
+                BinarySearchTree<T>.Finger finger = tree.finger(); // shares the path between neighbouring values
+                for (Request<T> queued : batch) {
+                    apply(queued, finger);
+                }
+            } finally {
+                combining.set(false);
+            }
+            for (Request<T> queued : batch) {
+                if (queued.failure != null) {
+                    queued.result.completeExceptionally(queued.failure);
+                } else {
+                    queued.result.complete(queued.answer);
+                }
+            }
+        }
+    }
+
+    /**
+     * Helper method which calls the tree method of a request through the finger of the batch and stores its result
+     * or exception in the request
+     * @param request       the request to be applied
+     * @param finger        the finger left by the previous request of the batch
+     */
+    private void apply(Request<T> request, BinarySearchTree<T>.Finger finger) {
+        try {
+            switch (request.operation) {
+                case ADD:
+                    request.answer = finger.add(request.key);
+                    break;
+                case REMOVE:
+                    request.answer = finger.remove(request.key);
+                    break;
+                default:
+                    request.answer = finger.contains(request.key);
+            }
+        } catch (RuntimeException e) {
+            request.failure = e;
+        }
+    }
+}
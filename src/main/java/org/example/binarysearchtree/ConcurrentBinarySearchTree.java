@@ -0,0 +1,449 @@
+package org.example.binarysearchtree;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <code>ConcurrentBinarySearchTree</code> is a thread-safe, lock-free binary search tree for values of a specific
+ * <code>Comparable</code> type T, following the non-blocking external BST of Ellen, Fatourou, Ruppert and van Breugel
+ * (2010). Values are stored in the leaves; internal nodes only route the searches. An update flags the one or two
+ * internal nodes it changes with a compare-and-set and publishes a description of itself, so that any thread meeting
+ * the flag can finish the update on its behalf instead of waiting. Thus <code>add</code>, <code>contains</code> and
+ * <code>remove</code> are linearizable, no thread ever blocks another and lookups never write to shared memory.
+ * The tree does not rebalance itself, so values should not arrive in sorted order. Null values are not permitted.
+ *
+ * @author dawidK5
+ * @version %I%, %G%
+ * @see BinarySearchTree
+ */
+public class ConcurrentBinarySearchTree<T extends Comparable<T>> {
+    private static final int CLEAN = 0; // no update is in progress at the node
+    private static final int IFLAG = 1; // an insertion below the node is in progress
+    private static final int DFLAG = 2; // a deletion of a grandchild of the node is in progress
+    private static final int MARK = 3; // the node is being removed from the tree
+    private static final Update CLEAN_UPDATE = new Update(CLEAN, null); // initial state of the sentinel nodes
+
+    @SuppressWarnings("rawtypes")
+    private static final AtomicReferenceFieldUpdater<Internal, Node> LEFT =
+            AtomicReferenceFieldUpdater.newUpdater(Internal.class, Node.class, "left");
+    @SuppressWarnings("rawtypes")
+    private static final AtomicReferenceFieldUpdater<Internal, Node> RIGHT =
+            AtomicReferenceFieldUpdater.newUpdater(Internal.class, Node.class, "right");
+    private static final AtomicReferenceFieldUpdater<Internal, Update> UPDATE =
+            AtomicReferenceFieldUpdater.newUpdater(Internal.class, Update.class, "update");
+
+    private final Internal<T> root; // sentinel with key infinity-2, its left subtree holds all values
+    private final LongAdder size = new LongAdder(); // number of successful adds minus successful removes
+
+    /**
+     * Node is a nested class of <code>ConcurrentBinarySearchTree</code> holding a key. The two largest keys are the
+     * sentinels infinity-1 and infinity-2, greater than any value, which keep the root and its children in place.
+     */
+    private abstract static class Node<T> {
+        final T key;
+        final int infinity; // 0 for an ordinary key, 1 or 2 for a sentinel
+
+        /**
+         * Class constructor
+         * @param key       the value of the node, <code>null</code> for a sentinel
+         * @param infinity  0 for an ordinary key; 1 or 2 for a sentinel
+         */
+        Node(T key, int infinity) {
+            this.key = key;
+            this.infinity = infinity;
+        }
+    }
+
+    /**
+     * Leaf is a nested class of <code>ConcurrentBinarySearchTree</code> storing a value of the tree (or a sentinel)
+     */
+    private static final class Leaf<T> extends Node<T> {
+
+        /**
+         * Class constructor
+         * @param key       the value of the leaf, <code>null</code> for a sentinel
+         * @param infinity  0 for an ordinary key; 1 or 2 for a sentinel
+         */
+        Leaf(T key, int infinity) {
+            super(key, infinity);
+        }
+    }
+
+    /**
+     * Internal is a nested class of <code>ConcurrentBinarySearchTree</code> routing searches: keys smaller than its
+     * key are on the left. It always has two children, which are only changed by compare-and-set, and the state of
+     * the update in progress at this node.
+     */
+    private static final class Internal<T> extends Node<T> {
+        volatile Node<T> left, right;
+        volatile Update update = CLEAN_UPDATE;
+
+        /**
+         * Class constructor
+         * @param key       the routing key, <code>null</code> for a sentinel
+         * @param infinity  0 for an ordinary key; 1 or 2 for a sentinel
+         * @param left      the subtree with keys smaller than key
+         * @param right     the subtree with keys greater than or equal to key
+         */
+        Internal(T key, int infinity, Node<T> left, Node<T> right) {
+            super(key, infinity);
+            this.left = left;
+            this.right = right;
+        }
+    }
+
+    /**
+     * Update is a nested class of <code>ConcurrentBinarySearchTree</code> pairing the state of an internal node with
+     * the description of the operation that set it. A new instance is made for every change of state, so a
+     * compare-and-set on it cannot succeed after the node has been flagged and cleaned in between.
+     */
+    private static final class Update {
+        final int state;
+        final Info info;
+
+        /**
+         * Class constructor
+         * @param state     one of CLEAN, IFLAG, DFLAG and MARK
+         * @param info      the operation which set the state
+         */
+        Update(int state, Info info) {
+            this.state = state;
+            this.info = info;
+        }
+    }
+
+    /**
+     * Info is a nested class of <code>ConcurrentBinarySearchTree</code> describing an update in progress, with
+     * everything another thread needs to finish it
+     */
+    private abstract static class Info {
+        Update flag; // the Update flagging the first node of this operation, set before it is published
+    }
+
+    /**
+     * InsertInfo is a nested class of <code>ConcurrentBinarySearchTree</code> describing the replacement of a leaf
+     * by a new internal node with the old leaf and the new leaf as children
+     */
+    private static final class InsertInfo<T> extends Info {
+        final Internal<T> parent;
+        final Leaf<T> leaf;
+        final Internal<T> newInternal;
+
+        /**
+         * Class constructor
+         * @param parent        the flagged parent of leaf
+         * @param leaf          the leaf to be replaced
+         * @param newInternal   the subtree taking the place of leaf
+         */
+        InsertInfo(Internal<T> parent, Leaf<T> leaf, Internal<T> newInternal) {
+            this.parent = parent;
+            this.leaf = leaf;
+            this.newInternal = newInternal;
+        }
+    }
+
+    /**
+     * DeleteInfo is a nested class of <code>ConcurrentBinarySearchTree</code> describing the removal of a leaf with
+     * its parent, after which the sibling of the leaf takes the place of the parent
+     */
+    private static final class DeleteInfo<T> extends Info {
+        final Internal<T> grandParent;
+        final Internal<T> parent;
+        final Leaf<T> leaf;
+        final Update parentUpdate; // state of parent seen by the search, expected when parent is marked
+
+        /**
+         * Class constructor
+         * @param grandParent   the flagged parent of parent
+         * @param parent        the parent of leaf, to be marked and unlinked
+         * @param leaf          the leaf to be removed
+         * @param parentUpdate  the state of parent read during the search
+         */
+        DeleteInfo(Internal<T> grandParent, Internal<T> parent, Leaf<T> leaf, Update parentUpdate) {
+            this.grandParent = grandParent;
+            this.parent = parent;
+            this.leaf = leaf;
+            this.parentUpdate = parentUpdate;
+        }
+    }
+
+    /**
+     * SearchResult is a nested class of <code>ConcurrentBinarySearchTree</code> holding the last three nodes of a
+     * search path with the states their parents had when they were read
+     */
+    private static final class SearchResult<T> {
+        Internal<T> grandParent, parent;
+        Leaf<T> leaf;
+        Update parentUpdate, grandParentUpdate;
+    }
+
+    /**
+     * Class constructor
+     */
+    public ConcurrentBinarySearchTree() {
+        this.root = new Internal<T>(null, 2, new Leaf<T>(null, 1), new Leaf<T>(null, 2));
+    }
+
+    /**
+     * Returns the number of values in this tree. While other threads are adding or removing values, the result
+     * may not reflect their latest updates.
+     * @return              the int signifying the number of values in this tree
+     */
+    public int size() {
+        return size.intValue();
+    }
+
+    /**
+     * Tells whether this tree has any values
+     * @return              <code>true</code> if there are no values in this tree; <code>false</code> otherwise
+     */
+    public boolean isEmpty() {
+        Node<T> top = root.left;
+        return top instanceof Leaf; // only the sentinel infinity-1 is left
+    }
+
+    /**
+     * Checks if this tree contains the value given. The search does not write to shared memory and it never
+     * waits for other threads.
+     * @param word          the value to be checked for
+     * @return              <code>true</code> if this tree contains word; <code>false</code> otherwise
+     */
+    public boolean contains(T word) {
+        Objects.requireNonNull(word);
+        Node<T> aNode = root;
+        while (aNode instanceof Internal) {
+            Internal<T> internal = (Internal<T>) aNode;
+            aNode = (compare(word, internal) < 0) ? internal.left : internal.right;
+        }
+        return compare(word, aNode) == 0;
+    }
+
+    /**
+     * Adds a value to this tree by replacing the leaf where the search ends with a new internal node, which has
+     * the new leaf and the old leaf as children
+     * @param word          the value of type T to be added to the tree
+     * @return              <code>true</code> if a new unique value was added successfully;
+     *                      <code>false</code> if the value was already present
+     */
+    public boolean add(T word) {
+        Objects.requireNonNull(word);
+        SearchResult<T> found = new SearchResult<T>();
+        while (true) {
+            search(word, found);
+            Leaf<T> leaf = found.leaf;
+            if (compare(word, leaf) == 0) {
+                return false;
+            }
+            if (found.parentUpdate.state != CLEAN) {
+                help(found.parentUpdate);
+                continue;
+            }
+            Leaf<T> newLeaf = new Leaf<T>(word, 0);
+            Leaf<T> sibling = new Leaf<T>(leaf.key, leaf.infinity);
+            Internal<T> newInternal = (compare(word, leaf) < 0)
+                    ? new Internal<T>(leaf.key, leaf.infinity, newLeaf, sibling)
+                    : new Internal<T>(word, 0, sibling, newLeaf);
+            InsertInfo<T> operation = new InsertInfo<T>(found.parent, leaf, newInternal);
+            Update flag = new Update(IFLAG, operation);
+            operation.flag = flag;
+            if (UPDATE.compareAndSet(found.parent, found.parentUpdate, flag)) {
+                helpInsert(operation);
+                size.increment();
+                return true;
+            }
+            help(found.parent.update);
+        }
+    }
+
+    /**
+     * Removes a value from this tree. The grandparent of the leaf is flagged, the parent is marked and then the
+     * sibling of the leaf takes the place of the parent.
+     * @param value         the value of type T to be removed
+     * @return              <code>true</code> if the value existed before and was removed successfully;
+     *                      <code>false</code> otherwise
+     */
+    public boolean remove(T value) {
+        Objects.requireNonNull(value);
+        SearchResult<T> found = new SearchResult<T>();
+        while (true) {
+            search(value, found);
+            if (compare(value, found.leaf) != 0) {
+                return false;
+            }
+            if (found.grandParentUpdate.state != CLEAN) {
+                help(found.grandParentUpdate);
+                continue;
+            }
+            if (found.parentUpdate.state != CLEAN) {
+                help(found.parentUpdate);
+                continue;
+            }
+            DeleteInfo<T> operation = new DeleteInfo<T>(found.grandParent, found.parent, found.leaf,
+                    found.parentUpdate);
+            Update flag = new Update(DFLAG, operation);
+            operation.flag = flag;
+            if (UPDATE.compareAndSet(found.grandParent, found.grandParentUpdate, flag)) {
+                if (helpDelete(operation)) {
+                    size.decrement();
+                    return true;
+                }
+            } else {
+                help(found.grandParent.update);
+            }
+        }
+    }
+
+    /**
+     * Returns all values of this tree in ascending order. The list is weakly consistent: values added or removed
+     * by other threads during the traversal may or may not be included.
+     * @return              the <code>ArrayList</code> of all values in this tree in in-order (left, root, right)
+     */
+    public List<T> asListInOrder() {
+        List<T> inOrdList = new ArrayList<T>();
+        List<Node<T>> stack = new ArrayList<Node<T>>();
+        stack.add(root);
+        while (!stack.isEmpty()) {
+            Node<T> aNode = stack.remove(stack.size()-1);
+            if (aNode instanceof Internal) {
+                Internal<T> internal = (Internal<T>) aNode;
+                Node<T> leftChild = internal.left;
+                stack.add(internal.right);
+                stack.add(leftChild);
+            } else if (aNode.infinity == 0) {
+                inOrdList.add(aNode.key);
+            }
+        }
+        return inOrdList;
+    }
+
+    /**
+     * Helper method which descends to the leaf where the value given is or would be, remembering the parent and
+     * grandparent with the states read before their children were read
+     * @param word          the value of type T to be found
+     * @param found         the SearchResult to be filled
+     */
+    private void search(T word, SearchResult<T> found) {
+        Internal<T> grandParent = null;
+        Internal<T> parent = null;
+        Update grandParentUpdate = null;
+        Update parentUpdate = null;
+        Node<T> aNode = root;
+        while (aNode instanceof Internal) {
+            grandParent = parent;
+            parent = (Internal<T>) aNode;
+            grandParentUpdate = parentUpdate;
+            parentUpdate = parent.update;
+            aNode = (compare(word, parent) < 0) ? parent.left : parent.right;
+        }
+        found.grandParent = grandParent;
+        found.parent = parent;
+        found.leaf = (Leaf<T>) aNode;
+        found.grandParentUpdate = grandParentUpdate;
+        found.parentUpdate = parentUpdate;
+    }
+
+    /**
+     * Helper method which finishes the update in progress described by the state of a node
+     * @param update        the state read from a node
+     */
+    @SuppressWarnings("unchecked")
+    private void help(Update update) {
+        switch (update.state) {
+            case IFLAG:
+                helpInsert((InsertInfo<T>) update.info);
+                break;
+            case MARK:
+                helpMarked((DeleteInfo<T>) update.info);
+                break;
+            case DFLAG:
+                helpDelete((DeleteInfo<T>) update.info);
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Helper method which links the new internal node in place of the leaf and unflags the parent
+     * @param operation     the insertion to be finished
+     */
+    private void helpInsert(InsertInfo<T> operation) {
+        casChild(operation.parent, operation.leaf, operation.newInternal);
+        UPDATE.compareAndSet(operation.parent, operation.flag, new Update(CLEAN, operation));
+    }
+
+    /**
+     * Helper method which tries to mark the parent of the leaf being removed. If the parent has changed since it
+     * was read, the deletion is abandoned and the grandparent is unflagged so that the deletion can be retried.
+     * @param operation     the deletion to be finished
+     * @return              <code>true</code> if the parent was marked and the deletion completed;
+     *                      <code>false</code> if the deletion has to be retried
+     */
+    private boolean helpDelete(DeleteInfo<T> operation) {
+        if (UPDATE.compareAndSet(operation.parent, operation.parentUpdate, new Update(MARK, operation))) {
+            helpMarked(operation);
+            return true;
+        }
+        Update current = operation.parent.update;
+        if (current.state == MARK && current.info == operation) {
+            helpMarked(operation); // marked by another thread helping this deletion
+            return true;
+        }
+        help(current);
+        UPDATE.compareAndSet(operation.grandParent, operation.flag, new Update(CLEAN, operation));
+        return false;
+    }
+
+    /**
+     * Helper method which links the sibling of the removed leaf in place of the marked parent and unflags the
+     * grandparent
+     * @param operation     the deletion to be finished
+     */
+    private void helpMarked(DeleteInfo<T> operation) {
+        Internal<T> parent = operation.parent;
+        Node<T> other = (parent.right == operation.leaf) ? parent.left : parent.right;
+        casChild(operation.grandParent, parent, other);
+        UPDATE.compareAndSet(operation.grandParent, operation.flag, new Update(CLEAN, operation));
+    }
+
+    /**
+     * Helper method which replaces a child of the parent given with compare-and-set, choosing the side by the key
+     * of the new child
+     * @param parent        the Internal node whose child is replaced
+     * @param oldChild      the child expected at that side
+     * @param newChild      the node to be linked instead
+     */
+    private void casChild(Internal<T> parent, Node<T> oldChild, Node<T> newChild) {
+        if (compare(newChild, parent) < 0) {
+            LEFT.compareAndSet(parent, oldChild, newChild);
+        } else {
+            RIGHT.compareAndSet(parent, oldChild, newChild);
+        }
+    }
+
+    /**
+     * @param word          the value to be compared
+     * @param aNode         the node whose key is compared with word
+     * @return              a negative int, zero or a positive int as word is less than, equal to or greater than
+     *                      the key of aNode; sentinel keys are greater than any value
+     */
+    private int compare(T word, Node<T> aNode) {
+        return (aNode.infinity > 0) ? -1 : word.compareTo(aNode.key);
+    }
+
+    /**
+     * @param aNode         the node whose key is compared
+     * @param parent        the node whose key is compared with the key of aNode
+     * @return              a negative int, zero or a positive int as the key of aNode is less than, equal to or
+     *                      greater than the key of parent; sentinels are ordered by their number
+     */
+    private int compare(Node<T> aNode, Node<T> parent) {
+        if (aNode.infinity > 0 || parent.infinity > 0) {
+            return Integer.compare(aNode.infinity, parent.infinity);
+        }
+        return aNode.key.compareTo(parent.key);
+    }
+}
@@ -0,0 +1,428 @@
+package org.example.binarysearchtree;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * <code>DoubleBinarySearchTree</code> is a binary search tree specialised for <code>double</code> keys. It offers the
+ * same operations as <code>BinarySearchTree&lt;Double&gt;</code>, but the keys are stored unboxed in the nodes and
+ * compared directly, so no objects are created while the tree is searched. Since primitive keys such as IDs and
+ * timestamps usually arrive sorted, this tree always balances itself the same way as <code>BalanceMode.AVL</code>. Keys
+ * are ordered as by <code>Double.compare</code>, so <code>-0.0</code> is smaller than <code>0.0</code> and
+ * <code>NaN</code> is the greatest key.
+ * The tree can be exported as a primitive array (pre/in/post -order). This class is NOT 'thread-safe'.
+ *
+ * @author dawidK5
+ * @version %I%, %G%
+ * @see BinarySearchTree
+ */
+public class DoubleBinarySearchTree {
+    private static final int MAX_HEIGHT = 64; // an AVL tree of 2^31 nodes is less than 46 levels high
+
+    private DoubleNode root; // root node, null if the tree is empty
+    private int size; // number of nodes in this tree
+    private final DoubleNode[] path = new DoubleNode[MAX_HEIGHT]; // nodes visited by add and remove, reused
+
+    /**
+     * DoubleNode is a nested class of <code>DoubleBinarySearchTree</code> holding an unboxed key, 2 pointers:
+     * left and right, and the height of the subtree rooted at this node
+     */
+    private static final class DoubleNode {
+        private DoubleNode left, right;
+        private double key;
+        private int height = 1;
+
+        /**
+         * Class constructor specifying node key
+         * @param key       the double value stored in this node
+         */
+        private DoubleNode(double key) {
+            this.key = key;
+        }
+    }
+
+    /**
+     * Class constructor
+     */
+    public DoubleBinarySearchTree() {
+    }
+
+    /**
+     * Class constructor
+     * @param keyArray      the array of values to be added to the tree
+     */
+    public DoubleBinarySearchTree(double[] keyArray) {
+        addAllFromArray(keyArray);
+    }
+
+    /**
+     * Returns the number of values in this tree
+     * @return              the int signifying the number of values in this BST
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Tells whether this tree has any values
+     * @return              <code>true</code> if there are no values in this tree; <code>false</code> otherwise
+     */
+    public boolean isEmpty() {
+        return this.root == null;
+    }
+
+    /**
+     * Adds a value to the tree by creating a new node and rebalances the nodes on the way back to the root
+     * @param key           the double value to be added to the tree
+     * @return              <code>true</code> if a new unique value was added successfully;
+     *                      <code>false</code> otherwise
+     */
+    public boolean add(double key) {
+        int depth = 0;
+        int difference = 0;
+        DoubleNode aNode = this.root;
+        while (aNode != null) {
+            difference = Double.compare(key, aNode.key);
+            if (difference == 0) {
+                clearPath(depth);
+                return false;
+            }
+            path[depth++] = aNode;
+            aNode = (difference < 0) ? aNode.left : aNode.right;
+        }
+        DoubleNode newNode = new DoubleNode(key);
+        if (depth == 0) {
+            this.root = newNode;
+        } else if (difference < 0) {
+            path[depth-1].left = newNode;
+        } else {
+            path[depth-1].right = newNode;
+        }
+        this.size++;
+        rebalancePath(depth);
+        return true;
+    }
+
+    /**
+     * Uses <code>add</code> method to insert all values from this array to the binary search tree
+     * @param keyArray      the array of double values to be inserted to the tree
+     */
+    public void addAllFromArray(double[] keyArray) {
+        for (double key : keyArray) {
+            add(key);
+        }
+    }
+
+    /**
+     * Checks if this tree contains the value given
+     * @param key           the value to be checked for
+     * @return              <code>true</code> if this BST contains a node with key with value of <code>key</code>;
+     *                      <code>false</code> if there is no such value in the tree
+     */
+    public boolean contains(double key) {
+        DoubleNode aNode = this.root;
+        while (aNode != null) {
+            int difference = Double.compare(key, aNode.key);
+            if (difference == 0) {
+                return true;
+            }
+            aNode = (difference < 0) ? aNode.left : aNode.right;
+        }
+        return false;
+    }
+
+    /**
+     * Removes the value given from the tree. A node with two children takes the smallest key of its right subtree
+     * and that node is unlinked instead. The nodes are rebalanced on the way back to the root.
+     * @param key           the double value to be removed
+     * @return              <code>true</code> if the value existed before and was removed successfully;
+     *                      <code>false</code> otherwise
+     */
+    public boolean remove(double key) {
+        int depth = 0;
+        DoubleNode aNode = this.root;
+        while (aNode != null) {
+            path[depth++] = aNode;
+            int difference = Double.compare(key, aNode.key);
+            if (difference == 0) {
+                break;
+            }
+            aNode = (difference < 0) ? aNode.left : aNode.right;
+        }
+        if (aNode == null) {
+            clearPath(depth);
+            return false;
+        }
+        if (aNode.left != null && aNode.right != null) {
+            DoubleNode successor = aNode.right;
+            path[depth++] = successor;
+            while (successor.left != null) {
+                successor = successor.left;
+                path[depth++] = successor;
+            }
+            aNode.key = successor.key;
+        }
+        DoubleNode removed = path[--depth];
+        path[depth] = null;
+        DoubleNode child = (removed.left != null) ? removed.left : removed.right;
+        replaceChild((depth > 0) ? path[depth-1] : null, removed, child);
+        this.size--;
+        rebalancePath(depth);
+        return true;
+    }
+
+    /**
+     * Returns the level at which the specified value resides in a node in this tree
+     * @param key           the node key
+     * @return              -1 if value is not in this this tree; depth in range between 1 and BST's height otherwise
+     */
+    public int getNodeDepth(double key) {
+        int nodeDepth = 0;
+        DoubleNode aNode = this.root;
+        while (aNode != null) {
+            nodeDepth++;
+            int difference = Double.compare(key, aNode.key);
+            if (difference == 0) {
+                return nodeDepth;
+            }
+            aNode = (difference < 0) ? aNode.left : aNode.right;
+        }
+        return -1;
+    }
+
+    /**
+     * Gets the height of the tree measured by nodes (a tree with a single value has height 1)
+     * @return              height of this tree as an int
+     */
+    public int getHeight() {
+        return height(this.root);
+    }
+
+    /**
+     * Writes all keys of this tree in ascending order to a snapshot file through a <code>FileChannel</code>,
+     * replacing any existing file
+     * @param file          the path of the snapshot
+     * @throws IOException  if the file cannot be written
+     * @see                 TreeSnapshot#mapDoubles(Path)
+     */
+    public void writeSnapshot(Path file) throws IOException {
+        TreeSnapshot.writeDoubles(file, asArrayInOrder());
+    }
+
+    /**
+     * Loads a tree from a snapshot file. The keys are stored in ascending order, so the nodes are linked straight
+     * into a tree of minimal height in O(n) time without any rotation.
+     * @param file          the path of a snapshot written by <code>writeSnapshot</code>
+     * @return              a new tree with all keys of the snapshot
+     * @throws IOException  if the file cannot be read or it is not a valid snapshot of double keys
+     */
+    public static DoubleBinarySearchTree loadSnapshot(Path file) throws IOException {
+        double[] keys = TreeSnapshot.readDoubles(file);
+        DoubleBinarySearchTree tree = new DoubleBinarySearchTree();
+        tree.root = linkRange(keys, 0, keys.length);
+        tree.size = keys.length;
+        return tree;
+    }
+
+    /**
+     * Traverses through all nodes in this BST and returns an array of all keys in pre-order
+     * @return              the array of all values in this tree in pre-oder (root, left, right)
+     */
+    public double[] asArrayPreOrder() {
+        double[] preOrdArray = new double[this.size];
+        DoubleNode[] stack = new DoubleNode[MAX_HEIGHT + 1];
+        int top = 0;
+        int i = 0;
+        if (this.root != null) {
+            stack[top++] = this.root;
+        }
+        while (top > 0) {
+            DoubleNode aNode = stack[--top];
+            preOrdArray[i++] = aNode.key;
+            if (aNode.right != null) {
+                stack[top++] = aNode.right;
+            }
+            if (aNode.left != null) {
+                stack[top++] = aNode.left;
+            }
+        }
+        return preOrdArray;
+    }
+
+    /**
+     * Traverses through all nodes in this BST and returns an array of all keys in ascending order (in-order)
+     * @return              the array of all values in this tree in in-order (left, root, right)
+     */
+    public double[] asArrayInOrder() {
+        double[] inOrdArray = new double[this.size];
+        DoubleNode[] stack = new DoubleNode[MAX_HEIGHT];
+        int top = 0;
+        int i = 0;
+        DoubleNode aNode = this.root;
+        while (aNode != null || top > 0) {
+            while (aNode != null) {
+                stack[top++] = aNode;
+                aNode = aNode.left;
+            }
+            aNode = stack[--top];
+            inOrdArray[i++] = aNode.key;
+            aNode = aNode.right;
+        }
+        return inOrdArray;
+    }
+
+    /**
+     * Traverses through all nodes in this BST and returns an array of all keys in post-order. The array is filled
+     * from its end by visiting the nodes in reversed post-order (root, right, left).
+     * @return              the array of all values in this tree in post-order (left, right, root)
+     */
+    public double[] asArrayPostOrder() {
+        double[] postOrdArray = new double[this.size];
+        DoubleNode[] stack = new DoubleNode[MAX_HEIGHT + 1];
+        int top = 0;
+        int i = this.size;
+        if (this.root != null) {
+            stack[top++] = this.root;
+        }
+        while (top > 0) {
+            DoubleNode aNode = stack[--top];
+            postOrdArray[--i] = aNode.key;
+            if (aNode.left != null) {
+                stack[top++] = aNode.left;
+            }
+            if (aNode.right != null) {
+                stack[top++] = aNode.right;
+            }
+        }
+        return postOrdArray;
+    }
+
+    /**
+     * Helper method which updates heights and rotates unbalanced nodes, from the deepest node stored in the path
+     * up to the root. The path is cleared on the way, so it does not keep removed nodes reachable.
+     * @param depth         the number of nodes stored in the path
+     */
+    private void rebalancePath(int depth) {
+        for (int i = depth-1; i >= 0; i--) {
+            DoubleNode aNode = path[i];
+            path[i] = null;
+            DoubleNode subtreeTop = rebalance(aNode);
+            if (subtreeTop != aNode) {
+                replaceChild((i > 0) ? path[i-1] : null, aNode, subtreeTop);
+            }
+        }
+    }
+
+    /**
+     * Helper method which removes references to visited nodes from the path
+     * @param depth         the number of nodes stored in the path
+     */
+    private void clearPath(int depth) {
+        for (int i = 0; i < depth; i++) {
+            path[i] = null;
+        }
+    }
+
+    /**
+     * Helper method that links a new child in place of an old one, or replaces the root if there is no parent
+     * @param parentNode    the parent of oldChild, <code>null</code> if oldChild is the root
+     * @param oldChild      the node currently linked to parentNode
+     * @param newChild      the node (or <code>null</code>) to be linked instead
+     */
+    private void replaceChild(DoubleNode parentNode, DoubleNode oldChild, DoubleNode newChild) {
+        if (parentNode == null) {
+            this.root = newChild;
+        } else if (parentNode.left == oldChild) {
+            parentNode.left = newChild;
+        } else {
+            parentNode.right = newChild;
+        }
+    }
+
+    /**
+     * Helper method which updates the height of a node and performs a single or double rotation if the heights of
+     * its subtrees differ by more than one
+     * @param aNode         the node whose children are already balanced
+     * @return              the node that takes the place of aNode in the tree
+     */
+    private static DoubleNode rebalance(DoubleNode aNode) {
+        updateHeight(aNode);
+        int balance = height(aNode.left) - height(aNode.right);
+        if (balance > 1) {
+            if (height(aNode.left.left) < height(aNode.left.right)) {
+                aNode.left = rotateLeft(aNode.left);
+            }
+            return rotateRight(aNode);
+        } else if (balance < -1) {
+            if (height(aNode.right.right) < height(aNode.right.left)) {
+                aNode.right = rotateRight(aNode.right);
+            }
+            return rotateLeft(aNode);
+        }
+        return aNode;
+    }
+
+    /**
+     * Recursive helper method which makes the middle key of a sorted range the parent of the subtrees built from
+     * both halves. The halves never differ in size by more than one, so the recursion is only O(log n) deep.
+     * @param keys          the keys in ascending order
+     * @param from          the index of the first key of the range
+     * @param to            the index after the last key of the range
+     * @return              the top of the subtree; <code>null</code> if the range is empty
+     */
+    private static DoubleNode linkRange(double[] keys, int from, int to) {
+        if (from >= to) {
+            return null;
+        }
+        int mid = (from + to) >>> 1;
+        DoubleNode aNode = new DoubleNode(keys[mid]);
+        aNode.left = linkRange(keys, from, mid);
+        aNode.right = linkRange(keys, mid + 1, to);
+        updateHeight(aNode);
+        return aNode;
+    }
+
+    /**
+     * Rotates the subtree to the left, so that the right child of aNode becomes the top of this subtree
+     * @param aNode         the node with a right child
+     * @return              the new top of this subtree
+     */
+    private static DoubleNode rotateLeft(DoubleNode aNode) {
+        DoubleNode top = aNode.right;
+        aNode.right = top.left;
+        top.left = aNode;
+        updateHeight(aNode);
+        updateHeight(top);
+        return top;
+    }
+
+    /**
+     * Rotates the subtree to the right, so that the left child of aNode becomes the top of this subtree
+     * @param aNode         the node with a left child
+     * @return              the new top of this subtree
+     */
+    private static DoubleNode rotateRight(DoubleNode aNode) {
+        DoubleNode top = aNode.left;
+        aNode.left = top.right;
+        top.right = aNode;
+        updateHeight(aNode);
+        updateHeight(top);
+        return top;
+    }
+
+    /**
+     * @param aNode         the node or <code>null</code>
+     * @return              the height of the subtree stored in the node; 0 for a missing node
+     */
+    private static int height(DoubleNode aNode) {
+        return (aNode == null) ? 0 : aNode.height;
+    }
+
+    /**
+     * Recalculates the height of the node given from the heights of its children
+     * @param aNode         the node whose children have correct heights
+     */
+    private static void updateHeight(DoubleNode aNode) {
+        aNode.height = Math.max(height(aNode.left), height(aNode.right)) + 1;
+    }
+}
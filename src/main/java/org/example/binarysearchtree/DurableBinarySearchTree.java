@@ -0,0 +1,586 @@
+package org.example.binarysearchtree;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * <code>DurableBinarySearchTree</code> keeps a <code>BinarySearchTree</code> in a directory so that it survives a
+ * crash. Every change is appended as a small record to a write-ahead log, which is forced to the disk as chosen by
+ * the <code>SyncPolicy</code>. Once the log has grown by a given number of records, the whole tree is written to a
+ * checkpoint (a snapshot file, see <code>TreeSnapshot</code>) and the log is emptied. Opening the directory again
+ * loads the last checkpoint and replays the log on top of it; a record torn by a crash is recognised by its
+ * checksum and cut off. A record says whether one value is in the tree or not, so replaying it twice gives the same
+ * tree, and a crash between writing a checkpoint and emptying the log is harmless.
+ * The methods of this class can be called from several threads; changes are applied one at a time.
+ * The shape of the tree is not kept, a tree is always recovered with minimal height.
+ *
+ * @author dawidK5
+ * @version %I%, %G%
+ * @see SyncPolicy
+ */
+public class DurableBinarySearchTree<T extends Comparable<T>> implements Closeable {
+    public static final String CHECKPOINT_FILE = "checkpoint.bst"; // name of the checkpoint in the directory
+    public static final String LOG_FILE = "wal.log"; // name of the write-ahead log in the directory
+    public static final int DEFAULT_CHECKPOINT_INTERVAL = 1 << 20; // log records between checkpoints
+    public static final long DEFAULT_SYNC_INTERVAL_MILLIS = 100; // time between forces of the PERIODIC policy
+    private static final byte ADD = 1; // record of a value added
+    private static final byte REMOVE = 2; // record of a value removed
+    private static final int RECORD_OVERHEAD = 9; // length, operation and checksum around the key of each record
+    private static final int MAX_RECORD_SIZE = 1 << 26; // longer records can only be garbage left by a crash
+
+    private final BinarySearchTree<T> tree; // values recovered and changed since, guarded by this
+    private final Path directory; // directory holding the checkpoint and the log
+    private final KeyCodec<T> codec; // writes the keys of the records and of the checkpoint
+    private final SyncPolicy policy; // when the log is forced to the disk
+    private final int checkpointInterval; // log records between checkpoints
+    private final FileChannel log; // write-ahead log, appended to while holding this
+    private final Object syncLock = new Object(); // held by the thread forcing the log for a group of records
+    private final CRC32 checksum = new CRC32(); // guarded by this
+    private final ScheduledExecutorService syncer; // forces the log of the PERIODIC policy, null otherwise
+    private ByteBuffer pending; // records not yet written to the log, guarded by this
+    private long logLength; // bytes written to the log, which the pending records follow, guarded by this
+    private long markedLength; // logLength plus the pending bytes when the current change began, guarded by this
+    private int markedRecords; // recordsSinceCheckpoint when the current change began, guarded by this
+    private long appendedRecords; // number of records appended since opening, guarded by this
+    private volatile long durableRecords; // number of records known to be on the disk
+    private int recordsSinceCheckpoint; // guarded by this
+    private volatile IOException syncFailure; // failure to force the log, reported by every later change
+    private boolean closed; // guarded by this
+
+    /**
+     * Class constructor recovering the tree from the files in the directory
+     * @param directory             the directory holding the checkpoint and the log, created if missing
+     * @param codec                 the codec writing the keys
+     * @param mode                  the <code>BalanceMode</code> of the tree
+     * @param policy                when the log is forced to the disk
+     * @param checkpointInterval    the number of log records between checkpoints
+     * @param syncIntervalMillis    the time between forces of the <code>PERIODIC</code> policy
+     * @throws IOException          if the files cannot be read or written
+     */
+    private DurableBinarySearchTree(Path directory, KeyCodec<T> codec, BalanceMode mode, SyncPolicy policy,
+                                    int checkpointInterval, long syncIntervalMillis) throws IOException {
+        this.directory = directory;
+        this.codec = codec;
+        this.policy = policy;
+        this.checkpointInterval = checkpointInterval;
+        this.pending = ByteBuffer.allocateDirect(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+        Files.createDirectories(directory);
+        Path checkpoint = directory.resolve(CHECKPOINT_FILE);
+        this.tree = (Files.exists(checkpoint)) ? BinarySearchTree.loadSnapshot(checkpoint, codec, mode, false)
+                : new BinarySearchTree<T>(mode);
+        this.log = FileChannel.open(directory.resolve(LOG_FILE), StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        long validLength = replay();
+        log.truncate(validLength);
+        log.position(validLength);
+        this.logLength = validLength;
+        if (policy == SyncPolicy.PERIODIC) {
+            this.syncer = Executors.newSingleThreadScheduledExecutor(task -> {
+                Thread thread = new Thread(task, "wal-sync-" + directory.getFileName());
+                thread.setDaemon(true);
+                return thread;
+            });
+            syncer.scheduleWithFixedDelay(this::forceInBackground, syncIntervalMillis, syncIntervalMillis,
+                    TimeUnit.MILLISECONDS);
+        } else {
+            this.syncer = null;
+        }
+    }
+
+    /**
+     * Opens a durable tree in the directory given, with the default checkpoint and sync intervals
+     * @param directory     the directory holding the checkpoint and the log, created if missing
+     * @param codec         the codec writing the keys, e.g. <code>KeyCodec.INTEGER</code>
+     * @param mode          the <code>BalanceMode</code> of the tree
+     * @param policy        when the log is forced to the disk
+     * @param <T>           the type of values in the tree
+     * @return              the tree recovered from the last checkpoint and the log
+     * @throws IOException  if the files cannot be read or written
+     */
+    public static <T extends Comparable<T>> DurableBinarySearchTree<T> open(Path directory, KeyCodec<T> codec,
+                                                                            BalanceMode mode, SyncPolicy policy)
+            throws IOException {
+        return open(directory, codec, mode, policy, DEFAULT_CHECKPOINT_INTERVAL, DEFAULT_SYNC_INTERVAL_MILLIS);
+    }
+
+    /**
+     * Opens a durable tree in the directory given
+     * @param directory             the directory holding the checkpoint and the log, created if missing
+     * @param codec                 the codec writing the keys, e.g. <code>KeyCodec.INTEGER</code>
+     * @param mode                  the <code>BalanceMode</code> of the tree
+     * @param policy                when the log is forced to the disk
+     * @param checkpointInterval    the number of log records between checkpoints
+     * @param syncIntervalMillis    the time between forces of the <code>PERIODIC</code> policy
+     * @param <T>                   the type of values in the tree
+     * @return                      the tree recovered from the last checkpoint and the log
+     * @throws IOException          if the files cannot be read or written
+     */
+    public static <T extends Comparable<T>> DurableBinarySearchTree<T> open(Path directory, KeyCodec<T> codec,
+                                                                            BalanceMode mode, SyncPolicy policy,
+                                                                            int checkpointInterval,
+                                                                            long syncIntervalMillis)
+            throws IOException {
+        if (checkpointInterval < 1 || syncIntervalMillis < 1) {
+            throw new IllegalArgumentException("checkpointInterval and syncIntervalMillis must be positive");
+        }
+        return new DurableBinarySearchTree<T>(directory, codec, mode, policy, checkpointInterval,
+                syncIntervalMillis);
+    }
+
+    /**
+     * Adds a value to the tree and logs it
+     * @param word          the value of type T to be added to the tree
+     * @return              <code>true</code> if a new unique value was added successfully;
+     *                      <code>false</code> otherwise
+     * @throws UncheckedIOException if the record cannot be logged, the value is not added then; if the log cannot
+     *                              be forced or checkpointed afterwards, the value stays added and the tree accepts
+     *                              no more changes
+     */
+    public boolean add(T word) {
+        long sequence;
+        synchronized (this) {
+            ensureOpen();
+            if (!tree.add(word)) {
+                return false;
+            }
+            mark();
+            try {
+                sequence = append(ADD, word);
+            } catch (IOException | RuntimeException e) {
+                RuntimeException failure = rollBack(e);
+                tree.remove(word);
+                throw failure;
+            }
+            checkpointIfDue();
+        }
+        awaitDurable(sequence);
+        return true;
+    }
+
+    /**
+     * Removes a value from the tree and logs it
+     * @param value         the value of type T to be removed
+     * @return              <code>true</code> if the value existed before and was removed successfully;
+     *                      <code>false</code> otherwise
+     * @throws UncheckedIOException if the record cannot be logged, the value is not removed then; if the log
+     *                              cannot be forced or checkpointed afterwards, the value stays removed and the tree
+     *                              accepts no more changes
+     */
+    public boolean remove(T value) {
+        long sequence;
+        synchronized (this) {
+            ensureOpen();
+            if (!tree.remove(value)) {
+                return false;
+            }
+            mark();
+            try {
+                sequence = append(REMOVE, value);
+            } catch (IOException | RuntimeException e) {
+                RuntimeException failure = rollBack(e);
+                tree.add(value);
+                throw failure;
+            }
+            checkpointIfDue();
+        }
+        awaitDurable(sequence);
+        return true;
+    }
+
+    /**
+     * Adds a node or a subtree of another tree as <code>BinarySearchTree.addNode</code> does, and logs every value
+     * of the subtree that was not in this tree before
+     * @param myNode        the NodeObj to be added to the tree
+     * @return              <code>null</code> if node given is empty or if the tree contains a node with the same key;
+     *                      myNode's key otherwise
+     * @throws UncheckedIOException if the records cannot be logged, the values of the subtree that were not in the
+     *                              tree are removed again then; if the log cannot be forced or checkpointed
+     *                              afterwards, they stay added and the tree accepts no more changes
+     */
+    public T addNode(BinarySearchTree<T>.NodeObj myNode) {
+        long sequence;
+        T added;
+        synchronized (this) {
+            ensureOpen();
+            List<T> newKeys = new ArrayList<T>();
+            List<BinarySearchTree<T>.NodeObj> stack = new ArrayList<BinarySearchTree<T>.NodeObj>();
+            stack.add(myNode);
+            while (!stack.isEmpty()) {
+                BinarySearchTree<T>.NodeObj aNode = stack.remove(stack.size()-1);
+                if (aNode.getKey() != null) {
+                    if (!tree.contains(aNode.getKey())) {
+                        newKeys.add(aNode.getKey());
+                    }
+                    stack.add(aNode.getLeftChild());
+                    stack.add(aNode.getRightChild());
+                }
+            }
+            added = tree.addNode(myNode);
+            sequence = appendedRecords;
+            mark();
+            try {
+                for (T key : newKeys) {
+                    if (tree.contains(key)) {
+                        sequence = append(ADD, key);
+                    }
+                }
+            } catch (IOException | RuntimeException e) {
+                RuntimeException failure = rollBack(e);
+                for (T key : newKeys) {
+                    tree.remove(key); // undo the graft, like add and remove undo their change
+                }
+                throw failure;
+            }
+            checkpointIfDue();
+        }
+        awaitDurable(sequence);
+        return added;
+    }
+
+    /**
+     * Replaces a value in its node as <code>NodeObj.setKey</code> does and logs it as a removal of the old value
+     * and an addition of the new one. The new value must keep the ordering of the tree, i.e. stay between the
+     * values before and after the old one.
+     * @param oldKey        the value to be replaced
+     * @param newKey        the value replacing it
+     * @return              <code>true</code> if the old value was replaced; <code>false</code> if it is not in the
+     *                      tree or the new value already is
+     * @throws UncheckedIOException if the records cannot be logged, the old value is restored then; if the log
+     *                              cannot be forced or checkpointed afterwards, the new value stays and the tree
+     *                              accepts no more changes
+     */
+    public boolean setKey(T oldKey, T newKey) {
+        long sequence;
+        synchronized (this) {
+            ensureOpen();
+            BinarySearchTree<T>.NodeObj aNode = tree.getNode(oldKey);
+            if (aNode.getKey() == null || tree.contains(newKey)) {
+                return false;
+            }
+            aNode.setKey(newKey);
+            mark();
+            try {
+                append(REMOVE, oldKey);
+                sequence = append(ADD, newKey);
+            } catch (IOException | RuntimeException e) {
+                RuntimeException failure = rollBack(e);
+                aNode.setKey(oldKey);
+                throw failure;
+            }
+            checkpointIfDue();
+        }
+        awaitDurable(sequence);
+        return true;
+    }
+
+    /**
+     * @param word          the value to be checked for
+     * @return              <code>true</code> if this tree contains word; <code>false</code> otherwise
+     */
+    public synchronized boolean contains(T word) {
+        return tree.contains(word);
+    }
+
+    /**
+     * @return              the number of values in this tree
+     */
+    public synchronized int size() {
+        return tree.size();
+    }
+
+    /**
+     * @return              <code>true</code> if there are no values in this tree; <code>false</code> otherwise
+     */
+    public synchronized boolean isEmpty() {
+        return tree.isEmpty();
+    }
+
+    /**
+     * @return              the <code>ArrayList</code> of all values in this tree in in-order (left, root, right)
+     */
+    public synchronized List<T> asListInOrder() {
+        return (tree.isEmpty()) ? new ArrayList<T>() : tree.asListInOrder();
+    }
+
+    /**
+     * Writes the whole tree to a new checkpoint and empties the log. The checkpoint is written to a temporary file,
+     * forced to the disk and then renamed over the previous one, so a crash leaves either checkpoint intact. The
+     * directory is forced after the rename, so the log is only emptied once the new checkpoint is sure to be found.
+     * @throws IOException  if the files cannot be written
+     */
+    public synchronized void checkpoint() throws IOException {
+        ensureOpen();
+        writePending();
+        Path checkpoint = directory.resolve(CHECKPOINT_FILE);
+        Path temporary = directory.resolve(CHECKPOINT_FILE + ".tmp");
+        tree.writeSnapshot(temporary, codec);
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+        Files.move(temporary, checkpoint, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true); // the rename, or a crash could keep the old checkpoint with an empty log
+        }
+        log.truncate(0);
+        logLength = 0;
+        log.force(true);
+        durableRecords = appendedRecords;
+        recordsSinceCheckpoint = 0;
+    }
+
+    /**
+     * Writes and forces all records not yet on the disk and closes the log. The tree cannot be changed afterwards.
+     * @throws IOException  if the log cannot be written
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (syncer != null) {
+            syncer.shutdown(); // an interrupt would close the log under a force in progress
+            try {
+                syncer.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        try {
+            writePending();
+            log.force(false);
+        } finally {
+            log.close();
+        }
+    }
+
+    /**
+     * Helper method which reads the log from its start, applying every complete record to the tree, and stops at
+     * the end of the file or at the first record that is cut short or fails its checksum
+     * @return              the length of the valid part of the log
+     * @throws IOException  if the log cannot be read
+     */
+    private long replay() throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.flip();
+        long validLength = 0;
+        boolean endOfFile = false;
+        while (true) {
+            int recordSize = (buffer.remaining() >= Integer.BYTES)
+                    ? RECORD_OVERHEAD + buffer.getInt(buffer.position()) : RECORD_OVERHEAD;
+            if (recordSize < RECORD_OVERHEAD || recordSize > MAX_RECORD_SIZE) {
+                break;
+            }
+            if (buffer.remaining() < recordSize) {
+                if (endOfFile) {
+                    break;
+                }
+                buffer.compact();
+                if (buffer.capacity() < recordSize) {
+                    buffer = ByteBuffer.allocate(recordSize).order(ByteOrder.LITTLE_ENDIAN).put(buffer.flip());
+                }
+                endOfFile = log.read(buffer) < 0;
+                buffer.flip();
+                continue;
+            }
+            int start = buffer.position();
+            int keySize = buffer.getInt();
+            checksum.reset();
+            checksum.update(buffer.duplicate().position(start).limit(start + Integer.BYTES + 1 + keySize));
+            byte operation = buffer.get();
+            ByteBuffer keyBytes = buffer.slice().limit(keySize).order(ByteOrder.LITTLE_ENDIAN);
+            buffer.position(buffer.position() + keySize);
+            if ((int) checksum.getValue() != buffer.getInt()) {
+                break;
+            }
+            T key = codec.decode(keyBytes);
+            if (operation == ADD) {
+                tree.add(key);
+            } else if (operation == REMOVE) {
+                tree.remove(key);
+            } else {
+                break;
+            }
+            validLength += recordSize;
+            recordsSinceCheckpoint++;
+        }
+        return validLength;
+    }
+
+    /**
+     * Helper method which encodes a record into the buffer of pending records and, unless the records are forced
+     * in groups, writes it to the log at once
+     * @param operation     the kind of record
+     * @param key           the value changed
+     * @return              the sequence number of the record
+     * @throws IOException  if the record cannot be written
+     */
+    private long append(byte operation, T key) throws IOException {
+        int keySize = codec.encodedSize(key);
+        if (pending.remaining() < RECORD_OVERHEAD + keySize) {
+            writePending();
+            if (pending.capacity() < RECORD_OVERHEAD + keySize) {
+                pending = ByteBuffer.allocateDirect(RECORD_OVERHEAD + keySize).order(ByteOrder.LITTLE_ENDIAN);
+            }
+        }
+        int start = pending.position();
+        pending.putInt(keySize).put(operation);
+        codec.encode(key, pending);
+        checksum.reset();
+        checksum.update(pending.duplicate().position(start).limit(pending.position()));
+        pending.putInt((int) checksum.getValue());
+        appendedRecords++;
+        recordsSinceCheckpoint++;
+        if (policy != SyncPolicy.GROUP_COMMIT) {
+            writePending();
+            if (policy == SyncPolicy.EVERY_OPERATION) {
+                log.force(false);
+                durableRecords = appendedRecords;
+            }
+        }
+        return appendedRecords;
+    }
+
+    /**
+     * Helper method which writes the pending records to the log, i.e. hands them to the operating system. If the
+     * log cannot be written, the bytes not written yet stay pending, so the log and the pending records still
+     * follow each other.
+     * @throws IOException  if the records cannot be written
+     */
+    private void writePending() throws IOException {
+        pending.flip();
+        try {
+            while (pending.hasRemaining()) {
+                logLength += log.write(pending);
+            }
+        } finally {
+            pending.compact();
+        }
+    }
+
+    /**
+     * Helper method which marks the end of the records logged before the current change, for <code>rollBack</code>
+     */
+    private void mark() {
+        markedLength = logLength + pending.position();
+        markedRecords = recordsSinceCheckpoint;
+    }
+
+    /**
+     * Helper method which takes back the records of a change that failed: the log is truncated and the pending
+     * records are cut back to the mark, so that no later record follows a torn or unwanted one and stops the replay.
+     * If the log cannot be truncated, the tree is closed, as it can no longer tell what would be replayed.
+     * @param failure       the exception which stopped the change
+     * @return              the exception to be thrown for failure
+     */
+    private RuntimeException rollBack(Exception failure) {
+        long kept = Math.min(logLength, markedLength);
+        try {
+            log.truncate(kept);
+            log.position(kept);
+        } catch (IOException e) {
+            failure.addSuppressed(e);
+            closed = true;
+            if (syncer != null) {
+                syncer.shutdown();
+            }
+            try {
+                log.close();
+            } catch (IOException closeFailure) {
+                failure.addSuppressed(closeFailure);
+            }
+        }
+        logLength = kept;
+        pending.clear().position((int) (markedLength - kept)); // the records pending before the change are kept
+        recordsSinceCheckpoint = markedRecords;
+        return (failure instanceof IOException) ? new UncheckedIOException((IOException) failure)
+                : (RuntimeException) failure;
+    }
+
+    /**
+     * Helper method which waits until the record given is on the disk under the <code>GROUP_COMMIT</code> policy.
+     * The first thread to get the sync lock writes all pending records, of every thread, and forces the log once
+     * for all of them; the threads that were waiting for the lock meanwhile find their records already forced.
+     * Records appended during the force form the next group. A failure is kept, as the change is already applied,
+     * and every later change fails with it.
+     * @param sequence      the sequence number of the last record of the change
+     * @throws UncheckedIOException if the log cannot be written or forced
+     */
+    private void awaitDurable(long sequence) {
+        if (policy != SyncPolicy.GROUP_COMMIT || durableRecords >= sequence) {
+            return;
+        }
+        synchronized (syncLock) {
+            if (durableRecords >= sequence) {
+                return;
+            }
+            try {
+                long target;
+                synchronized (this) {
+                    writePending();
+                    target = appendedRecords;
+                }
+                log.force(false);
+                durableRecords = target;
+            } catch (IOException e) {
+                syncFailure = e;
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * Helper method which writes a checkpoint once enough records were appended since the last one. A failure is
+     * kept, as the change is already applied, and every later change fails with it.
+     * @throws UncheckedIOException if the checkpoint cannot be written
+     */
+    private void checkpointIfDue() {
+        if (recordsSinceCheckpoint >= checkpointInterval) {
+            try {
+                checkpoint();
+            } catch (IOException e) {
+                syncFailure = e;
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * Helper method run by the background thread of the <code>PERIODIC</code> policy
+     */
+    private void forceInBackground() {
+        try {
+            log.force(false);
+        } catch (IOException e) {
+            syncFailure = e;
+        }
+    }
+
+    /**
+     * @throws IllegalStateException    if this tree was closed
+     * @throws UncheckedIOException     if the log could not be forced or checkpointed after an earlier change
+     */
+    private void ensureOpen() {
+        if (closed) {
+            throw new IllegalStateException("the durable tree is closed");
+        }
+        IOException failure = syncFailure;
+        if (failure != null) {
+            throw new UncheckedIOException(failure);
+        }
+    }
+}
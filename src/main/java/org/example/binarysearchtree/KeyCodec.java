@@ -0,0 +1,121 @@
+package org.example.binarysearchtree;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * <code>KeyCodec</code> converts the keys of a tree to and from bytes, so that the tree can be written to a
+ * snapshot file and loaded back. Codecs for the common key types are provided as constants; keys of other types
+ * need their own codec. A key must always be encoded to the number of bytes given by <code>encodedSize</code>.
+ *
+ * @author dawidK5
+ * @version %I%, %G%
+ * @see BinarySearchTree#writeSnapshot(java.nio.file.Path, KeyCodec)
+ */
+public interface KeyCodec<T> {
+
+    /**
+     * Codec writing an <code>Integer</code> as 4 bytes
+     */
+    KeyCodec<Integer> INTEGER = new KeyCodec<Integer>() {
+        @Override
+        public int encodedSize(Integer key) {
+            return Integer.BYTES;
+        }
+
+        @Override
+        public void encode(Integer key, ByteBuffer buffer) {
+            buffer.putInt(key);
+        }
+
+        @Override
+        public Integer decode(ByteBuffer buffer) {
+            return buffer.getInt();
+        }
+    };
+
+    /**
+     * Codec writing a <code>Long</code> as 8 bytes
+     */
+    KeyCodec<Long> LONG = new KeyCodec<Long>() {
+        @Override
+        public int encodedSize(Long key) {
+            return Long.BYTES;
+        }
+
+        @Override
+        public void encode(Long key, ByteBuffer buffer) {
+            buffer.putLong(key);
+        }
+
+        @Override
+        public Long decode(ByteBuffer buffer) {
+            return buffer.getLong();
+        }
+    };
+
+    /**
+     * Codec writing a <code>Double</code> as 8 bytes
+     */
+    KeyCodec<Double> DOUBLE = new KeyCodec<Double>() {
+        @Override
+        public int encodedSize(Double key) {
+            return Double.BYTES;
+        }
+
+        @Override
+        public void encode(Double key, ByteBuffer buffer) {
+            buffer.putDouble(key);
+        }
+
+        @Override
+        public Double decode(ByteBuffer buffer) {
+            return buffer.getDouble();
+        }
+    };
+
+    /**
+     * Codec writing a <code>String</code> as its length in bytes followed by its UTF-8 bytes
+     */
+    KeyCodec<String> STRING = new KeyCodec<String>() {
+        @Override
+        public int encodedSize(String key) {
+            return Integer.BYTES + key.getBytes(StandardCharsets.UTF_8).length;
+        }
+
+        @Override
+        public void encode(String key, ByteBuffer buffer) {
+            byte[] bytes = key.getBytes(StandardCharsets.UTF_8);
+            buffer.putInt(bytes.length);
+            buffer.put(bytes);
+        }
+
+        @Override
+        public String decode(ByteBuffer buffer) {
+            byte[] bytes = new byte[buffer.getInt()];
+            buffer.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    };
+
+    /**
+     * @param key           the key to be encoded
+     * @return              the number of bytes <code>encode</code> writes for the key
+     */
+    int encodedSize(T key);
+
+    /**
+     * Writes a key at the position of the buffer, which has at least <code>encodedSize(key)</code> bytes remaining
+     * @param key           the key to be encoded
+     * @param buffer        the buffer the bytes are written to
+     */
+    void encode(T key, ByteBuffer buffer);
+
+    /**
+     * Reads a key from the position of the buffer
+     * @param buffer        the buffer the bytes are read from
+     * @return              the key decoded
+     * @throws java.nio.BufferUnderflowException if the buffer ends before the whole key was read
+     */
+    T decode(ByteBuffer buffer);
+}
@@ -0,0 +1,194 @@
+package org.example.binarysearchtree;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+
+/**
+ * <code>LongArenaBinarySearchTree</code> is an arena-backed binary search tree for <code>long</code> keys. Keys, child
+ * indices and heights are kept in parallel primitive arrays, so the tree holds no per-node objects at all and takes
+ * 17 bytes per value (plus the spare capacity). The keys can optionally be stored off-heap in a direct
+ * <code>ByteBuffer</code>, which keeps them out of the Java heap entirely. The tree always balances itself as an AVL
+ * tree. This class is NOT 'thread-safe'.
+ *
+ * @author dawidK5
+ * @version %I%, %G%
+ * @see LongBinarySearchTree
+ */
+public class LongArenaBinarySearchTree extends AbstractArenaTree {
+    private final boolean offHeap; // true if the keys are stored in a direct buffer
+    private LongBuffer keys; // key of each node, indexed by slot
+
+    /**
+     * Class constructor
+     */
+    public LongArenaBinarySearchTree() {
+        this(16, false);
+    }
+
+    /**
+     * Class constructor specifying the initial capacity and where the keys are stored
+     * @param initialCapacity   the number of nodes to be allocated up front
+     * @param offHeap           <code>true</code> to store the keys in a direct buffer outside of the Java heap
+     */
+    public LongArenaBinarySearchTree(int initialCapacity, boolean offHeap) {
+        super(initialCapacity);
+        this.offHeap = offHeap;
+        this.keys = allocateKeys(capacity());
+    }
+
+    /**
+     * Tells where the keys of this tree are stored
+     * @return              <code>true</code> if the keys are stored off-heap; <code>false</code> otherwise
+     */
+    public boolean isOffHeap() {
+        return this.offHeap;
+    }
+
+    /**
+     * Helper method creating a key buffer of the kind chosen at construction
+     * @param capacity      the number of keys the buffer holds
+     * @return              the buffer backed by a <code>long</code> array or by native memory
+     */
+    private LongBuffer allocateKeys(int capacity) {
+        if (offHeap) {
+            return ByteBuffer.allocateDirect(capacity * Long.BYTES).order(ByteOrder.nativeOrder()).asLongBuffer();
+        }
+        return LongBuffer.wrap(new long[capacity]);
+    }
+
+    @Override
+    void growKeys(int capacity) {
+        LongBuffer grown = allocateKeys(capacity);
+        this.keys.clear();
+        grown.put(this.keys);
+        this.keys = grown;
+    }
+
+    @Override
+    void moveKey(int fromSlot, int toSlot) {
+        this.keys.put(toSlot, this.keys.get(fromSlot));
+    }
+
+    @Override
+    void releaseKey(int slot) {
+        // primitive keys need no clearing
+    }
+
+    /**
+     * Adds a value to the tree in a free slot of the arena
+     * @param key           the long value to be added to the tree
+     * @return              <code>true</code> if a new unique value was added successfully;
+     *                      <code>false</code> otherwise
+     */
+    public boolean add(long key) {
+        int depth = 0;
+        int difference = 0;
+        int slot = this.root;
+        while (slot != NIL) {
+            difference = Long.compare(key, keys.get(slot));
+            if (difference == 0) {
+                return false;
+            }
+            path[depth++] = slot;
+            slot = (difference < 0) ? left[slot] : right[slot];
+        }
+        int newSlot = allocate();
+        this.keys.put(newSlot, key);
+        attach(depth, difference < 0, newSlot);
+        return true;
+    }
+
+    /**
+     * Uses <code>add</code> method to insert all values from this array to the binary search tree
+     * @param keyArray      the array of long values to be inserted to the tree
+     */
+    public void addAllFromArray(long[] keyArray) {
+        for (long key : keyArray) {
+            add(key);
+        }
+    }
+
+    /**
+     * Checks if this tree contains the value given
+     * @param key           the value to be checked for
+     * @return              <code>true</code> if this BST contains a node with key with value of <code>key</code>;
+     *                      <code>false</code> if there is no such value in the tree
+     */
+    public boolean contains(long key) {
+        return getNodeDepth(key) != -1;
+    }
+
+    /**
+     * Removes the value given from the tree and puts its slot on the free list
+     * @param key           the long value to be removed
+     * @return              <code>true</code> if the value existed before and was removed successfully;
+     *                      <code>false</code> otherwise
+     */
+    public boolean remove(long key) {
+        int depth = 0;
+        int slot = this.root;
+        while (slot != NIL) {
+            path[depth++] = slot;
+            int difference = Long.compare(key, keys.get(slot));
+            if (difference == 0) {
+                detach(depth);
+                return true;
+            }
+            slot = (difference < 0) ? left[slot] : right[slot];
+        }
+        return false;
+    }
+
+    /**
+     * Returns the level at which the specified value resides in a node in this tree
+     * @param key           the node key
+     * @return              -1 if value is not in this this tree; depth in range between 1 and BST's height otherwise
+     */
+    public int getNodeDepth(long key) {
+        int nodeDepth = 0;
+        int slot = this.root;
+        while (slot != NIL) {
+            nodeDepth++;
+            int difference = Long.compare(key, keys.get(slot));
+            if (difference == 0) {
+                return nodeDepth;
+            }
+            slot = (difference < 0) ? left[slot] : right[slot];
+        }
+        return -1;
+    }
+
+    /**
+     * Traverses through all nodes in this BST and returns an array of all keys in pre-order
+     * @return              the array of all values in this tree in pre-oder (root, left, right)
+     */
+    public long[] asArrayPreOrder() {
+        long[] preOrdArray = new long[this.size];
+        int[] i = {0};
+        forEachPreOrder(slot -> preOrdArray[i[0]++] = keys.get(slot));
+        return preOrdArray;
+    }
+
+    /**
+     * Traverses through all nodes in this BST and returns an array of all keys in ascending order (in-order)
+     * @return              the array of all values in this tree in in-order (left, root, right)
+     */
+    public long[] asArrayInOrder() {
+        long[] inOrdArray = new long[this.size];
+        int[] i = {0};
+        forEachInOrder(slot -> inOrdArray[i[0]++] = keys.get(slot));
+        return inOrdArray;
+    }
+
+    /**
+     * Traverses through all nodes in this BST and returns an array of all keys in post-order
+     * @return              the array of all values in this tree in post-order (left, right, root)
+     */
+    public long[] asArrayPostOrder() {
+        long[] postOrdArray = new long[this.size];
+        int[] i = {0};
+        forEachPostOrder(slot -> postOrdArray[i[0]++] = keys.get(slot));
+        return postOrdArray;
+    }
+}
@@ -0,0 +1,699 @@
+package org.example.binarysearchtree;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * <code>PagedBinarySearchTree</code> keeps its values in a file instead of on the heap, as a B+tree of fixed-size
+ * pages, so it can hold more values than fit in memory. Every value is written by a <code>KeyCodec</code> into the
+ * same number of bytes, and the fanout of the pages is the number of values (and child page numbers) that fit in a
+ * page. Leaf pages hold the values in ascending order and are linked to the next leaf, so an in-order scan reads the
+ * leaves one after another without going back up the tree. Pages are read and written through a bounded
+ * <code>BufferPool</code> with clock eviction, so only the pages in use are kept in memory.
+ * Removing a value never merges pages; a leaf emptied by removals stays in the chain and is filled again by values
+ * added to its range. Changes reach the file when pages are evicted, on <code>flush()</code> and on
+ * <code>close()</code>; the file is not protected against a crash in between (see
+ * <code>DurableBinarySearchTree</code> for that). This class is NOT 'thread-safe'.
+ * <p>
+ * Page 0 of the file is a header, the other pages are leaves or internal pages, each starting with its type, its
+ * number of values and (for a leaf) the number of the next leaf. All numbers are little-endian.
+ *
+ * @author dawidK5
+ * @version %I%, %G%
+ * @see BufferPool
+ */
+public class PagedBinarySearchTree<T extends Comparable<T>> implements Closeable, Iterable<T> {
+    public static final int DEFAULT_PAGE_SIZE = 4096; // bytes in a page, the block size of most file systems
+    public static final int DEFAULT_POOL_PAGES = 256; // pages kept in memory by default
+    private static final int MAGIC = 0x31544250; // "PBT1" read as little-endian bytes
+    private static final int VERSION = 1; // version of the file format
+    private static final int LEAF = 1; // type of a page holding values
+    private static final int INTERNAL = 2; // type of a page holding separators and child page numbers
+    private static final int TYPE = 0; // offset of the type of a page
+    private static final int COUNT = 4; // offset of the number of values in a page
+    private static final int NEXT = 8; // offset of the number of the next leaf, 0 after the last leaf
+    private static final int PAGE_HEADER = 12; // bytes before the values of a page
+    private static final int FIRST_LEAF = 1; // the leftmost leaf; splits move values right, so it never changes
+    private static final int MAX_HEIGHT = 32; // more levels than a file of 2^31 pages can have
+    private static final int MIN_POOL_PAGES = 4; // pages pinned at once by a split, plus one
+
+    private final FileChannel channel;
+    private final BufferPool pool;
+    private final KeyCodec<T> codec;
+    private final int pageSize; // bytes in each page
+    private final int keySize; // bytes of each encoded value
+    private final int leafCapacity; // values in a full leaf
+    private final int internalCapacity; // separators in a full internal page, which has one more child
+    private final int[] pathPages = new int[MAX_HEIGHT]; // internal pages passed by the last search
+    private final int[] pathIndex = new int[MAX_HEIGHT]; // child taken in each of them
+    private int depth; // number of internal pages passed by the last search
+    private int root; // page number of the root
+    private int pageCount; // pages in the file, including the header
+    private int size; // number of values in the tree
+    private boolean closed;
+
+    /**
+     * Class constructor
+     * @param file          the file holding the pages, created if missing
+     * @param codec         the codec writing the values
+     * @param keySize       the number of bytes of every encoded value
+     * @param pageSize      the number of bytes in each page
+     * @param poolPages     the number of pages kept in memory
+     * @throws IOException  if the file cannot be read or was written with another page or key size
+     */
+    private PagedBinarySearchTree(Path file, KeyCodec<T> codec, int keySize, int pageSize, int poolPages)
+            throws IOException {
+        this.codec = codec;
+        this.keySize = keySize;
+        this.pageSize = pageSize;
+        this.leafCapacity = (pageSize - PAGE_HEADER) / keySize;
+        this.internalCapacity = (pageSize - PAGE_HEADER - Integer.BYTES) / (keySize + Integer.BYTES);
+        if (internalCapacity < 3) {
+            throw new IllegalArgumentException("a page of " + pageSize + " bytes is too small for keys of "
+                    + keySize + " bytes");
+        }
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        this.pool = new BufferPool(channel, pageSize, poolPages);
+        try {
+            if (channel.size() == 0) {
+                root = FIRST_LEAF;
+                pageCount = FIRST_LEAF + 1;
+                ByteBuffer leaf = pool.pinNew(FIRST_LEAF);
+                leaf.putInt(TYPE, LEAF);
+                pool.unpin(FIRST_LEAF, true);
+                flush();
+            } else {
+                readHeader();
+            }
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Opens a paged tree in the file given, with the default page size and buffer pool size
+     * @param file          the file holding the pages, created if missing
+     * @param codec         the codec writing the values, e.g. <code>KeyCodec.LONG</code>
+     * @param keySize       the number of bytes <code>codec</code> writes for every value, e.g. 8 for longs
+     * @param <T>           the type of values in the tree
+     * @return              the tree kept in the file
+     * @throws IOException  if the file cannot be read or was written with another page or key size
+     */
+    public static <T extends Comparable<T>> PagedBinarySearchTree<T> open(Path file, KeyCodec<T> codec,
+                                                                          int keySize) throws IOException {
+        return open(file, codec, keySize, DEFAULT_PAGE_SIZE, DEFAULT_POOL_PAGES);
+    }
+
+    /**
+     * Opens a paged tree in the file given
+     * @param file          the file holding the pages, created if missing
+     * @param codec         the codec writing the values, e.g. <code>KeyCodec.LONG</code>
+     * @param keySize       the number of bytes <code>codec</code> writes for every value, e.g. 8 for longs
+     * @param pageSize      the number of bytes in each page; must match the size the file was created with
+     * @param poolPages     the number of pages kept in memory, at least 4
+     * @param <T>           the type of values in the tree
+     * @return              the tree kept in the file
+     * @throws IOException  if the file cannot be read or was written with another page or key size
+     */
+    public static <T extends Comparable<T>> PagedBinarySearchTree<T> open(Path file, KeyCodec<T> codec,
+                                                                          int keySize, int pageSize,
+                                                                          int poolPages) throws IOException {
+        if (keySize < 1 || poolPages < MIN_POOL_PAGES) {
+            throw new IllegalArgumentException("keySize must be positive and poolPages at least "
+                    + MIN_POOL_PAGES);
+        }
+        return new PagedBinarySearchTree<T>(file, codec, keySize, pageSize, poolPages);
+    }
+
+    /**
+     * Adds a value to the tree, splitting the leaf it belongs in, and its ancestors, if they are full
+     * @param word          the value of type T to be added to the tree
+     * @return              <code>true</code> if a new unique value was added successfully;
+     *                      <code>false</code> otherwise
+     * @throws IllegalArgumentException if the codec does not write <code>word</code> in the key size of this tree
+     * @throws UncheckedIOException     if a page cannot be read or written
+     */
+    public boolean add(T word) {
+        checkKey(word);
+        try {
+            int leafId = findLeaf(word);
+            ByteBuffer leaf = pool.pin(leafId);
+            int count = leaf.getInt(COUNT);
+            int found = leafSearch(leaf, count, word);
+            if (found >= 0) {
+                pool.unpin(leafId, false);
+                return false;
+            }
+            int position = -found - 1;
+            size++;
+            if (count < leafCapacity) {
+                insertLeafKey(leaf, count, position, word);
+                pool.unpin(leafId, true);
+                return true;
+            }
+            int rightId = pageCount++;
+            ByteBuffer right = pool.pinNew(rightId);
+            int half = (count + 1) / 2; // values left in the old leaf after the split
+            int from = (position < half) ? half - 1 : half;
+            System.arraycopy(leaf.array(), leafOffset(from), right.array(), leafOffset(0), (count - from) * keySize);
+            right.putInt(TYPE, LEAF);
+            right.putInt(COUNT, count - from);
+            right.putInt(NEXT, leaf.getInt(NEXT));
+            leaf.putInt(COUNT, from);
+            leaf.putInt(NEXT, rightId);
+            if (position < half) {
+                insertLeafKey(leaf, from, position, word);
+            } else {
+                insertLeafKey(right, count - from, position - half, word);
+            }
+            byte[] separator = new byte[keySize];
+            System.arraycopy(right.array(), leafOffset(0), separator, 0, keySize);
+            pool.unpin(rightId, true);
+            pool.unpin(leafId, true);
+            insertIntoParent(depth - 1, separator, rightId);
+            return true;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Removes a value from the tree
+     * @param value         the value of type T to be removed
+     * @return              <code>true</code> if the value existed before and was removed successfully;
+     *                      <code>false</code> otherwise
+     * @throws IllegalArgumentException if the codec does not write <code>value</code> in the key size of this tree
+     * @throws UncheckedIOException     if a page cannot be read or written
+     */
+    public boolean remove(T value) {
+        checkKey(value);
+        try {
+            int leafId = findLeaf(value);
+            ByteBuffer leaf = pool.pin(leafId);
+            int count = leaf.getInt(COUNT);
+            int found = leafSearch(leaf, count, value);
+            if (found < 0) {
+                pool.unpin(leafId, false);
+                return false;
+            }
+            byte[] bytes = leaf.array();
+            System.arraycopy(bytes, leafOffset(found + 1), bytes, leafOffset(found), (count - found - 1) * keySize);
+            leaf.putInt(COUNT, count - 1);
+            pool.unpin(leafId, true);
+            size--;
+            return true;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * @param word          the value to be checked for
+     * @return              <code>true</code> if this tree contains word; <code>false</code> otherwise
+     * @throws IllegalArgumentException if the codec does not write <code>word</code> in the key size of this tree
+     * @throws UncheckedIOException     if a page cannot be read
+     */
+    public boolean contains(T word) {
+        checkKey(word);
+        try {
+            int leafId = findLeaf(word);
+            ByteBuffer leaf = pool.pin(leafId);
+            boolean found = leafSearch(leaf, leaf.getInt(COUNT), word) >= 0;
+            pool.unpin(leafId, false);
+            return found;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * @return              the number of values in this tree
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return              <code>true</code> if there are no values in this tree; <code>false</code> otherwise
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return              the number of levels of pages, 1 while the root is a leaf
+     * @throws UncheckedIOException if a page cannot be read
+     */
+    public int getHeight() {
+        try {
+            int height = 1;
+            int pageId = root;
+            while (true) {
+                ByteBuffer page = pool.pin(pageId);
+                int child = (page.getInt(TYPE) == INTERNAL) ? page.getInt(childOffset(0)) : -1;
+                pool.unpin(pageId, false);
+                if (child < 0) {
+                    return height;
+                }
+                pageId = child;
+                height++;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * @return              the number of values in a full leaf page
+     */
+    public int getLeafCapacity() {
+        return leafCapacity;
+    }
+
+    /**
+     * @return              the number of children of a full internal page
+     */
+    public int getFanout() {
+        return internalCapacity + 1;
+    }
+
+    /**
+     * @return              the number of pages read from the file, which does not count pages found in the pool
+     */
+    public long getPageReads() {
+        return pool.getPageReads();
+    }
+
+    /**
+     * @return              the number of pages written to the file
+     */
+    public long getPageWrites() {
+        return pool.getPageWrites();
+    }
+
+    /**
+     * @return              the <code>ArrayList</code> of all values in this tree in in-order (ascending)
+     * @throws UncheckedIOException if a page cannot be read
+     */
+    public List<T> asListInOrder() {
+        List<T> values = new ArrayList<T>(size);
+        iterator().forEachRemaining(values::add);
+        return values;
+    }
+
+    /**
+     * @param lo            the smallest value to be listed
+     * @param hi            the largest value to be listed
+     * @return              the <code>ArrayList</code> of the values between lo and hi (inclusive) in ascending order
+     * @throws UncheckedIOException if a page cannot be read
+     */
+    public List<T> asListInRange(T lo, T hi) {
+        List<T> values = new ArrayList<T>();
+        rangeIterator(lo, hi).forEachRemaining(values::add);
+        return values;
+    }
+
+    /**
+     * Returns an iterator over all values in ascending order, which reads the leaves along their links. The tree
+     * must not be changed while the iterator is used.
+     * @return              the <code>Iterator</code> of this tree
+     */
+    @Override
+    public Iterator<T> iterator() {
+        return new LeafIterator(FIRST_LEAF, 0, null);
+    }
+
+    /**
+     * Returns an iterator over the values between lo and hi (inclusive) in ascending order. It finds the leaf of lo
+     * from the root and then reads the leaves along their links. The tree must not be changed while the iterator is
+     * used.
+     * @param lo            the smallest value to be returned
+     * @param hi            the largest value to be returned
+     * @return              the <code>Iterator</code> of the range
+     * @throws UncheckedIOException if a page cannot be read
+     */
+    public Iterator<T> rangeIterator(T lo, T hi) {
+        checkKey(lo);
+        checkKey(hi);
+        try {
+            int leafId = findLeaf(lo);
+            ByteBuffer leaf = pool.pin(leafId);
+            int found = leafSearch(leaf, leaf.getInt(COUNT), lo);
+            pool.unpin(leafId, false);
+            return new LeafIterator(leafId, (found >= 0) ? found : -found - 1, hi);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Writes all changed pages and the header to the file
+     * @throws IOException  if the file cannot be written
+     */
+    public void flush() throws IOException {
+        ensureOpen();
+        pool.flush();
+        ByteBuffer header = ByteBuffer.allocate(pageSize).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC).putInt(VERSION).putInt(pageSize).putInt(keySize);
+        header.putInt(root).putInt(pageCount).putInt(size);
+        header.clear();
+        while (header.hasRemaining()) {
+            channel.write(header, header.position());
+        }
+    }
+
+    /**
+     * Writes all changed pages and the header and closes the file. The tree cannot be used afterwards.
+     * @throws IOException  if the file cannot be written
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        try {
+            flush();
+        } finally {
+            closed = true;
+            channel.close();
+        }
+    }
+
+    /**
+     * Helper method which reads the header of an existing file
+     * @throws IOException  if the header cannot be read or does not match this tree
+     */
+    private void readHeader() throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(7 * Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        while (header.hasRemaining() && channel.read(header, header.position()) >= 0) {
+            // read until the header is complete or the file ends
+        }
+        header.flip();
+        if (header.remaining() < header.capacity() || header.getInt() != MAGIC || header.getInt() != VERSION) {
+            throw new IOException("not a paged tree file");
+        }
+        int filePageSize = header.getInt();
+        int fileKeySize = header.getInt();
+        if (filePageSize != pageSize || fileKeySize != keySize) {
+            throw new IOException("the file has pages of " + filePageSize + " bytes and keys of " + fileKeySize
+                    + " bytes");
+        }
+        root = header.getInt();
+        pageCount = header.getInt();
+        size = header.getInt();
+    }
+
+    /**
+     * Helper method which walks from the root to the leaf where a value belongs, remembering the internal pages
+     * passed and the child taken in each
+     * @param key           the value searched for
+     * @return              the page number of the leaf
+     * @throws IOException  if a page cannot be read
+     */
+    private int findLeaf(T key) throws IOException {
+        ensureOpen();
+        depth = 0;
+        int pageId = root;
+        while (true) {
+            ByteBuffer page = pool.pin(pageId);
+            if (page.getInt(TYPE) != INTERNAL) {
+                pool.unpin(pageId, false);
+                return pageId;
+            }
+            int index = childIndex(page, key);
+            int child = page.getInt(childOffset(index));
+            pool.unpin(pageId, false);
+            pathPages[depth] = pageId;
+            pathIndex[depth] = index;
+            depth++;
+            pageId = child;
+        }
+    }
+
+    /**
+     * Helper method which adds a separator and the page to its right to the parent of a split page, splitting the
+     * parent in turn while it is full, and grows a new root when the old root splits
+     * @param level         the position of the parent in the path of the last search, -1 for a new root
+     * @param separator     the encoded smallest value of the new page
+     * @param rightId       the page number of the new page
+     * @throws IOException  if a page cannot be read or written
+     */
+    private void insertIntoParent(int level, byte[] separator, int rightId) throws IOException {
+        while (level >= 0) {
+            int pageId = pathPages[level];
+            int index = pathIndex[level]; // the separator goes at index, the new page at child index + 1
+            ByteBuffer page = pool.pin(pageId);
+            byte[] bytes = page.array();
+            int count = page.getInt(COUNT);
+            if (count < internalCapacity) {
+                System.arraycopy(bytes, keyOffset(index), bytes, keyOffset(index + 1), (count - index) * keySize);
+                System.arraycopy(separator, 0, bytes, keyOffset(index), keySize);
+                System.arraycopy(bytes, childOffset(index + 1), bytes, childOffset(index + 2),
+                        (count - index) * Integer.BYTES);
+                page.putInt(childOffset(index + 1), rightId);
+                page.putInt(COUNT, count + 1);
+                pool.unpin(pageId, true);
+                return;
+            }
+            byte[] keys = new byte[(count + 1) * keySize];
+            System.arraycopy(bytes, keyOffset(0), keys, 0, index * keySize);
+            System.arraycopy(separator, 0, keys, index * keySize, keySize);
+            System.arraycopy(bytes, keyOffset(index), keys, (index + 1) * keySize, (count - index) * keySize);
+            int[] children = new int[count + 2];
+            for (int i = 0, j = 0; i < children.length; i++) {
+                children[i] = (i == index + 1) ? rightId : page.getInt(childOffset(j++));
+            }
+            int middle = (count + 1) / 2; // the separator moved up to the parent
+            int newId = pageCount++;
+            ByteBuffer right = pool.pinNew(newId);
+            right.putInt(TYPE, INTERNAL);
+            right.putInt(COUNT, count - middle);
+            System.arraycopy(keys, (middle + 1) * keySize, right.array(), keyOffset(0), (count - middle) * keySize);
+            for (int i = middle + 1; i < children.length; i++) {
+                right.putInt(childOffset(i - middle - 1), children[i]);
+            }
+            page.putInt(COUNT, middle);
+            System.arraycopy(keys, 0, bytes, keyOffset(0), middle * keySize);
+            for (int i = 0; i <= middle; i++) {
+                page.putInt(childOffset(i), children[i]);
+            }
+            separator = new byte[keySize];
+            System.arraycopy(keys, middle * keySize, separator, 0, keySize);
+            rightId = newId;
+            pool.unpin(newId, true);
+            pool.unpin(pageId, true);
+            level--;
+        }
+        int newRoot = pageCount++;
+        ByteBuffer page = pool.pinNew(newRoot);
+        page.putInt(TYPE, INTERNAL);
+        page.putInt(COUNT, 1);
+        page.putInt(childOffset(0), root);
+        page.putInt(childOffset(1), rightId);
+        System.arraycopy(separator, 0, page.array(), keyOffset(0), keySize);
+        pool.unpin(newRoot, true);
+        root = newRoot;
+    }
+
+    /**
+     * Helper method which finds the child of an internal page to follow: the first one whose separator is greater
+     * than the value, since a separator is the smallest value of the child to its right
+     * @param page          the internal page
+     * @param key           the value searched for
+     * @return              the index of the child
+     */
+    private int childIndex(ByteBuffer page, T key) {
+        int low = 0;
+        int high = page.getInt(COUNT);
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (decode(page, keyOffset(middle)).compareTo(key) <= 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Helper method which binary searches the values of a leaf
+     * @param page          the leaf page
+     * @param count         the number of values in the leaf
+     * @param key           the value searched for
+     * @return              the index of the value if found; otherwise (-(insertion point) - 1)
+     */
+    private int leafSearch(ByteBuffer page, int count, T key) {
+        int low = 0;
+        int high = count - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int comparison = decode(page, leafOffset(middle)).compareTo(key);
+            if (comparison < 0) {
+                low = middle + 1;
+            } else if (comparison > 0) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -low - 1;
+    }
+
+    /**
+     * Helper method which inserts a value into a leaf that has room for it
+     * @param page          the leaf page
+     * @param count         the number of values in the leaf
+     * @param position      the index of the new value
+     * @param key           the new value
+     */
+    private void insertLeafKey(ByteBuffer page, int count, int position, T key) {
+        byte[] bytes = page.array();
+        System.arraycopy(bytes, leafOffset(position), bytes, leafOffset(position + 1), (count - position) * keySize);
+        page.position(leafOffset(position));
+        codec.encode(key, page);
+        page.clear();
+        page.putInt(COUNT, count + 1);
+    }
+
+    /**
+     * Helper method which reads a value from a page
+     * @param page          the page
+     * @param offset        the offset of the value in the page
+     * @return              the value
+     */
+    private T decode(ByteBuffer page, int offset) {
+        page.position(offset);
+        T key = codec.decode(page);
+        page.clear();
+        return key;
+    }
+
+    /**
+     * @param index         the index of a value in a leaf
+     * @return              the offset of the value in the page
+     */
+    private int leafOffset(int index) {
+        return PAGE_HEADER + index * keySize;
+    }
+
+    /**
+     * @param index         the index of a child of an internal page
+     * @return              the offset of its page number in the page
+     */
+    private int childOffset(int index) {
+        return PAGE_HEADER + index * Integer.BYTES;
+    }
+
+    /**
+     * @param index         the index of a separator of an internal page
+     * @return              the offset of the separator in the page, after the page numbers of all children
+     */
+    private int keyOffset(int index) {
+        return PAGE_HEADER + (internalCapacity + 1) * Integer.BYTES + index * keySize;
+    }
+
+    /**
+     * Helper method which checks that a value can be stored in a page
+     * @param key           the value
+     */
+    private void checkKey(T key) {
+        if (key == null) {
+            throw new NullPointerException();
+        }
+        if (codec.encodedSize(key) != keySize) {
+            throw new IllegalArgumentException("the key " + key + " is not encoded in " + keySize + " bytes");
+        }
+    }
+
+    /**
+     * Helper method which checks that the file is still open
+     */
+    private void ensureOpen() {
+        if (closed) {
+            throw new IllegalStateException("the tree is closed");
+        }
+    }
+
+    /**
+     * LeafIterator is a nested class of <code>PagedBinarySearchTree</code> walking the leaves along their links
+     */
+    private final class LeafIterator implements Iterator<T> {
+        private final T hi; // the largest value returned, null for no limit
+        private int pageId; // the leaf being read
+        private int index; // the index of the next value in the leaf
+        private T nextKey; // the value returned next, null at the end
+
+        /**
+         * Class constructor
+         * @param pageId        the first leaf
+         * @param index         the index of the first value in it
+         * @param hi            the largest value returned, null for no limit
+         */
+        private LeafIterator(int pageId, int index, T hi) {
+            this.pageId = pageId;
+            this.index = index;
+            this.hi = hi;
+            advance();
+        }
+
+        /**
+         * @return              <code>true</code> if there is another value; <code>false</code> otherwise
+         */
+        @Override
+        public boolean hasNext() {
+            return nextKey != null;
+        }
+
+        /**
+         * @return              the next value in ascending order
+         */
+        @Override
+        public T next() {
+            if (nextKey == null) {
+                throw new NoSuchElementException();
+            }
+            T key = nextKey;
+            advance();
+            return key;
+        }
+
+        /**
+         * Helper method which reads the next value, moving to the next leaf at the end of a leaf and skipping
+         * leaves emptied by removals
+         */
+        private void advance() {
+            try {
+                ensureOpen();
+                while (pageId != 0) {
+                    ByteBuffer leaf = pool.pin(pageId);
+                    if (index < leaf.getInt(COUNT)) {
+                        T key = decode(leaf, leafOffset(index++));
+                        pool.unpin(pageId, false);
+                        nextKey = (hi == null || key.compareTo(hi) <= 0) ? key : null;
+                        return;
+                    }
+                    int next = leaf.getInt(NEXT);
+                    pool.unpin(pageId, false);
+                    pageId = next;
+                    index = 0;
+                }
+                nextKey = null;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,418 @@
+package org.example.binarysearchtree;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * <code>PersistentBinarySearchTree</code> is a binary search tree for values of a specific <code>Comparable</code>
+ * type T whose nodes are never changed once created. Adding or removing a value copies only the nodes on the path
+ * from the root to the changed node (and the few nodes rotated to keep the AVL balance), while all other subtrees
+ * are shared with the previous version. The new version is then published with a single compare-and-set of the
+ * current root. Therefore <code>snapshot()</code> takes O(1) time and a reader can walk an old version without any
+ * locks while writers continue. Concurrent writers do not block each other either: a writer whose version was
+ * overtaken simply repeats its update on the newer version. Null values are not permitted.
+ *
+ * @author dawidK5
+ * @version %I%, %G%
+ * @see BinarySearchTree
+ */
+public class PersistentBinarySearchTree<T extends Comparable<T>> implements Iterable<T> {
+    private static final int MAX_HEIGHT = 64; // an AVL tree of 2^31 nodes is less than 46 levels high
+
+    private final AtomicReference<Snapshot<T>> current; // latest published version of this tree
+
+    /**
+     * Node is a nested class of <code>PersistentBinarySearchTree</code>. All its fields are final, so a node can be
+     * shared by any number of versions of the tree and read by any thread without synchronisation.
+     */
+    private static final class Node<T> {
+        private final T key;
+        private final Node<T> left, right;
+        private final int height;
+
+        /**
+         * Class constructor
+         * @param key       the value stored in this node
+         * @param left      the left subtree or <code>null</code>
+         * @param right     the right subtree or <code>null</code>
+         */
+        private Node(T key, Node<T> left, Node<T> right) {
+            this.key = key;
+            this.left = left;
+            this.right = right;
+            this.height = Math.max(height(left), height(right)) + 1;
+        }
+    }
+
+    /**
+     * Snapshot is a nested class of <code>PersistentBinarySearchTree</code> representing one version of the tree. It
+     * never changes, so it can be kept and read for as long as needed, by any number of threads.
+     */
+    public static final class Snapshot<T extends Comparable<T>> implements Iterable<T> {
+        private final Node<T> root;
+        private final int size;
+
+        /**
+         * Class constructor
+         * @param root      the root of this version, <code>null</code> if it is empty
+         * @param size      the number of values in this version
+         */
+        private Snapshot(Node<T> root, int size) {
+            this.root = root;
+            this.size = size;
+        }
+
+        /**
+         * Returns the number of values in this version
+         * @return          the int signifying the number of values
+         */
+        public int size() {
+            return this.size;
+        }
+
+        /**
+         * Tells whether this version has any values
+         * @return          <code>true</code> if there are no values; <code>false</code> otherwise
+         */
+        public boolean isEmpty() {
+            return this.root == null;
+        }
+
+        /**
+         * Gets the height of this version measured by nodes (a tree with a single value has height 1)
+         * @return          height of this version as an int
+         */
+        public int getHeight() {
+            return height(this.root);
+        }
+
+        /**
+         * Checks if this version contains the value given
+         * @param word      the value to be checked for
+         * @return          <code>true</code> if this version contains word; <code>false</code> otherwise
+         */
+        public boolean contains(T word) {
+            Node<T> aNode = this.root;
+            while (aNode != null) {
+                int difference = word.compareTo(aNode.key);
+                if (difference == 0) {
+                    return true;
+                }
+                aNode = (difference < 0) ? aNode.left : aNode.right;
+            }
+            return false;
+        }
+
+        /**
+         * Returns all values of this version in ascending order
+         * @return          the <code>ArrayList</code> of all values in in-order (left, root, right)
+         */
+        public List<T> asListInOrder() {
+            List<T> inOrdList = new ArrayList<T>(this.size);
+            for (T key : this) {
+                inOrdList.add(key);
+            }
+            return inOrdList;
+        }
+
+        /**
+         * Returns a lazy iterator over the values of this version in ascending order. It is not affected by any
+         * later change of the tree.
+         * @return          the <code>Iterator</code> of all values in in-order (left, root, right)
+         */
+        @Override
+        public Iterator<T> iterator() {
+            return new InOrderIterator<T>(this.root);
+        }
+    }
+
+    /**
+     * InOrderIterator is a nested class of <code>PersistentBinarySearchTree</code> that visits the nodes of one
+     * version in in-order, keeping the ancestors still to be visited in a fixed-size stack
+     */
+    private static final class InOrderIterator<T> implements Iterator<T> {
+        @SuppressWarnings("unchecked")
+        private final Node<T>[] stack = (Node<T>[]) new Node[MAX_HEIGHT];
+        private int top;
+
+        /**
+         * Class constructor
+         * @param root      the root of the version to be iterated
+         */
+        private InOrderIterator(Node<T> root) {
+            pushLeftPath(root);
+        }
+
+        /**
+         * @param aNode     the node from which the path of left children is pushed to the stack
+         */
+        private void pushLeftPath(Node<T> aNode) {
+            while (aNode != null) {
+                stack[top++] = aNode;
+                aNode = aNode.left;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return top > 0;
+        }
+
+        @Override
+        public T next() {
+            if (top == 0) {
+                throw new NoSuchElementException();
+            }
+            Node<T> aNode = stack[--top];
+            stack[top] = null;
+            pushLeftPath(aNode.right);
+            return aNode.key;
+        }
+    }
+
+    /**
+     * Class constructor
+     */
+    public PersistentBinarySearchTree() {
+        this.current = new AtomicReference<Snapshot<T>>(new Snapshot<T>(null, 0));
+    }
+
+    /**
+     * Class constructor
+     * @param itemsArray    the array of values to be added to the tree
+     */
+    public PersistentBinarySearchTree(T[] itemsArray) {
+        this();
+        for (T item : itemsArray) {
+            add(item);
+        }
+    }
+
+    /**
+     * Returns the current version of this tree. This takes constant time and the version returned never changes,
+     * whatever is added or removed afterwards.
+     * @return              the <code>Snapshot</code> of this tree
+     */
+    public Snapshot<T> snapshot() {
+        return current.get();
+    }
+
+    /**
+     * Returns the number of values in the current version of this tree
+     * @return              the int signifying the number of values in this BST
+     */
+    public int size() {
+        return current.get().size();
+    }
+
+    /**
+     * Tells whether the current version of this tree has any values
+     * @return              <code>true</code> if there are no values in this tree; <code>false</code> otherwise
+     */
+    public boolean isEmpty() {
+        return current.get().isEmpty();
+    }
+
+    /**
+     * Gets the height of the current version of this tree
+     * @return              height of this tree as an int
+     */
+    public int getHeight() {
+        return current.get().getHeight();
+    }
+
+    /**
+     * Checks if the current version of this tree contains the value given
+     * @param word          the value to be checked for
+     * @return              <code>true</code> if this BST contains word; <code>false</code> otherwise
+     */
+    public boolean contains(T word) {
+        return current.get().contains(word);
+    }
+
+    /**
+     * Returns all values of the current version of this tree in ascending order
+     * @return              the <code>ArrayList</code> of all values in this tree in in-order (left, root, right)
+     */
+    public List<T> asListInOrder() {
+        return current.get().asListInOrder();
+    }
+
+    /**
+     * Returns a lazy iterator over the current version of this tree in ascending order
+     * @return              the <code>Iterator</code> of all values in this tree in in-order (left, root, right)
+     */
+    @Override
+    public Iterator<T> iterator() {
+        return current.get().iterator();
+    }
+
+    /**
+     * Adds a value by copying the path from the root to the new leaf and publishing the new root. If another
+     * writer published a version in the meantime, the path is copied again from that version.
+     * @param word          the value of type T to be added to the tree
+     * @return              <code>true</code> if a new unique value was added successfully;
+     *                      <code>false</code> otherwise
+     */
+    public boolean add(T word) {
+        Objects.requireNonNull(word);
+        while (true) {
+            Snapshot<T> version = current.get();
+            Node<T> newRoot = insert(version.root, word);
+            if (newRoot == version.root) {
+                return false;
+            }
+            if (current.compareAndSet(version, new Snapshot<T>(newRoot, version.size + 1))) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Removes a value by copying the path from the root to the removed node (and to its successor) and publishing
+     * the new root. If another writer published a version in the meantime, the path is copied again from that
+     * version.
+     * @param value         the value of type T to be removed
+     * @return              <code>true</code> if the value existed before and was removed successfully;
+     *                      <code>false</code> otherwise
+     */
+    public boolean remove(T value) {
+        Objects.requireNonNull(value);
+        while (true) {
+            Snapshot<T> version = current.get();
+            Node<T> newRoot = delete(version.root, value);
+            if (newRoot == version.root) {
+                return false;
+            }
+            if (current.compareAndSet(version, new Snapshot<T>(newRoot, version.size - 1))) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Helper method which builds the root of a new version containing the value given. The search path is kept
+     * in local arrays and copied bottom-up, rebalancing each copy.
+     * @param root          the root of the old version
+     * @param word          the value to be added
+     * @return              the root of the new version; the old root if word is already present
+     */
+    private static <T extends Comparable<T>> Node<T> insert(Node<T> root, T word) {
+        @SuppressWarnings("unchecked")
+        Node<T>[] path = (Node<T>[]) new Node[MAX_HEIGHT];
+        boolean[] wentLeft = new boolean[MAX_HEIGHT];
+        int depth = 0;
+        Node<T> aNode = root;
+        while (aNode != null) {
+            int difference = word.compareTo(aNode.key);
+            if (difference == 0) {
+                return root;
+            }
+            path[depth] = aNode;
+            wentLeft[depth++] = difference < 0;
+            aNode = (difference < 0) ? aNode.left : aNode.right;
+        }
+        return copyPath(path, wentLeft, depth, -1, null, new Node<T>(word, null, null));
+    }
+
+    /**
+     * Helper method which builds the root of a new version without the value given. A node with two children is
+     * copied with the key of its in-order successor, and the successor is left out instead.
+     * @param root          the root of the old version
+     * @param value         the value to be removed
+     * @return              the root of the new version; the old root if value is not present
+     */
+    private static <T extends Comparable<T>> Node<T> delete(Node<T> root, T value) {
+        @SuppressWarnings("unchecked")
+        Node<T>[] path = (Node<T>[]) new Node[MAX_HEIGHT];
+        boolean[] wentLeft = new boolean[MAX_HEIGHT];
+        int depth = 0;
+        Node<T> aNode = root;
+        while (aNode != null) {
+            int difference = value.compareTo(aNode.key);
+            if (difference == 0) {
+                break;
+            }
+            path[depth] = aNode;
+            wentLeft[depth++] = difference < 0;
+            aNode = (difference < 0) ? aNode.left : aNode.right;
+        }
+        if (aNode == null) {
+            return root;
+        }
+        if (aNode.left == null || aNode.right == null) {
+            return copyPath(path, wentLeft, depth, -1, null, (aNode.left != null) ? aNode.left : aNode.right);
+        }
+        int targetDepth = depth;
+        path[depth] = aNode;
+        wentLeft[depth++] = false;
+        Node<T> successor = aNode.right;
+        while (successor.left != null) {
+            path[depth] = successor;
+            wentLeft[depth++] = true;
+            successor = successor.left;
+        }
+        return copyPath(path, wentLeft, depth, targetDepth, successor.key, successor.right);
+    }
+
+    /**
+     * Helper method which copies the nodes of a search path bottom-up, linking each copy to the copy below it and
+     * restoring the AVL balance of each copy
+     * @param path          the nodes from the root down to the parent of the changed subtree
+     * @param wentLeft      for every node of the path, <code>true</code> if the search continued to the left
+     * @param depth         the number of nodes in the path
+     * @param keyDepth      the index of the node whose key is replaced; -1 if no key is replaced
+     * @param newKey        the key replacing the key of the node at keyDepth
+     * @param child         the new subtree linked below the last node of the path
+     * @return              the root of the new version
+     */
+    private static <T extends Comparable<T>> Node<T> copyPath(Node<T>[] path, boolean[] wentLeft, int depth,
+                                                              int keyDepth, T newKey, Node<T> child) {
+        for (int i = depth-1; i >= 0; i--) {
+            Node<T> aNode = path[i];
+            T key = (i == keyDepth) ? newKey : aNode.key;
+            child = wentLeft[i] ? balance(key, child, aNode.right) : balance(key, aNode.left, child);
+        }
+        return child;
+    }
+
+    /**
+     * Helper method which creates a node from a key and two subtrees, performing a single or double rotation by
+     * creating new nodes if the heights of the subtrees differ by more than one
+     * @param key           the key of the new node
+     * @param left          the left subtree, balanced itself
+     * @param right         the right subtree, balanced itself
+     * @return              the top of the balanced subtree holding key and both subtrees
+     */
+    private static <T> Node<T> balance(T key, Node<T> left, Node<T> right) {
+        int balance = height(left) - height(right);
+        if (balance > 1) {
+            if (height(left.left) >= height(left.right)) {
+                return new Node<T>(left.key, left.left, new Node<T>(key, left.right, right));
+            }
+            Node<T> middle = left.right;
+            return new Node<T>(middle.key, new Node<T>(left.key, left.left, middle.left),
+                    new Node<T>(key, middle.right, right));
+        } else if (balance < -1) {
+            if (height(right.right) >= height(right.left)) {
+                return new Node<T>(right.key, new Node<T>(key, left, right.left), right.right);
+            }
+            Node<T> middle = right.left;
+            return new Node<T>(middle.key, new Node<T>(key, left, middle.left),
+                    new Node<T>(right.key, middle.right, right.right));
+        }
+        return new Node<T>(key, left, right);
+    }
+
+    /**
+     * @param aNode         the node or <code>null</code>
+     * @return              the height of the subtree stored in the node; 0 for a missing node
+     */
+    private static int height(Node<?> aNode) {
+        return (aNode == null) ? 0 : aNode.height;
+    }
+}
@@ -0,0 +1,357 @@
+package org.example.binarysearchtree;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * <code>ShardedBinarySearchTree</code> splits the values of a specific <code>Comparable</code> type T into ranges,
+ * called shards, each stored in its own <code>BinarySearchTree</code> guarded by its own <code>StampedLock</code>.
+ * The boundaries between the ranges (splitters) are sampled from the data when the tree is constructed, so threads
+ * writing to different ranges never contend for a lock. A shard grown beyond the maximum size, or one whose lock is
+ * often found taken, is split at its median into two shards, which keeps the load spread as the data changes.
+ * Operations on a single value are atomic, while <code>asListInOrder</code> reads the shards one after another and
+ * is therefore not a snapshot of the whole tree. Null values are not permitted.
+ *
+ * @author dawidK5
+ * @version %I%, %G%
+ * @see BinarySearchTree
+ * @see ConcurrentBinarySearchTree
+ */
+public class ShardedBinarySearchTree<T extends Comparable<T>> {
+    public static final int DEFAULT_MAX_SHARD_SIZE = 1 << 16; // values in a shard before it is split
+    public static final int HOT_SHARD_CONTENTION = 1024; // writes that found the lock taken before a shard is split
+    private static final int MIN_SPLIT_SIZE = 64; // a hot shard is only split if it has at least this many values
+
+    private final BalanceMode balanceMode; // strategy used to keep each shard balanced
+    private final int maxShardSize; // values in a shard before it is split
+    private final LongAdder size = new LongAdder(); // number of values in all shards
+    private volatile Layout<T> layout; // current splitters and shards, replaced as a whole on every split
+
+    /**
+     * Shard is a nested class of <code>ShardedBinarySearchTree</code> holding the tree of one key range and the
+     * lock guarding it. A shard which was split is marked as retired and is never changed afterwards.
+     */
+    private static final class Shard<T extends Comparable<T>> {
+        private final BinarySearchTree<T> tree;
+        private final StampedLock lock = new StampedLock();
+        private final LongAdder contention = new LongAdder(); // writes which had to wait for the lock
+        private volatile boolean retired; // true once the values were moved to the shards replacing this one
+
+        /**
+         * Class constructor
+         * @param tree      the tree with all values of this shard
+         */
+        private Shard(BinarySearchTree<T> tree) {
+            this.tree = tree;
+        }
+    }
+
+    /**
+     * Layout is a nested class of <code>ShardedBinarySearchTree</code> pairing the shards with the splitters
+     * between them. Shard i holds the values from <code>splitters[i-1]</code> inclusive to <code>splitters[i]</code>
+     * exclusive. A layout is never changed, a split publishes a new one.
+     */
+    private static final class Layout<T extends Comparable<T>> {
+        private final T[] splitters;
+        private final Shard<T>[] shards;
+
+        /**
+         * Class constructor
+         * @param splitters the lowest values of all shards but the first, in ascending order
+         * @param shards    the shards in ascending order, one more than the splitters
+         */
+        private Layout(T[] splitters, Shard<T>[] shards) {
+            this.splitters = splitters;
+            this.shards = shards;
+        }
+    }
+
+    /**
+     * Class constructor taking the splitters from a sample of the data, with AVL-balanced shards and the default
+     * maximum shard size
+     * @param sample        values representative of the data to be stored, e.g. a random part of it
+     * @param shardCount    the number of shards to be made
+     */
+    public ShardedBinarySearchTree(List<T> sample, int shardCount) {
+        this(sample, shardCount, BalanceMode.AVL, DEFAULT_MAX_SHARD_SIZE);
+    }
+
+    /**
+     * Class constructor taking the splitters from a sample of the data. The sample is sorted and every
+     * (sample size / shardCount)-th distinct value becomes a splitter, so fewer shards are made if the sample has
+     * fewer distinct values than shardCount.
+     * @param sample        values representative of the data to be stored, e.g. a random part of it
+     * @param shardCount    the number of shards to be made
+     * @param mode          the <code>BalanceMode</code> of the tree in each shard
+     * @param maxShardSize  the number of values in a shard before it is split
+     * @throws IllegalArgumentException if mode is <code>SPLAY</code>, whose lookups change the tree
+     */
+    public ShardedBinarySearchTree(List<T> sample, int shardCount, BalanceMode mode, int maxShardSize) {
+        if (shardCount < 1 || maxShardSize < 2) {
+            throw new IllegalArgumentException("shardCount must be positive and maxShardSize at least 2");
+        }
+        if (mode == BalanceMode.SPLAY) {
+            throw new IllegalArgumentException("shards are read under a shared lock, which splay trees do not allow");
+        }
+        this.balanceMode = mode;
+        this.maxShardSize = maxShardSize;
+        List<T> distinct = new ArrayList<T>(new TreeSet<T>(sample));
+        List<T> splitters = new ArrayList<T>();
+        int lastIndex = 0; // the lowest sampled value would only make an empty first shard
+        for (int i = 1; i < shardCount; i++) {
+            int index = (int) ((long) i * distinct.size() / shardCount);
+            if (index > lastIndex) {
+                splitters.add(distinct.get(index));
+                lastIndex = index;
+            }
+        }
+        Shard<T>[] shards = newShardArray(splitters.size() + 1);
+        for (int i = 0; i < shards.length; i++) {
+            shards[i] = new Shard<T>(new BinarySearchTree<T>(mode));
+        }
+        this.layout = new Layout<T>(toArray(splitters), shards);
+    }
+
+    /**
+     * Returns the number of values in all shards
+     * @return              the int signifying the number of values in this tree
+     */
+    public int size() {
+        return size.intValue();
+    }
+
+    /**
+     * Tells whether any shard has values
+     * @return              <code>true</code> if there are no values in this tree; <code>false</code> otherwise
+     */
+    public boolean isEmpty() {
+        return size.sum() == 0;
+    }
+
+    /**
+     * Returns the number of shards the values are currently split into
+     * @return              the number of shards
+     */
+    public int getShardCount() {
+        return layout.shards.length;
+    }
+
+    /**
+     * Returns the current boundaries between the shards
+     * @return              the lowest values of all shards but the first, in ascending order
+     */
+    public List<T> getSplitters() {
+        return Collections.unmodifiableList(Arrays.asList(layout.splitters));
+    }
+
+    /**
+     * Adds a value to its shard, holding only the lock of that shard. The shard is split afterwards if it became
+     * oversized or hot.
+     * @param word          the value of type T to be added to the tree
+     * @return              <code>true</code> if a new unique value was added successfully;
+     *                      <code>false</code> otherwise
+     */
+    public boolean add(T word) {
+        Objects.requireNonNull(word);
+        while (true) {
+            Shard<T> shard = shardFor(word);
+            long stamp = writeLock(shard);
+            boolean added;
+            try {
+                if (shard.retired) {
+                    continue;
+                }
+                added = shard.tree.add(word);
+            } finally {
+                shard.lock.unlockWrite(stamp);
+            }
+            if (added) {
+                size.increment();
+                splitIfNeeded(shard);
+            }
+            return added;
+        }
+    }
+
+    /**
+     * Removes a value from its shard, holding only the lock of that shard
+     * @param value         the value of type T to be removed
+     * @return              <code>true</code> if the value existed before and was removed successfully;
+     *                      <code>false</code> otherwise
+     */
+    public boolean remove(T value) {
+        Objects.requireNonNull(value);
+        while (true) {
+            Shard<T> shard = shardFor(value);
+            long stamp = writeLock(shard);
+            boolean removed;
+            try {
+                if (shard.retired) {
+                    continue;
+                }
+                removed = shard.tree.remove(value);
+            } finally {
+                shard.lock.unlockWrite(stamp);
+            }
+            if (removed) {
+                size.decrement();
+            }
+            return removed;
+        }
+    }
+
+    /**
+     * Checks if the shard of the value given contains it, holding the read lock of that shard
+     * @param word          the value to be checked for
+     * @return              <code>true</code> if this tree contains word; <code>false</code> otherwise
+     */
+    public boolean contains(T word) {
+        Objects.requireNonNull(word);
+        while (true) {
+            Shard<T> shard = shardFor(word);
+            long stamp = shard.lock.readLock();
+            try {
+                if (!shard.retired) {
+                    return shard.tree.contains(word);
+                }
+            } finally {
+                shard.lock.unlockRead(stamp);
+            }
+        }
+    }
+
+    /**
+     * Returns all values in ascending order by concatenating the in-order lists of the shards. Each shard is read
+     * under its own read lock, so values changed in other shards during the call may or may not be included.
+     * @return              the <code>ArrayList</code> of all values in this tree in in-order (left, root, right)
+     */
+    public List<T> asListInOrder() {
+        List<T> inOrdList = new ArrayList<T>(size());
+        for (Shard<T> shard : layout.shards) {
+            long stamp = shard.lock.readLock();
+            try {
+                if (!shard.tree.isEmpty()) {
+                    inOrdList.addAll(shard.tree.asListInOrder());
+                }
+            } finally {
+                shard.lock.unlockRead(stamp);
+            }
+        }
+        return inOrdList;
+    }
+
+    /**
+     * Helper method which finds the shard of the range containing the value given by a binary search of the
+     * splitters
+     * @param word          the value to be located
+     * @return              the shard whose range contains word in the current layout
+     */
+    private Shard<T> shardFor(T word) {
+        Layout<T> current = layout;
+        int low = 0;
+        int high = current.splitters.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (word.compareTo(current.splitters[mid]) < 0) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return current.shards[low];
+    }
+
+    /**
+     * Helper method which takes the write lock of a shard, counting the attempts that found it already taken
+     * @param shard         the shard to be locked
+     * @return              the stamp of the write lock
+     */
+    private long writeLock(Shard<T> shard) {
+        long stamp = shard.lock.tryWriteLock();
+        if (stamp == 0) {
+            shard.contention.increment();
+            stamp = shard.lock.writeLock();
+        }
+        return stamp;
+    }
+
+    /**
+     * Helper method which splits a shard at its median into two shards if it holds more than the maximum number of
+     * values, or if its lock was found taken too often and it is big enough to be worth splitting. The shards are
+     * split one at a time; other shards stay available for reads and writes during a split.
+     * @param shard         the shard a value was just added to
+     */
+    private void splitIfNeeded(Shard<T> shard) {
+        int shardSize = shard.tree.size();
+        boolean oversized = shardSize > maxShardSize;
+        boolean hot = shardSize >= MIN_SPLIT_SIZE && shard.contention.sum() >= HOT_SHARD_CONTENTION;
+        if (!oversized && !hot) {
+            return;
+        }
+        synchronized (this) {
+            Layout<T> current = layout;
+            int index = Arrays.asList(current.shards).indexOf(shard);
+            if (index < 0) {
+                return;
+            }
+            long stamp = shard.lock.writeLock();
+            try {
+                List<T> values = shard.tree.asListInOrder();
+                if (values.size() < 2) {
+                    shard.contention.reset();
+                    return;
+                }
+                int mid = values.size() / 2;
+                T[] splitters = Arrays.copyOf(current.splitters, current.splitters.length + 1);
+                System.arraycopy(splitters, index, splitters, index + 1, current.splitters.length - index);
+                splitters[index] = values.get(mid);
+                Shard<T>[] shards = newShardArray(current.shards.length + 1);
+                System.arraycopy(current.shards, 0, shards, 0, index);
+                System.arraycopy(current.shards, index + 1, shards, index + 2, current.shards.length - index - 1);
+                shards[index] = new Shard<T>(buildTree(values.subList(0, mid)));
+                shards[index + 1] = new Shard<T>(buildTree(values.subList(mid, values.size())));
+                layout = new Layout<T>(splitters, shards);
+                shard.retired = true;
+            } finally {
+                shard.lock.unlockWrite(stamp);
+            }
+        }
+    }
+
+    /**
+     * Helper method which builds the tree of a new shard from sorted values. The batch add sees that the values
+     * are in order and links them into a balanced tree in linear time, in every balance mode.
+     * @param sortedValues  the values of the new shard in ascending order
+     * @return              a balanced tree with all values given
+     * @see                 BinarySearchTree#addAll(java.util.Collection)
+     */
+    private BinarySearchTree<T> buildTree(List<T> sortedValues) {
+        BinarySearchTree<T> tree = new BinarySearchTree<T>(balanceMode);
+        tree.addAll(sortedValues);
+        return tree;
+    }
+
+    /**
+     * @param length        the length of the array
+     * @return              a new array of shards
+     */
+    @SuppressWarnings("unchecked")
+    private static <T extends Comparable<T>> Shard<T>[] newShardArray(int length) {
+        return (Shard<T>[]) new Shard[length];
+    }
+
+    /**
+     * @param values        the values to be copied
+     * @return              a new array with the values given
+     */
+    @SuppressWarnings("unchecked")
+    private static <T extends Comparable<T>> T[] toArray(List<T> values) {
+        return values.toArray((T[]) new Comparable[values.size()]);
+    }
+}
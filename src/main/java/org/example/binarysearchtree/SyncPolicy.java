@@ -0,0 +1,35 @@
+package org.example.binarysearchtree;
+
+/**
+ * <code>SyncPolicy</code> selects when a <code>DurableBinarySearchTree</code> forces its write-ahead log to the disk
+ * with <code>fsync</code>, trading the throughput of changes against the changes that can be lost. Under every
+ * policy a record is handed to the operating system before its change returns, so all changes survive a crash of
+ * the process; the policies differ in what survives a crash of the machine or a power cut.
+ *
+ * @author dawidK5
+ * @version %I%, %G%
+ * @see DurableBinarySearchTree
+ */
+public enum SyncPolicy {
+    /**
+     * Every change is forced to the disk on its own before it returns. Nothing is lost, but each change waits for
+     * a whole <code>fsync</code>.
+     */
+    EVERY_OPERATION,
+    /**
+     * Every change is on the disk before it returns, but threads changing the tree at the same time share one
+     * <code>fsync</code>: the first waiting thread forces the records of all the others too. Nothing is lost, and
+     * the throughput grows with the number of threads.
+     */
+    GROUP_COMMIT,
+    /**
+     * Changes return at once and a background thread forces the log at a fixed interval, so a crash of the
+     * machine loses at most the changes of the last interval
+     */
+    PERIODIC,
+    /**
+     * The log is never forced, it is left to the operating system. Changes survive a crash of the process but not
+     * of the machine.
+     */
+    NO_SYNC
+}
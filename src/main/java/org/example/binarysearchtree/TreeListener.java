@@ -0,0 +1,118 @@
+package org.example.binarysearchtree;
+
+import java.io.PrintStream;
+
+/**
+ * <code>TreeListener</code> receives the events of a <code>BinarySearchTree</code>: values added and removed,
+ * lookups with the number of key comparisons they took, the root being initialised, rejected nodes and rebuilds of
+ * the tree. Every method does nothing by default, so an implementation only overrides the events it needs. A tree
+ * without a listener skips the calls altogether. The listener is called on the thread using the tree.
+ *
+ * @author dawidK5
+ * @version %I%, %G%
+ * @see BinarySearchTree#setListener(TreeListener)
+ * @see TreeMetrics
+ */
+public interface TreeListener<T extends Comparable<T>> {
+
+    /**
+     * Called after <code>add</code> has finished
+     * @param key           the value passed to <code>add</code>
+     * @param added         <code>true</code> if a new value was added; <code>false</code> if it was a duplicate
+     */
+    default void onAdd(T key, boolean added) {
+    }
+
+    /**
+     * Called after <code>removeNode</code> has finished
+     * @param key           the key of the node passed to <code>removeNode</code>
+     * @param removed       <code>true</code> if the value was removed; <code>false</code> if it was not present
+     */
+    default void onRemove(T key, boolean removed) {
+    }
+
+    /**
+     * Called after a lookup descending from the root, e.g. by <code>contains</code>, <code>getNode</code> or
+     * <code>getNodeDepth</code>. For a value that was found, the number of comparisons is also its depth.
+     * @param key           the value looked for
+     * @param comparisons   the number of keys compared with the value
+     * @param found         <code>true</code> if the value is present in the tree; <code>false</code> otherwise
+     */
+    default void onLookup(T key, int comparisons, boolean found) {
+    }
+
+    /**
+     * Called when a value is stored in the empty root of the tree
+     * @param key           the new key of the root
+     */
+    default void onRootSet(T key) {
+    }
+
+    /**
+     * Called when <code>addNode</code> rejects a node that is empty or whose key is already present in the tree
+     * @param key           the key of the rejected node
+     */
+    default void onNodeRejected(T key) {
+    }
+
+    /**
+     * Called when <code>getParentNode</code> is asked for the parent of the root or of an empty node
+     * @param key           the key of the node with no parent
+     */
+    default void onParentMissing(T key) {
+    }
+
+    /**
+     * Called after <code>redrawBalanced</code> has rebuilt the tree or a subtree
+     * @param nodeCount     the number of nodes rebuilt
+     * @param nanos         the time the rebuild took in nanoseconds
+     */
+    default void onRebuild(int nodeCount, long nanos) {
+    }
+
+    /**
+     * Returns a listener that prints the same messages that the tree used to print to the console. It is meant
+     * for debugging only, since every message takes the lock of the stream.
+     * @param out           the stream to print to, e.g. <code>System.out</code>
+     * @param <T>           the type of values in the tree
+     * @return              the listener printing missing values, rejected nodes and root initialisation
+     */
+    static <T extends Comparable<T>> TreeListener<T> printing(PrintStream out) {
+        return new TreeListener<T>() {
+            @Override
+            public void onRemove(T key, boolean removed) {
+                if (!removed) {
+                    out.printf("Node with value %s not present in this tree.\n", key);
+                }
+            }
+
+            @Override
+            public void onLookup(T key, int comparisons, boolean found) {
+                if (!found) {
+                    out.printf("Node for the value \" %s \" not found.\n", key);
+                }
+            }
+
+            @Override
+            public void onRootSet(T key) {
+                out.printf("The key of the root node will be set to %s . \n", key);
+            }
+
+            @Override
+            public void onNodeRejected(T key) {
+                out.printf("Node with value %s already exists. If you want to merge with an already"
+                        + " balanced subtree, pass both child nodes to this method instead.\n", key);
+            }
+
+            @Override
+            public void onParentMissing(T key) {
+                out.printf("Node with value %s is empty or has no parent in this tree.\n", key);
+            }
+
+            @Override
+            public void onRebuild(int nodeCount, long nanos) {
+                out.printf("Rebuilt %d nodes in %d ns .\n", nodeCount, nanos);
+            }
+        };
+    }
+}
@@ -0,0 +1,163 @@
+package org.example.binarysearchtree;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <code>TreeMetrics</code> is a <code>TreeListener</code> that counts the operations on a tree, the key comparisons
+ * made by lookups, the depths at which lookups ended and the rebuilds of the tree with their total time. The
+ * counters can be read from another thread while the tree is in use, e.g. by a monitoring exporter, and one
+ * instance can be shared by several trees.
+ *
+ * @author dawidK5
+ * @version %I%, %G%
+ * @see BinarySearchTree#setListener(TreeListener)
+ */
+public class TreeMetrics<T extends Comparable<T>> implements TreeListener<T> {
+    public static final int MAX_TRACKED_DEPTH = 64; // deeper lookups are counted in the last histogram bucket
+
+    private final LongAdder adds = new LongAdder(); // values added
+    private final LongAdder duplicates = new LongAdder(); // values not added as they were present
+    private final LongAdder removes = new LongAdder(); // values removed
+    private final LongAdder missedRemoves = new LongAdder(); // values not removed as they were absent
+    private final LongAdder lookups = new LongAdder(); // lookups descending from the root
+    private final LongAdder misses = new LongAdder(); // lookups that did not find the value
+    private final LongAdder comparisons = new LongAdder(); // key comparisons made by all lookups
+    private final AtomicLongArray depthHistogram = new AtomicLongArray(MAX_TRACKED_DEPTH + 1); // lookups by depth
+    private final LongAdder rebuilds = new LongAdder(); // calls to redrawBalanced
+    private final LongAdder rebuiltNodes = new LongAdder(); // nodes relinked by all rebuilds
+    private final LongAdder rebuildNanos = new LongAdder(); // time taken by all rebuilds
+
+    @Override
+    public void onAdd(T key, boolean added) {
+        (added ? adds : duplicates).increment();
+    }
+
+    @Override
+    public void onRemove(T key, boolean removed) {
+        (removed ? removes : missedRemoves).increment();
+    }
+
+    @Override
+    public void onLookup(T key, int comparisons, boolean found) {
+        lookups.increment();
+        if (!found) {
+            misses.increment();
+        }
+        this.comparisons.add(comparisons);
+        depthHistogram.incrementAndGet(Math.min(comparisons, MAX_TRACKED_DEPTH));
+    }
+
+    @Override
+    public void onRebuild(int nodeCount, long nanos) {
+        rebuilds.increment();
+        rebuiltNodes.add(nodeCount);
+        rebuildNanos.add(nanos);
+    }
+
+    /**
+     * @return              the number of values added
+     */
+    public long getAddCount() {
+        return adds.sum();
+    }
+
+    /**
+     * @return              the number of values that were not added, as they were already present
+     */
+    public long getDuplicateCount() {
+        return duplicates.sum();
+    }
+
+    /**
+     * @return              the number of values removed
+     */
+    public long getRemoveCount() {
+        return removes.sum();
+    }
+
+    /**
+     * @return              the number of values that were not removed, as they were not present
+     */
+    public long getMissedRemoveCount() {
+        return missedRemoves.sum();
+    }
+
+    /**
+     * @return              the number of lookups descending from the root
+     */
+    public long getLookupCount() {
+        return lookups.sum();
+    }
+
+    /**
+     * @return              the number of lookups that did not find the value
+     */
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    /**
+     * @return              the number of key comparisons made by all lookups
+     */
+    public long getComparisonCount() {
+        return comparisons.sum();
+    }
+
+    /**
+     * Returns the mean number of key comparisons per lookup. For a healthy tree of n values it stays close to
+     * log2(n); a value growing towards n means the tree is degenerating into a list.
+     * @return              the average comparisons per lookup; 0 if there were no lookups
+     */
+    public double getAverageComparisons() {
+        long lookupCount = lookups.sum();
+        return (lookupCount == 0) ? 0 : (double) comparisons.sum() / lookupCount;
+    }
+
+    /**
+     * Returns the number of lookups by the depth at which they ended. The element at index d is the number of
+     * lookups that made d comparisons; the last element also counts all deeper lookups.
+     * @return              a copy of the histogram with <code>MAX_TRACKED_DEPTH + 1</code> elements
+     */
+    public long[] getDepthHistogram() {
+        long[] histogram = new long[depthHistogram.length()];
+        for (int i = 0; i < histogram.length; i++) {
+            histogram[i] = depthHistogram.get(i);
+        }
+        return histogram;
+    }
+
+    /**
+     * @return              the number of times the tree or its subtree was rebuilt by <code>redrawBalanced</code>
+     */
+    public long getRebuildCount() {
+        return rebuilds.sum();
+    }
+
+    /**
+     * @return              the number of nodes relinked by all rebuilds
+     */
+    public long getRebuiltNodeCount() {
+        return rebuiltNodes.sum();
+    }
+
+    /**
+     * @return              the total time taken by all rebuilds in nanoseconds
+     */
+    public long getRebuildNanos() {
+        return rebuildNanos.sum();
+    }
+
+    /**
+     * Sets all counters back to zero
+     */
+    public void reset() {
+        for (LongAdder counter : new LongAdder[] {adds, duplicates, removes, missedRemoves, lookups, misses,
+                comparisons, rebuilds, rebuiltNodes, rebuildNanos}) {
+            counter.reset();
+        }
+        for (int i = 0; i < depthHistogram.length(); i++) {
+            depthHistogram.set(i, 0);
+        }
+    }
+}
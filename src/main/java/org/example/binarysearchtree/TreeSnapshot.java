@@ -0,0 +1,542 @@
+package org.example.binarysearchtree;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+
+/**
+ * <code>TreeSnapshot</code> reads and writes the snapshot files of trees. A snapshot is a 16-byte header followed
+ * by all keys of the tree in ascending order, in little-endian byte order. The header holds the magic number
+ * <code>BST1</code>, the format version, the kind of keys (objects, int, long or double) and the number of keys.
+ * Since the keys are sorted, a tree is loaded in O(n) time by linking the nodes into a tree of minimal height, with
+ * no comparisons and no rotations. Snapshots of primitive keys can also be used without loading them at all:
+ * <code>mapInts</code>, <code>mapLongs</code> and <code>mapDoubles</code> map the file and search the keys in place.
+ *
+ * @author dawidK5
+ * @version %I%, %G%
+ * @see BinarySearchTree#writeSnapshot(Path, KeyCodec)
+ */
+public final class TreeSnapshot {
+    static final int MAGIC = 0x31545342; // "BST1" in little-endian byte order
+    static final byte VERSION = 1; // version of the snapshot format
+    static final int HEADER_SIZE = 16; // keeps the keys after the header aligned to 8 bytes
+    static final byte OBJECT_KEYS = 0; // keys written by a KeyCodec
+    static final byte INT_KEYS = 1; // keys written as 4-byte ints
+    static final byte LONG_KEYS = 2; // keys written as 8-byte longs
+    static final byte DOUBLE_KEYS = 3; // keys written as 8-byte doubles
+    private static final int WRITE_BUFFER_SIZE = 1 << 20; // bytes gathered before each write to the channel
+
+    /**
+     * Class constructor, not used as this class only has static methods
+     */
+    private TreeSnapshot() {
+    }
+
+    /**
+     * IntKeys is a nested class of <code>TreeSnapshot</code> giving read-only access to the keys of an int snapshot
+     * directly in the mapped file. Nothing is copied to the heap: lookups are binary searches of the mapping.
+     */
+    public static final class IntKeys {
+        private final IntBuffer keys;
+
+        /**
+         * Class constructor
+         * @param keys      the view of the keys in the mapped file
+         */
+        private IntKeys(IntBuffer keys) {
+            this.keys = keys;
+        }
+
+        /**
+         * @return          the number of keys in the snapshot
+         */
+        public int size() {
+            return keys.limit();
+        }
+
+        /**
+         * @param index     the 0-based position of the key in ascending order
+         * @return          the key at the position given
+         */
+        public int get(int index) {
+            return keys.get(index);
+        }
+
+        /**
+         * @param key       the value to be checked for
+         * @return          <code>true</code> if the snapshot contains key; <code>false</code> otherwise
+         */
+        public boolean contains(int key) {
+            int index = rank(key);
+            return index < size() && keys.get(index) == key;
+        }
+
+        /**
+         * @param key       the value to be located
+         * @return          the number of keys smaller than key
+         */
+        public int rank(int key) {
+            int low = 0;
+            int high = size();
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (keys.get(mid) < key) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        /**
+         * @return          a copy of all keys in ascending order
+         */
+        public int[] toArray() {
+            int[] copy = new int[size()];
+            keys.duplicate().get(copy);
+            return copy;
+        }
+    }
+
+    /**
+     * LongKeys is a nested class of <code>TreeSnapshot</code> giving read-only access to the keys of a long
+     * snapshot directly in the mapped file
+     */
+    public static final class LongKeys {
+        private final LongBuffer keys;
+
+        /**
+         * Class constructor
+         * @param keys      the view of the keys in the mapped file
+         */
+        private LongKeys(LongBuffer keys) {
+            this.keys = keys;
+        }
+
+        /**
+         * @return          the number of keys in the snapshot
+         */
+        public int size() {
+            return keys.limit();
+        }
+
+        /**
+         * @param index     the 0-based position of the key in ascending order
+         * @return          the key at the position given
+         */
+        public long get(int index) {
+            return keys.get(index);
+        }
+
+        /**
+         * @param key       the value to be checked for
+         * @return          <code>true</code> if the snapshot contains key; <code>false</code> otherwise
+         */
+        public boolean contains(long key) {
+            int index = rank(key);
+            return index < size() && keys.get(index) == key;
+        }
+
+        /**
+         * @param key       the value to be located
+         * @return          the number of keys smaller than key
+         */
+        public int rank(long key) {
+            int low = 0;
+            int high = size();
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (keys.get(mid) < key) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        /**
+         * @return          a copy of all keys in ascending order
+         */
+        public long[] toArray() {
+            long[] copy = new long[size()];
+            keys.duplicate().get(copy);
+            return copy;
+        }
+    }
+
+    /**
+     * DoubleKeys is a nested class of <code>TreeSnapshot</code> giving read-only access to the keys of a double
+     * snapshot directly in the mapped file. Keys are ordered as by <code>Double.compare</code>.
+     */
+    public static final class DoubleKeys {
+        private final DoubleBuffer keys;
+
+        /**
+         * Class constructor
+         * @param keys      the view of the keys in the mapped file
+         */
+        private DoubleKeys(DoubleBuffer keys) {
+            this.keys = keys;
+        }
+
+        /**
+         * @return          the number of keys in the snapshot
+         */
+        public int size() {
+            return keys.limit();
+        }
+
+        /**
+         * @param index     the 0-based position of the key in ascending order
+         * @return          the key at the position given
+         */
+        public double get(int index) {
+            return keys.get(index);
+        }
+
+        /**
+         * @param key       the value to be checked for
+         * @return          <code>true</code> if the snapshot contains key; <code>false</code> otherwise
+         */
+        public boolean contains(double key) {
+            int index = rank(key);
+            return index < size() && Double.compare(keys.get(index), key) == 0;
+        }
+
+        /**
+         * @param key       the value to be located
+         * @return          the number of keys smaller than key
+         */
+        public int rank(double key) {
+            int low = 0;
+            int high = size();
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (Double.compare(keys.get(mid), key) < 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        /**
+         * @return          a copy of all keys in ascending order
+         */
+        public double[] toArray() {
+            double[] copy = new double[size()];
+            keys.duplicate().get(copy);
+            return copy;
+        }
+    }
+
+    /**
+     * Maps an int snapshot into memory without copying its keys
+     * @param file          the snapshot written by <code>IntBinarySearchTree.writeSnapshot</code>
+     * @return              the read-only view of the keys
+     * @throws IOException  if the file cannot be read or it is not an int snapshot
+     */
+    public static IntKeys mapInts(Path file) throws IOException {
+        ByteBuffer data = mapPrimitives(file, INT_KEYS, Integer.BYTES);
+        return new IntKeys(data.asIntBuffer());
+    }
+
+    /**
+     * Maps a long snapshot into memory without copying its keys
+     * @param file          the snapshot written by <code>LongBinarySearchTree.writeSnapshot</code>
+     * @return              the read-only view of the keys
+     * @throws IOException  if the file cannot be read or it is not a long snapshot
+     */
+    public static LongKeys mapLongs(Path file) throws IOException {
+        ByteBuffer data = mapPrimitives(file, LONG_KEYS, Long.BYTES);
+        return new LongKeys(data.asLongBuffer());
+    }
+
+    /**
+     * Maps a double snapshot into memory without copying its keys
+     * @param file          the snapshot written by <code>DoubleBinarySearchTree.writeSnapshot</code>
+     * @return              the read-only view of the keys
+     * @throws IOException  if the file cannot be read or it is not a double snapshot
+     */
+    public static DoubleKeys mapDoubles(Path file) throws IOException {
+        ByteBuffer data = mapPrimitives(file, DOUBLE_KEYS, Double.BYTES);
+        return new DoubleKeys(data.asDoubleBuffer());
+    }
+
+    /**
+     * Writes keys encoded by a codec to a new snapshot file, replacing any existing file
+     * @param file          the path of the snapshot
+     * @param count         the number of keys
+     * @param keys          the iterator of the keys in ascending order
+     * @param codec         the codec writing each key
+     * @throws IOException  if the file cannot be written
+     */
+    static <T> void writeKeys(Path file, int count, Iterator<T> keys, KeyCodec<T> codec) throws IOException {
+        try (FileChannel channel = openForWriting(file)) {
+            ByteBuffer buffer = newWriteBuffer(OBJECT_KEYS, count);
+            while (keys.hasNext()) {
+                T key = keys.next();
+                int keySize = codec.encodedSize(key);
+                if (buffer.remaining() < keySize) {
+                    drain(channel, buffer);
+                    if (buffer.capacity() < keySize) {
+                        buffer = ByteBuffer.allocateDirect(keySize).order(ByteOrder.LITTLE_ENDIAN);
+                    }
+                }
+                codec.encode(key, buffer);
+            }
+            drain(channel, buffer);
+        }
+    }
+
+    /**
+     * Writes int keys to a new snapshot file, replacing any existing file
+     * @param file          the path of the snapshot
+     * @param keys          the keys in ascending order
+     * @throws IOException  if the file cannot be written
+     */
+    static void writeInts(Path file, int[] keys) throws IOException {
+        try (FileChannel channel = openForWriting(file)) {
+            ByteBuffer buffer = newWriteBuffer(INT_KEYS, keys.length);
+            for (int key : keys) {
+                if (buffer.remaining() < Integer.BYTES) {
+                    drain(channel, buffer);
+                }
+                buffer.putInt(key);
+            }
+            drain(channel, buffer);
+        }
+    }
+
+    /**
+     * Writes long keys to a new snapshot file, replacing any existing file
+     * @param file          the path of the snapshot
+     * @param keys          the keys in ascending order
+     * @throws IOException  if the file cannot be written
+     */
+    static void writeLongs(Path file, long[] keys) throws IOException {
+        try (FileChannel channel = openForWriting(file)) {
+            ByteBuffer buffer = newWriteBuffer(LONG_KEYS, keys.length);
+            for (long key : keys) {
+                if (buffer.remaining() < Long.BYTES) {
+                    drain(channel, buffer);
+                }
+                buffer.putLong(key);
+            }
+            drain(channel, buffer);
+        }
+    }
+
+    /**
+     * Writes double keys to a new snapshot file, replacing any existing file
+     * @param file          the path of the snapshot
+     * @param keys          the keys in ascending order
+     * @throws IOException  if the file cannot be written
+     */
+    static void writeDoubles(Path file, double[] keys) throws IOException {
+        try (FileChannel channel = openForWriting(file)) {
+            ByteBuffer buffer = newWriteBuffer(DOUBLE_KEYS, keys.length);
+            for (double key : keys) {
+                if (buffer.remaining() < Double.BYTES) {
+                    drain(channel, buffer);
+                }
+                buffer.putDouble(key);
+            }
+            drain(channel, buffer);
+        }
+    }
+
+    /**
+     * Reads the keys of a snapshot written with a codec. The file is mapped into memory a window at a time, so
+     * snapshots larger than 2 GB can be read as well; a key cut by the end of a window is read again from the
+     * next window.
+     * @param file          the path of the snapshot
+     * @param codec         the codec reading each key
+     * @return              the array of keys in ascending order
+     * @throws IOException  if the file cannot be read, it is not a snapshot of keys written with a codec, or its
+     *                      keys are not in strictly ascending order
+     */
+    static <T extends Comparable<T>> Object[] readKeys(Path file, KeyCodec<T> codec) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            ByteBuffer window = map(channel, 0, fileSize);
+            Object[] keys = new Object[readHeader(window, OBJECT_KEYS)];
+            long windowStart = 0;
+            T previous = null;
+            for (int i = 0; i < keys.length; i++) {
+                int keyStart = window.position();
+                T key;
+                try {
+                    key = codec.decode(window);
+                } catch (BufferUnderflowException e) {
+                    if (windowStart + window.limit() >= fileSize) {
+                        throw new IOException("snapshot ends after " + i + " of " + keys.length + " keys", e);
+                    }
+                    windowStart += keyStart;
+                    window = map(channel, windowStart, fileSize);
+                    key = codec.decode(window);
+                }
+                if (previous != null && previous.compareTo(key) >= 0) {
+                    throw new IOException("snapshot keys are not in ascending order at key " + i);
+                }
+                keys[i] = previous = key;
+            }
+            return keys;
+        }
+    }
+
+    /**
+     * Reads the keys of an int snapshot
+     * @param file          the path of the snapshot
+     * @return              the array of keys in ascending order
+     * @throws IOException  if the file cannot be read or it is not an int snapshot in ascending order
+     */
+    static int[] readInts(Path file) throws IOException {
+        int[] keys = mapInts(file).toArray();
+        for (int i = 1; i < keys.length; i++) {
+            if (keys[i-1] >= keys[i]) {
+                throw new IOException("snapshot keys are not in ascending order at key " + i);
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * Reads the keys of a long snapshot
+     * @param file          the path of the snapshot
+     * @return              the array of keys in ascending order
+     * @throws IOException  if the file cannot be read or it is not a long snapshot in ascending order
+     */
+    static long[] readLongs(Path file) throws IOException {
+        long[] keys = mapLongs(file).toArray();
+        for (int i = 1; i < keys.length; i++) {
+            if (keys[i-1] >= keys[i]) {
+                throw new IOException("snapshot keys are not in ascending order at key " + i);
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * Reads the keys of a double snapshot
+     * @param file          the path of the snapshot
+     * @return              the array of keys in ascending order
+     * @throws IOException  if the file cannot be read or it is not a double snapshot in ascending order
+     */
+    static double[] readDoubles(Path file) throws IOException {
+        double[] keys = mapDoubles(file).toArray();
+        for (int i = 1; i < keys.length; i++) {
+            if (Double.compare(keys[i-1], keys[i]) >= 0) {
+                throw new IOException("snapshot keys are not in ascending order at key " + i);
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * Helper method which maps a snapshot of fixed-size primitive keys and checks its header and length
+     * @param file          the path of the snapshot
+     * @param kind          the kind of keys expected
+     * @param keySize       the number of bytes of each key
+     * @return              the little-endian buffer of the keys, after the header
+     * @throws IOException  if the file cannot be read, is larger than a single mapping or has a wrong header
+     */
+    private static ByteBuffer mapPrimitives(Path file, byte kind, int keySize) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            if (fileSize > Integer.MAX_VALUE) {
+                throw new IOException("snapshot of " + fileSize + " bytes is too large to be mapped at once");
+            }
+            ByteBuffer buffer = map(channel, 0, fileSize);
+            int count = readHeader(buffer, kind);
+            if (fileSize != HEADER_SIZE + (long) count * keySize) {
+                throw new IOException("snapshot of " + count + " keys has " + fileSize + " bytes");
+            }
+            return buffer.slice().order(ByteOrder.LITTLE_ENDIAN); // the mapping stays valid after closing
+        }
+    }
+
+    /**
+     * Helper method which maps a read-only window of a file, as large as a single mapping can be
+     * @param channel       the channel of the file
+     * @param start         the offset of the window in the file
+     * @param fileSize      the size of the file
+     * @return              the little-endian buffer of the window
+     * @throws IOException  if the file cannot be mapped
+     */
+    private static ByteBuffer map(FileChannel channel, long start, long fileSize) throws IOException {
+        long length = Math.min(fileSize - start, Integer.MAX_VALUE);
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+        return buffer.order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Helper method which checks the header at the position of the buffer and moves past it
+     * @param buffer        the little-endian buffer of the snapshot
+     * @param kind          the kind of keys expected
+     * @return              the number of keys in the snapshot
+     * @throws IOException  if the header is missing, of another version or for another kind of keys
+     */
+    private static int readHeader(ByteBuffer buffer, byte kind) throws IOException {
+        if (buffer.remaining() < HEADER_SIZE || buffer.getInt() != MAGIC) {
+            throw new IOException("not a tree snapshot");
+        }
+        byte version = buffer.get();
+        byte fileKind = buffer.get();
+        buffer.getShort(); // reserved
+        int count = buffer.getInt();
+        buffer.getInt(); // reserved
+        if (version != VERSION || fileKind != kind || count < 0) {
+            throw new IOException("snapshot of version " + version + " and kind " + fileKind + " cannot be read as "
+                    + "version " + VERSION + " and kind " + kind);
+        }
+        return count;
+    }
+
+    /**
+     * @param file          the path of the snapshot
+     * @return              the channel of the file, emptied if it existed
+     * @throws IOException  if the file cannot be opened
+     */
+    private static FileChannel openForWriting(Path file) throws IOException {
+        return FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+    }
+
+    /**
+     * @param kind          the kind of keys written
+     * @param count         the number of keys written
+     * @return              the direct little-endian buffer holding the header
+     */
+    private static ByteBuffer newWriteBuffer(byte kind, int count) {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(MAGIC).put(VERSION).put(kind).putShort((short) 0).putInt(count).putInt(0);
+        return buffer;
+    }
+
+    /**
+     * Writes the bytes gathered in the buffer to the channel and empties the buffer
+     * @param channel       the channel of the snapshot
+     * @param buffer        the buffer filled since it was last drained
+     * @throws IOException  if the bytes cannot be written
+     */
+    private static void drain(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
@@ -0,0 +1,92 @@
+package org.example.binarysearchtree;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+
+/**
+ * <code>ArenaBinarySearchTreeTest</code> is a JUnit test class for the arena-backed trees: ArenaBinarySearchTree and
+ * LongArenaBinarySearchTree.
+ * @author  dawidK5
+ * @version %I%, %G%
+ */
+public class ArenaBinarySearchTreeTest {
+
+    String[] words = {"natural", "language", "is", "wonderful", "for", "the", "purposes", "it", "was", "created"};
+    ArenaBinarySearchTree<String> arenaTree;
+    LongArenaBinarySearchTree longTree, offHeapTree;
+
+    /**
+     * Makes a tree of words and two trees of sorted long values, one of which stores its keys off-heap
+     */
+    @BeforeEach
+    void setUp() {
+        arenaTree = new ArenaBinarySearchTree<String>(words);
+        longTree = new LongArenaBinarySearchTree();
+        offHeapTree = new LongArenaBinarySearchTree(4, true);
+        for (long key = 1; key <= 1000; key++) {
+            longTree.add(key);
+            offHeapTree.add(key);
+        }
+    }
+
+    @Test
+        // Ensures values are stored once, kept in order and counted
+    void testAddAndInOrder() {
+        assertFalse(arenaTree.add("is"));
+        assertEquals(10, arenaTree.size());
+        String[] sorted = words.clone();
+        Arrays.sort(sorted);
+        assertEquals(Arrays.asList(sorted), arenaTree.asListInOrder());
+        assertTrue(offHeapTree.isOffHeap());
+        assertArrayEquals(longTree.asArrayInOrder(), offHeapTree.asArrayInOrder());
+    }
+
+    @Test
+        // Asserts values can be found and removed
+    void testContainsAndRemove() {
+        assertTrue(arenaTree.contains("wonderful"));
+        assertTrue(arenaTree.remove("natural"));
+        assertFalse(arenaTree.contains("natural"));
+        assertFalse(arenaTree.remove("natural"));
+        assertTrue(offHeapTree.remove(500L));
+        assertEquals(-1, offHeapTree.getNodeDepth(500L));
+        assertEquals(999, offHeapTree.size());
+    }
+
+    @Test
+        // Ensures pre-order and post-order start and end with the root
+    void testTraversalOrders() {
+        String rootKey = arenaTree.asListPreOrder().get(0);
+        assertEquals(1, arenaTree.getNodeDepth(rootKey));
+        assertEquals(rootKey, arenaTree.asListPostOrder().get(words.length-1));
+        long[] preOrder = longTree.asArrayPreOrder();
+        long[] postOrder = longTree.asArrayPostOrder();
+        assertEquals(preOrder[0], postOrder[postOrder.length-1]);
+    }
+
+    @Test
+        // Ensures sorted input keeps the arena tree balanced
+    void testSortedInputStaysBalanced() {
+        assertEquals(10, longTree.getHeight());
+        assertEquals(1, longTree.getNodeDepth(longTree.asArrayPreOrder()[0]));
+    }
+
+    @Test
+        // Asserts slots of removed values are reused instead of growing the arena
+    void testFreeSlotsAreReused() {
+        int usedSlots = longTree.usedSlots();
+        int capacity = longTree.capacity();
+        for (long key = 1; key <= 1000; key += 2) {
+            longTree.remove(key);
+        }
+        for (long key = 2001; key <= 2500; key++) {
+            longTree.add(key);
+        }
+        assertEquals(1000, longTree.size());
+        assertEquals(usedSlots, longTree.usedSlots());
+        assertEquals(capacity, longTree.capacity());
+    }
+}
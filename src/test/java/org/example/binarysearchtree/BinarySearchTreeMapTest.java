@@ -0,0 +1,110 @@
+package org.example.binarysearchtree;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+/**
+ * <code>BinarySearchTreeMapTest</code> is a JUnit test class for BinarySearchTreeMap, comparing it with a
+ * <code>TreeMap</code> in every balance mode.
+ * @author  dawidK5
+ * @version %I%, %G%
+ */
+public class BinarySearchTreeMapTest {
+
+    @Test
+        // Compares random puts, merges and removes with a TreeMap, including removes of nodes with two children
+    void testMatchesTreeMap() {
+        for (BalanceMode mode : BalanceMode.values()) {
+            BinarySearchTreeMap<Integer, String> map = new BinarySearchTreeMap<Integer, String>(mode, true);
+            TreeMap<Integer, String> expected = new TreeMap<Integer, String>();
+            Random random = new Random(20);
+            for (int i = 0; i < 5000; i++) {
+                int key = random.nextInt(500);
+                switch (random.nextInt(4)) {
+                    case 0:
+                        assertEquals(expected.remove(key), map.removeKey(key), mode.name());
+                        break;
+                    case 1:
+                        assertEquals(expected.merge(key, "+", String::concat), map.merge(key, "+", String::concat));
+                        break;
+                    default:
+                        assertEquals(expected.put(key, "v" + i), map.put(key, "v" + i), mode.name());
+                }
+                assertEquals(expected.get(key), map.get(key));
+            }
+            assertEquals(expected.size(), map.size());
+            assertEquals(new ArrayList<Integer>(expected.keySet()), map.asListInOrder());
+            assertEquals(new ArrayList<String>(expected.values()), map.valuesInOrder());
+            assertEquals(new ArrayList<Map.Entry<Integer, String>>(expected.entrySet()), map.entriesInOrder());
+            assertNull(map.removeKey(-1));
+            assertEquals("none", map.getOrDefault(-1, "none"));
+        }
+    }
+
+    @Test
+        // Checks computeIfAbsent, merge removing a key, plain adds and that split carries the values
+    void testComputeMergeAndSplit() {
+        BinarySearchTreeMap<String, Integer> map = new BinarySearchTreeMap<String, Integer>(BalanceMode.AVL);
+        for (String word : "the cat and the hat and the bat".split(" ")) {
+            map.merge(word, 1, Integer::sum);
+        }
+        assertEquals(3, map.get("the"));
+        assertEquals(2, map.get("and"));
+        assertEquals(3, map.computeIfAbsent("the", String::length));
+        assertEquals(3, map.computeIfAbsent("rat", String::length));
+        assertNull(map.computeIfAbsent("dog", word -> null));
+        assertFalse(map.containsKey("dog"));
+        assertNull(map.merge("and", 1, (a, b) -> null));
+        assertFalse(map.containsKey("and"));
+        assertTrue(map.add("cow"));
+        assertNull(map.get("cow"));
+        assertEquals(7, map.computeIfAbsent("cow", word -> 7));
+        assertEquals(map.getNodeDepth("the"), map.getNodeDepth(map.getNode("the")));
+        assertEquals(1, map.getValue(map.getNode("cat")));
+
+        BinarySearchTreeMap<String, Integer> upper = map.split("d");
+        assertEquals(new ArrayList<String>(Arrays.asList("bat", "cat", "cow")), map.asListInOrder());
+        assertEquals(3, upper.get("the"));
+        assertEquals(3, upper.get("rat"));
+        assertEquals(BalanceMode.AVL, upper.getBalanceMode());
+        assertTrue(map.remove("cow"));
+        assertNull(map.get("cow"));
+    }
+
+    @Test
+        // Checks nodes of plain trees joined or grafted into a map are copied, so that they can hold values
+    void testJoinAndGraftPlainTrees() {
+        BinarySearchTreeMap<Integer, String> map = new BinarySearchTreeMap<Integer, String>();
+        map.put(1, "one");
+        BinarySearchTree<Integer> plain = new BinarySearchTree<Integer>();
+        plain.addAll(Arrays.asList(5, 4, 6));
+        map.join(plain);
+        assertTrue(plain.isEmpty());
+        assertNull(map.put(5, "five"));
+        assertEquals("five", map.get(5));
+        assertEquals("one", map.get(1));
+
+        BinarySearchTree<Integer> other = new BinarySearchTree<Integer>(new Integer[] {3, 2});
+        assertEquals(3, map.addNode(other.getRoot()));
+        assertNull(map.put(2, "two"));
+        assertEquals("two", map.get(2));
+        BinarySearchTreeMap<Integer, String> otherMap = new BinarySearchTreeMap<Integer, String>();
+        otherMap.put(8, "eight");
+        otherMap.put(7, "seven");
+        assertEquals(8, map.addNode(otherMap.getRoot()));
+        assertEquals("seven", map.get(7));
+        assertEquals(new ArrayList<Integer>(Arrays.asList(1, 2, 3, 4, 5, 6, 7, 8)), map.asListInOrder());
+
+        BinarySearchTree<Integer> lower = new BinarySearchTree<Integer>(BalanceMode.AVL);
+        lower.add(0);
+        lower.join(map);
+        assertEquals(9, lower.size());
+        assertTrue(map.isEmpty());
+    }
+}
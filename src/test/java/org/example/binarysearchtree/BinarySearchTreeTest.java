@@ -3,9 +3,21 @@ package org.example.binarysearchtree;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.TreeSet;
 
 /**
  * <code>BinarySearchTreeTest</code> is a JUnit test class for BinarySearchTree (BST) and its subclass NodeObj.
@@ -97,6 +109,29 @@ public class BinarySearchTreeTest {
         assertEquals(6, bst1.getHeight());
     }
 
+    @Test
+        // Ensures a subtree can be rebalanced in place while the rest of the tree stays as it was
+    void testRedrawBalancedSubtree() {
+        BinarySearchTree<Integer> tree = new BinarySearchTree<Integer>(BalanceMode.NONE, true);
+        tree.add(5000);
+        tree.add(6000);
+        for (int i = 0; i < 1023; i++) {
+            tree.add(i); // a chain of right children below the root
+        }
+        BinarySearchTree<Integer>.NodeObj chainTop = tree.getRoot().left;
+        assertTrue(tree.redrawBalanced(chainTop));
+        assertEquals(5000, tree.getRoot().key);
+        assertEquals(6000, tree.getRoot().right.key);
+        assertEquals(11, tree.getHeight());
+        assertEquals(1023, tree.getRoot().left.getSubtreeSize());
+        assertEquals(511, tree.getRoot().left.key);
+        assertEquals(1000, tree.select(1000));
+        assertFalse(tree.redrawBalanced(new BinarySearchTree<Integer>(511).getRoot())); // same key, other tree
+        tree.redrawBalanced();
+        assertEquals(11, tree.getHeight());
+        assertEquals(1025, tree.asListInOrder().size());
+    }
+
     @Test
         // Ensures only the unique values get added successfully to BST
     void testAdd() {
@@ -200,4 +235,676 @@ public class BinarySearchTreeTest {
         assertNotNull(bst1.toString());
         assertNotNull(bst2.toString());
     }
+
+    @Test
+        // Asserts the number of values follows adding, removing and merging nodes
+    void testSize() {
+        assertEquals(44, bst1.size());
+        assertEquals(0, bst2.size());
+        bst1.remove(key);
+        bst1.add(absentKey);
+        bst1.add(absentKey);
+        assertEquals(44, bst1.size());
+        bst2.add("zebra");
+        bst2.add("yak");
+        bst2.add("natural");
+        bst1.addNode(bst2.getNode("zebra"));
+        assertEquals(46, bst1.size());
+        assertEquals(bst1.size(), bst1.asListInOrder().size());
+    }
+
+    @Test
+        // Ensures a degenerate tree built from sorted input is handled without overflowing the call stack
+    void testDegenerateTree() {
+        int depth = 20_000;
+        BinarySearchTree<Integer> ascending = new BinarySearchTree<Integer>();
+        BinarySearchTree<Integer> descending = new BinarySearchTree<Integer>();
+        for (int value = 0; value < depth; value++) {
+            ascending.add(value);
+            descending.add(depth - value);
+        }
+        assertEquals(depth, ascending.getHeight());
+        assertEquals(depth, descending.getNodeDepth(1));
+        assertEquals(depth, descending.asListInOrder().size());
+        assertEquals(Integer.valueOf(1), descending.asListInOrder().get(0));
+        assertEquals(Integer.valueOf(depth - 1), ascending.asListPreOrder().get(depth - 1));
+        assertEquals(Integer.valueOf(0), ascending.asListPostOrder().get(depth - 1));
+        assertTrue(ascending.remove(depth / 2));
+        assertFalse(ascending.contains(depth / 2));
+        assertNotNull(descending.toString());
+    }
+
+    @Test
+        // Ensures sorted input keeps AVL tree short and ordered while values are added and removed
+    void testBalanceModeAvl() {
+        BinarySearchTree<Integer> avlTree = new BinarySearchTree<Integer>(BalanceMode.AVL);
+        checkBalancedMode(avlTree);
+    }
+
+    @Test
+        // Ensures sorted input keeps red-black tree short and ordered while values are added and removed
+    void testBalanceModeRedBlack() {
+        BinarySearchTree<Integer> redBlackTree = new BinarySearchTree<Integer>(BalanceMode.RED_BLACK);
+        checkBalancedMode(redBlackTree);
+        assertFalse(redBlackTree.getRoot().red);
+        assertTrue(recurBlackHeight(redBlackTree.getRoot()) > 0);
+    }
+
+    @Test
+        // Ensures the lazy iterators visit the nodes in the same order as the exported lists
+    void testIterators() {
+        List<String> visited = new ArrayList<String>();
+        bst1.preOrderIterator().forEachRemaining(visited::add);
+        assertEquals(bst1.asListPreOrder(), visited);
+        visited.clear();
+        for (String word : bst1) {
+            visited.add(word);
+        }
+        assertEquals(bst1.asListInOrder(), visited);
+        visited.clear();
+        bst1.postOrderIterator().forEachRemaining(visited::add);
+        assertEquals(bst1.asListPostOrder(), visited);
+        assertFalse(bst2.iterator().hasNext());
+        assertFalse(bst2.postOrderIterator().hasNext());
+        assertThrows(java.util.NoSuchElementException.class, () -> bst2.preOrderIterator().next());
+    }
+
+    @Test
+        // Ensures sequential and parallel streams yield all values in ascending order
+    void testStreams() {
+        BinarySearchTree<Integer> tree = new BinarySearchTree<Integer>(BalanceMode.RED_BLACK);
+        for (int i = 0; i < 10_000; i++) {
+            tree.add((i * 7919) % 10_000);
+        }
+        assertEquals(10_000, tree.stream().count());
+        assertEquals(bst1.asListInOrder(), Arrays.asList(bst1.stream().toArray()));
+        List<Integer> collected = tree.parallelStream().map(i -> i + 1).collect(java.util.stream.Collectors.toList());
+        assertEquals(10_000, collected.size());
+        for (int i = 0; i < collected.size(); i++) {
+            assertEquals(i + 1, collected.get(i));
+        }
+        assertEquals(0, bst2.stream().count());
+    }
+
+    @Test
+        // Asserts rank, select and countInRange agree with the in-order list in every balance mode
+    void testOrderStatistics() {
+        for (BalanceMode mode : BalanceMode.values()) {
+            BinarySearchTree<Integer> tree = new BinarySearchTree<Integer>(mode, true);
+            for (int i = 0; i < 1000; i++) {
+                tree.add((i * 37) % 1000 * 2); // even values from 0 to 1998
+            }
+            for (int i = 0; i < 1000; i += 3) {
+                tree.remove(i * 2);
+            }
+            List<Integer> inOrder = tree.asListInOrder();
+            for (int i = 0; i < inOrder.size(); i++) {
+                assertEquals(inOrder.get(i), tree.select(i));
+                assertEquals(i, tree.rank(inOrder.get(i)));
+            }
+            assertEquals(0, tree.rank(-5));
+            assertEquals(inOrder.size(), tree.rank(5000));
+            assertEquals(3, tree.countInRange(1, 9)); // 2, 4 and 8, as 6 was removed
+            assertEquals(0, tree.countInRange(9, 1));
+            assertThrows(IndexOutOfBoundsException.class, () -> tree.select(inOrder.size()));
+        }
+        assertThrows(IllegalStateException.class, () -> bst1.rank("love"));
+    }
+
+    @Test
+        // Ensures the metrics listener counts operations, comparisons, lookup depths and rebuilds
+    void testTreeMetrics() {
+        TreeMetrics<String> metrics = new TreeMetrics<String>();
+        bst2.setListener(metrics);
+        assertSame(metrics, bst2.getListener());
+        bst2.add("m");
+        bst2.add("f");
+        bst2.add("t");
+        bst2.add("f");
+        assertEquals(3, metrics.getAddCount());
+        assertEquals(1, metrics.getDuplicateCount());
+        assertTrue(bst2.contains("t"));
+        assertFalse(bst2.contains("a"));
+        assertEquals(2, metrics.getLookupCount());
+        assertEquals(1, metrics.getMissCount());
+        assertEquals(2.0, metrics.getAverageComparisons()); // "m" and then "t" or "f"
+        assertEquals(2, metrics.getDepthHistogram()[2]);
+        assertTrue(bst2.remove("f"));
+        assertFalse(bst2.remove("f"));
+        assertEquals(1, metrics.getRemoveCount());
+        assertEquals(1, metrics.getMissedRemoveCount());
+        bst2.redrawBalanced();
+        assertEquals(1, metrics.getRebuildCount());
+        assertEquals(2, metrics.getRebuiltNodeCount());
+        metrics.reset();
+        assertEquals(0, metrics.getLookupCount());
+        assertEquals(0, metrics.getDepthHistogram()[2]);
+    }
+
+    @Test
+        // Checks batch adds and removes keep the values of a TreeSet, give a minimal height and leave every mode
+        // ready for further single adds and removes
+    void testBatchAddAndRemove() {
+        for (BalanceMode mode : BalanceMode.values()) {
+            BinarySearchTree<Integer> tree = new BinarySearchTree<Integer>(mode, true);
+            TreeSet<Integer> expected = new TreeSet<Integer>();
+            Random random = new Random(7);
+            for (int i = 0; i < 300; i++) {
+                int value = random.nextInt(5000);
+                tree.add(value);
+                expected.add(value);
+            }
+            List<Integer> batch = new ArrayList<Integer>();
+            for (int i = 0; i < 2000; i++) {
+                batch.add(random.nextInt(5000));
+            }
+            int sizeBefore = expected.size();
+            expected.addAll(batch);
+            assertEquals(expected.size() - sizeBefore, tree.addAll(batch));
+            assertEquals(0, tree.addAll(batch));
+            assertEquals(new ArrayList<Integer>(expected), tree.asListInOrder());
+            assertEquals(32 - Integer.numberOfLeadingZeros(expected.size()), tree.getHeight());
+            assertEquals(expected.size(), tree.getRoot().getSubtreeSize());
+            assertEquals(expected.first(), tree.select(0));
+            List<Integer> doomed = new ArrayList<Integer>(batch.subList(0, 1000));
+            doomed.add(-1);
+            sizeBefore = expected.size();
+            expected.removeAll(doomed);
+            assertEquals(sizeBefore - expected.size(), tree.removeAll(doomed));
+            assertEquals(new ArrayList<Integer>(expected), tree.asListInOrder());
+            assertEquals(expected.size(), tree.size());
+            assertEquals(expected.size() / 2, tree.rank(tree.select(expected.size() / 2)));
+            assertEquals(tree.size(), tree.removeAll(new ArrayList<Integer>(expected)));
+            assertTrue(tree.isEmpty());
+            if (mode == BalanceMode.AVL || mode == BalanceMode.RED_BLACK) {
+                checkBalancedMode(tree);
+            }
+        }
+        assertEquals(3, bst2.addAll(List.of("a", "b", "c")));
+        assertEquals("b", bst2.getRoot().getKey());
+        assertThrows(NullPointerException.class, () -> bst2.addAll(Arrays.asList("d", null)));
+    }
+
+    @Test
+        // Checks split and join move the nodes between trees and keep both trees ordered and balanced
+    void testSplitAndJoin() {
+        for (BalanceMode mode : BalanceMode.values()) {
+            BinarySearchTree<Integer> tree = new BinarySearchTree<Integer>(mode, true);
+            for (int value = 0; value < 1000; value += 2) {
+                tree.add(value);
+            }
+            BinarySearchTree<Integer> upper = tree.split(301);
+            assertEquals(151, tree.size());
+            assertEquals(349, upper.size());
+            assertEquals(302, upper.select(0));
+            assertEquals(300, tree.select(tree.size() - 1));
+            assertEquals(9, upper.getHeight());
+            assertThrows(IllegalArgumentException.class, () -> upper.join(tree));
+            tree.join(upper);
+            assertTrue(upper.isEmpty());
+            assertEquals(500, tree.size());
+            assertEquals(9, tree.getHeight());
+            assertEquals(250, tree.rank(500));
+            if (mode == BalanceMode.AVL || mode == BalanceMode.RED_BLACK) {
+                for (int value = 1; value < 1000; value += 2) {
+                    assertTrue(tree.add(value));
+                }
+                assertTrue(tree.getHeight() <= 2 * 10);
+            }
+        }
+        assertTrue(bst2.split("a").isEmpty());
+    }
+
+    @Test
+        // Asserts union, intersection and difference match TreeSet results, sequentially and in parallel
+    void testSetAlgebra() {
+        Random random = new Random(11);
+        BinarySearchTree<Integer> first = new BinarySearchTree<Integer>(BalanceMode.RED_BLACK);
+        BinarySearchTree<Integer> second = new BinarySearchTree<Integer>();
+        TreeSet<Integer> firstSet = new TreeSet<Integer>();
+        TreeSet<Integer> secondSet = new TreeSet<Integer>();
+        for (int i = 0; i < 60_000; i++) {
+            int value = random.nextInt(200_000);
+            first.add(value);
+            firstSet.add(value);
+            value = random.nextInt(200_000);
+            second.add(value);
+            secondSet.add(value);
+        }
+        TreeSet<Integer> union = new TreeSet<Integer>(firstSet);
+        union.addAll(secondSet);
+        TreeSet<Integer> intersection = new TreeSet<Integer>(firstSet);
+        intersection.retainAll(secondSet);
+        TreeSet<Integer> difference = new TreeSet<Integer>(firstSet);
+        difference.removeAll(secondSet);
+        for (BinarySearchTree<Integer> result : List.of(first.union(second), first.parallelUnion(second))) {
+            assertEquals(new ArrayList<Integer>(union), result.asListInOrder());
+            assertEquals(BalanceMode.RED_BLACK, result.getBalanceMode());
+            assertFalse(result.getRoot().red);
+            recurBlackHeight(result.getRoot());
+        }
+        assertEquals(new ArrayList<Integer>(intersection), first.intersect(second).asListInOrder());
+        assertEquals(new ArrayList<Integer>(intersection), first.parallelIntersect(second).asListInOrder());
+        assertEquals(new ArrayList<Integer>(difference), first.difference(second).asListInOrder());
+        assertEquals(new ArrayList<Integer>(difference), first.parallelDifference(second).asListInOrder());
+        assertEquals(union.size() - firstSet.size(), second.difference(first).size());
+        assertEquals(new ArrayList<Integer>(firstSet), first.asListInOrder());
+        assertEquals(17, first.parallelUnion(second).getHeight());
+        assertTrue(bst1.intersect(bst2).isEmpty());
+    }
+
+    @Test
+        // Ensures a snapshot loads back into a tree of minimal height with the same values and rejects other files
+    void testSnapshot(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("quote.bst");
+        bst1.writeSnapshot(file, KeyCodec.STRING);
+        BinarySearchTree<String> copy = BinarySearchTree.loadSnapshot(file, KeyCodec.STRING, BalanceMode.RED_BLACK,
+                true);
+        assertEquals(bst1.asListInOrder(), copy.asListInOrder());
+        assertEquals(6, copy.getHeight());
+        assertEquals("the", copy.select(copy.rank("the")));
+        assertTrue(copy.add("zebra"));
+        Path numbersFile = directory.resolve("numbers.bst");
+        new BinarySearchTree<Integer>(new Integer[] {8, 3, 10, 1, 6, 14, 4, 7, 13}).writeSnapshot(numbersFile,
+                KeyCodec.INTEGER);
+        BinarySearchTree<Integer> linked = BinarySearchTree.loadSnapshot(numbersFile, KeyCodec.INTEGER,
+                BalanceMode.AVL, false, true);
+        assertTrue(linked.hasParentLinks());
+        checkParentLinks(linked);
+        bst2.writeSnapshot(file, KeyCodec.STRING);
+        assertTrue(BinarySearchTree.loadSnapshot(file, KeyCodec.STRING, BalanceMode.NONE, false).isEmpty());
+        Files.write(file, new byte[] {1, 2, 3});
+        assertThrows(IOException.class, () -> BinarySearchTree.loadSnapshot(file, KeyCodec.STRING, BalanceMode.NONE,
+                false));
+    }
+
+    @Test
+        // Asserts the parallel export fills a preallocated array and allocates a new one if it is too small
+    void testToArrayInOrder() {
+        BinarySearchTree<Integer> tree = new BinarySearchTree<Integer>(BalanceMode.AVL);
+        for (int i = 4999; i >= 0; i--) {
+            tree.add(i);
+        }
+        Integer[] dest = new Integer[5001];
+        dest[5000] = -1;
+        assertSame(dest, tree.toArrayInOrder(dest));
+        assertNull(dest[5000]);
+        for (int i = 0; i < 5000; i++) {
+            assertEquals(i, dest[i]);
+        }
+        String[] words = bst1.toArrayInOrder(new String[0]);
+        assertEquals(bst1.asListInOrder(), Arrays.asList(words));
+    }
+
+    @Test
+        // Compares the navigable view and its head, tail, sub and descending views with a TreeSet, including
+        // removals through iterators and changes made to the tree behind the view
+    void testNavigableSetView() {
+        for (boolean orderStatistics : new boolean[] {false, true}) {
+            BinarySearchTree<Integer> tree = new BinarySearchTree<Integer>(BalanceMode.RED_BLACK, orderStatistics);
+            NavigableSet<Integer> view = tree.asNavigableSet();
+            TreeSet<Integer> expected = new TreeSet<Integer>();
+            assertThrows(NoSuchElementException.class, view::first);
+            Random random = new Random(21);
+            for (int i = 0; i < 300; i++) {
+                int value = random.nextInt(1000);
+                assertEquals(expected.add(value), (i % 2 == 0) ? tree.add(value) : view.add(value));
+            }
+            assertEquals(expected, view);
+            assertEquals(expected, tree.toTreeSet());
+            for (int i = 0; i < 200; i++) {
+                int a = random.nextInt(1100) - 50;
+                int b = a + random.nextInt(400);
+                boolean aInclusive = random.nextBoolean();
+                boolean bInclusive = random.nextBoolean();
+                checkNavigable(expected, view, a);
+                checkNavigable(expected.subSet(a, aInclusive, b, bInclusive), view.subSet(a, aInclusive, b,
+                        bInclusive), b - 7);
+                checkNavigable(expected.headSet(b, bInclusive), view.headSet(b, bInclusive), a);
+                checkNavigable(expected.tailSet(a, aInclusive).descendingSet(),
+                        view.tailSet(a, aInclusive).descendingSet(), b);
+                checkNavigable(expected.descendingSet().subSet(b, bInclusive, a, aInclusive),
+                        view.descendingSet().subSet(b, bInclusive, a, aInclusive), a + 3);
+            }
+            NavigableSet<Integer> middle = view.subSet(300, true, 600, false);
+            assertThrows(IllegalArgumentException.class, () -> middle.add(600));
+            assertThrows(IllegalArgumentException.class, () -> middle.headSet(700));
+            middle.removeIf(value -> value % 3 == 0);
+            expected.subSet(300, true, 600, false).removeIf(value -> value % 3 == 0);
+            assertEquals(expected, view);
+            for (Iterator<Integer> iterator = view.descendingIterator(); iterator.hasNext(); ) {
+                if (iterator.next() % 2 == 0) {
+                    iterator.remove();
+                }
+            }
+            expected.removeIf(value -> value % 2 == 0);
+            assertEquals(expected, view);
+            tree.add(-1);
+            assertEquals(-1, view.pollFirst());
+            assertEquals(expected.pollLast(), view.pollLast());
+            assertEquals(expected.size(), tree.size());
+        }
+    }
+
+    @Test
+        // Checks scans return the values in range and resume after the last value, and that range removals in
+        // every mode keep the values, sizes and subtree counts of a TreeSet
+    void testScanAndRemoveRange() {
+        for (BalanceMode mode : BalanceMode.values()) {
+            for (boolean orderStatistics : new boolean[] {false, true}) {
+                BinarySearchTree<Integer> tree = new BinarySearchTree<Integer>(mode, orderStatistics);
+                TreeSet<Integer> expected = new TreeSet<Integer>();
+                Random random = new Random(22);
+                for (int i = 0; i < 2000; i++) {
+                    int value = random.nextInt(5000);
+                    tree.add(value);
+                    expected.add(value);
+                }
+                List<Integer> scanned = new ArrayList<Integer>();
+                Iterator<Integer> cursor = tree.scan(1000, 2000);
+                for (int i = 0; i < 10; i++) {
+                    scanned.add(cursor.next());
+                }
+                tree.scan(scanned.get(9), false, 2000, true).forEachRemaining(scanned::add);
+                assertEquals(new ArrayList<Integer>(expected.subSet(1000, true, 2000, true)), scanned);
+                assertFalse(tree.scan(3000, 2000).hasNext());
+
+                int[][] ranges = {{100, 140}, {-10, 20}, {4990, 6000}, {1200, 3800}, {700, 700}, {2000, 1000}};
+                for (int[] range : ranges) {
+                    int before = expected.size();
+                    if (range[0] <= range[1]) {
+                        expected.subSet(range[0], true, range[1], true).clear();
+                    }
+                    assertEquals(before - expected.size(), tree.removeRange(range[0], range[1]));
+                    assertEquals(new ArrayList<Integer>(expected), tree.asListInOrder());
+                    assertEquals(expected.size(), tree.size());
+                    if (orderStatistics) {
+                        assertEquals(expected.headSet(4000).size(), tree.rank(4000));
+                    }
+                }
+                if (mode == BalanceMode.AVL) {
+                    assertTrue(tree.getHeight() <= 1.45 * Math.log(tree.size() + 2) / Math.log(2));
+                }
+                assertTrue(tree.add(1500));
+                assertTrue(tree.remove(1500));
+                assertEquals(expected.size(), tree.removeRange(-1, 5000));
+                assertTrue(tree.isEmpty());
+                assertTrue(tree.add(7));
+            }
+        }
+    }
+
+    @Test
+        // Ensures a splay tree matches a TreeSet, moves the values accessed to the root and keeps hot values shallow,
+        // also when only some lookups splay
+    void testSplayMode() {
+        BinarySearchTree<Integer> tree = new BinarySearchTree<Integer>(BalanceMode.SPLAY, true);
+        TreeSet<Integer> expected = new TreeSet<Integer>();
+        Random random = new Random(23);
+        for (int i = 0; i < 5000; i++) {
+            int value = random.nextInt(2000);
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(value), tree.remove(value));
+            } else {
+                assertEquals(expected.add(value), tree.add(value));
+                assertEquals(value, tree.getRoot().getKey());
+            }
+            assertEquals(expected.contains(value + 1), tree.contains(value + 1));
+        }
+        assertEquals(new ArrayList<Integer>(expected), tree.asListInOrder());
+        assertEquals(expected.size(), tree.getRoot().getSubtreeSize());
+        assertEquals(expected.headSet(1000).size(), tree.rank(1000));
+        int hot = expected.first();
+        assertTrue(tree.contains(hot));
+        assertEquals(1, tree.getNodeDepth(hot));
+
+        tree.setSplayInterval(4);
+        assertThrows(IllegalArgumentException.class, () -> tree.setSplayInterval(0));
+        int[] hotValues = {expected.last(), expected.ceiling(700), expected.ceiling(1300)};
+        for (int i = 0; i < 1000; i++) {
+            int value = (i % 10 == 9) ? expected.ceiling(random.nextInt(1900)) : hotValues[i % 3];
+            assertTrue(tree.contains(value));
+        }
+        for (int value : hotValues) {
+            assertTrue(tree.getNodeDepth(value) <= 5);
+        }
+        assertEquals(new ArrayList<Integer>(expected), tree.asListInOrder());
+        assertThrows(IllegalArgumentException.class, () -> new ShardedBinarySearchTree<Integer>(
+                new ArrayList<Integer>(expected), 4, BalanceMode.SPLAY, 100));
+    }
+
+    @Test
+        // Compares clustered finger operations with a TreeSet in every mode, and counts the comparisons saved
+    void testFinger() {
+        for (BalanceMode mode : BalanceMode.values()) {
+            BinarySearchTree<Integer> tree = new BinarySearchTree<Integer>(mode, true);
+            TreeSet<Integer> expected = new TreeSet<Integer>();
+            BinarySearchTree<Integer>.Finger finger = tree.finger();
+            assertNull(finger.getKey());
+            Random random = new Random(24);
+            int centre = 0;
+            for (int i = 0; i < 6000; i++) {
+                centre = (random.nextInt(50) == 0) ? random.nextInt(4000) : centre + random.nextInt(5) - 2;
+                int value = centre + random.nextInt(9);
+                switch (random.nextInt(5)) {
+                    case 0:
+                        assertEquals(expected.remove(value), finger.remove(value), mode.name());
+                        break;
+                    case 1:
+                        assertEquals(expected.add(value), tree.add(value), mode.name());
+                        break;
+                    case 2:
+                        assertEquals(expected.contains(value), finger.contains(value), mode.name());
+                        break;
+                    default:
+                        assertEquals(expected.add(value), finger.add(value), mode.name());
+                }
+                int probe = value + random.nextInt(5) - 2;
+                assertEquals(tree.getNodeDepth(probe), finger.getNodeDepth(probe), mode.name());
+                assertEquals(expected.contains(probe) ? probe : null, finger.getNode(probe).getKey());
+            }
+            assertEquals(new ArrayList<Integer>(expected), tree.asListInOrder(), mode.name());
+            assertEquals(expected.size(), tree.size());
+            assertEquals(expected.size(), tree.getRoot().getSubtreeSize());
+            assertEquals(expected.headSet(2000).size(), tree.rank(2000));
+            if (mode == BalanceMode.AVL || mode == BalanceMode.RED_BLACK) {
+                assertTrue(tree.getHeight() <= 2 * (32 - Integer.numberOfLeadingZeros(expected.size())));
+            }
+        }
+
+        BinarySearchTree<Integer> tree = new BinarySearchTree<Integer>(BalanceMode.RED_BLACK);
+        for (int value = 0; value < 1 << 14; value++) {
+            tree.add(value);
+        }
+        TreeMetrics<Integer> metrics = new TreeMetrics<Integer>();
+        tree.setListener(metrics);
+        for (int value = 0; value < 1 << 14; value++) {
+            tree.contains(value);
+        }
+        long fromRoot = metrics.getComparisonCount();
+        metrics.reset();
+        BinarySearchTree<Integer>.Finger finger = tree.finger();
+        for (int value = 0; value < 1 << 14; value++) {
+            assertTrue(finger.contains(value));
+            assertEquals(value, finger.getKey());
+        }
+        assertEquals(1 << 14, metrics.getLookupCount());
+        assertTrue(metrics.getComparisonCount() * 3 < fromRoot);
+        tree.remove(0);
+        assertNull(finger.getKey());
+        assertFalse(finger.contains(0));
+    }
+
+    @Test
+        // Checks the parent links after every kind of change, and the parents and neighbours found by following them
+    void testParentLinks() {
+        for (BalanceMode mode : BalanceMode.values()) {
+            BinarySearchTree<Integer> tree = new BinarySearchTree<Integer>(mode, true, true);
+            TreeSet<Integer> expected = new TreeSet<Integer>();
+            Random random = new Random(25);
+            for (int i = 0; i < 3000; i++) {
+                int value = random.nextInt(1000);
+                if (random.nextInt(3) == 0) {
+                    assertEquals(expected.remove(value) ? value : null, tree.removeNode(tree.getNode(value)));
+                } else {
+                    assertEquals(expected.add(value), tree.add(value));
+                }
+            }
+            checkParentLinks(tree);
+            for (int value : expected) {
+                BinarySearchTree<Integer>.NodeObj aNode = tree.getNode(value);
+                assertEquals(expected.higher(value), tree.successor(aNode).getKey(), mode.name());
+                assertEquals(expected.lower(value), tree.predecessor(aNode).getKey(), mode.name());
+                BinarySearchTree<Integer>.NodeObj parentNode = tree.getParentNode(aNode);
+                if (aNode == tree.getRoot()) {
+                    assertNull(parentNode.getKey());
+                } else {
+                    assertTrue(parentNode.getLeftChild() == aNode || parentNode.getRightChild() == aNode);
+                }
+            }
+            BinarySearchTree<Integer>.NodeObj removed = tree.getNode(expected.first());
+            assertEquals(expected.pollFirst(), tree.removeNode(removed));
+            assertNull(tree.removeNode(removed));
+            assertNull(tree.getParentNode(removed).getKey());
+
+            tree.removeRange(100, 150);
+            checkParentLinks(tree);
+            tree.removeRange(200, 950);
+            checkParentLinks(tree);
+            tree.redrawBalanced();
+            checkParentLinks(tree);
+            for (int value = 1000; value < 1200; value++) {
+                tree.add(value);
+            }
+            tree.redrawBalanced(tree.getRoot().getRightChild());
+            checkParentLinks(tree);
+            BinarySearchTree<Integer> upper = tree.split(1100);
+            checkParentLinks(tree);
+            checkParentLinks(upper);
+            tree.join(upper);
+            checkParentLinks(tree);
+            BinarySearchTree<Integer> other = new BinarySearchTree<Integer>();
+            other.addAll(Arrays.asList(1300, 1250, 1350, 1200));
+            tree.addNode(other.getRoot());
+            checkParentLinks(tree);
+            checkParentLinks(tree.union(other));
+            BinarySearchTree<Integer>.Finger finger = tree.finger();
+            for (int value = 2000; value < 2100; value++) {
+                assertTrue(finger.add(value));
+                assertTrue(finger.remove(value - 50) || value - 50 < 2000);
+            }
+            checkParentLinks(tree);
+            expected.clear();
+            expected.addAll(tree.asListInOrder());
+            BinarySearchTree<Integer>.NodeObj aNode = tree.getNode(expected.first());
+            for (int value : expected) {
+                assertEquals(value, aNode.getKey());
+                aNode = tree.successor(aNode);
+            }
+            assertNull(aNode.getKey());
+        }
+        BinarySearchTreeMap<Integer, String> map = new BinarySearchTreeMap<Integer, String>(BalanceMode.AVL, false,
+                true);
+        for (int value = 0; value < 100; value++) {
+            map.put(value, "v" + value);
+        }
+        BinarySearchTreeMap<Integer, String> upper = map.split(50);
+        assertTrue(upper.hasParentLinks());
+        checkParentLinks(upper);
+        assertEquals("v51", upper.getValue(upper.successor(upper.getNode(50))));
+        assertFalse(bst1.hasParentLinks());
+        assertEquals(bst1.asListInOrder().get(1), bst1.successor(bst1.getNode(bst1.asListInOrder().get(0))).getKey());
+    }
+
+    /**
+     * Checks that every node of a tree with parent links is linked to its parent, and that the root has none
+     * @param tree          the tree with parent links
+     */
+    void checkParentLinks(BinarySearchTree<Integer> tree) {
+        assertNull(tree.getRoot().parent());
+        ArrayDeque<BinarySearchTree<Integer>.NodeObj> stack = new ArrayDeque<BinarySearchTree<Integer>.NodeObj>();
+        stack.push(tree.getRoot());
+        while (!stack.isEmpty()) {
+            BinarySearchTree<Integer>.NodeObj aNode = stack.pop();
+            for (BinarySearchTree<Integer>.NodeObj child : Arrays.asList(aNode.left, aNode.right)) {
+                if (child != null) {
+                    assertSame(aNode, child.parent());
+                    stack.push(child);
+                }
+            }
+        }
+    }
+
+    /**
+     * Compares the queries of a view of the tree with those of a TreeSet holding the same values
+     * @param expected      the TreeSet or a view of it
+     * @param actual        the matching view of the tree
+     * @param probe         the value whose neighbours are looked up
+     */
+    void checkNavigable(NavigableSet<Integer> expected, NavigableSet<Integer> actual, int probe) {
+        assertEquals(new ArrayList<Integer>(expected), new ArrayList<Integer>(actual));
+        assertEquals(expected.size(), actual.size());
+        assertEquals(expected.isEmpty(), actual.isEmpty());
+        assertEquals(new ArrayList<Integer>(expected.descendingSet()),
+                new ArrayList<Integer>(actual.descendingSet()));
+        if (!expected.isEmpty()) {
+            assertEquals(expected.first(), actual.first());
+            assertEquals(expected.last(), actual.last());
+        }
+        assertEquals(expected.lower(probe), actual.lower(probe));
+        assertEquals(expected.floor(probe), actual.floor(probe));
+        assertEquals(expected.ceiling(probe), actual.ceiling(probe));
+        assertEquals(expected.higher(probe), actual.higher(probe));
+        assertEquals(expected.contains(probe), actual.contains(probe));
+    }
+
+    /**
+     * Adds sorted values to a self-balancing tree, removes every third of them and checks the height and the
+     * ordering of the tree after each phase
+     * @param tree          the empty tree under test
+     */
+    void checkBalancedMode(BinarySearchTree<Integer> tree) {
+        List<Integer> expected = new ArrayList<Integer>();
+        for (int value = 0; value < 1000; value++) {
+            assertTrue(tree.add(value));
+            expected.add(value);
+        }
+        assertFalse(tree.add(500));
+        assertEquals(expected, tree.asListInOrder());
+        assertTrue(tree.getHeight() <= 2 * 10);
+        for (int value = 0; value < 1000; value += 3) {
+            assertTrue(tree.remove(value));
+            expected.remove(Integer.valueOf(value));
+        }
+        assertEquals(expected, tree.asListInOrder());
+        assertTrue(tree.getHeight() <= 2 * 10);
+        assertEquals(recurHeight(tree.getRoot()), tree.getHeight());
+    }
+
+    /**
+     * @param node          the node to be measured
+     * @return              the height of the subtree calculated from scratch, checking AVL heights are not stale
+     */
+    int recurHeight(BinarySearchTree<Integer>.NodeObj node) {
+        if (node.getKey() == null) {
+            return 0;
+        }
+        return 1 + Math.max(recurHeight(node.getLeftChild()), recurHeight(node.getRightChild()));
+    }
+
+    /**
+     * @param node          the node to be checked
+     * @return              the number of black nodes on every path below the node; fails if red-black rules break
+     */
+    int recurBlackHeight(BinarySearchTree<Integer>.NodeObj node) {
+        if (node.getKey() == null) {
+            return 1;
+        }
+        if (node.red) {
+            assertFalse(node.getLeftChild().red || node.getRightChild().red);
+        }
+        int leftHeight = recurBlackHeight(node.getLeftChild());
+        assertEquals(leftHeight, recurBlackHeight(node.getRightChild()));
+        return leftHeight + (node.red ? 0 : 1);
+    }
 }
@@ -0,0 +1,87 @@
+package org.example.binarysearchtree;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * <code>CombiningBinarySearchTreeTest</code> is a JUnit test class for CombiningBinarySearchTree.
+ * @author  dawidK5
+ * @version %I%, %G%
+ */
+public class CombiningBinarySearchTreeTest {
+
+    @Test
+        // Ensures a single thread gets the same results as from the tree itself
+    void testSequentialOperations() {
+        BinarySearchTree<Integer> tree = new BinarySearchTree<Integer>();
+        CombiningBinarySearchTree<Integer> combining = new CombiningBinarySearchTree<Integer>(tree, 16);
+        assertTrue(combining.add(50));
+        assertTrue(combining.add(20));
+        assertFalse(combining.add(50));
+        CompletableFuture<Boolean> removed = combining.submitRemove(20);
+        CompletableFuture<Boolean> contained = combining.submitContains(20);
+        assertTrue(removed.join());
+        assertFalse(contained.join());
+        assertTrue(combining.contains(50));
+        assertEquals(List.of(50), tree.asListInOrder());
+        assertThrows(NullPointerException.class, () -> combining.submitAdd(null));
+        assertThrows(IllegalArgumentException.class, () -> new CombiningBinarySearchTree<Integer>(tree, 0));
+    }
+
+    @Test
+        // Stress test: for every value the successful adds minus the successful removes must be 1 if it is left in
+        // the tree and 0 otherwise
+    void testConcurrentSubmissions() throws Exception {
+        int threads = 16;
+        int keyRange = 512;
+        int operations = 20_000;
+        BinarySearchTree<Integer> tree = new BinarySearchTree<Integer>(BalanceMode.RED_BLACK);
+        CombiningBinarySearchTree<Integer> combining = new CombiningBinarySearchTree<Integer>(tree, 64);
+        AtomicIntegerArray balance = new AtomicIntegerArray(keyRange);
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        List<Future<?>> results = new ArrayList<Future<?>>();
+        for (int t = 0; t < threads; t++) {
+            long seed = t;
+            results.add(pool.submit(() -> {
+                Random random = new Random(seed);
+                start.await();
+                for (int i = 0; i < operations; i++) {
+                    int key = random.nextInt(keyRange);
+                    if (random.nextBoolean()) {
+                        combining.submitAdd(key).thenAccept(added -> {
+                            if (added) {
+                                balance.incrementAndGet(key);
+                            }
+                        }).join();
+                    } else if (combining.remove(key)) {
+                        balance.decrementAndGet(key);
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> result : results) {
+            result.get(60, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+        int expectedSize = 0;
+        for (int key = 0; key < keyRange; key++) {
+            assertEquals(balance.get(key), tree.contains(key) ? 1 : 0, "value " + key);
+            expectedSize += balance.get(key);
+        }
+        assertEquals(expectedSize, tree.size());
+    }
+}
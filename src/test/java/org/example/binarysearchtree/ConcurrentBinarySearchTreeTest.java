@@ -0,0 +1,131 @@
+package org.example.binarysearchtree;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * <code>ConcurrentBinarySearchTreeTest</code> is a JUnit test class for ConcurrentBinarySearchTree, with a stress test
+ * of many threads adding and removing the same values at once.
+ * @author  dawidK5
+ * @version %I%, %G%
+ */
+public class ConcurrentBinarySearchTreeTest {
+
+    ConcurrentBinarySearchTree<Integer> tree;
+
+    /**
+     * Makes an empty tree before each test
+     */
+    @BeforeEach
+    void setUp() {
+        tree = new ConcurrentBinarySearchTree<Integer>();
+    }
+
+    @Test
+        // Ensures a single thread sees the same results as with a sequential tree
+    void testSequentialOperations() {
+        assertTrue(tree.isEmpty());
+        assertTrue(tree.add(50));
+        assertTrue(tree.add(20));
+        assertTrue(tree.add(80));
+        assertFalse(tree.add(20));
+        assertTrue(tree.contains(80));
+        assertFalse(tree.contains(81));
+        assertEquals(List.of(20, 50, 80), tree.asListInOrder());
+        assertTrue(tree.remove(50));
+        assertFalse(tree.remove(50));
+        assertEquals(2, tree.size());
+        assertTrue(tree.remove(20));
+        assertTrue(tree.remove(80));
+        assertTrue(tree.isEmpty());
+        assertThrows(NullPointerException.class, () -> tree.add(null));
+    }
+
+    @Test
+        // Stress test: threads race to add and remove a small set of values; for every value the successful adds
+        // minus the successful removes must be 1 if it is left in the tree and 0 otherwise
+    void testConcurrentAddAndRemove() throws Exception {
+        int threads = Math.max(4, Runtime.getRuntime().availableProcessors());
+        int keyRange = 256;
+        int operations = 100_000;
+        AtomicIntegerArray balance = new AtomicIntegerArray(keyRange);
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        List<Future<?>> results = new ArrayList<Future<?>>();
+        for (int t = 0; t < threads; t++) {
+            long seed = t;
+            results.add(pool.submit(() -> {
+                Random random = new Random(seed);
+                start.await();
+                for (int i = 0; i < operations; i++) {
+                    int key = random.nextInt(keyRange);
+                    int choice = random.nextInt(3);
+                    if (choice == 0 && tree.add(key)) {
+                        balance.incrementAndGet(key);
+                    } else if (choice == 1 && tree.remove(key)) {
+                        balance.decrementAndGet(key);
+                    } else {
+                        tree.contains(key);
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> result : results) {
+            result.get(60, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+        int expectedSize = 0;
+        for (int key = 0; key < keyRange; key++) {
+            assertEquals(balance.get(key), tree.contains(key) ? 1 : 0, "value " + key);
+            expectedSize += balance.get(key);
+        }
+        List<Integer> inOrder = tree.asListInOrder();
+        assertEquals(expectedSize, inOrder.size());
+        assertEquals(expectedSize, tree.size());
+        for (int i = 1; i < inOrder.size(); i++) {
+            assertTrue(inOrder.get(i-1) < inOrder.get(i));
+        }
+    }
+
+    @Test
+        // Ensures values added by different threads to disjoint ranges are all present afterwards
+    void testConcurrentDisjointAdds() throws Exception {
+        int threads = 8;
+        int perThread = 20_000;
+        Thread[] writers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            int offset = t;
+            writers[t] = new Thread(() -> {
+                Random random = new Random(offset);
+                for (int i = 0; i < perThread; i++) {
+                    tree.add(random.nextInt(perThread) * threads + offset);
+                }
+                for (int i = 0; i < perThread; i++) {
+                    tree.add(i * threads + offset);
+                }
+            });
+            writers[t].start();
+        }
+        for (Thread writer : writers) {
+            writer.join();
+        }
+        assertEquals(threads * perThread, tree.size());
+        assertEquals(threads * perThread, tree.asListInOrder().size());
+        for (int i = 0; i < threads * perThread; i += 97) {
+            assertTrue(tree.contains(i));
+        }
+    }
+}
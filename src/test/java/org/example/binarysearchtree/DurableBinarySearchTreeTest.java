@@ -0,0 +1,164 @@
+package org.example.binarysearchtree;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+/**
+ * <code>DurableBinarySearchTreeTest</code> is a JUnit test class for DurableBinarySearchTree, recovering trees from
+ * checkpoints and logs, including logs cut short by a crash.
+ * @author  dawidK5
+ * @version %I%, %G%
+ */
+public class DurableBinarySearchTreeTest {
+
+    @Test
+        // Ensures every policy recovers the same values after reopening, with checkpoints taken on the way
+    void testRecoveryForEachPolicy(@TempDir Path directory) throws IOException {
+        for (SyncPolicy policy : SyncPolicy.values()) {
+            Path treeDirectory = directory.resolve(policy.name());
+            TreeSet<String> expected = new TreeSet<String>();
+            Random random = new Random(5);
+            try (DurableBinarySearchTree<String> tree = DurableBinarySearchTree.open(treeDirectory, KeyCodec.STRING,
+                    BalanceMode.AVL, policy, 100, 10)) {
+                for (int i = 0; i < 1000; i++) {
+                    String word = "key" + random.nextInt(300);
+                    if (random.nextInt(3) == 0) {
+                        assertEquals(expected.remove(word), tree.remove(word));
+                    } else {
+                        assertEquals(expected.add(word), tree.add(word));
+                    }
+                }
+                assertTrue(tree.setKey(expected.first(), expected.first() + "!")); // stays before the next key
+                expected.add(expected.pollFirst() + "!");
+            }
+            assertTrue(Files.exists(treeDirectory.resolve(DurableBinarySearchTree.CHECKPOINT_FILE)), policy.name());
+            try (DurableBinarySearchTree<String> tree = DurableBinarySearchTree.open(treeDirectory, KeyCodec.STRING,
+                    BalanceMode.RED_BLACK, policy)) {
+                assertEquals(new ArrayList<String>(expected), tree.asListInOrder(), policy.name());
+                assertThrows(IllegalStateException.class, () -> {
+                    tree.close();
+                    tree.add("late");
+                });
+            }
+        }
+    }
+
+    @Test
+        // Asserts a record torn by a crash is cut off and the complete records before it are kept
+    void testTornRecordIsCutOff(@TempDir Path directory) throws IOException {
+        DurableBinarySearchTree<Integer> tree = DurableBinarySearchTree.open(directory, KeyCodec.INTEGER,
+                BalanceMode.NONE, SyncPolicy.NO_SYNC);
+        for (int value = 0; value < 10; value++) {
+            tree.add(value);
+        }
+        tree.remove(4);
+        BinarySearchTree<Integer> donor = new BinarySearchTree<Integer>(new Integer[] {20, 10, 30});
+        assertEquals(20, tree.addNode(donor.getRoot()));
+        tree.close();
+        Path log = directory.resolve(DurableBinarySearchTree.LOG_FILE);
+        long length = Files.size(log);
+        try (FileChannel channel = FileChannel.open(log, StandardOpenOption.WRITE)) {
+            channel.truncate(length - 2); // the last record, adding 30 or 10, loses its checksum
+        }
+        tree = DurableBinarySearchTree.open(directory, KeyCodec.INTEGER, BalanceMode.NONE, SyncPolicy.NO_SYNC);
+        assertEquals(11, tree.size());
+        assertFalse(tree.contains(4));
+        assertTrue(tree.contains(20));
+        assertTrue(Files.size(log) < length - 2);
+        tree.add(40);
+        tree.close();
+        Files.write(log, new byte[] {0x7f, 0x7f, 0x7f, 0x7f, 1, 2}, StandardOpenOption.APPEND);
+        tree = DurableBinarySearchTree.open(directory, KeyCodec.INTEGER, BalanceMode.NONE, SyncPolicy.NO_SYNC);
+        assertEquals(12, tree.size());
+        assertTrue(tree.contains(40));
+        tree.close();
+    }
+
+    @Test
+        // Ensures a change whose record cannot be logged is undone in the tree and in the log, so the records logged
+        // after it are still recovered, under every policy
+    void testFailedRecordIsTakenBack(@TempDir Path directory) throws IOException {
+        KeyCodec<Integer> failing = new KeyCodec<Integer>() {
+            @Override
+            public int encodedSize(Integer key) {
+                return Integer.BYTES;
+            }
+
+            @Override
+            public void encode(Integer key, ByteBuffer buffer) {
+                buffer.put((byte) 1); // a record left half-written
+                if (key == 13) {
+                    throw new IllegalArgumentException("cannot encode 13");
+                }
+                buffer.position(buffer.position() - 1).putInt(key);
+            }
+
+            @Override
+            public Integer decode(ByteBuffer buffer) {
+                return buffer.getInt();
+            }
+        };
+        for (SyncPolicy policy : SyncPolicy.values()) {
+            Path treeDirectory = directory.resolve(policy.name());
+            try (DurableBinarySearchTree<Integer> tree = DurableBinarySearchTree.open(treeDirectory, failing,
+                    BalanceMode.NONE, policy)) {
+                assertTrue(tree.add(1));
+                assertThrows(IllegalArgumentException.class, () -> tree.add(13));
+                assertFalse(tree.contains(13));
+                assertTrue(tree.add(2));
+                assertTrue(tree.add(3));
+                assertThrows(IllegalArgumentException.class, () -> tree.setKey(3, 13));
+                assertTrue(tree.contains(3));
+                BinarySearchTree<Integer> donor = new BinarySearchTree<Integer>(new Integer[] {20, 13});
+                assertThrows(IllegalArgumentException.class, () -> tree.addNode(donor.getRoot()));
+                assertFalse(tree.contains(20));
+                assertTrue(tree.add(4));
+            }
+            try (DurableBinarySearchTree<Integer> tree = DurableBinarySearchTree.open(treeDirectory,
+                    KeyCodec.INTEGER, BalanceMode.NONE, policy)) {
+                assertEquals(List.of(1, 2, 3, 4), tree.asListInOrder(), policy.name());
+            }
+        }
+    }
+
+    @Test
+        // Ensures changes made by many threads with group commit are all recovered without closing the tree first
+    void testGroupCommitFromManyThreads(@TempDir Path directory) throws Exception {
+        DurableBinarySearchTree<Integer> tree = DurableBinarySearchTree.open(directory, KeyCodec.INTEGER,
+                BalanceMode.RED_BLACK, SyncPolicy.GROUP_COMMIT);
+        int threads = 8;
+        int perThread = 200;
+        List<Thread> writers = new ArrayList<Thread>();
+        for (int t = 0; t < threads; t++) {
+            int offset = t;
+            Thread writer = new Thread(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    tree.add(i * threads + offset);
+                }
+            });
+            writers.add(writer);
+            writer.start();
+        }
+        for (Thread writer : writers) {
+            writer.join();
+        }
+        DurableBinarySearchTree<Integer> recovered = DurableBinarySearchTree.open(directory, KeyCodec.INTEGER,
+                BalanceMode.AVL, SyncPolicy.GROUP_COMMIT);
+        assertEquals(threads * perThread, recovered.size());
+        assertEquals(tree.asListInOrder(), recovered.asListInOrder());
+        recovered.close();
+        tree.close();
+    }
+}
@@ -0,0 +1,83 @@
+package org.example.binarysearchtree;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.Random;
+import java.util.TreeSet;
+
+/**
+ * <code>PagedBinarySearchTreeTest</code> is a JUnit test class for PagedBinarySearchTree, using pages small enough
+ * to split often and a buffer pool small enough to evict often.
+ * @author  dawidK5
+ * @version %I%, %G%
+ */
+public class PagedBinarySearchTreeTest {
+
+    @Test
+        // Compares random adds and removes with a TreeSet, before and after reopening the file
+    void testMatchesTreeSetAndReopens(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("tree.pbt");
+        TreeSet<Long> expected = new TreeSet<Long>();
+        Random random = new Random(19);
+        try (PagedBinarySearchTree<Long> tree = PagedBinarySearchTree.open(file, KeyCodec.LONG, Long.BYTES, 128,
+                6)) {
+            assertEquals(14, tree.getLeafCapacity());
+            assertEquals(10, tree.getFanout());
+            for (int i = 0; i < 20000; i++) {
+                long value = random.nextInt(5000);
+                if (random.nextInt(3) == 0) {
+                    assertEquals(expected.remove(value), tree.remove(value));
+                } else {
+                    assertEquals(expected.add(value), tree.add(value));
+                }
+                if (i % 1000 == 0) {
+                    assertEquals(expected.contains(value + 1), tree.contains(value + 1));
+                }
+            }
+            assertEquals(expected.size(), tree.size());
+            assertEquals(new ArrayList<Long>(expected), tree.asListInOrder());
+            assertTrue(tree.getHeight() > 2);
+            assertTrue(tree.getPageWrites() > 0);
+        }
+        try (PagedBinarySearchTree<Long> tree = PagedBinarySearchTree.open(file, KeyCodec.LONG, Long.BYTES, 128,
+                6)) {
+            assertEquals(expected.size(), tree.size());
+            assertEquals(new ArrayList<Long>(expected), tree.asListInOrder());
+            assertEquals(new ArrayList<Long>(expected.subSet(1000L, true, 1500L, true)),
+                    tree.asListInRange(1000L, 1500L));
+            assertEquals(new ArrayList<Long>(expected.headSet(-1L, true)), tree.asListInRange(-5L, -1L));
+            assertFalse(tree.contains(5000L));
+        }
+        assertThrows(IOException.class, () -> PagedBinarySearchTree.open(file, KeyCodec.LONG, Long.BYTES, 256, 6));
+    }
+
+    @Test
+        // Checks a scan reads every leaf once along the links, however small the pool is
+    void testScanReadsLeavesInSequence(@TempDir Path directory) throws IOException {
+        try (PagedBinarySearchTree<Integer> tree = PagedBinarySearchTree.open(directory.resolve("tree.pbt"),
+                KeyCodec.INTEGER, Integer.BYTES, 64, 4)) {
+            for (int value = 999; value >= 0; value--) {
+                tree.add(value);
+            }
+            for (int value = 0; value < 1000; value += 2) {
+                tree.remove(value);
+            }
+            long before = tree.getPageReads();
+            Iterator<Integer> iterator = tree.iterator();
+            for (int value = 1; value < 1000; value += 2) {
+                assertEquals(value, iterator.next());
+            }
+            assertFalse(iterator.hasNext());
+            int leaves = 1000 / ((tree.getLeafCapacity() + 1) / 2) + 1;
+            assertTrue(tree.getPageReads() - before <= leaves);
+            assertThrows(IllegalArgumentException.class, () -> PagedBinarySearchTree.open(
+                    directory.resolve("small.pbt"), KeyCodec.INTEGER, Integer.BYTES, 32, 4));
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package org.example.binarysearchtree;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+/**
+ * <code>PersistentBinarySearchTreeTest</code> is a JUnit test class for PersistentBinarySearchTree and its snapshots.
+ * @author  dawidK5
+ * @version %I%, %G%
+ */
+public class PersistentBinarySearchTreeTest {
+
+    Integer[] keys = {50, 30, 70, 20, 40, 60, 80};
+    PersistentBinarySearchTree<Integer> tree;
+
+    /**
+     * Makes a tree with 7 keys, which form a perfectly balanced tree of height 3
+     */
+    @BeforeEach
+    void setUp() {
+        tree = new PersistentBinarySearchTree<Integer>(keys);
+    }
+
+    @Test
+        // Ensures a snapshot keeps its values while the tree is changed afterwards
+    void testSnapshotIsUnchanged() {
+        PersistentBinarySearchTree.Snapshot<Integer> before = tree.snapshot();
+        assertTrue(tree.add(55));
+        assertFalse(tree.add(55));
+        assertTrue(tree.remove(50));
+        assertTrue(tree.remove(20));
+        assertFalse(tree.remove(20));
+        assertEquals(List.of(20, 30, 40, 50, 60, 70, 80), before.asListInOrder());
+        assertEquals(7, before.size());
+        assertTrue(before.contains(50));
+        assertEquals(List.of(30, 40, 55, 60, 70, 80), tree.asListInOrder());
+        assertEquals(6, tree.size());
+        assertSame(tree.snapshot(), tree.snapshot());
+    }
+
+    @Test
+        // Asserts random adds and removes match a TreeSet and keep every version balanced
+    void testAgainstTreeSet() {
+        Random random = new Random(3);
+        TreeSet<Integer> expected = new TreeSet<Integer>(List.of(keys));
+        List<PersistentBinarySearchTree.Snapshot<Integer>> versions = new ArrayList<>();
+        List<List<Integer>> versionContents = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) {
+            int key = random.nextInt(2000);
+            if (random.nextBoolean()) {
+                assertEquals(expected.add(key), tree.add(key));
+            } else {
+                assertEquals(expected.remove(key), tree.remove(key));
+            }
+            if (i % 1000 == 0) {
+                versions.add(tree.snapshot());
+                versionContents.add(new ArrayList<Integer>(expected));
+            }
+        }
+        assertEquals(new ArrayList<Integer>(expected), tree.asListInOrder());
+        assertTrue(tree.getHeight() <= 1.45 * Math.log(expected.size() + 2) / Math.log(2));
+        for (int i = 0; i < versions.size(); i++) {
+            assertEquals(versionContents.get(i), versions.get(i).asListInOrder());
+        }
+    }
+
+    @Test
+        // Ensures readers see whole versions while several writers add values at the same time
+    void testConcurrentWritersAndReaders() throws InterruptedException {
+        PersistentBinarySearchTree<Integer> shared = new PersistentBinarySearchTree<Integer>();
+        int writers = 4;
+        int perWriter = 5_000;
+        Thread[] threads = new Thread[writers];
+        for (int t = 0; t < writers; t++) {
+            int offset = t;
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < perWriter; i++) {
+                    shared.add(i * writers + offset);
+                }
+            });
+            threads[t].start();
+        }
+        List<String> failures = new ArrayList<String>();
+        while (threads[0].isAlive()) {
+            PersistentBinarySearchTree.Snapshot<Integer> version = shared.snapshot();
+            int count = 0;
+            for (Integer key : version) {
+                count++;
+            }
+            if (count != version.size()) {
+                failures.add(count + " values in a snapshot of size " + version.size());
+            }
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(List.of(), failures);
+        assertEquals(writers * perWriter, shared.size());
+        assertTrue(shared.contains(writers * perWriter - 1));
+    }
+}
@@ -0,0 +1,140 @@
+package org.example.binarysearchtree;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * <code>PrimitiveBinarySearchTreeTest</code> is a JUnit test class for the primitive-specialised binary search trees:
+ * IntBinarySearchTree, LongBinarySearchTree and DoubleBinarySearchTree.
+ * @author  dawidK5
+ * @version %I%, %G%
+ */
+public class PrimitiveBinarySearchTreeTest {
+
+    int[] intKeys = {50, 30, 70, 20, 40, 60, 80};
+    IntBinarySearchTree intTree;
+    LongBinarySearchTree longTree;
+    DoubleBinarySearchTree doubleTree;
+
+    /**
+     * Makes a tree of each primitive type with the same 7 keys, which form a perfectly balanced tree of height 3
+     */
+    @BeforeEach
+    void setUp() {
+        intTree = new IntBinarySearchTree(intKeys);
+        longTree = new LongBinarySearchTree();
+        doubleTree = new DoubleBinarySearchTree();
+        for (int key : intKeys) {
+            longTree.add(key * 1_000_000_000L);
+            doubleTree.add(key / 10.0);
+        }
+    }
+
+    @Test
+        // Ensures only the unique values get added and counted
+    void testAddAndSize() {
+        assertFalse(intTree.add(50));
+        assertTrue(intTree.add(55));
+        assertEquals(8, intTree.size());
+        assertFalse(longTree.add(50_000_000_000L));
+        assertTrue(doubleTree.add(-0.0));
+        assertTrue(doubleTree.add(0.0));
+        assertEquals(9, doubleTree.size());
+    }
+
+    @Test
+        // Ensures present and absent values are recognised
+    void testContains() {
+        assertTrue(intTree.contains(40));
+        assertFalse(intTree.contains(45));
+        assertTrue(longTree.contains(80_000_000_000L));
+        assertFalse(longTree.contains(80L));
+        assertTrue(doubleTree.contains(2.0));
+        assertFalse(doubleTree.contains(Double.NaN));
+    }
+
+    @Test
+        // Asserts values can be removed, including the root with two children
+    void testRemove() {
+        assertTrue(intTree.remove(50));
+        assertFalse(intTree.remove(50));
+        assertArrayEquals(new int[] {20, 30, 40, 60, 70, 80}, intTree.asArrayInOrder());
+        assertTrue(longTree.remove(20_000_000_000L));
+        assertEquals(6, longTree.size());
+        assertTrue(doubleTree.remove(8.0));
+        assertFalse(doubleTree.contains(8.0));
+    }
+
+    @Test
+        // Asserts depth of a node and height of the tree are measured in nodes
+    void testGetNodeDepthAndHeight() {
+        assertEquals(1, intTree.getNodeDepth(50));
+        assertEquals(3, intTree.getNodeDepth(80));
+        assertEquals(-1, intTree.getNodeDepth(81));
+        assertEquals(3, longTree.getHeight());
+        assertEquals(2, doubleTree.getNodeDepth(3.0));
+    }
+
+    @Test
+        // Ensures the trees are exported as primitive arrays in all 3 orders
+    void testAsArray() {
+        assertArrayEquals(new int[] {50, 30, 20, 40, 70, 60, 80}, intTree.asArrayPreOrder());
+        assertArrayEquals(new int[] {20, 30, 40, 50, 60, 70, 80}, intTree.asArrayInOrder());
+        assertArrayEquals(new int[] {20, 40, 30, 60, 80, 70, 50}, intTree.asArrayPostOrder());
+        assertEquals(20_000_000_000L, longTree.asArrayInOrder()[0]);
+        assertArrayEquals(new double[] {2.0, 4.0, 3.0, 6.0, 8.0, 7.0, 5.0}, doubleTree.asArrayPostOrder());
+    }
+
+    @Test
+        // Ensures sorted input, e.g. timestamps, keeps the tree balanced
+    void testSortedInputStaysBalanced() {
+        LongBinarySearchTree timestamps = new LongBinarySearchTree();
+        for (long time = 0; time < 100_000; time++) {
+            timestamps.add(time);
+        }
+        assertTrue(timestamps.getHeight() <= 24);
+        for (long time = 0; time < 100_000; time += 2) {
+            timestamps.remove(time);
+        }
+        assertEquals(50_000, timestamps.size());
+        assertTrue(timestamps.getHeight() <= 23);
+        assertEquals(1L, timestamps.asArrayInOrder()[0]);
+    }
+
+    @Test
+        // Checks snapshots load back into balanced trees and primitive keys can be searched in the mapped file
+    void testSnapshots(@TempDir Path directory) throws IOException {
+        Path intFile = directory.resolve("ints.bst");
+        for (int key = 100; key < 10_000; key++) {
+            intTree.add(key);
+        }
+        intTree.writeSnapshot(intFile);
+        IntBinarySearchTree intCopy = IntBinarySearchTree.loadSnapshot(intFile);
+        assertArrayEquals(intTree.asArrayInOrder(), intCopy.asArrayInOrder());
+        assertEquals(14, intCopy.getHeight());
+        assertTrue(intCopy.add(99));
+        TreeSnapshot.IntKeys mappedInts = TreeSnapshot.mapInts(intFile);
+        assertEquals(intTree.size(), mappedInts.size());
+        assertEquals(20, mappedInts.get(0));
+        assertTrue(mappedInts.contains(9999));
+        assertFalse(mappedInts.contains(99));
+        assertEquals(7, mappedInts.rank(100));
+        Path longFile = directory.resolve("longs.bst");
+        longTree.writeSnapshot(longFile);
+        assertArrayEquals(longTree.asArrayInOrder(), LongBinarySearchTree.loadSnapshot(longFile).asArrayInOrder());
+        assertTrue(TreeSnapshot.mapLongs(longFile).contains(80_000_000_000L));
+        Path doubleFile = directory.resolve("doubles.bst");
+        doubleTree.writeSnapshot(doubleFile);
+        assertArrayEquals(doubleTree.asArrayInOrder(), TreeSnapshot.mapDoubles(doubleFile).toArray());
+        assertEquals(3, DoubleBinarySearchTree.loadSnapshot(doubleFile).getHeight());
+        assertThrows(IOException.class, () -> TreeSnapshot.mapLongs(intFile));
+        assertThrows(IOException.class, () -> DoubleBinarySearchTree.loadSnapshot(longFile));
+        new IntBinarySearchTree().writeSnapshot(intFile);
+        assertTrue(IntBinarySearchTree.loadSnapshot(intFile).isEmpty());
+    }
+}
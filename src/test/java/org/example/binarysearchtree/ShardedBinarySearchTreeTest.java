@@ -0,0 +1,90 @@
+package org.example.binarysearchtree;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+/**
+ * <code>ShardedBinarySearchTreeTest</code> is a JUnit test class for ShardedBinarySearchTree.
+ * @author  dawidK5
+ * @version %I%, %G%
+ */
+public class ShardedBinarySearchTreeTest {
+
+    @Test
+        // Checks the splitters are taken from the sample and values are listed in order across the shards
+    void testSplittersFromSample() {
+        List<Integer> sample = new ArrayList<Integer>();
+        for (int i = 0; i < 100; i++) {
+            sample.add(i * 10);
+        }
+        ShardedBinarySearchTree<Integer> tree = new ShardedBinarySearchTree<Integer>(sample, 4);
+        assertEquals(4, tree.getShardCount());
+        assertEquals(List.of(250, 500, 750), tree.getSplitters());
+        assertTrue(tree.add(900));
+        assertTrue(tree.add(-5));
+        assertTrue(tree.add(500));
+        assertTrue(tree.add(499));
+        assertFalse(tree.add(500));
+        assertEquals(List.of(-5, 499, 500, 900), tree.asListInOrder());
+        assertTrue(tree.remove(499));
+        assertFalse(tree.contains(499));
+        assertEquals(3, tree.size());
+        assertEquals(1, new ShardedBinarySearchTree<Integer>(List.of(7, 7, 7), 8).getShardCount());
+        assertThrows(NullPointerException.class, () -> tree.add(null));
+    }
+
+    @Test
+        // Ensures an oversized shard is split at its median and no value is lost
+    void testOversizedShardIsSplit() {
+        ShardedBinarySearchTree<Integer> tree =
+                new ShardedBinarySearchTree<Integer>(List.of(), 1, BalanceMode.NONE, 100);
+        Random random = new Random(13);
+        TreeSet<Integer> expected = new TreeSet<Integer>();
+        for (int i = 0; i < 5000; i++) {
+            int key = random.nextInt(10_000);
+            assertEquals(expected.add(key), tree.add(key));
+        }
+        assertTrue(tree.getShardCount() >= 5000 / 100);
+        assertEquals(new ArrayList<Integer>(expected), tree.asListInOrder());
+        assertEquals(expected.size(), tree.size());
+    }
+
+    @Test
+        // Ensures values added by many threads are all present, while shards are split under them
+    void testConcurrentIngest() throws InterruptedException {
+        int threads = 8;
+        int perThread = 10_000;
+        ShardedBinarySearchTree<Integer> tree =
+                new ShardedBinarySearchTree<Integer>(List.of(20_000, 40_000, 60_000), 4, BalanceMode.AVL, 1000);
+        Thread[] writers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            int offset = t;
+            writers[t] = new Thread(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    tree.add(i * threads + offset);
+                    if (i % 3 == 0) {
+                        tree.remove(i * threads + offset);
+                    }
+                }
+            });
+            writers[t].start();
+        }
+        for (Thread writer : writers) {
+            writer.join();
+        }
+        List<Integer> inOrder = tree.asListInOrder();
+        assertEquals(threads * (perThread - (perThread + 2) / 3), tree.size());
+        assertEquals(tree.size(), inOrder.size());
+        for (int i = 1; i < inOrder.size(); i++) {
+            assertTrue(inOrder.get(i-1) < inOrder.get(i));
+        }
+        assertTrue(tree.getShardCount() > 4);
+        assertTrue(tree.contains(threads + 1));
+        assertFalse(tree.contains(0));
+    }
+}